@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Benchmarks_Chunks_jmhType extends Benchmarks_Chunks_jmhType_B3 {
+}
+
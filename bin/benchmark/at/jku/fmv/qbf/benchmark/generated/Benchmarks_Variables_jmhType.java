@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Benchmarks_Variables_jmhType extends Benchmarks_Variables_jmhType_B3 {
+}
+
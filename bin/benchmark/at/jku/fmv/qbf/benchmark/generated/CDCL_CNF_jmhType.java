@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class CDCL_CNF_jmhType extends CDCL_CNF_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class CDCL_Skeleton_jmhType extends CDCL_Skeleton_jmhType_B3 {
+}
+
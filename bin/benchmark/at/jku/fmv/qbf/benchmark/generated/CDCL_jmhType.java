@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class CDCL_jmhType extends CDCL_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class DependencyScheme_PCNF_jmhType extends DependencyScheme_PCNF_jmhType_B3 {
+}
+
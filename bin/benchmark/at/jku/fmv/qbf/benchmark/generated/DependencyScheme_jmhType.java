@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class DependencyScheme_jmhType extends DependencyScheme_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Evaluator_Inputs_jmhType extends Evaluator_Inputs_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Evaluator_Skeleton_jmhType extends Evaluator_Skeleton_jmhType_B3 {
+}
+
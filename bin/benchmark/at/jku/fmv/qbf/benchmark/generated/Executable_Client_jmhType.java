@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Executable_Client_jmhType extends Executable_Client_jmhType_B3 {
+}
+
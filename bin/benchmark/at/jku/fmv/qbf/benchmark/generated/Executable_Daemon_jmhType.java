@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Executable_Daemon_jmhType extends Executable_Daemon_jmhType_B3 {
+}
+
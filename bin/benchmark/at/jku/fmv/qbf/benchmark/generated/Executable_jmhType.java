@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Executable_jmhType extends Executable_jmhType_B3 {
+}
+
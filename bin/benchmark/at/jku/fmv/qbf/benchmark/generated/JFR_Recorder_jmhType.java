@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class JFR_Recorder_jmhType extends JFR_Recorder_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class JFR_jmhType extends JFR_jmhType_B3 {
+}
+
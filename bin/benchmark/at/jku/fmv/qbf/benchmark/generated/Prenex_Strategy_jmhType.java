@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Prenex_Strategy_jmhType extends Prenex_Strategy_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Prenex_jmhType extends Prenex_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Preprocessor_Reductions_jmhType extends Preprocessor_Reductions_jmhType_B3 {
+}
+
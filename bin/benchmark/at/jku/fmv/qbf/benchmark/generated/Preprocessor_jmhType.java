@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class Preprocessor_jmhType extends Preprocessor_jmhType_B3 {
+}
+
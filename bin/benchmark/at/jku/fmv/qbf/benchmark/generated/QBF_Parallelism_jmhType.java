@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class QBF_Parallelism_jmhType extends QBF_Parallelism_jmhType_B3 {
+}
+
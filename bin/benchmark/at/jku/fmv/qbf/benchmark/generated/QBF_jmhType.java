@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class QBF_jmhType extends QBF_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class QCDCL_jmhType extends QCDCL_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class QCIR_jmhType extends QCIR_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class QDIMACS_Chunks_jmhType extends QDIMACS_Chunks_jmhType_B3 {
+}
+
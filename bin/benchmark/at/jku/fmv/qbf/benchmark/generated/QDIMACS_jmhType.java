@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class QDIMACS_jmhType extends QDIMACS_jmhType_B3 {
+}
+
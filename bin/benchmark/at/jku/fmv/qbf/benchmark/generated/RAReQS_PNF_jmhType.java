@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class RAReQS_PNF_jmhType extends RAReQS_PNF_jmhType_B3 {
+}
+
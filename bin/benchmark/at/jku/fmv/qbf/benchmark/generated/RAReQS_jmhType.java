@@ -0,0 +1,4 @@
+package at.jku.fmv.qbf.benchmark.generated;
+public class RAReQS_jmhType extends RAReQS_jmhType_B3 {
+}
+
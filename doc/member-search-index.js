@@ -0,0 +1 @@
+memberSearchIndex = [{"p":"at.jku.fmv.qbf","c":"QBF","l":"accept(Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.And","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.Exists","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.False","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.ForAll","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.Not","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.Or","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.True","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.Variable","l":"accept(Consumer<QBF.True>, Consumer<QBF.False>, Consumer<QBF.Variable>, Consumer<QBF.Not>, Consumer<QBF.And>, Consumer<QBF.Or>, Consumer<QBF.ForAll>, Consumer<QBF.Exists>)","u":"accept(java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer,java.util.function.Consumer)"},{"p":"at.jku.fmv.qbf","c":"QBF.And","l":"And(List<QBF>)","u":"%3Cinit%3E(java.util.List)"},{"p":"at.jku.fmv.qbf","c":"QBF.And","l":"And(QBF...)","u":"%3Cinit%3E(at.jku.fmv.qbf.QBF...)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"apply(Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF.And","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF.Exists","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF.False","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF.ForAll","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF.Not","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF.Or","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF.True","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf","c":"QBF.Variable","l":"apply(Function<QBF.True, T>, Function<QBF.False, T>, Function<QBF.Variable, T>, Function<QBF.Not, T>, Function<QBF.And, T>, Function<QBF.Or, T>, Function<QBF.ForAll, T>, Function<QBF.Exists, T>)","u":"apply(java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function,java.util.function.Function)"},{"p":"at.jku.fmv.qbf.pnf","c":"PrenexingStrategy","l":"apply(QBF)","u":"apply(at.jku.fmv.qbf.QBF)"},{"p":"at.jku.fmv.qbf.pnf","c":"ShiftingStrategy","l":"apply(QBF)","u":"apply(at.jku.fmv.qbf.QBF)"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"buffer"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"BufferTokenizer(byte[])","u":"%3Cinit%3E(byte[])"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"cleanse()"},{"p":"main","c":"Server","l":"close()"},{"p":"at.jku.fmv.qbf.io","c":"QCIR","l":"DEFAULT_CHUNK_SIZE"},{"p":"at.jku.fmv.qbf.io","c":"QDIMACS","l":"DEFAULT_CHUNK_SIZE"},{"p":"at.jku.fmv.qbf.pcnf","c":"CNFEncoder","l":"encode(QBF)","u":"encode(at.jku.fmv.qbf.QBF)"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"end"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"equals(Object)","u":"equals(java.lang.Object)"},{"p":"at.jku.fmv.qbf","c":"QBF.Exists","l":"Exists(QBF, Set<String>)","u":"%3Cinit%3E(at.jku.fmv.qbf.QBF,java.util.Set)"},{"p":"at.jku.fmv.qbf","c":"QBF.Exists","l":"Exists(QBF, String...)","u":"%3Cinit%3E(at.jku.fmv.qbf.QBF,java.lang.String...)"},{"p":"at.jku.fmv.qbf.pnf","c":"ExistsDownForAllUp","l":"ExistsDownForAllUp()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.pnf","c":"ExistsUpForAllDown","l":"ExistsUpForAllDown()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"False"},{"p":"at.jku.fmv.qbf","c":"QBF.ForAll","l":"ForAll(QBF, Set<String>)","u":"%3Cinit%3E(at.jku.fmv.qbf.QBF,java.util.Set)"},{"p":"at.jku.fmv.qbf","c":"QBF.ForAll","l":"ForAll(QBF, String...)","u":"%3Cinit%3E(at.jku.fmv.qbf.QBF,java.lang.String...)"},{"p":"at.jku.fmv.qbf.pnf","c":"ForAllDownExistsDown","l":"ForAllDownExistsDown()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.pnf","c":"ForAllDownExistsUp","l":"ForAllDownExistsUp()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.pnf","c":"ForAllUpExistsDown","l":"ForAllUpExistsDown()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.pnf","c":"ForAllUpExistsUp","l":"ForAllUpExistsUp()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.io.util","c":"SymbolTable","l":"get(int)"},{"p":"at.jku.fmv.qbf.pcnf","c":"CNFEncoder","l":"getClauses(QBF)","u":"getClauses(at.jku.fmv.qbf.QBF)"},{"p":"at.jku.fmv.qbf.pcnf","c":"PG86","l":"getClauses(QBF)","u":"getClauses(at.jku.fmv.qbf.QBF)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"getCriticalPaths(List<QBF>)","u":"getCriticalPaths(java.util.List)"},{"p":"main","c":"Server","l":"getPort()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"getQPaths()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"getSkeleton()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"hash()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"hashCode()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"hasRemaining()"},{"p":"main","c":"qcir2pnf","l":"instanceOf(String, Class<? extends T>)","u":"instanceOf(java.lang.String,java.lang.Class)"},{"p":"at.jku.fmv.qbf.io.util","c":"SymbolTable","l":"intern(BufferTokenizer)","u":"intern(at.jku.fmv.qbf.io.util.BufferTokenizer)"},{"p":"at.jku.fmv.qbf.io.util","c":"SymbolTable","l":"intern(byte[], int, int)","u":"intern(byte[],int,int)"},{"p":"at.jku.fmv.qbf.io.util","c":"SymbolTable","l":"intern(SymbolTable, int)","u":"intern(at.jku.fmv.qbf.io.util.SymbolTable,int)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isAnd"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isAnd()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isCNF"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isCNF()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isConstant"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isConstant()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"isEmpty()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isExists"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isExists()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isForAll"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isForAll()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isLiteral"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isLiteral()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isNegation"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isNegation()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isOr"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isOr()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isQuantifier"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isQuantifier()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isVariable"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"isVariable()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"isWhitespace(byte)"},{"p":"main","c":"Server","l":"join()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"length()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"limit()"},{"p":"main","c":"qcir2pnf","l":"main(String[])","u":"main(java.lang.String[])"},{"p":"at.jku.fmv.qbf.io.util","c":"Chunks","l":"map(int, int, IntFunction<T>)","u":"map(int,int,java.util.function.IntFunction)"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"matches(String)","u":"matches(java.lang.String)"},{"p":"at.jku.fmv.qbf","c":"QBF.Variable","l":"name"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"negate()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"next(char)"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"nextLine()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"nextWord()"},{"p":"at.jku.fmv.qbf","c":"QBF.Not","l":"Not(QBF)","u":"%3Cinit%3E(at.jku.fmv.qbf.QBF)"},{"p":"at.jku.fmv.qbf","c":"QBF.Or","l":"Or(List<QBF>)","u":"%3Cinit%3E(java.util.List)"},{"p":"at.jku.fmv.qbf","c":"QBF.Or","l":"Or(QBF...)","u":"%3Cinit%3E(at.jku.fmv.qbf.QBF...)"},{"p":"at.jku.fmv.qbf.io.util","c":"Chunks.Parser","l":"parse(byte[], int, int)","u":"parse(byte[],int,int)"},{"p":"at.jku.fmv.qbf.io.util","c":"Chunks","l":"parse(byte[], int[], int, Chunks.Parser<T>)","u":"parse(byte[],int[],int,at.jku.fmv.qbf.io.util.Chunks.Parser)"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"parseInt()"},{"p":"at.jku.fmv.qbf.io.util","c":"ParserException","l":"ParserException(Path, int, Throwable)","u":"%3Cinit%3E(java.nio.file.Path,int,java.lang.Throwable)"},{"p":"at.jku.fmv.qbf.io.util","c":"ParserException","l":"ParserException(Path, String)","u":"%3Cinit%3E(java.nio.file.Path,java.lang.String)"},{"p":"at.jku.fmv.qbf.io.util","c":"ParserException","l":"ParserException(Path, String, int)","u":"%3Cinit%3E(java.nio.file.Path,java.lang.String,int)"},{"p":"at.jku.fmv.qbf.io.util","c":"ParserException","l":"ParserException(Path, String, int, Throwable)","u":"%3Cinit%3E(java.nio.file.Path,java.lang.String,int,java.lang.Throwable)"},{"p":"at.jku.fmv.qbf.io.util","c":"ParserException","l":"ParserException(Path, String, Throwable)","u":"%3Cinit%3E(java.nio.file.Path,java.lang.String,java.lang.Throwable)"},{"p":"at.jku.fmv.qbf.io.util","c":"ParserException","l":"ParserException(Throwable)","u":"%3Cinit%3E(java.lang.Throwable)"},{"p":"at.jku.fmv.qbf.pcnf","c":"PG86","l":"PG86()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"position()"},{"p":"at.jku.fmv.qbf","c":"QBF.Traverse","l":"PostOrder"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"prefixToString()"},{"p":"at.jku.fmv.qbf","c":"QBF.Traverse","l":"PreOrder"},{"p":"main","c":"qcir2pnf","l":"qcir2pnf()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"quantifierToString(QBF.Quantifier)","u":"quantifierToString(at.jku.fmv.qbf.QBF.Quantifier)"},{"p":"at.jku.fmv.qbf.io","c":"QCIR","l":"read(byte[], Path)","u":"read(byte[],java.nio.file.Path)"},{"p":"at.jku.fmv.qbf.io","c":"QCIR","l":"read(Path)","u":"read(java.nio.file.Path)"},{"p":"at.jku.fmv.qbf.io","c":"QDIMACS","l":"read(Path)","u":"read(java.nio.file.Path)"},{"p":"at.jku.fmv.qbf.io","c":"QDIMACS","l":"read(Path, int, int)","u":"read(java.nio.file.Path,int,int)"},{"p":"at.jku.fmv.qbf.io","c":"QCIR","l":"readParallel(Path)","u":"readParallel(java.nio.file.Path)"},{"p":"at.jku.fmv.qbf.io","c":"QCIR","l":"readParallel(Path, int, int)","u":"readParallel(java.nio.file.Path,int,int)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"rename(Map<String, String>)","u":"rename(java.util.Map)"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"reset(int, int)","u":"reset(int,int)"},{"p":"main","c":"Server","l":"Server(int, int, int)","u":"%3Cinit%3E(int,int,int)"},{"p":"at.jku.fmv.qbf.pnf","c":"ShiftingStrategy","l":"ShiftingStrategy()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.pnf","c":"SimpleUpDownStrategy","l":"SimpleUpDownStrategy()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.io.util","c":"SymbolTable","l":"size()"},{"p":"at.jku.fmv.qbf.io.util","c":"Chunks","l":"split(byte[], int, int, int)","u":"split(byte[],int,int,int)"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"start"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"startsWith(String)","u":"startsWith(java.lang.String)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"stream(QBF.Traverse)","u":"stream(at.jku.fmv.qbf.QBF.Traverse)"},{"p":"at.jku.fmv.qbf.io.util","c":"StringTokenizer","l":"stream(String)","u":"stream(java.lang.String)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"streamBoundVariables()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"streamFreeVariables()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"streamPrefix()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"streamQPaths()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"streamVariables()"},{"p":"at.jku.fmv.qbf.io.util","c":"StringTokenizer","l":"StringTokenizer(char)","u":"%3Cinit%3E(char)"},{"p":"at.jku.fmv.qbf","c":"QBF.UnaryOperator","l":"subformula"},{"p":"at.jku.fmv.qbf","c":"QBF.MultiaryOperator","l":"subformulas"},{"p":"at.jku.fmv.qbf.io.util","c":"SymbolTable","l":"SymbolTable()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf","c":"QBF.Terminal","l":"Terminal()","u":"%3Cinit%3E()"},{"p":"at.jku.fmv.qbf.io.util","c":"StringTokenizer","l":"tokenize(String)","u":"tokenize(java.lang.String)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"toNNF()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"toPCNF(PrenexingStrategy, CNFEncoder)","u":"toPCNF(at.jku.fmv.qbf.pnf.PrenexingStrategy,at.jku.fmv.qbf.pcnf.CNFEncoder)"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"toPNF(PrenexingStrategy)","u":"toPNF(at.jku.fmv.qbf.pnf.PrenexingStrategy)"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"toString()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"toString()"},{"p":"at.jku.fmv.qbf.io.util","c":"BufferTokenizer","l":"trim()"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"True"},{"p":"at.jku.fmv.qbf","c":"QBF","l":"unifyPrefix()"},{"p":"at.jku.fmv.qbf","c":"QBF.Traverse","l":"valueOf(String)","u":"valueOf(java.lang.String)"},{"p":"at.jku.fmv.qbf","c":"QBF.Traverse","l":"values()"},{"p":"at.jku.fmv.qbf","c":"QBF.Variable","l":"Variable(String)","u":"%3Cinit%3E(java.lang.String)"},{"p":"at.jku.fmv.qbf","c":"QBF.Quantifier","l":"variables"},{"p":"at.jku.fmv.qbf.io","c":"QDIMACS","l":"write(QBF, BufferedWriter)","u":"write(at.jku.fmv.qbf.QBF,java.io.BufferedWriter)"},{"p":"at.jku.fmv.qbf.io","c":"QCIR","l":"write(QBF, BufferedWriter, boolean)","u":"write(at.jku.fmv.qbf.QBF,java.io.BufferedWriter,boolean)"},{"p":"at.jku.fmv.qbf.io","c":"QDIMACS","l":"write(QBF, Path)","u":"write(at.jku.fmv.qbf.QBF,java.nio.file.Path)"},{"p":"at.jku.fmv.qbf.io","c":"QCIR","l":"write(QBF, Path, boolean)","u":"write(at.jku.fmv.qbf.QBF,java.nio.file.Path,boolean)"},{"p":"at.jku.fmv.qbf.io","c":"QCIR","l":"writeParallel(QBF, Path, boolean)","u":"writeParallel(at.jku.fmv.qbf.QBF,java.nio.file.Path,boolean)"}];updateSearchResults();
\ No newline at end of file
@@ -0,0 +1 @@
+packageSearchIndex = [{"l":"All Packages","u":"allpackages-index.html"},{"l":"at.jku.fmv.qbf"},{"l":"at.jku.fmv.qbf.io"},{"l":"at.jku.fmv.qbf.io.util"},{"l":"at.jku.fmv.qbf.pcnf"},{"l":"at.jku.fmv.qbf.pnf"},{"l":"main"}];updateSearchResults();
\ No newline at end of file
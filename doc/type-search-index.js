@@ -0,0 +1 @@
+typeSearchIndex = [{"l":"All Classes and Interfaces","u":"allclasses-index.html"},{"p":"at.jku.fmv.qbf","l":"QBF.And"},{"p":"at.jku.fmv.qbf.io.util","l":"BufferTokenizer"},{"p":"at.jku.fmv.qbf.io.util","l":"Chunks"},{"p":"at.jku.fmv.qbf.pcnf","l":"CNFEncoder"},{"p":"at.jku.fmv.qbf","l":"QBF.Exists"},{"p":"at.jku.fmv.qbf.pnf","l":"ExistsDownForAllUp"},{"p":"at.jku.fmv.qbf.pnf","l":"ExistsUpForAllDown"},{"p":"at.jku.fmv.qbf","l":"QBF.False"},{"p":"at.jku.fmv.qbf","l":"QBF.ForAll"},{"p":"at.jku.fmv.qbf.pnf","l":"ForAllDownExistsDown"},{"p":"at.jku.fmv.qbf.pnf","l":"ForAllDownExistsUp"},{"p":"at.jku.fmv.qbf.pnf","l":"ForAllUpExistsDown"},{"p":"at.jku.fmv.qbf.pnf","l":"ForAllUpExistsUp"},{"p":"at.jku.fmv.qbf","l":"QBF.MultiaryOperator"},{"p":"at.jku.fmv.qbf","l":"QBF.Not"},{"p":"at.jku.fmv.qbf","l":"QBF.Or"},{"p":"at.jku.fmv.qbf.io.util","l":"Chunks.Parser"},{"p":"at.jku.fmv.qbf.io.util","l":"ParserException"},{"p":"at.jku.fmv.qbf.pcnf","l":"PG86"},{"p":"at.jku.fmv.qbf.pnf","l":"PrenexingStrategy"},{"p":"at.jku.fmv.qbf","l":"QBF"},{"p":"at.jku.fmv.qbf.io","l":"QCIR"},{"p":"main","l":"qcir2pnf"},{"p":"at.jku.fmv.qbf.io","l":"QDIMACS"},{"p":"at.jku.fmv.qbf","l":"QBF.Quantifier"},{"p":"main","l":"Server"},{"p":"at.jku.fmv.qbf.pnf","l":"ShiftingStrategy"},{"p":"at.jku.fmv.qbf.pnf","l":"SimpleUpDownStrategy"},{"p":"at.jku.fmv.qbf.io.util","l":"StringTokenizer"},{"p":"at.jku.fmv.qbf.io.util","l":"SymbolTable"},{"p":"at.jku.fmv.qbf","l":"QBF.Terminal"},{"p":"at.jku.fmv.qbf","l":"QBF.Traverse"},{"p":"at.jku.fmv.qbf","l":"QBF.True"},{"p":"at.jku.fmv.qbf","l":"QBF.UnaryOperator"},{"p":"at.jku.fmv.qbf","l":"QBF.Variable"}];updateSearchResults();
\ No newline at end of file
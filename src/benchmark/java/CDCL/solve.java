@@ -0,0 +1,15 @@
+package CDCL;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.CDCL;
+
+public class solve {
+	public static void main(String[] args) throws Exception {
+		Options opt = CDCL.getOptions()
+			.param("parse", "true")
+			.build();
+		new Runner(opt).run();
+	}
+}
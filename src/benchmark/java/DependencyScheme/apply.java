@@ -0,0 +1,15 @@
+package DependencyScheme;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.DependencyScheme;
+
+public class apply {
+	public static void main(String[] args) throws Exception {
+		Options opt = DependencyScheme.getOptions()
+			.param("parse", "true")
+			.build();
+		new Runner(opt).run();
+	}
+}
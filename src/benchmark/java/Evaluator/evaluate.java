@@ -0,0 +1,15 @@
+package Evaluator;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.Evaluator;
+
+public class evaluate {
+	public static void main(String[] args) throws Exception {
+		Options opt = Evaluator.getOptions()
+			.param("parse", "true")
+			.build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,13 @@
+package JFR;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.JFR;
+
+public class emit {
+	public static void main(String[] args) throws Exception {
+		Options opt = JFR.getOptions().build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,15 @@
+package JFR;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.JFR;
+
+public class recordNNF {
+	public static void main(String[] args) throws Exception {
+		Options opt = JFR.getOptions()
+			.param("parse", "true")
+			.build();
+		new Runner(opt).run();
+	}
+}
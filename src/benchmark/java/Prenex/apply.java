@@ -0,0 +1,15 @@
+package Prenex;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.Prenex;
+
+public class apply {
+	public static void main(String[] args) throws Exception {
+		Options opt = Prenex.getOptions()
+			.param("parse", "true")
+			.build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,15 @@
+package Preprocessor;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.Preprocessor;
+
+public class apply {
+	public static void main(String[] args) throws Exception {
+		Options opt = Preprocessor.getOptions()
+			.param("parse", "true")
+			.build();
+		new Runner(opt).run();
+	}
+}
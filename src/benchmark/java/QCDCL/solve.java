@@ -0,0 +1,15 @@
+package QCDCL;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.QCDCL;
+
+public class solve {
+	public static void main(String[] args) throws Exception {
+		Options opt = QCDCL.getOptions()
+			.param("parse", "true")
+			.build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,15 @@
+package QCIR;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.QCIR;
+
+public class readParallel {
+	public static void main(String[] args) throws Exception {
+		Options opt = QCIR.getOptions()
+			.param("threads", QCIR.getThreads())
+			.build();
+		new Runner(opt).run();
+	}
+}
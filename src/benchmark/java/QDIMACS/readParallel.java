@@ -0,0 +1,15 @@
+package QDIMACS;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.QDIMACS;
+
+public class readParallel {
+	public static void main(String[] args) throws Exception {
+		Options opt = QDIMACS.getOptions()
+			.param("threads", QDIMACS.getThreads())
+			.build();
+		new Runner(opt).run();
+	}
+}
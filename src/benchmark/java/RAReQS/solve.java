@@ -0,0 +1,15 @@
+package RAReQS;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.RAReQS;
+
+public class solve {
+	public static void main(String[] args) throws Exception {
+		Options opt = RAReQS.getOptions()
+			.param("parse", "true")
+			.build();
+		new Runner(opt).run();
+	}
+}
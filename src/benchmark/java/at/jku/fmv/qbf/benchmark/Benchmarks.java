@@ -7,7 +7,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Properties;
 import java.util.stream.Collectors;
 
@@ -49,6 +51,14 @@ public abstract class Benchmarks {
 		}
 	}
 
+	@State(Scope.Benchmark)
+	public static class Chunks {
+		@Param("1")
+		public int threads;
+		@Param("1048576")
+		public int chunkSize;
+	}
+
 	public static Properties properties = new Properties();
 	static {
 		String propertiesFile = "benchmark.properties";
@@ -91,6 +101,16 @@ public abstract class Benchmarks {
 		return tmp;
 	}
 
+	// 1, 2, 4, ..., #cores
+	public static String[] getThreads() {
+		int cores = Runtime.getRuntime().availableProcessors();
+		List<String> threads = new ArrayList<>();
+		for (int i = 1; i < cores; i <<= 1)
+			threads.add(Integer.toString(i));
+		threads.add(Integer.toString(cores));
+		return threads.toArray(new String[threads.size()]);
+	}
+
 	public static TestSet getTestSet() {
 		return new TestSet(
 			Paths.get(properties.getProperty("testset_dir")),
@@ -0,0 +1,59 @@
+package at.jku.fmv.qbf.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.And;
+import at.jku.fmv.qbf.pcnf.PG86;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CDCL extends Benchmarks {
+
+	@State(Scope.Benchmark)
+	public static class CNF {
+		public QBF cnf;
+
+		@Setup(Level.Trial)
+		public void setup(Variables v) {
+			// encode upfront to measure the solver only
+			QBF skeleton = v.formula.getSkeleton()
+				.assign(Collections.emptyMap());
+			List<QBF> clauses = skeleton.isConstant()
+				? null
+				: new PG86().getClauses(skeleton.toNNF());
+			cnf = clauses == null || clauses.size() < 2
+				? skeleton
+				: new And(clauses);
+
+			// report result and search statistics once per instance
+			at.jku.fmv.qbf.solver.CDCL solver =
+				new at.jku.fmv.qbf.solver.CDCL();
+			long start = System.nanoTime();
+			boolean result = solver.solve(cnf);
+			long time = Math.max(1, System.nanoTime() - start);
+
+			System.out.println();
+			System.out.println("result: " + result);
+			System.out.println("variables: " + solver.getNumVariables());
+			System.out.println("decisions: " + solver.getDecisions());
+			System.out.println("conflicts: " + solver.getConflicts());
+			System.out.println("propagations: " + solver.getPropagations());
+			System.out.println(
+				"propagations/s: "
+				+ solver.getPropagations() * 1_000_000_000L / time);
+		}
+	}
+
+	@Benchmark
+	public boolean solve(CNF c) {
+		return new at.jku.fmv.qbf.solver.CDCL().solve(c.cnf);
+	}
+}
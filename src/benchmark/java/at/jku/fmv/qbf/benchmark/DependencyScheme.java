@@ -0,0 +1,48 @@
+package at.jku.fmv.qbf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.pcnf.DependencyScheme.Type;
+import at.jku.fmv.qbf.pcnf.PG86;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DependencyScheme extends Benchmarks {
+
+	@State(Scope.Benchmark)
+	public static class PCNF {
+		@Param({"Standard", "ReflexiveResolutionPath"})
+		public Type type;
+
+		public QBF pcnf;
+
+		@Setup(Level.Trial)
+		public void setup(Variables v) {
+			pcnf = v.formula.getSkeleton().isCNF()
+				? v.formula
+				: v.formula.toPCNF(new ForAllUpExistsUp(), new PG86());
+
+			// report dependencies once per instance
+			at.jku.fmv.qbf.pcnf.DependencyScheme scheme =
+				new at.jku.fmv.qbf.pcnf.DependencyScheme(pcnf, type);
+
+			System.out.println();
+			System.out.println(
+				"dependencies: " + scheme.getTrivialSize()
+				+ " -> " + scheme.size());
+		}
+	}
+
+	@Benchmark
+	public void apply(PCNF p, Blackhole hole) {
+		hole.consume(new at.jku.fmv.qbf.pcnf.DependencyScheme(p.pcnf, p.type));
+	}
+}
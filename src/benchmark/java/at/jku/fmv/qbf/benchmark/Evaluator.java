@@ -0,0 +1,54 @@
+package at.jku.fmv.qbf.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import at.jku.fmv.qbf.QBF;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Evaluator extends Benchmarks {
+
+	@State(Scope.Benchmark)
+	public static class Skeleton {
+		public QBF skeleton;
+
+		@Setup(Level.Trial)
+		public void setup(Variables v) {
+			skeleton = v.formula.getSkeleton();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Inputs {
+		public at.jku.fmv.qbf.eval.Evaluator evaluator;
+		public long[] words;
+
+		@Setup(Level.Trial)
+		public void setup(Skeleton s) {
+			evaluator = new at.jku.fmv.qbf.eval.Evaluator(s.skeleton);
+			words = new Random(0)
+				.longs(evaluator.getVariables().size())
+				.toArray();
+		}
+	}
+
+	@Benchmark
+	public void compile(Skeleton s, Blackhole hole) {
+		hole.consume(new at.jku.fmv.qbf.eval.Evaluator(s.skeleton));
+	}
+
+	// 64 assignments per operation
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public long evaluate(Inputs in) {
+		return in.evaluator.evaluate(in.words);
+	}
+}
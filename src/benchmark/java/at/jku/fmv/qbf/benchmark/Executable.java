@@ -1,10 +1,19 @@
 package at.jku.fmv.qbf.benchmark;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
 
+import main.Server;
 import main.qcir2pnf;
 
 @BenchmarkMode(Mode.SingleShotTime)
@@ -14,6 +23,49 @@ import main.qcir2pnf;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class Executable extends Benchmarks {
 
+	@State(Scope.Benchmark)
+	public static class Daemon {
+		@Param("1")
+		public int workers;
+
+		public Server server;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			server = new Server(0, workers, workers);
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			server.close();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Client {
+		public Socket socket;
+		public BufferedReader in;
+		public BufferedWriter out;
+
+		@Setup(Level.Trial)
+		public void setup(Daemon daemon) throws IOException {
+			socket = new Socket(
+				InetAddress.getLoopbackAddress(),
+				daemon.server.getPort());
+			in = new BufferedReader(new InputStreamReader(
+				socket.getInputStream(),
+				StandardCharsets.UTF_8));
+			out = new BufferedWriter(new OutputStreamWriter(
+				socket.getOutputStream(),
+				StandardCharsets.UTF_8));
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() throws IOException {
+			socket.close();
+		}
+	}
+
 	@Benchmark
 	public void qcir2pnf(Variables v) throws IOException {
 		qcir2pnf.main(new String[] {
@@ -21,4 +73,26 @@ public class Executable extends Benchmarks {
 			createTempFile("qcir2pnf", ".qcir").toString()
 		});
 	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 5)
+	@Fork(value = 1)
+	public void qcir2pnfServer(
+		Variables v,
+		Daemon d,
+		Client c,
+		Blackhole b
+	) throws IOException {
+		c.out.write(v.file + "\n");
+		c.out.flush();
+
+		String line = c.in.readLine();
+		if (!line.equals("ok"))
+			throw new IllegalStateException(line);
+
+		while (!(line = c.in.readLine()).equals("."))
+			b.consume(line);
+	}
 }
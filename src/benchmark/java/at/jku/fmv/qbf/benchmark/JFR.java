@@ -0,0 +1,74 @@
+package at.jku.fmv.qbf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jdk.jfr.Recording;
+
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JFR extends Benchmarks {
+
+	@State(Scope.Benchmark)
+	public static class Recorder {
+		@Param({"false", "true"})
+		public boolean recording;
+
+		public Recording jfr;
+
+		// x ∧ ¬(∀y: x ∨ y)
+		public at.jku.fmv.qbf.QBF formula = new And(
+			new Variable("x"),
+			new Not(
+				new ForAll(
+					new Or(new Variable("x"), new Variable("y")),
+					"y")));
+
+		@Setup(Level.Trial)
+		public void setup() {
+			if (!recording) return;
+
+			jfr = new Recording();
+			jfr.enable(FormulaEvent.NNF.class);
+			jfr.start();
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			if (jfr == null) return;
+
+			jfr.stop();
+			jfr.close();
+		}
+	}
+
+	@Benchmark
+	public void baseline(Recorder r, Blackhole hole) {
+		hole.consume(r.formula);
+	}
+
+	@Benchmark
+	public void emit(Recorder r, Blackhole hole) {
+		FormulaEvent event = new FormulaEvent.NNF();
+		event.begin();
+		hole.consume(r.formula);
+		event.end(r.formula, r.formula);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 5)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void recordNNF(Variables v, Recorder r, Blackhole hole) {
+		hole.consume(v.formula.toNNF());
+	}
+}
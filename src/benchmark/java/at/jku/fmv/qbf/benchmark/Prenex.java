@@ -0,0 +1,57 @@
+package at.jku.fmv.qbf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.pnf.MinimalDependencies;
+import at.jku.fmv.qbf.pnf.PrenexingStrategy;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Prenex extends Benchmarks {
+
+	@State(Scope.Benchmark)
+	public static class Strategy {
+		@Param({
+			"ExistsDownForAllUp",
+			"ExistsUpForAllDown",
+			"ForAllDownExistsDown",
+			"ForAllDownExistsUp",
+			"ForAllUpExistsDown",
+			"ForAllUpExistsUp",
+			"MinimalDependencies"})
+		public String strategy;
+
+		public PrenexingStrategy instance;
+		public QBF nnf;
+
+		@Setup(Level.Trial)
+		public void setup(Variables v) throws ReflectiveOperationException {
+			instance = (PrenexingStrategy)
+				Class.forName("at.jku.fmv.qbf.pnf." + strategy)
+					.getDeclaredConstructor()
+					.newInstance();
+			nnf = v.formula.cleanse().toNNF();
+
+			// report spurious dependencies once per instance
+			QBF pnf = instance.apply(nnf);
+
+			System.out.println();
+			System.out.println(
+				"spurious dependencies: "
+				+ MinimalDependencies.countSpuriousDependencies(nnf, pnf)
+				+ " (prefix length " + pnf.getPrefixLength() + ")");
+		}
+	}
+
+	@Benchmark
+	public void apply(Strategy s, Blackhole hole) {
+		hole.consume(s.instance.apply(s.nnf));
+	}
+}
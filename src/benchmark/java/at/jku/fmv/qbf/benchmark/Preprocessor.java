@@ -0,0 +1,77 @@
+package at.jku.fmv.qbf.benchmark;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.And;
+import at.jku.fmv.qbf.pcnf.PG86;
+import at.jku.fmv.qbf.pcnf.Preprocessor.Technique;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Preprocessor extends Benchmarks {
+
+	@State(Scope.Benchmark)
+	public static class PCNF {
+		@Param({"false", "true"})
+		public boolean elimination;
+
+		public QBF pcnf;
+		public Set<Technique> techniques;
+
+		@Setup(Level.Trial)
+		public void setup(Variables v) {
+			pcnf = v.formula.getSkeleton().isCNF()
+				? v.formula
+				: v.formula.toPCNF(new ForAllUpExistsUp(), new PG86());
+
+			techniques = EnumSet.allOf(Technique.class);
+			if (!elimination)
+				techniques.removeAll(EnumSet.of(
+					Technique.BlockedClauses,
+					Technique.VariableElimination));
+
+			// report reductions once per instance
+			at.jku.fmv.qbf.pcnf.Preprocessor preprocessor =
+				new at.jku.fmv.qbf.pcnf.Preprocessor(techniques);
+			QBF result = preprocessor.apply(pcnf);
+
+			System.out.println();
+			System.out.println(
+				"clauses: " + countClauses(pcnf)
+				+ " -> " + countClauses(result));
+			System.out.println(
+				"variables: " + countVariables(pcnf)
+				+ " -> " + countVariables(result));
+			for (Technique t : techniques)
+				System.out.println(t + ": " + preprocessor.getCount(t));
+		}
+
+		static long countClauses(QBF pcnf) {
+			QBF matrix = pcnf.getSkeleton();
+			return matrix.isAnd()
+				? ((And) matrix).subformulas.size()
+				: matrix.isConstant() ? 0 : 1;
+		}
+
+		static long countVariables(QBF pcnf) {
+			return pcnf.getBoundVariables().size()
+				+ pcnf.getFreeVariables().size();
+		}
+	}
+
+	@Benchmark
+	public void apply(PCNF p, Blackhole hole) {
+		hole.consume(
+			new at.jku.fmv.qbf.pcnf.Preprocessor(p.techniques).apply(p.pcnf));
+	}
+}
@@ -2,6 +2,7 @@ package at.jku.fmv.qbf.benchmark;
 
 import java.util.HashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
@@ -17,33 +18,51 @@ import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
 public class QBF extends Benchmarks {
 
+	@State(Scope.Benchmark)
+	public static class Parallelism {
+		@Param({"false", "true"})
+		public boolean parallel;
+
+		public <T> Stream<T> apply(Stream<T> stream) {
+			return parallel ? stream.parallel() : stream;
+		}
+	}
+
 	@Benchmark
-	public void stream(Variables v, Blackhole hole) {
-		v.formula.stream(Traverse.PostOrder)
+	public void stream(Variables v, Parallelism p, Blackhole hole) {
+		p.apply(v.formula.stream(Traverse.PostOrder))
 			.forEach(o -> hole.consume(o));
 	}
 
 	@Benchmark
-	public void streamVariables(Variables v, Blackhole hole) {
-		v.formula.streamVariables()
+	public void streamVariables(Variables v, Parallelism p, Blackhole hole) {
+		p.apply(v.formula.streamVariables())
 			.forEach(o -> hole.consume(o));
 	}
 
 	@Benchmark
-	public void streamBoundVariables(Variables v, Blackhole hole) {
-		v.formula.streamBoundVariables()
+	public void streamBoundVariables(
+		Variables v,
+		Parallelism p,
+		Blackhole hole
+	) {
+		p.apply(v.formula.streamBoundVariables())
 			.forEach(o -> hole.consume(o));
 	}
 
 	@Benchmark
-	public void streamFreeVariables(Variables v, Blackhole hole) {
-		v.formula.streamBoundVariables()
+	public void streamFreeVariables(
+		Variables v,
+		Parallelism p,
+		Blackhole hole
+	) {
+		p.apply(v.formula.streamFreeVariables())
 			.forEach(o -> hole.consume(o));
 	}
 
 	@Benchmark
-	public void streamQPaths(Variables v, Blackhole hole) {
-		v.formula.streamQPaths()
+	public void streamQPaths(Variables v, Parallelism p, Blackhole hole) {
+		p.apply(v.formula.streamQPaths())
 			.forEach(o -> hole.consume(o));
 	}
 
@@ -80,6 +99,11 @@ public class QBF extends Benchmarks {
 		hole.consume(v.formula.toNNF());
 	}
 
+	@Benchmark
+	public void decompose(Variables v, Blackhole hole) {
+		hole.consume(v.formula.decompose());
+	}
+
 	@Benchmark
 	public void toPNF(Variables v, Blackhole hole) {
 		hole.consume(v.formula.toPNF(new ForAllUpExistsUp()));
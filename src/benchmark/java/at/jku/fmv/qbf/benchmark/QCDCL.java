@@ -0,0 +1,47 @@
+package at.jku.fmv.qbf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.pcnf.PG86;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QCDCL extends Benchmarks {
+
+	@State(Scope.Benchmark)
+	public static class PCNF {
+		public QBF pcnf;
+
+		@Setup(Level.Trial)
+		public void setup(Variables v) {
+			pcnf = v.formula.getSkeleton().isCNF()
+				? v.formula
+				: v.formula.toPCNF(new ForAllUpExistsUp(), new PG86());
+
+			// report result and search statistics once per instance
+			at.jku.fmv.qbf.solver.QCDCL solver =
+				new at.jku.fmv.qbf.solver.QCDCL();
+			boolean result = solver.solve(pcnf);
+
+			System.out.println();
+			System.out.println("result: " + result);
+			System.out.println("decisions: " + solver.getDecisions());
+			System.out.println("propagations: " + solver.getPropagations());
+			System.out.println("conflicts: " + solver.getConflicts());
+			System.out.println("solutions: " + solver.getSolutions());
+			System.out.println("restarts: " + solver.getRestarts());
+		}
+	}
+
+	@Benchmark
+	public boolean solve(PCNF p) {
+		return new at.jku.fmv.qbf.solver.QCDCL().solve(p.pcnf);
+	}
+}
@@ -18,6 +18,18 @@ public class QCIR extends Benchmarks {
 		hole.consume(at.jku.fmv.qbf.io.QCIR.read(v.file));
 	}
 
+	@Benchmark
+	public void readCone(Variables v, Blackhole hole) throws IOException {
+		hole.consume(at.jku.fmv.qbf.io.QCIR.readCone(v.file));
+	}
+
+	@Benchmark
+	public void readParallel(Variables v, Chunks c, Blackhole hole)
+	throws IOException {
+		hole.consume(
+			at.jku.fmv.qbf.io.QCIR.readParallel(v.file, c.chunkSize, c.threads));
+	}
+
 	@Benchmark
 	public void write(Variables v) throws IOException {
 		at.jku.fmv.qbf.io.QCIR
@@ -18,6 +18,13 @@ public class QDIMACS extends Benchmarks {
 		hole.consume(at.jku.fmv.qbf.io.QDIMACS.read(v.file));
 	}
 
+	@Benchmark
+	public void readParallel(Variables v, Chunks c, Blackhole hole)
+	throws IOException {
+		hole.consume(
+			at.jku.fmv.qbf.io.QDIMACS.read(v.file, c.chunkSize, c.threads));
+	}
+
 	@Benchmark
 	public void write(Variables v) throws IOException {
 		at.jku.fmv.qbf.io.QDIMACS
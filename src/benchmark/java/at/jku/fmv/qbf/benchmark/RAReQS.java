@@ -0,0 +1,42 @@
+package at.jku.fmv.qbf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RAReQS extends Benchmarks {
+
+	@State(Scope.Benchmark)
+	public static class PNF {
+		public QBF pnf;
+
+		@Setup(Level.Trial)
+		public void setup(Variables v) {
+			pnf = v.formula.toPNF(new ForAllUpExistsUp());
+
+			// report result and search statistics once per instance
+			at.jku.fmv.qbf.solver.RAReQS solver =
+				new at.jku.fmv.qbf.solver.RAReQS();
+			boolean result = solver.solve(pnf);
+
+			System.out.println();
+			System.out.println("result: " + result);
+			System.out.println("games: " + solver.getGames());
+			System.out.println("refinements: " + solver.getRefinements());
+			System.out.println("SAT calls: " + solver.getSATCalls());
+		}
+	}
+
+	@Benchmark
+	public boolean solve(PNF p) {
+		return new at.jku.fmv.qbf.solver.RAReQS().solve(p.pnf);
+	}
+}
@@ -0,0 +1,15 @@
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+
+import at.jku.fmv.qbf.benchmark.Executable;
+
+public class qcir2pnfServer {
+	public static void main(String[] args) throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		Options opt = Executable.getOptions()
+			.param("workers", Integer.toString(cores))
+			.threads(cores)
+			.build();
+		new Runner(opt).run();
+	}
+}
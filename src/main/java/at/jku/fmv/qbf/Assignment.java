@@ -0,0 +1,191 @@
+package at.jku.fmv.qbf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import at.jku.fmv.qbf.QBF.*;
+
+/**
+ * Substitution of boolean constants for variables.
+ * <p>
+ * Constants are propagated bottom-up through the formula's DAG, where every
+ * node is processed exactly once:
+ * <ul>
+ *   <li>{@code ¬⊤ → ⊥}, {@code ¬⊥ → ⊤}, {@code ¬¬ϕ → ϕ}
+ *   <li>{@code ⊤ ∧ ϕ → ϕ}, {@code ⊥ ∧ ϕ → ⊥} (dually for {@code ∨})
+ *   <li>{@code Qx: c → c} for constants {@code c}
+ *   <li>assigned variables are removed from their quantifiers
+ * </ul>
+ * Unaffected subformulas are returned as is, preserving sharing.
+ * Finally, quantified variables which vanished from the resulting formula
+ * are removed from their quantifiers.
+ *
+ * @author phlo
+ */
+final class Assignment {
+
+	private Assignment() {}
+
+	/**
+	 * Applies a given assignment.
+	 *
+	 * @param formula a {@link QBF}
+	 * @param assignment maps variables to their values
+	 * @return the simplified formula
+	 */
+	static QBF apply(QBF formula, Map<String, Boolean> assignment) {
+		QBF assigned = transform(
+			formula,
+			var -> {
+				Boolean value = assignment.get(var.name);
+				return value == null ? var : value ? QBF.True : QBF.False;
+			},
+			v -> assignment.get(v) != null);
+
+		// drop quantified variables without occurrences
+		Set<String> occurring = new HashSet<>();
+		Set<String> quantified = new HashSet<>();
+		Set<QBF> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(assigned);
+		while (!stack.isEmpty()) {
+			QBF node = stack.pop();
+			if (!visited.add(node))
+				continue;
+			if (node instanceof Variable)
+				occurring.add(((Variable) node).name);
+			else if (node.isQuantifier())
+				quantified.addAll(((Quantifier) node).variables);
+			Attributes.getChildren(node).forEach(stack::push);
+		}
+
+		return occurring.containsAll(quantified)
+			? assigned
+			: transform(assigned, var -> var, v -> !occurring.contains(v));
+	}
+
+	// memoized bottom-up transformation
+	private static QBF transform(
+		QBF formula,
+		Function<Variable, QBF> variable,
+		Predicate<String> removed
+	) {
+		Map<QBF, QBF> results = new IdentityHashMap<>();
+
+		// iterative post-order traversal - formulas may be deep
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(formula);
+		while (!stack.isEmpty()) {
+			QBF node = stack.peek();
+
+			if (results.containsKey(node)) {
+				stack.pop();
+				continue;
+			}
+
+			List<QBF> children = Attributes.getChildren(node);
+
+			boolean finished = true;
+			for (QBF child : children)
+				if (!results.containsKey(child)) {
+					stack.push(child);
+					finished = false;
+				}
+
+			if (!finished) continue;
+
+			stack.pop();
+
+			results.put(node, node.apply(
+				(True t) -> t,
+				(False f) -> f,
+				(Variable var) -> variable.apply(var),
+				(Not not) -> {
+					QBF sub = results.get(not.subformula);
+					return sub == QBF.True
+						? QBF.False
+						: sub == QBF.False
+							? QBF.True
+							: sub == not.subformula
+								? not
+								// collapsed gates may leave a double negation
+								: sub instanceof Not
+									? ((Not) sub).subformula
+									: new Not(sub);
+				},
+				(And and) -> simplify(and, results, QBF.True, QBF.False),
+				(Or or) -> simplify(or, results, QBF.False, QBF.True),
+				(ForAll forall) -> simplify(forall, results, removed),
+				(Exists exists) -> simplify(exists, results, removed)));
+		}
+
+		return results.get(formula);
+	}
+
+	private static QBF simplify(
+		MultiaryOperator op,
+		Map<QBF, QBF> results,
+		QBF neutral,
+		QBF dominant
+	) {
+		List<QBF> subformulas = new ArrayList<>(op.subformulas.size());
+		boolean changed = false;
+
+		for (QBF f : op.subformulas) {
+			QBF sub = results.get(f);
+			if (sub == dominant)
+				return dominant;
+			if (sub == neutral)
+				changed = true;
+			else {
+				changed |= sub != f;
+				subformulas.add(sub);
+			}
+		}
+
+		if (!changed)
+			return op;
+
+		switch (subformulas.size()) {
+			case 0: return neutral;
+			case 1: return subformulas.get(0);
+			default:
+				return op.isAnd() ? new And(subformulas) : new Or(subformulas);
+		}
+	}
+
+	private static QBF simplify(
+		Quantifier q,
+		Map<QBF, QBF> results,
+		Predicate<String> removed
+	) {
+		QBF sub = results.get(q.subformula);
+		if (sub.isConstant())
+			return sub;
+
+		Set<String> variables = new HashSet<>();
+		for (String v : q.variables)
+			if (!removed.test(v))
+				variables.add(v);
+
+		if (variables.isEmpty())
+			return sub;
+
+		if (sub == q.subformula && variables.size() == q.variables.size())
+			return q;
+
+		return q.apply(
+			(ForAll forall) -> new ForAll(sub, variables),
+			(Exists exists) -> new Exists(sub, variables));
+	}
+}
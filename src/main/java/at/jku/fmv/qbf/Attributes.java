@@ -0,0 +1,282 @@
+package at.jku.fmv.qbf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import at.jku.fmv.qbf.QBF.*;
+
+/**
+ * Lazily computed attributes of a {@link QBF} node.
+ * <p>
+ * Compositional attributes (height and alternation depth) are computed
+ * bottom-up and, if {@link #caching} is enabled, stored in every visited
+ * node.
+ * Attributes of the whole DAG below a node (DAG size and variable sets) are
+ * computed by a single traversal, the first time they are requested, and
+ * only stored in the requested node.
+ *
+ * @author phlo
+ */
+final class Attributes {
+
+	/** Store attributes in their nodes (opt-out: {@code -Dqbf4j.cache=false}). */
+	static volatile boolean caching =
+		Boolean.parseBoolean(System.getProperty("qbf4j.cache", "true"));
+
+	// compositional attributes - computed on demand
+	private static final class Structure {
+
+		// length of the longest path to a terminal
+		final int height;
+
+		// maximum number of quantifier blocks, starting with ∀ or ∃
+		final int forallBlocks, existsBlocks;
+
+		Structure(int height, int forallBlocks, int existsBlocks) {
+			this.height = height;
+			this.forallBlocks = forallBlocks;
+			this.existsBlocks = existsBlocks;
+		}
+	}
+
+	private volatile Structure structure;
+
+	// DAG attributes - computed on demand (0 = not computed)
+	private volatile long dagSize;
+	private volatile Set<String> freeVariables;
+	private volatile Set<String> boundVariables;
+
+	// gets the given node's attributes, which are only stored if caching
+	private static Attributes get(QBF node, boolean cache) {
+		Attributes attributes = node.attributes;
+		if (attributes == null) {
+			attributes = new Attributes();
+			if (cache)
+				node.attributes = attributes;
+		}
+		return attributes;
+	}
+
+	private static final List<QBF> none = Collections.emptyList();
+
+	static List<QBF> getChildren(QBF node) {
+		return node.apply(
+			(True t) -> none,
+			(False f) -> none,
+			(Variable var) -> none,
+			(Not not) -> Collections.singletonList(not.subformula),
+			(And and) -> and.subformulas,
+			(Or or) -> or.subformulas,
+			(ForAll forall) -> Collections.singletonList(forall.subformula),
+			(Exists exists) -> Collections.singletonList(exists.subformula));
+	}
+
+	private static Structure compute(QBF node, List<Structure> children) {
+		int height = 0, forall = 0, exists = 0;
+		for (Structure c : children) {
+			height = Math.max(height, c.height + 1);
+			forall = Math.max(forall, c.forallBlocks);
+			exists = Math.max(exists, c.existsBlocks);
+		}
+
+		int h = height, a = forall, e = exists;
+		return node.apply(
+			(True t) -> new Structure(0, 0, 0),
+			(False f) -> new Structure(0, 0, 0),
+			(Variable var) -> new Structure(0, 0, 0),
+			// negation swaps quantifiers
+			(Not not) -> new Structure(h, e, a),
+			(And and) -> new Structure(h, a, e),
+			(Or or) -> new Structure(h, a, e),
+			(ForAll f) -> new Structure(h, Math.max(a, e + 1), 0),
+			(Exists x) -> new Structure(h, 0, Math.max(e, a + 1)));
+	}
+
+	private static Structure getStructure(QBF formula) {
+		boolean cache = caching;
+		Attributes attributes = get(formula, cache);
+		if (attributes.structure != null)
+			return attributes.structure;
+
+		// nodes' structures computed in this traversal, if not caching
+		Map<QBF, Structure> computed = cache ? null : new IdentityHashMap<>();
+
+		// iterative post-order traversal - formulas may be deep
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(formula);
+		while (!stack.isEmpty()) {
+			QBF node = stack.peek();
+
+			if (getStructure(node, computed) != null) {
+				stack.pop();
+				continue;
+			}
+
+			List<QBF> children = getChildren(node);
+			List<Structure> structures = new ArrayList<>(children.size());
+
+			for (QBF child : children) {
+				Structure s = getStructure(child, computed);
+				if (s == null)
+					stack.push(child);
+				else
+					structures.add(s);
+			}
+
+			if (structures.size() < children.size())
+				continue;
+
+			stack.pop();
+
+			Structure s = compute(node, structures);
+			if (cache)
+				get(node, true).structure = s;
+			else
+				computed.put(node, s);
+		}
+
+		return attributes.structure = getStructure(formula, computed);
+	}
+
+	private static Structure getStructure(
+		QBF node,
+		Map<QBF, Structure> computed
+	) {
+		if (node.attributes != null && node.attributes.structure != null)
+			return node.attributes.structure;
+		return computed == null ? null : computed.get(node);
+	}
+
+	/**
+	 * Gets a given formula's height.
+	 *
+	 * @param formula a {@link QBF}
+	 * @return length of the longest path to a terminal
+	 */
+	static int getHeight(QBF formula) {
+		return getStructure(formula).height;
+	}
+
+	/**
+	 * Gets a given formula's alternation depth.
+	 *
+	 * @param formula a {@link QBF}
+	 * @return maximum number of quantifier blocks along any path
+	 */
+	static int getAlternationDepth(QBF formula) {
+		Structure s = getStructure(formula);
+		return Math.max(s.forallBlocks, s.existsBlocks);
+	}
+
+	/**
+	 * Gets the number of distinct nodes in the DAG below a given formula.
+	 *
+	 * @param formula a {@link QBF}
+	 * @return number of distinct nodes
+	 */
+	static long getDAGSize(QBF formula) {
+		Attributes a = get(formula, caching);
+		if (a.dagSize == 0)
+			a.traverse(formula);
+		return a.dagSize;
+	}
+
+	/**
+	 * Gets the free variables of a given formula.
+	 *
+	 * @param formula a {@link QBF}
+	 * @return an unmodifiable set of free variables
+	 */
+	static Set<String> getFreeVariables(QBF formula) {
+		Attributes a = get(formula, caching);
+		if (a.freeVariables == null)
+			a.traverse(formula);
+		return a.freeVariables;
+	}
+
+	/**
+	 * Gets the bound variables of a given formula.
+	 *
+	 * @param formula a {@link QBF}
+	 * @return an unmodifiable set of bound variables
+	 */
+	static Set<String> getBoundVariables(QBF formula) {
+		Attributes a = get(formula, caching);
+		if (a.boundVariables == null)
+			a.traverse(formula);
+		return a.boundVariables;
+	}
+
+	// computes the DAG attributes of the given formula
+	private void traverse(QBF formula) {
+		// dense ids of bound variables
+		Map<String, Integer> ids = new HashMap<>();
+
+		// variables bound on all paths to a visited node
+		Map<QBF, BitSet> scope = new IdentityHashMap<>();
+
+		Set<String> free = new HashSet<>();
+
+		// iterative depth-first search - nodes are revisited if reached with
+		// fewer bound variables, which happens at most once per variable
+		Deque<QBF> nodes = new ArrayDeque<>();
+		Deque<BitSet> scopes = new ArrayDeque<>();
+		nodes.push(formula);
+		scopes.push(new BitSet());
+
+		while (!nodes.isEmpty()) {
+			QBF node = nodes.pop();
+			BitSet bound = scopes.pop();
+
+			BitSet visited = scope.get(node);
+			if (visited != null) {
+				if (visited == bound)
+					continue;
+
+				BitSet both = (BitSet) visited.clone();
+				both.and(bound);
+				if (both.equals(visited))
+					continue;
+
+				bound = both;
+			}
+
+			scope.put(node, bound);
+
+			if (node instanceof Variable) {
+				Integer id = ids.get(((Variable) node).name);
+				if (id == null || !bound.get(id))
+					free.add(((Variable) node).name);
+				continue;
+			}
+
+			if (node.isQuantifier()) {
+				bound = (BitSet) bound.clone();
+				for (String v : ((Quantifier) node).variables) {
+					Integer id = ids.get(v);
+					if (id == null)
+						ids.put(v, id = ids.size());
+					bound.set(id);
+				}
+			}
+
+			for (QBF child : getChildren(node)) {
+				nodes.push(child);
+				scopes.push(bound);
+			}
+		}
+
+		boundVariables = Collections.unmodifiableSet(new HashSet<>(ids.keySet()));
+		freeVariables = Collections.unmodifiableSet(free);
+		dagSize = scope.size();
+	}
+}
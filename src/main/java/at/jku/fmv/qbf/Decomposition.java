@@ -0,0 +1,205 @@
+package at.jku.fmv.qbf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import at.jku.fmv.qbf.QBF.*;
+
+/**
+ * Decomposition into independent components.
+ * <p>
+ * The conjuncts of the formula's matrix (i.e. the operands of nested
+ * conjunctions below the prefix) are partitioned by union-find over the
+ * variable-occurrence graph: conjuncts sharing a variable or a subformula
+ * belong to the same component.
+ * Each component is given the prefix restricted to its variables, such that
+ * {@code Q: (ϕ ∧ ψ) ≡ (Q|ϕ: ϕ) ∧ (Q|ψ: ψ)} if {@code ϕ} and {@code ψ} do not
+ * share any variables.
+ * <p>
+ * Every node of the formula's DAG is visited once.
+ *
+ * @author phlo
+ */
+final class Decomposition {
+
+	// union-find over conjuncts followed by variables
+	private int[] parent = new int[16];
+	private int size = 0;
+
+	private final Map<String, Integer> variables = new HashMap<>();
+
+	private Decomposition() {}
+
+	private int add() {
+		if (size == parent.length)
+			parent = Arrays.copyOf(parent, 2 * size);
+		parent[size] = size;
+		return size++;
+	}
+
+	private int find(int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private void union(int i, int j) {
+		i = find(i);
+		j = find(j);
+		// keep the smaller (earlier) representative
+		if (i < j)
+			parent[j] = i;
+		else if (j < i)
+			parent[i] = j;
+	}
+
+	// operands of nested conjunctions, omitting duplicates
+	private static List<QBF> getConjuncts(QBF matrix) {
+		List<QBF> conjuncts = new ArrayList<>();
+		Set<QBF> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(matrix);
+
+		while (!stack.isEmpty()) {
+			QBF node = stack.pop();
+
+			if (!visited.add(node))
+				continue;
+
+			if (node.isAnd()) {
+				List<QBF> operands = ((And) node).subformulas;
+				for (int i = operands.size() - 1; i >= 0; i--)
+					stack.push(operands.get(i));
+			} else {
+				conjuncts.add(node);
+			}
+		}
+
+		return conjuncts;
+	}
+
+	// unite conjuncts reaching a common variable or subformula
+	private void connect(List<QBF> conjuncts) {
+		Map<QBF, Integer> owner = new IdentityHashMap<>();
+		Deque<QBF> stack = new ArrayDeque<>();
+
+		for (int i = 0; i < conjuncts.size(); i++)
+			add();
+
+		for (int conjunct = 0; conjunct < conjuncts.size(); conjunct++) {
+			stack.push(conjuncts.get(conjunct));
+
+			while (!stack.isEmpty()) {
+				QBF node = stack.pop();
+
+				Integer visited = owner.putIfAbsent(node, conjunct);
+				if (visited != null) {
+					union(conjunct, visited);
+					continue;
+				}
+
+				if (node.isVariable()) {
+					Integer var = variables.get(((Variable) node).name);
+					if (var == null)
+						variables.put(((Variable) node).name, var = add());
+					union(conjunct, var);
+				}
+
+				for (QBF child : Attributes.getChildren(node))
+					stack.push(child);
+			}
+		}
+	}
+
+	static List<QBF> apply(QBF formula) {
+		List<Quantifier> prefix = new ArrayList<>();
+		QBF matrix = formula;
+		while (matrix.isQuantifier()) {
+			prefix.add((Quantifier) matrix);
+			matrix = matrix.apply(
+				(ForAll forall) -> forall.subformula,
+				(Exists exists) -> exists.subformula);
+		}
+
+		List<QBF> conjuncts = getConjuncts(matrix);
+		if (conjuncts.size() < 2)
+			return Collections.singletonList(formula);
+
+		Decomposition d = new Decomposition();
+		d.connect(conjuncts);
+
+		// components in order of their first conjunct
+		int[] componentOf = new int[conjuncts.size()];
+		List<List<QBF>> operands = new ArrayList<>();
+		for (int i = 0; i < conjuncts.size(); i++) {
+			int root = d.find(i);
+			if (root == i) {
+				componentOf[i] = operands.size();
+				operands.add(new ArrayList<>());
+			} else {
+				componentOf[i] = componentOf[root];
+			}
+			operands.get(componentOf[i]).add(conjuncts.get(i));
+		}
+
+		if (operands.size() == 1)
+			return Collections.singletonList(formula);
+
+		// restrict the prefix to each component's variables
+		List<List<Integer>> levels = new ArrayList<>();
+		List<List<Set<String>>> blocks = new ArrayList<>();
+		for (int i = 0; i < operands.size(); i++) {
+			levels.add(new ArrayList<>());
+			blocks.add(new ArrayList<>());
+		}
+
+		for (int level = 0; level < prefix.size(); level++)
+			for (String v : prefix.get(level).variables) {
+				Integer var = d.variables.get(v);
+
+				// unused variables are dropped
+				if (var == null)
+					continue;
+
+				int c = componentOf[d.find(var)];
+				List<Integer> l = levels.get(c);
+				int last = l.size() - 1;
+				if (last < 0 || l.get(last).intValue() != level) {
+					l.add(level);
+					blocks.get(c).add(new HashSet<>());
+					last++;
+				}
+				blocks.get(c).get(last).add(v);
+			}
+
+		List<QBF> components = new ArrayList<>(operands.size());
+		for (int c = 0; c < operands.size(); c++) {
+			QBF component = operands.get(c).size() == 1
+				? operands.get(c).get(0)
+				: new And(operands.get(c));
+
+			List<Integer> l = levels.get(c);
+			for (int i = l.size() - 1; i >= 0; i--) {
+				Set<String> vars = blocks.get(c).get(i);
+				component = prefix.get(l.get(i)).isForAll()
+					? new ForAll(component, vars)
+					: new Exists(component, vars);
+			}
+
+			components.add(component);
+		}
+
+		return components;
+	}
+}
@@ -0,0 +1,221 @@
+package at.jku.fmv.qbf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over the elements of a formula tree.
+ * <p>
+ * Pending subformulas are kept in a work list in encounter order and
+ * expanded on demand by a given {@link Expansion}, which emits a node's
+ * elements and children.
+ * Splitting hands off a prefix of the work list, covering about half of the
+ * remaining {@link QBF#getTreeSize tree size}, where nodes straddling the
+ * middle are expanded first. This keeps splits balanced regardless of the
+ * formula's shape.
+ *
+ * @param <T> element type
+ * @param <C> type of the context passed down to subformulas
+ *
+ * @author phlo
+ */
+final class FormulaSpliterator<T, C> implements Spliterator<T> {
+
+	/**
+	 * Expands a single node.
+	 *
+	 * @param <T> element type
+	 * @param <C> context type
+	 */
+	@FunctionalInterface
+	interface Expansion<T, C> {
+
+		/**
+		 * Emits a node's elements and subformulas in encounter order.
+		 *
+		 * @param formula the expanded node
+		 * @param context the node's context (may be {@code null})
+		 * @param out receives elements and subformulas
+		 */
+		void expand(QBF formula, C context, Output<T, C> out);
+	}
+
+	/**
+	 * Receives the result of an {@link Expansion}.
+	 *
+	 * @param <T> element type
+	 * @param <C> context type
+	 */
+	interface Output<T, C> {
+
+		/**
+		 * Emits an element.
+		 *
+		 * @param element a stream element
+		 */
+		void element(T element);
+
+		/**
+		 * Emits a subformula to be expanded later.
+		 *
+		 * @param formula a subformula
+		 * @param context the subformula's context
+		 */
+		void node(QBF formula, C context);
+	}
+
+	/**
+	 * An immutable stack of enclosing nodes' data, usable as context.
+	 *
+	 * @param <E> element type
+	 */
+	static final class Scope<E> {
+		final E head;
+		final Scope<E> tail;
+
+		Scope(E head, Scope<E> tail) {
+			this.head = head;
+			this.tail = tail;
+		}
+	}
+
+	// pending subformula - everything else in the work list is an element
+	private static final class Node<C> {
+		final QBF formula;
+		final C context;
+
+		Node(QBF formula, C context) {
+			this.formula = formula;
+			this.context = context;
+		}
+	}
+
+	private final Expansion<T, C> expansion;
+	private final Deque<Object> pending;
+
+	// remaining tree size of all pending nodes
+	private long size;
+
+	// buffers a single expansion, which is then prepended to pending
+	private final List<Object> buffer = new ArrayList<>();
+	private final Output<T, C> output = new Output<T, C>() {
+		public void element(T element) { buffer.add(element); }
+		public void node(QBF formula, C context) {
+			buffer.add(new Node<>(formula, context));
+		}
+	};
+
+	private FormulaSpliterator(
+		Expansion<T, C> expansion,
+		Deque<Object> pending,
+		long size
+	) {
+		this.expansion = expansion;
+		this.pending = pending;
+		this.size = size;
+	}
+
+	/**
+	 * Constructs a {@link Spliterator} over a given formula.
+	 *
+	 * @param formula the root node
+	 * @param context the root node's context
+	 * @param expansion the applied {@link Expansion}
+	 */
+	FormulaSpliterator(QBF formula, C context, Expansion<T, C> expansion) {
+		this(expansion, new ArrayDeque<>(), formula.getTreeSize());
+		pending.add(new Node<>(formula, context));
+	}
+
+	private static long sizeOf(Object o) {
+		return o instanceof Node ? ((Node<?>) o).formula.getTreeSize() : 0;
+	}
+
+	private void expand(Node<C> node) {
+		expansion.expand(node.formula, node.context, output);
+		size -= node.formula.getTreeSize();
+		for (int i = buffer.size() - 1; i >= 0; i--) {
+			Object o = buffer.get(i);
+			size += sizeOf(o);
+			pending.addFirst(o);
+		}
+		buffer.clear();
+
+		// saturated tree sizes
+		if (size < 0) size = Long.MAX_VALUE;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean tryAdvance(Consumer<? super T> action) {
+		Object next;
+		while ((next = pending.pollFirst()) != null) {
+			if (next instanceof Node) {
+				expand((Node<C>) next);
+			} else {
+				action.accept((T) next);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEachRemaining(Consumer<? super T> action) {
+		Object next;
+		while ((next = pending.pollFirst()) != null)
+			if (next instanceof Node)
+				expand((Node<C>) next);
+			else
+				action.accept((T) next);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Spliterator<T> trySplit() {
+		if (size < 2)
+			return null;
+
+		Deque<Object> prefix = new ArrayDeque<>();
+		long prefixSize = 0, half = size / 2;
+
+		while (prefixSize < half && !pending.isEmpty()) {
+			Object o = pending.pollFirst();
+			long s = sizeOf(o);
+
+			// expand nodes straddling the middle
+			if (s > 1 && prefixSize + s > half) {
+				expand((Node<C>) o);
+				continue;
+			}
+
+			prefix.addLast(o);
+			prefixSize += s;
+		}
+
+		size -= prefixSize;
+
+		// nothing left to split off
+		if (pending.isEmpty() || prefixSize == 0) {
+			while (!prefix.isEmpty())
+				pending.addFirst(prefix.pollLast());
+			size += prefixSize;
+			return null;
+		}
+
+		return new FormulaSpliterator<>(expansion, prefix, prefixSize);
+	}
+
+	@Override
+	public long estimateSize() { return size; }
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+}
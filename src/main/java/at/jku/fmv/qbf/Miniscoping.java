@@ -0,0 +1,492 @@
+package at.jku.fmv.qbf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import at.jku.fmv.qbf.QBF.*;
+
+/**
+ * Minimization of quantifier scopes.
+ * <p>
+ * Quantifiers are moved towards the leaves, applying the following rules
+ * (and their duals), where {@code x} does not occur free in {@code ψ}:
+ * <ul>
+ *   <li>{@code Qx: ψ → ψ}
+ *   <li>{@code ∀x: ϕ ∧ ϕ' → (∀x: ϕ) ∧ (∀x: ϕ')}
+ *   <li>{@code ∃x: ϕ ∧ ψ → (∃x: ϕ) ∧ ψ}
+ *   <li>{@code ∀x: ¬ϕ → ¬∃x: ϕ}
+ * </ul>
+ * Blocks of quantified variables are split accordingly: a non-distributive
+ * gate's operands are grouped into components connected by shared bound
+ * variables, where only the variables occurring in more than one operand of
+ * a component remain at the gate.
+ * <p>
+ * The formula is transformed bottom-up, quantifiers being pushed into their
+ * already miniscoped subformulas.
+ * Free variable sets are computed compositionally on demand and cached
+ * per node, as are the results of pushed quantifier blocks, such that
+ * shared subformulas are processed once per distinct block.
+ *
+ * @author phlo
+ */
+final class Miniscoping {
+
+	// free variables of visited nodes (new and original)
+	private final Map<QBF, Set<String>> free = new IdentityHashMap<>();
+
+	// results of pushing a block of quantified variables into a node
+	private final Map<Block, QBF> pushed = new HashMap<>();
+
+	private Miniscoping() {}
+
+	// a block of quantified variables pushed into a node
+	private static final class Block {
+
+		final QBF node;
+		final boolean forall;
+		final Set<String> variables;
+		final int hash;
+
+		Block(QBF node, boolean forall, Set<String> variables) {
+			this.node = node;
+			this.forall = forall;
+			this.variables = variables;
+			this.hash = Objects.hash(
+				System.identityHashCode(node),
+				forall,
+				variables);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Block)) return false;
+			Block b = (Block) o;
+			return node == b.node
+				&& forall == b.forall
+				&& variables.equals(b.variables);
+		}
+
+		@Override
+		public int hashCode() { return hash; }
+	}
+
+	/**
+	 * Miniscopes a given formula.
+	 *
+	 * @param formula a {@link QBF}
+	 * @return the miniscoped formula
+	 */
+	static QBF apply(QBF formula) {
+		return new Miniscoping().transform(formula);
+	}
+
+	private QBF transform(QBF formula) {
+		Map<QBF, QBF> results = new IdentityHashMap<>();
+
+		// iterative post-order traversal - formulas may be deep
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(formula);
+		while (!stack.isEmpty()) {
+			QBF node = stack.peek();
+
+			if (results.containsKey(node)) {
+				stack.pop();
+				continue;
+			}
+
+			List<QBF> children = Attributes.getChildren(node);
+
+			boolean finished = true;
+			for (QBF child : children)
+				if (!results.containsKey(child)) {
+					stack.push(child);
+					finished = false;
+				}
+
+			if (!finished) continue;
+
+			stack.pop();
+
+			results.put(node, node.apply(
+				(True t) -> t,
+				(False f) -> f,
+				(Variable var) -> var,
+				(Not not) -> {
+					QBF sub = results.get(not.subformula);
+					return sub == not.subformula ? not : negate(sub);
+				},
+				(And and) -> {
+					List<QBF> subformulas = map(and.subformulas, results);
+					return subformulas == and.subformulas
+						? and
+						: new And(subformulas);
+				},
+				(Or or) -> {
+					List<QBF> subformulas = map(or.subformulas, results);
+					return subformulas == or.subformulas
+						? or
+						: new Or(subformulas);
+				},
+				(ForAll forall) -> push(forall, results),
+				(Exists exists) -> push(exists, results)));
+		}
+
+		return results.get(formula);
+	}
+
+	// pushes a quantifier into its subformula - returns it as is if unchanged
+	private QBF push(Quantifier q, Map<QBF, QBF> results) {
+		QBF result = push(
+			q.isForAll(),
+			q.variables,
+			results.get(q.subformula));
+
+		return result.isQuantifier()
+			&& result.isForAll() == q.isForAll()
+			&& ((Quantifier) result).subformula == q.subformula
+			&& ((Quantifier) result).variables.equals(q.variables)
+				? q
+				: result;
+	}
+
+	// maps operands to their results - returns the original list if unchanged
+	private static List<QBF> map(List<QBF> subformulas, Map<QBF, QBF> results) {
+		List<QBF> mapped = new ArrayList<>(subformulas.size());
+		boolean changed = false;
+		for (QBF f : subformulas) {
+			QBF sub = results.get(f);
+			changed |= sub != f;
+			mapped.add(sub);
+		}
+		return changed ? mapped : subformulas;
+	}
+
+	// gets the (cached) set of free variables of a node
+	private Set<String> getFreeVariables(QBF node) {
+		Set<String> variables = free.get(node);
+		if (variables != null)
+			return variables;
+
+		// computed on demand - iterative post-order over uncached nodes
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(node);
+		while (!stack.isEmpty()) {
+			QBF n = stack.peek();
+
+			if (free.containsKey(n)) {
+				stack.pop();
+				continue;
+			}
+
+			boolean finished = true;
+			for (QBF child : Attributes.getChildren(n))
+				if (!free.containsKey(child)) {
+					stack.push(child);
+					finished = false;
+				}
+
+			if (!finished) continue;
+
+			stack.pop();
+
+			free.put(n, n.apply(
+				(True t) -> Collections.<String>emptySet(),
+				(False f) -> Collections.<String>emptySet(),
+				(Variable var) -> Collections.singleton(var.name),
+				(Not not) -> free.get(not.subformula),
+				(And and) -> union(and.subformulas),
+				(Or or) -> union(or.subformulas),
+				(ForAll forall) -> difference(forall),
+				(Exists exists) -> difference(exists)));
+		}
+
+		return free.get(node);
+	}
+
+	// union of the operands' free variables - reuses the largest set if possible
+	private Set<String> union(List<QBF> subformulas) {
+		Set<String> largest = Collections.emptySet();
+		for (QBF f : subformulas) {
+			Set<String> variables = free.get(f);
+			if (variables.size() > largest.size())
+				largest = variables;
+		}
+
+		Set<String> union = largest;
+		for (QBF f : subformulas) {
+			Set<String> variables = free.get(f);
+			if (variables == largest || union.containsAll(variables))
+				continue;
+			if (union == largest)
+				union = new HashSet<>(largest);
+			union.addAll(variables);
+		}
+		return union;
+	}
+
+	private Set<String> difference(Quantifier q) {
+		Set<String> variables = free.get(q.subformula);
+		if (Collections.disjoint(variables, q.variables))
+			return variables;
+		Set<String> difference = new HashSet<>(variables);
+		difference.removeAll(q.variables);
+		return difference;
+	}
+
+	private static Set<String> intersection(Set<String> a, Set<String> b) {
+		if (a.size() > b.size()) {
+			Set<String> tmp = a;
+			a = b;
+			b = tmp;
+		}
+		Set<String> intersection = new HashSet<>();
+		for (String v : a)
+			if (b.contains(v))
+				intersection.add(v);
+		return intersection;
+	}
+
+	private QBF quantify(boolean forall, Set<String> variables, QBF node) {
+		return forall
+			? new ForAll(node, variables)
+			: new Exists(node, variables);
+	}
+
+	private QBF negate(QBF node) {
+		return node instanceof Not
+			? ((Not) node).subformula
+			: new Not(node);
+	}
+
+	// creates a block of variables occurring free in a node (null if empty)
+	private Block block(boolean forall, Set<String> variables, QBF node) {
+		Set<String> bound = intersection(variables, getFreeVariables(node));
+		return bound.isEmpty() ? null : new Block(node, forall, bound);
+	}
+
+	// gets the result of a pushed block (the node itself if null)
+	private QBF get(Block block, QBF node) {
+		return block == null ? node : pushed.get(block);
+	}
+
+	// blocks a result depends on and how to build it
+	private static final class Task {
+
+		final List<Block> dependencies = new ArrayList<>();
+
+		Supplier<QBF> result;
+
+		Block require(Block block) {
+			if (block != null)
+				dependencies.add(block);
+			return block;
+		}
+	}
+
+	// pushes a block of quantified variables into a miniscoped node
+	private QBF push(boolean forall, Set<String> variables, QBF node) {
+		Block root = block(forall, variables, node);
+		if (root == null)
+			return node;
+
+		Map<Block, Task> tasks = new HashMap<>();
+
+		// iterative post-order traversal - blocks may be pushed deep down
+		Deque<Block> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			Block block = stack.peek();
+
+			if (pushed.containsKey(block)) {
+				stack.pop();
+				continue;
+			}
+
+			Task task = tasks.get(block);
+			if (task == null)
+				tasks.put(block, task = plan(block));
+
+			boolean finished = true;
+			for (Block dependency : task.dependencies)
+				if (!pushed.containsKey(dependency)) {
+					stack.push(dependency);
+					finished = false;
+				}
+
+			if (!finished) continue;
+
+			stack.pop();
+
+			pushed.put(block, task.result.get());
+		}
+
+		return pushed.get(root);
+	}
+
+	private Task plan(Block block) {
+		boolean forall = block.forall;
+		Set<String> bound = block.variables;
+		Task task = new Task();
+
+		block.node.accept(
+			(True t) -> task.result = () -> t,
+			(False f) -> task.result = () -> f,
+			(Variable var) -> task.result = () -> quantify(forall, bound, var),
+			(Not not) -> {
+				// ∀x: ¬ϕ → ¬∃x: ϕ
+				Block sub = task.require(block(!forall, bound, not.subformula));
+				task.result = () -> negate(pushed.get(sub));
+			},
+			(And and) -> {
+				if (forall) distribute(block, and, task);
+				else split(block, and, task);
+			},
+			(Or or) -> {
+				if (forall) split(block, or, task);
+				else distribute(block, or, task);
+			},
+			(ForAll inner) -> {
+				if (forall) merge(block, inner, task);
+				else task.result = () -> quantify(false, bound, inner);
+			},
+			(Exists inner) -> {
+				if (forall) task.result = () -> quantify(true, bound, inner);
+				else merge(block, inner, task);
+			});
+
+		return task;
+	}
+
+	// Qx: Qy: ϕ → Qx,y: ϕ with x pushed into ϕ
+	private void merge(Block block, Quantifier inner, Task task) {
+		Set<String> merged = new HashSet<>(block.variables);
+		merged.addAll(inner.variables);
+		Block sub = task.require(block(block.forall, merged, inner.subformula));
+		task.result = () -> pushed.get(sub);
+	}
+
+	private QBF build(MultiaryOperator op, List<QBF> subformulas) {
+		if (subformulas.size() == 1)
+			return subformulas.get(0);
+		return op.isAnd() ? new And(subformulas) : new Or(subformulas);
+	}
+
+	// ∀x: ϕ ∧ ϕ' → (∀x: ϕ) ∧ (∀x: ϕ') (dually for ∃ and ∨)
+	private void distribute(Block block, MultiaryOperator op, Task task) {
+		List<Block> blocks = new ArrayList<>(op.subformulas.size());
+		for (QBF f : op.subformulas)
+			blocks.add(task.require(block(block.forall, block.variables, f)));
+
+		task.result = () -> {
+			List<QBF> subformulas = new ArrayList<>(blocks.size());
+			for (int i = 0; i < blocks.size(); i++)
+				subformulas.add(get(blocks.get(i), op.subformulas.get(i)));
+			return build(op, subformulas);
+		};
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i)
+			i = parent[i] = parent[parent[i]];
+		return i;
+	}
+
+	// ∃x: ϕ ∧ ψ → (∃x: ϕ) ∧ ψ (dually for ∀ and ∨)
+	private void split(Block block, MultiaryOperator op, Task task) {
+		boolean forall = block.forall;
+		Set<String> variables = block.variables;
+		int n = op.subformulas.size();
+
+		// group operands connected by shared bound variables (union-find)
+		List<Set<String>> occurring = new ArrayList<>(n);
+		Map<String, Integer> first = new HashMap<>();
+		Set<String> shared = new HashSet<>();
+		int[] parent = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+			Set<String> vars = intersection(
+				variables,
+				getFreeVariables(op.subformulas.get(i)));
+			occurring.add(vars);
+			for (String v : vars) {
+				Integer j = first.putIfAbsent(v, i);
+				if (j != null) {
+					shared.add(v);
+					parent[find(parent, i)] = find(parent, j);
+				}
+			}
+		}
+
+		// a single group without local variables remains unchanged
+		int root = -1;
+		boolean single = shared.size() == variables.size();
+		for (int i = 0; single && i < n; i++)
+			if (occurring.get(i).isEmpty())
+				single = false;
+			else if (root < 0)
+				root = find(parent, i);
+			else if (root != find(parent, i))
+				single = false;
+
+		if (single) {
+			task.result = () -> quantify(forall, variables, op);
+			return;
+		}
+
+		// push local variables into their operands
+		List<Block> locals = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			Set<String> local = new HashSet<>(occurring.get(i));
+			local.removeAll(shared);
+			locals.add(task.require(block(forall, local, op.subformulas.get(i))));
+		}
+
+		task.result = () -> {
+			Map<Integer, List<QBF>> groups = new HashMap<>();
+			Map<Integer, Set<String>> blocks = new HashMap<>();
+			List<Object> order = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) {
+				QBF f = op.subformulas.get(i);
+				Set<String> vars = occurring.get(i);
+
+				if (vars.isEmpty()) {
+					order.add(f);
+					continue;
+				}
+
+				int r = find(parent, i);
+				List<QBF> group = groups.get(r);
+				if (group == null) {
+					groups.put(r, group = new ArrayList<>());
+					blocks.put(r, new HashSet<>());
+					order.add(r);
+				}
+				group.add(get(locals.get(i), f));
+				vars.retainAll(shared);
+				blocks.get(r).addAll(vars);
+			}
+
+			List<QBF> subformulas = new ArrayList<>(order.size());
+			for (Object o : order)
+				if (o instanceof QBF)
+					subformulas.add((QBF) o);
+				else {
+					QBF sub = build(op, groups.get(o));
+					Set<String> vars = blocks.get(o);
+					subformulas.add(vars.isEmpty() ? sub : quantify(forall, vars, sub));
+				}
+
+			return build(op, subformulas);
+		};
+	}
+}
@@ -1,10 +1,14 @@
 package at.jku.fmv.qbf;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -15,9 +19,12 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import at.jku.fmv.qbf.FormulaSpliterator.Scope;
 import at.jku.fmv.qbf.pcnf.CNFEncoder;
 import at.jku.fmv.qbf.pnf.PrenexingStrategy;
+import at.jku.fmv.qbf.stats.FormulaEvent;
 
 /**
  * A quantified boolean formula.
@@ -42,7 +49,120 @@ public abstract class QBF {
 	/** Singleton instance of the boolean constant {@link False false}. */
 	public static final QBF False = new False();
 
-	private QBF() {}
+	// number of nodes in the formula tree - computed on construction and
+	// exempt from the caching opt-out, since streaming a formula (see
+	// FormulaSpliterator) queries it for every node (computing it on demand
+	// would make uncached streams quadratic)
+	private final long treeSize;
+
+	private QBF(long treeSize) { this.treeSize = treeSize; }
+
+	// saturated at Long.MAX_VALUE
+	private static long treeSize(QBF subformula) {
+		return subformula == null
+			? 1
+			: subformula.treeSize == Long.MAX_VALUE
+				? Long.MAX_VALUE
+				: subformula.treeSize + 1;
+	}
+
+	// saturated at Long.MAX_VALUE
+	private static long treeSize(List<QBF> subformulas) {
+		long size = 1;
+		if (subformulas != null)
+			for (QBF f : subformulas)
+				if (f != null && (size += f.treeSize) < 0)
+					return Long.MAX_VALUE;
+		return size;
+	}
+
+	/**
+	 * Gets the number of nodes in this formula's tree.
+	 * <p>
+	 * Shared subformulas are counted once per occurrence and the result is
+	 * saturated at {@link Long#MAX_VALUE}.
+	 * Unlike other attributes, the tree size is computed on construction
+	 * (taking a {@code long} in every node) and therefore not affected by
+	 * {@link #setCaching}.
+	 *
+	 * @return number of nodes in this formula's tree
+	 */
+	public long getTreeSize() { return treeSize; }
+
+	// lazily computed attributes (see Attributes) - volatile to safely
+	// publish them to other threads sharing this node
+	volatile Attributes attributes;
+
+	/**
+	 * Enables or disables caching of lazily computed attributes.
+	 * <p>
+	 * If enabled (default), attributes like {@link #getHeight} or
+	 * {@link #getFreeVariables} are stored in the formula's nodes after
+	 * their first computation, trading memory for subsequent O(1) queries.
+	 * May also be disabled using the system property
+	 * {@code qbf4j.cache=false}.
+	 * Already cached attributes remain valid.
+	 * The {@link #getTreeSize tree size} is always stored, since it is
+	 * queried for every node of a streamed formula.
+	 *
+	 * @param enabled {@code true} to cache attributes
+	 */
+	public static void setCaching(boolean enabled) {
+		Attributes.caching = enabled;
+	}
+
+	/**
+	 * Gets the number of distinct nodes in this formula's DAG.
+	 *
+	 * @return number of distinct (shared) nodes
+	 */
+	public long getDAGSize() { return Attributes.getDAGSize(this); }
+
+	/**
+	 * Gets this formula's height.
+	 *
+	 * @return length of the longest path from this node to a terminal
+	 */
+	public int getHeight() { return Attributes.getHeight(this); }
+
+	/**
+	 * Gets the number of quantifiers in this formula's prefix.
+	 *
+	 * @return length of {@link #streamPrefix}
+	 */
+	public int getPrefixLength() {
+		int length = 0;
+		for (QBF f = this; f.isQuantifier(); f = ((Quantifier) f).subformula)
+			length++;
+		return length;
+	}
+
+	/**
+	 * Gets this formula's alternation depth.
+	 *
+	 * @return maximum number of quantifier blocks along any path
+	 */
+	public int getAlternationDepth() {
+		return Attributes.getAlternationDepth(this);
+	}
+
+	/**
+	 * Gets all free variables in this formula.
+	 *
+	 * @return an unmodifiable set of free variables
+	 */
+	public Set<String> getFreeVariables() {
+		return Attributes.getFreeVariables(this);
+	}
+
+	/**
+	 * Gets all bound variables in this formula.
+	 *
+	 * @return an unmodifiable set of bound variables
+	 */
+	public Set<String> getBoundVariables() {
+		return Attributes.getBoundVariables(this);
+	}
 
 	/**
 	 * Applies a given {@link Consumer} to the underlying concrete type.
@@ -165,7 +285,10 @@ public abstract class QBF {
 	 *
 	 * @author phlo
 	 */
-	public static abstract class Terminal extends QBF {}
+	public static abstract class Terminal extends QBF {
+
+		private Terminal() { super(1); }
+	}
 
 	/**
 	 * The boolean constant {@code true}.
@@ -288,6 +411,8 @@ public abstract class QBF {
 		public final QBF subformula;
 
 		private UnaryOperator(QBF subformula) {
+			super(treeSize(subformula));
+
 			if (subformula == null)
 				throw new IllegalArgumentException("missing subformula");
 
@@ -342,6 +467,8 @@ public abstract class QBF {
 		public final List<QBF> subformulas;
 
 		private MultiaryOperator(List<QBF> subformulas) {
+			super(treeSize(subformulas));
+
 			if (subformulas == null || subformulas.size() < 2)
 				throw new IllegalArgumentException("missing subformulas");
 
@@ -781,25 +908,25 @@ public abstract class QBF {
 	 * @return a sequential Stream over all nodes in this formula
 	 */
 	public Stream<QBF> stream(Traverse traversal) {
-		Stream<QBF> childStream =
-			this.apply(
-				(True t) -> Stream.empty(),
-				(False f) -> Stream.empty(),
-				(Variable var) -> Stream.empty(),
-				(Not not) -> not.subformula.stream(traversal),
-				(And and) ->
-					and.subformulas.stream()
-						.flatMap(f -> f.stream(traversal)),
-				(Or or) ->
-					or.subformulas.stream()
-						.flatMap(f -> f.stream(traversal)),
-				(ForAll forall) -> forall.subformula.stream(traversal),
-				(Exists exists) -> exists.subformula.stream(traversal));
-
-		return
-			traversal == Traverse.PreOrder
-				? Stream.concat(Stream.of(this), childStream)
-				: Stream.concat(childStream, Stream.of(this));
+		return StreamSupport.stream(
+			new FormulaSpliterator<QBF, Void>(this, null, (node, ctx, out) -> {
+				if (traversal == Traverse.PreOrder)
+					out.element(node);
+
+				node.accept(
+					(True t) -> {},
+					(False f) -> {},
+					(Variable var) -> {},
+					(Not not) -> out.node(not.subformula, null),
+					(And and) -> and.subformulas.forEach(f -> out.node(f, null)),
+					(Or or) -> or.subformulas.forEach(f -> out.node(f, null)),
+					(ForAll forall) -> out.node(forall.subformula, null),
+					(Exists exists) -> out.node(exists.subformula, null));
+
+				if (traversal == Traverse.PostOrder)
+					out.element(node);
+			}),
+			false);
 	}
 
 	/**
@@ -808,25 +935,24 @@ public abstract class QBF {
 	 * @return a sequential Stream over all variables in this formula
 	 */
 	public Stream<String> streamVariables() {
-		return this.apply(
-			(True t) -> Stream.empty(),
-			(False f) -> Stream.empty(),
-			(Variable var) -> Stream.of(var.name),
-			(Not not) ->
-				not.subformula.streamVariables(),
-			(And and) ->
-				and.subformulas.stream().flatMap(QBF::streamVariables),
-			(Or or) ->
-				or.subformulas.stream().flatMap(QBF::streamVariables),
-			(ForAll forall) ->
-				Stream.concat(
-					forall.variables.stream(),
-					forall.subformula.streamVariables()),
-			(Exists exists) ->
-				Stream.concat(
-					exists.variables.stream(),
-					exists.subformula.streamVariables())
-		);
+		return StreamSupport.stream(
+			new FormulaSpliterator<String, Void>(this, null, (node, ctx, out) ->
+				node.accept(
+					(True t) -> {},
+					(False f) -> {},
+					(Variable var) -> out.element(var.name),
+					(Not not) -> out.node(not.subformula, null),
+					(And and) -> and.subformulas.forEach(f -> out.node(f, null)),
+					(Or or) -> or.subformulas.forEach(f -> out.node(f, null)),
+					(ForAll forall) -> {
+						forall.variables.forEach(out::element);
+						out.node(forall.subformula, null);
+					},
+					(Exists exists) -> {
+						exists.variables.forEach(out::element);
+						out.node(exists.subformula, null);
+					})),
+			false);
 	}
 
 	/**
@@ -835,23 +961,35 @@ public abstract class QBF {
 	 * @return a sequential Stream over all free variables in this formula
 	 */
 	public Stream<String> streamFreeVariables() {
-		return this.apply(
-			(True t) -> Stream.empty(),
-			(False f) -> Stream.empty(),
-			(Variable var) -> Stream.of(var.name),
-			(Not not) ->
-				not.subformula.streamFreeVariables(),
-			(And and) ->
-				and.subformulas.stream().flatMap(QBF::streamFreeVariables),
-			(Or or) ->
-				or.subformulas.stream().flatMap(QBF::streamFreeVariables),
-			(ForAll forall) ->
-				forall.subformula.streamFreeVariables()
-					.filter(v -> !forall.variables.contains(v)),
-			(Exists exists) ->
-				exists.subformula.streamFreeVariables()
-					.filter(v -> !exists.variables.contains(v))
-		);
+		// context: variables bound by enclosing quantifiers
+		return StreamSupport.stream(
+			new FormulaSpliterator<String, Scope<Set<String>>>(
+				this,
+				null,
+				(node, bound, out) ->
+					node.accept(
+						(True t) -> {},
+						(False f) -> {},
+						(Variable var) -> {
+							for (Scope<Set<String>> s = bound; s != null; s = s.tail)
+								if (s.head.contains(var.name))
+									return;
+							out.element(var.name);
+						},
+						(Not not) -> out.node(not.subformula, bound),
+						(And and) ->
+							and.subformulas.forEach(f -> out.node(f, bound)),
+						(Or or) ->
+							or.subformulas.forEach(f -> out.node(f, bound)),
+						(ForAll forall) ->
+							out.node(
+								forall.subformula,
+								new Scope<>(forall.variables, bound)),
+						(Exists exists) ->
+							out.node(
+								exists.subformula,
+								new Scope<>(exists.variables, bound)))),
+			false);
 	}
 
 	/**
@@ -860,25 +998,24 @@ public abstract class QBF {
 	 * @return a sequential Stream over all bound variables in this formula
 	 */
 	public Stream<String> streamBoundVariables() {
-		return this.apply(
-			(True t) -> Stream.empty(),
-			(False f) -> Stream.empty(),
-			(Variable var) -> Stream.empty(),
-			(Not not) ->
-				not.subformula.streamBoundVariables(),
-			(And and) ->
-				and.subformulas.stream().flatMap(QBF::streamBoundVariables),
-			(Or or) ->
-				or.subformulas.stream().flatMap(QBF::streamBoundVariables),
-			(ForAll forall) ->
-				Stream.concat(
-					forall.variables.stream(),
-					forall.subformula.streamBoundVariables()),
-			(Exists exists) ->
-				Stream.concat(
-					exists.variables.stream(),
-					exists.subformula.streamBoundVariables())
-		);
+		return StreamSupport.stream(
+			new FormulaSpliterator<String, Void>(this, null, (node, ctx, out) ->
+				node.accept(
+					(True t) -> {},
+					(False f) -> {},
+					(Variable var) -> {},
+					(Not not) -> out.node(not.subformula, null),
+					(And and) -> and.subformulas.forEach(f -> out.node(f, null)),
+					(Or or) -> or.subformulas.forEach(f -> out.node(f, null)),
+					(ForAll forall) -> {
+						forall.variables.forEach(out::element);
+						out.node(forall.subformula, null);
+					},
+					(Exists exists) -> {
+						exists.variables.forEach(out::element);
+						out.node(exists.subformula, null);
+					})),
+			false);
 	}
 
 	/**
@@ -929,36 +1066,57 @@ public abstract class QBF {
 	 * @return a sequential Stream over this formula's q-paths
 	 */
 	public Stream<QBF> streamQPaths() {
-		return this.apply(
-			(True t) -> Stream.empty(),
-			(False f) -> Stream.empty(),
-			(Variable var) -> Stream.empty(),
-			(Not not) -> Stream.empty(),
-			(And and) ->
-				and.subformulas.stream()
-					.flatMap(f -> f.streamQPaths()),
-			(Or or) ->
-				or.subformulas.stream()
-					.flatMap(f -> f.streamQPaths()),
-			(ForAll forall) -> {
-				List<QBF> childPaths =
-					forall.subformula.streamQPaths()
-						.collect(Collectors.toList());
-				return childPaths.isEmpty()
-					? Stream.of(forall)
-					: childPaths.stream()
-						.map(f -> new ForAll(f, forall.variables));
-			},
-			(Exists exists) -> {
-				List<QBF> childPaths =
-					exists.subformula.streamQPaths()
-						.collect(Collectors.toList());
-				return childPaths.isEmpty()
-					? Stream.of(exists)
-					: childPaths.stream()
-						.map(f -> new Exists(f, exists.variables));
-			}
-		);
+		// context: enclosing quantifiers
+		return StreamSupport.stream(
+			new FormulaSpliterator<QBF, Scope<Quantifier>>(
+				this,
+				null,
+				(node, prefix, out) -> {
+					Consumer<Quantifier> quantifier = q -> {
+						if (hasQPaths(q.subformula))
+							out.node(q.subformula, new Scope<>(q, prefix));
+						else
+							out.element(prependPrefix(q, prefix));
+					};
+
+					node.accept(
+						(True t) -> {},
+						(False f) -> {},
+						(Variable var) -> {},
+						(Not not) -> {},
+						(And and) ->
+							and.subformulas.forEach(f -> out.node(f, prefix)),
+						(Or or) ->
+							or.subformulas.forEach(f -> out.node(f, prefix)),
+						(ForAll forall) -> quantifier.accept(forall),
+						(Exists exists) -> quantifier.accept(exists));
+				}),
+			false);
+	}
+
+	// tests if a given formula contains quantifiers outside of negations
+	private static boolean hasQPaths(QBF formula) {
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(formula);
+		while (!stack.isEmpty()) {
+			QBF f = stack.pop();
+			if (f.isQuantifier())
+				return true;
+			if (f.isAnd() || f.isOr())
+				((MultiaryOperator) f).subformulas.forEach(stack::push);
+		}
+		return false;
+	}
+
+	// wraps a q-path in the given enclosing quantifiers
+	private static QBF prependPrefix(QBF qpath, Scope<Quantifier> prefix) {
+		for (Scope<Quantifier> s = prefix; s != null; s = s.tail) {
+			QBF path = qpath;
+			qpath = s.head.apply(
+				f -> new ForAll(path, f.variables),
+				e -> new Exists(path, e.variables));
+		}
+		return qpath;
 	}
 
 	/**
@@ -999,8 +1157,8 @@ public abstract class QBF {
 	 */
 	public static List<QBF> getCriticalPaths(List<QBF> qpaths) {
 		// NOTE: filtering collector - Java 9 or https://stackoverflow.com/a/48276796
-		Map<Long, List<QBF>> qpathsByLen = qpaths.stream()
-			.collect(Collectors.groupingBy(p -> p.streamPrefix().count()));
+		Map<Integer, List<QBF>> qpathsByLen = qpaths.stream()
+			.collect(Collectors.groupingBy(QBF::getPrefixLength));
 
 		// get longest paths and remove those with equal quantifier strings (leading is equal)
 		boolean[] contained = {false, false}; // ∀[0] ∃[1]
@@ -1132,46 +1290,136 @@ public abstract class QBF {
 
 	/**
 	 * Renames this formula's variables.
+	 * <p>
+	 * Every node is processed once, i.e. this is linear in the
+	 * {@link #getDAGSize DAG size}, and unaffected subformulas are shared
+	 * with the original formula.
 	 *
 	 * @param variables a map of old to new variable names
 	 * @return this {@link QBF} with renamed variables
 	 */
 	public QBF rename(Map<String, String> variables) {
-		return this.apply(
-			(True t) -> t,
-			(False f) -> f,
-			(Variable var) ->
-				variables.containsKey(var.name)
-					? new Variable(variables.get(var.name))
-					: var,
-			(Not not) -> new Not(not.subformula.rename(variables)),
-			(And and) ->
-				new And(
-					and.subformulas.stream()
-						.map(f -> f.rename(variables))
-						.collect(Collectors.toList())),
-			(Or or) ->
-				new Or(
-					or.subformulas.stream()
-						.map(f -> f.rename(variables))
-						.collect(Collectors.toList())),
-			(ForAll forall) ->
-				new ForAll(
-					forall.subformula.rename(variables),
-					forall.variables.stream()
-						.map(v -> variables.containsKey(v)
-							? variables.get(v)
-							: v)
-						.collect(Collectors.toSet())),
-			(Exists exists) ->
-				new Exists(
-					exists.subformula.rename(variables),
-					exists.variables.stream()
-						.map(v -> variables.containsKey(v)
-							? variables.get(v)
-							: v)
-						.collect(Collectors.toSet()))
-		);
+		Map<QBF, QBF> results = new IdentityHashMap<>();
+		Function<String, String> name = v -> variables.getOrDefault(v, v);
+
+		// iterative post-order traversal - formulas may be deep
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(this);
+		while (!stack.isEmpty()) {
+			QBF node = stack.peek();
+
+			if (results.containsKey(node)) {
+				stack.pop();
+				continue;
+			}
+
+			List<QBF> children = Attributes.getChildren(node);
+
+			boolean finished = true;
+			for (QBF child : children)
+				if (!results.containsKey(child)) {
+					stack.push(child);
+					finished = false;
+				}
+
+			if (!finished) continue;
+
+			stack.pop();
+
+			List<QBF> subformulas = new ArrayList<>(children.size());
+			boolean changed = false;
+			for (QBF child : children) {
+				QBF sub = results.get(child);
+				changed |= sub != child;
+				subformulas.add(sub);
+			}
+
+			if (!changed && !node.isVariable() && !node.isQuantifier()) {
+				results.put(node, node);
+				continue;
+			}
+
+			results.put(node, node.apply(
+				(True t) -> t,
+				(False f) -> f,
+				(Variable var) ->
+					variables.containsKey(var.name)
+						? new Variable(variables.get(var.name))
+						: var,
+				(Not not) -> new Not(subformulas.get(0)),
+				(And and) -> new And(subformulas),
+				(Or or) -> new Or(subformulas),
+				(ForAll forall) ->
+					new ForAll(
+						subformulas.get(0),
+						forall.variables.stream()
+							.map(name)
+							.collect(Collectors.toSet())),
+				(Exists exists) ->
+					new Exists(
+						subformulas.get(0),
+						exists.variables.stream()
+							.map(name)
+							.collect(Collectors.toSet()))));
+		}
+
+		return results.get(this);
+	}
+
+	/**
+	 * Assigns boolean constants to variables and simplifies the result.
+	 * <p>
+	 * Constants are propagated bottom-up, collapsing gates and quantifiers
+	 * with constant subformulas, and assigned variables are removed from
+	 * their quantifiers, as are quantified variables vanishing due to
+	 * propagation.
+	 * Every node is processed once, i.e. this is linear in the
+	 * {@link #getDAGSize DAG size}, and unaffected subformulas are shared
+	 * with the original formula.
+	 * <p>
+	 * Example: {@code ∃x,y: (x ∨ y) ∧ z} with {@code z = ⊤, y = ⊥} results
+	 * in {@code ∃x: x}.
+	 *
+	 * @param assignment maps variables to their values ({@code null} values
+	 * leave variables unassigned)
+	 * @return the simplified {@link QBF}
+	 */
+	public QBF assign(Map<String, Boolean> assignment) {
+		FormulaEvent event = new FormulaEvent.Assign();
+		event.begin();
+
+		QBF assigned = Assignment.apply(this, assignment);
+
+		event.end(this, assigned);
+		return assigned;
+	}
+
+	/**
+	 * Assigns boolean constants to integer variables (e.g. of a
+	 * {@link #cleanse cleansed} formula) and simplifies the result.
+	 *
+	 * @param literals DIMACS literals: {@code v} assigns {@code ⊤} and
+	 * {@code -v} assigns {@code ⊥} to variable {@code v}
+	 * @return the simplified {@link QBF}
+	 * @throws IllegalArgumentException if a literal is {@code 0} or a
+	 * variable is assigned both values
+	 * @see #assign(Map)
+	 */
+	public QBF assign(int... literals) {
+		Map<String, Boolean> assignment = new HashMap<>();
+		for (int literal : literals) {
+			if (literal == 0)
+				throw new IllegalArgumentException("illegal literal 0");
+
+			Boolean value = literal > 0;
+			Boolean previous =
+				assignment.put(Integer.toString(Math.abs(literal)), value);
+
+			if (previous != null && !previous.equals(value))
+				throw new IllegalArgumentException(
+					"conflicting assignment of " + Math.abs(literal));
+		}
+		return assign(assignment);
 	}
 
 	/**
@@ -1257,7 +1505,13 @@ public abstract class QBF {
 			}
 		}
 
-		return new Cleaner(this).formula;
+		FormulaEvent event = new FormulaEvent.Cleanse();
+		event.begin();
+
+		QBF cleansed = new Cleaner(this).formula;
+
+		event.end(this, cleansed);
+		return cleansed;
 	}
 
 	/**
@@ -1266,6 +1520,16 @@ public abstract class QBF {
 	 * @return this {@link QBF} in negated normal form
 	 */
 	public QBF toNNF() {
+		FormulaEvent event = new FormulaEvent.NNF();
+		event.begin();
+
+		QBF nnf = nnf();
+
+		event.end(this, nnf);
+		return nnf;
+	}
+
+	private QBF nnf() {
 		return this.apply(
 			(True t) -> t,
 			(False f) -> f,
@@ -1274,47 +1538,101 @@ public abstract class QBF {
 				(True t) -> False,
 				(False f) -> True,
 				(Variable var) -> not,
-				(Not impossible) -> not,
+				(Not inner) -> inner.subformula.nnf(),
 				(And and) ->
 					new Or(
 						and.subformulas
 							.stream()
-							.map(f -> f.negate().toNNF())
+							.map(f -> f.negate().nnf())
 							.collect(Collectors.toList())
 					),
 				(Or or) ->
 					new And(
 						or.subformulas
 							.stream()
-							.map(f -> f.negate().toNNF())
+							.map(f -> f.negate().nnf())
 							.collect(Collectors.toList())
 					),
 				(ForAll forall) ->
 					new Exists(
-						forall.subformula.negate().toNNF(),
+						forall.subformula.negate().nnf(),
 						forall.variables),
 				(Exists exists) ->
 					new ForAll(
-						exists.subformula.negate().toNNF(),
+						exists.subformula.negate().nnf(),
 						exists.variables)
 			),
 			(And and) ->
 				new And(
 					and.subformulas.stream()
-						.map(QBF::toNNF)
+						.map(QBF::nnf)
 						.collect(Collectors.toList())),
 			(Or or) ->
 				new Or(
 					or.subformulas.stream()
-						.map(QBF::toNNF)
+						.map(QBF::nnf)
 						.collect(Collectors.toList())),
 			(ForAll forall) ->
-				new ForAll(forall.subformula.toNNF(), forall.variables),
+				new ForAll(forall.subformula.nnf(), forall.variables),
 			(Exists exists) ->
-				new Exists(exists.subformula.toNNF(), exists.variables)
+				new Exists(exists.subformula.nnf(), exists.variables)
 		);
 	}
 
+	/**
+	 * Minimizes the scopes of this formula's quantifiers.
+	 * <p>
+	 * Quantifiers are pushed over gates whose operands do not mention the
+	 * bound variables, blocks are split per operand where the quantifier
+	 * distributes over the gate (i.e. {@code ∀} over {@code ∧} and {@code ∃}
+	 * over {@code ∨}) and unused bound variables are dropped.
+	 * Free variable sets are cached for every node, such that this is
+	 * near-linear in the {@link #getDAGSize DAG size} (apart from copies of
+	 * shared subformulas into which different blocks have been pushed).
+	 * <p>
+	 * Example: {@code ∀x: ∃y: (x ∨ y) ∧ (¬x ∨ ¬y) ∧ z} results in
+	 * {@code (∀x: ∃y: (x ∨ y) ∧ (¬x ∨ ¬y)) ∧ z}.
+	 *
+	 * @return the miniscoped {@link QBF} (not in prenex normal form)
+	 */
+	public QBF miniscope() {
+		FormulaEvent event = new FormulaEvent.Miniscope();
+		event.begin();
+
+		QBF miniscoped = Miniscoping.apply(this);
+
+		event.end(this, miniscoped);
+		return miniscoped;
+	}
+
+	/**
+	 * Decomposes this formula into independent components.
+	 * <p>
+	 * The operands of the conjunction below this formula's prefix are grouped
+	 * into components not sharing any variables, each quantified by the
+	 * prefix restricted to the component's variables (unused bound variables
+	 * are dropped).
+	 * This formula is equivalent to the conjunction of its components, which
+	 * may thus be transformed and solved independently (e.g. in parallel)
+	 * before being recombined.
+	 * Requires time linear in the {@link #getDAGSize DAG size}.
+	 * <p>
+	 * Example: {@code ∃x,y: ∀z: (x ∨ z) ∧ y} results in
+	 * {@code [∃x: ∀z: (x ∨ z), ∃y: y]}.
+	 *
+	 * @return a list of independent components (containing only this
+	 * formula if it cannot be decomposed)
+	 */
+	public List<QBF> decompose() {
+		FormulaEvent event = new FormulaEvent.Decompose();
+		event.begin();
+
+		List<QBF> components = Decomposition.apply(this);
+
+		event.end(this, null);
+		return components;
+	}
+
 	/**
 	 * Transforms this formula into prenex normal form.
 	 *
@@ -0,0 +1,582 @@
+package at.jku.fmv.qbf.aig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+
+/**
+ * An and-inverter graph (AIG).
+ * <p>
+ * Nodes are numbered in order of their creation, starting with the
+ * constant node {@code 0}, followed by inputs and two-input AND gates.
+ * Edges are given by literals {@code 2 * node + complemented} (as in
+ * AIGER), i.e. {@link #FALSE} and {@link #TRUE} refer to the constant node.
+ * Since gates can only be built on top of existing nodes, the numbering is
+ * a topological order.
+ * <p>
+ * Gates are stored in a single {@code int[]} of fanin pairs and are
+ * structurally hashed: {@link #and} returns an existing gate with the same
+ * (ordered) fanins, if present, and simplifies trivial cases
+ * ({@code a ∧ ⊥ = ⊥}, {@code a ∧ ⊤ = a}, {@code a ∧ a = a},
+ * {@code a ∧ ¬a = ⊥}).
+ * The unique table uses open addressing on node indices, thus a gate takes
+ * about 16 bytes.
+ *
+ * @author phlo
+ */
+public final class AIG {
+
+	/** The constant false literal. */
+	public static final int FALSE = 0;
+
+	/** The constant true literal. */
+	public static final int TRUE = 1;
+
+	// fanin literals of each node - inputs store -1 - (input index)
+	private int[] fanins = new int[2 * 1024];
+	private int numNodes = 1;
+
+	// unique table - node indices (0 = empty)
+	private int[] table = new int[2048];
+	private int numAnds;
+
+	// input and output literals and names (null = unnamed)
+	private int[] inputs = new int[64];
+	private final List<String> inputNames = new ArrayList<>();
+	private final Map<String, Integer> namedInputs = new HashMap<>();
+	private int[] outputs = new int[4];
+	private final List<String> outputNames = new ArrayList<>();
+	private int numOutputs;
+
+	/**
+	 * Complements a literal.
+	 *
+	 * @param literal a literal
+	 * @return the complemented literal
+	 */
+	public static int not(int literal) { return literal ^ 1; }
+
+	/**
+	 * Tests if a literal is complemented.
+	 *
+	 * @param literal a literal
+	 * @return {@code true} if {@code literal} is complemented
+	 */
+	public static boolean isComplemented(int literal) {
+		return (literal & 1) != 0;
+	}
+
+	/**
+	 * Gets a literal's node.
+	 *
+	 * @param literal a literal
+	 * @return the node {@code literal} refers to
+	 */
+	public static int getNode(int literal) { return literal >>> 1; }
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return number of nodes, including the constant one
+	 */
+	public int getNumNodes() { return numNodes; }
+
+	/**
+	 * Gets the number of inputs.
+	 *
+	 * @return number of inputs
+	 */
+	public int getNumInputs() { return inputNames.size(); }
+
+	/**
+	 * Gets the number of AND gates.
+	 *
+	 * @return number of AND gates
+	 */
+	public int getNumAnds() { return numAnds; }
+
+	/**
+	 * Gets the number of outputs.
+	 *
+	 * @return number of outputs
+	 */
+	public int getNumOutputs() { return numOutputs; }
+
+	/**
+	 * Tests if a node is an input.
+	 *
+	 * @param node a node
+	 * @return {@code true} if {@code node} is an input
+	 */
+	public boolean isInput(int node) { return node > 0 && fanins[2 * node] < 0; }
+
+	/**
+	 * Tests if a node is an AND gate.
+	 *
+	 * @param node a node
+	 * @return {@code true} if {@code node} is an AND gate
+	 */
+	public boolean isAnd(int node) { return node > 0 && fanins[2 * node] >= 0; }
+
+	/**
+	 * Gets an AND gate's first fanin.
+	 *
+	 * @param node an AND gate
+	 * @return the literal of the first fanin (the greater one)
+	 */
+	public int getLeft(int node) { return fanins[2 * node]; }
+
+	/**
+	 * Gets an AND gate's second fanin.
+	 *
+	 * @param node an AND gate
+	 * @return the literal of the second fanin (the smaller one)
+	 */
+	public int getRight(int node) { return fanins[2 * node + 1]; }
+
+	/**
+	 * Gets an input node's index.
+	 *
+	 * @param node an input node
+	 * @return the index of {@code node} among the inputs
+	 */
+	public int getInputIndex(int node) { return -1 - fanins[2 * node]; }
+
+	/**
+	 * Gets an input.
+	 *
+	 * @param index an input index
+	 * @return the (uncomplemented) literal of the input
+	 */
+	public int getInput(int index) { return inputs[index]; }
+
+	/**
+	 * Gets an input's name.
+	 *
+	 * @param index an input index
+	 * @return the input's name or {@code null} if unnamed
+	 */
+	public String getInputName(int index) { return inputNames.get(index); }
+
+	/**
+	 * Gets an output.
+	 *
+	 * @param index an output index
+	 * @return the literal of the output
+	 */
+	public int getOutput(int index) { return outputs[index]; }
+
+	/**
+	 * Gets an output's name.
+	 *
+	 * @param index an output index
+	 * @return the output's name or {@code null} if unnamed
+	 */
+	public String getOutputName(int index) { return outputNames.get(index); }
+
+	private int newNode(int left, int right) {
+		if (2 * numNodes == fanins.length)
+			fanins = Arrays.copyOf(fanins, fanins.length << 1);
+		fanins[2 * numNodes] = left;
+		fanins[2 * numNodes + 1] = right;
+		return numNodes++;
+	}
+
+	/**
+	 * Adds an unnamed input.
+	 *
+	 * @return the input's literal
+	 */
+	public int addInput() { return addInput(null); }
+
+	/**
+	 * Adds a named input.
+	 *
+	 * @param name the input's name (or {@code null})
+	 * @return the input's literal
+	 * @throws IllegalArgumentException if an input of the same name exists
+	 */
+	public int addInput(String name) {
+		if (name != null && namedInputs.containsKey(name))
+			throw new IllegalArgumentException("duplicate input " + name);
+
+		int index = inputNames.size();
+		int literal = 2 * newNode(-1 - index, 0);
+
+		if (index == inputs.length)
+			inputs = Arrays.copyOf(inputs, index << 1);
+		inputs[index] = literal;
+		inputNames.add(name);
+		if (name != null)
+			namedInputs.put(name, literal);
+
+		return literal;
+	}
+
+	/**
+	 * Gets the input of a given name, creating it if necessary.
+	 *
+	 * @param name an input name
+	 * @return the input's literal
+	 */
+	public int getInput(String name) {
+		Integer literal = namedInputs.get(name);
+		return literal == null ? addInput(name) : literal;
+	}
+
+	/**
+	 * Adds an unnamed output.
+	 *
+	 * @param literal the output's literal
+	 */
+	public void addOutput(int literal) { addOutput(literal, null); }
+
+	/**
+	 * Adds a named output.
+	 *
+	 * @param literal the output's literal
+	 * @param name the output's name (or {@code null})
+	 */
+	public void addOutput(int literal, String name) {
+		check(literal);
+		if (numOutputs == outputs.length)
+			outputs = Arrays.copyOf(outputs, numOutputs << 1);
+		outputs[numOutputs++] = literal;
+		outputNames.add(name);
+	}
+
+	private void check(int literal) {
+		if (literal < 0 || getNode(literal) >= numNodes)
+			throw new IllegalArgumentException("illegal literal " + literal);
+	}
+
+	private static int hash(int left, int right) {
+		int h = left * 0x9E3779B1 + right * 0x85EBCA77;
+		return h ^ (h >>> 15);
+	}
+
+	/**
+	 * Gets the conjunction of two literals.
+	 *
+	 * @param a a literal
+	 * @param b a literal
+	 * @return the literal of {@code a ∧ b}
+	 */
+	public int and(int a, int b) {
+		check(a);
+		check(b);
+
+		if (a == FALSE || b == FALSE || a == not(b)) return FALSE;
+		if (a == TRUE || a == b) return b;
+		if (b == TRUE) return a;
+
+		// normalize order - the first fanin is the greater one
+		if (a < b) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+
+		int mask = table.length - 1;
+		int i = hash(a, b) & mask;
+		for (int node; (node = table[i]) != 0; i = (i + 1) & mask)
+			if (fanins[2 * node] == a && fanins[2 * node + 1] == b)
+				return 2 * node;
+
+		int node = newNode(a, b);
+		table[i] = node;
+		if (++numAnds > table.length >>> 1)
+			rehash();
+
+		return 2 * node;
+	}
+
+	private void rehash() {
+		int[] old = table;
+		table = new int[old.length << 1];
+		int mask = table.length - 1;
+		for (int node : old)
+			if (node != 0) {
+				int i = hash(fanins[2 * node], fanins[2 * node + 1]) & mask;
+				while (table[i] != 0)
+					i = (i + 1) & mask;
+				table[i] = node;
+			}
+	}
+
+	/**
+	 * Gets the disjunction of two literals.
+	 *
+	 * @param a a literal
+	 * @param b a literal
+	 * @return the literal of {@code a ∨ b}
+	 */
+	public int or(int a, int b) { return not(and(not(a), not(b))); }
+
+	/**
+	 * Gets the conjunction of a list of literals as balanced tree.
+	 *
+	 * @param literals a list of literals
+	 * @return the literal of the conjunction ({@link #TRUE} if empty)
+	 */
+	public int and(int... literals) {
+		if (literals.length == 0)
+			return TRUE;
+
+		int[] level = literals.clone();
+		for (int n = level.length; n > 1; n = (n + 1) / 2)
+			for (int i = 0; i < n; i += 2)
+				level[i / 2] = i + 1 < n ? and(level[i], level[i + 1]) : level[i];
+
+		return level[0];
+	}
+
+	/**
+	 * Constructs an AIG from a propositional formula.
+	 *
+	 * @param skeleton a propositional {@link QBF}
+	 * @return an AIG with a single output representing {@code skeleton}
+	 * @throws IllegalArgumentException if {@code skeleton} contains
+	 * quantifiers
+	 * @see #add(QBF)
+	 */
+	public static AIG of(QBF skeleton) {
+		AIG aig = new AIG();
+		aig.addOutput(aig.add(skeleton));
+		return aig;
+	}
+
+	/**
+	 * Adds a propositional formula.
+	 * <p>
+	 * Variables are mapped to (named) inputs, n-ary gates are decomposed
+	 * into balanced trees of AND gates and each distinct node of the
+	 * formula is converted once, i.e. sharing is preserved.
+	 *
+	 * @param skeleton a propositional {@link QBF}
+	 * @return the literal representing {@code skeleton}
+	 * @throws IllegalArgumentException if {@code skeleton} contains
+	 * quantifiers
+	 */
+	public int add(QBF skeleton) {
+		Map<QBF, Integer> results = new IdentityHashMap<>();
+
+		// iterative post-order traversal - formulas may be deep
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(skeleton);
+		while (!stack.isEmpty()) {
+			QBF node = stack.peek();
+
+			if (results.containsKey(node)) {
+				stack.pop();
+				continue;
+			}
+
+			List<QBF> children = node.apply(
+				(True t) -> null,
+				(False f) -> null,
+				(Variable var) -> null,
+				(Not not) -> Collections.singletonList(not.subformula),
+				(And and) -> and.subformulas,
+				(Or or) -> or.subformulas,
+				(ForAll forall) -> {
+					throw new IllegalArgumentException(
+						"not a propositional formula");
+				},
+				(Exists exists) -> {
+					throw new IllegalArgumentException(
+						"not a propositional formula");
+				});
+
+			// push in reverse order - inputs are created from left to right
+			boolean finished = true;
+			if (children != null)
+				for (int i = children.size() - 1; i >= 0; i--)
+					if (!results.containsKey(children.get(i))) {
+						stack.push(children.get(i));
+						finished = false;
+					}
+
+			if (!finished) continue;
+
+			stack.pop();
+
+			results.put(node, node.apply(
+				(True t) -> TRUE,
+				(False f) -> FALSE,
+				(Variable var) -> getInput(var.name),
+				(Not not) -> not(results.get(not.subformula)),
+				(And and) -> and(and.subformulas.stream()
+					.mapToInt(results::get)
+					.toArray()),
+				(Or or) -> not(and(or.subformulas.stream()
+					.mapToInt(f -> not(results.get(f)))
+					.toArray())),
+				(ForAll forall) -> FALSE,
+				(Exists exists) -> FALSE));
+		}
+
+		return results.get(skeleton);
+	}
+
+	/**
+	 * Converts a literal into a propositional formula.
+	 *
+	 * @param literal a literal
+	 * @return the {@link QBF} of {@code literal}
+	 * @see #toQBF(int...)
+	 */
+	public QBF toQBF(int literal) { return toQBF(new int[] {literal}).get(0); }
+
+	/**
+	 * Converts literals into propositional formulas.
+	 * <p>
+	 * Inputs are converted into variables of the same name, where unnamed
+	 * inputs are named by their index, starting from 1.
+	 * Chains of AND gates without other references are merged into n-ary
+	 * conjunctions, while nodes with multiple references (in the cone of the
+	 * given literals) are converted once and shared among the resulting
+	 * formulas.
+	 *
+	 * @param literals an array of literals
+	 * @return a list of the corresponding {@link QBF}s
+	 */
+	public List<QBF> toQBF(int... literals) { return convert(false, literals); }
+
+	/**
+	 * Converts literals into propositional formulas in negation normal form.
+	 * <p>
+	 * Like {@link #toQBF(int...)}, but negations are pushed to the inputs:
+	 * each node is converted at most once per polarity, into a conjunction
+	 * of its leaves (positive) or a disjunction of their negations
+	 * (negative).
+	 *
+	 * @param literals an array of literals
+	 * @return a list of the corresponding {@link QBF}s in NNF
+	 */
+	public List<QBF> toNNF(int... literals) { return convert(true, literals); }
+
+	private List<QBF> convert(boolean nnf, int... literals) {
+		for (int literal : literals)
+			check(literal);
+
+		// count references within the cone of influence
+		int max = 0;
+		for (int literal : literals)
+			max = Math.max(max, getNode(literal));
+
+		int[] references = new int[max + 1];
+		boolean[] inCone = new boolean[max + 1];
+		for (int literal : literals) {
+			inCone[getNode(literal)] = true;
+			references[getNode(literal)] += 2; // never merged into parents
+		}
+
+		for (int node = max; node > 0; node--)
+			if (inCone[node] && isAnd(node))
+				for (int fanin : new int[] {getLeft(node), getRight(node)}) {
+					inCone[getNode(fanin)] = true;
+					references[getNode(fanin)] +=
+						isComplemented(fanin) ? 2 : 1;
+				}
+
+		// required polarities of each node (bit 0 = positive, 1 = negative)
+		byte[] polarities = new byte[max + 1];
+		for (int literal : literals)
+			polarities[getNode(literal)] |= nnf ? 1 << (literal & 1) : 1;
+
+		// leaves of merged AND gates, in reverse topological order
+		int[][] leaves = new int[max + 1][];
+		int[] pending = new int[16];
+		for (int node = max; node > 0; node--) {
+			if (polarities[node] == 0 || !isAnd(node))
+				continue;
+
+			int numLeaves = 0;
+			int[] result = new int[4];
+			int size = 0;
+			pending[size++] = getLeft(node);
+			pending[size++] = getRight(node);
+			while (size > 0) {
+				int fanin = pending[--size], n = getNode(fanin);
+				if (!isComplemented(fanin) && isAnd(n) && references[n] == 1) {
+					if (size + 2 > pending.length)
+						pending = Arrays.copyOf(pending, pending.length << 1);
+					pending[size++] = getLeft(n);
+					pending[size++] = getRight(n);
+				} else {
+					if (numLeaves == result.length)
+						result = Arrays.copyOf(result, numLeaves << 1);
+					result[numLeaves++] = fanin;
+
+					// a negative node requires negated leaves
+					polarities[n] |= nnf
+						? polarities[node] == 3
+							? 3
+							: 1 << ((fanin & 1) ^ (polarities[node] >>> 1))
+						: 1;
+				}
+			}
+			leaves[node] = Arrays.copyOf(result, numLeaves);
+		}
+
+		// convert in topological order
+		QBF[] positive = new QBF[max + 1];
+		QBF[] negative = new QBF[max + 1];
+		positive[0] = QBF.False;
+		negative[0] = QBF.True;
+
+		for (int node = 1; node <= max; node++) {
+			if (polarities[node] == 0)
+				continue;
+
+			if (isInput(node)) {
+				String name = getInputName(getInputIndex(node));
+				positive[node] = new Variable(
+					name != null
+						? name
+						: Integer.toString(getInputIndex(node) + 1));
+				if ((polarities[node] & 2) != 0)
+					negative[node] = new Not(positive[node]);
+				continue;
+			}
+
+			List<QBF> subformulas = new ArrayList<>(leaves[node].length);
+			if ((polarities[node] & 1) != 0) {
+				for (int leaf : leaves[node])
+					subformulas.add(getFormula(leaf, positive, negative));
+				positive[node] = new And(subformulas);
+			}
+			if ((polarities[node] & 2) != 0) {
+				subformulas = new ArrayList<>(leaves[node].length);
+				for (int leaf : leaves[node])
+					subformulas.add(getFormula(not(leaf), positive, negative));
+				negative[node] = new Or(subformulas);
+			}
+		}
+
+		List<QBF> result = new ArrayList<>(literals.length);
+		for (int literal : literals)
+			result.add(getFormula(literal, positive, negative));
+		return result;
+	}
+
+	// negations of positive formulas are created on demand (if not in NNF)
+	private static QBF getFormula(int literal, QBF[] positive, QBF[] negative) {
+		int node = getNode(literal);
+		if (!isComplemented(literal))
+			return positive[node];
+		if (negative[node] == null)
+			negative[node] = new Not(positive[node]);
+		return negative[node];
+	}
+}
@@ -0,0 +1,556 @@
+package at.jku.fmv.qbf.aig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.solver.CDCL;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+/**
+ * SAT sweeping: merges functionally equivalent gates of an {@link AIG}
+ * (functional reduction) [MCBE06].
+ * <p>
+ * The graph is rebuilt in topological order.
+ * Each new gate is simulated bit-parallel on random input patterns (64 per
+ * word) and its signature, normalized with respect to complementation, is
+ * looked up among the representatives of previously built nodes,
+ * including the constant and the inputs.
+ * Candidates are confirmed by an incremental {@link CDCL} solver, which
+ * encodes the gates' cones on demand, and the gate is merged into the
+ * first proven representative.
+ * Counterexamples are collected and, once 64 are available, appended to
+ * the simulation patterns to split the candidate classes.
+ * <p>
+ * The effort is bounded by the number of random simulation words, a
+ * conflict limit per SAT call and the total number of equivalence checks.
+ * Undecided checks are treated as non-equivalent, thus the result is
+ * always equivalent to the input.
+ * <p>
+ * Sweepers are stateful - statistics refer to the last call to
+ * {@link #apply(AIG)}.
+ * <p>
+ * [MCBE06] A. Mishchenko, S. Chatterjee, R. Brayton and N. Een.
+ * Improvements to Combinational Equivalence Checking. In <i>Proc.
+ * ICCAD</i>, pp. 836-843, 2006.
+ *
+ * @author phlo
+ */
+public final class Sweeper {
+
+	// default number of random simulation words
+	private static final int WORDS = 4;
+
+	// default conflict limit per SAT call
+	private static final long CONFLICT_LIMIT = 100;
+
+	// default limit on the number of equivalence checks
+	private static final long CHECK_LIMIT = 100000;
+
+	// maximum number of random simulation words
+	private static final int MAX_WORDS = 64;
+
+	// maximum number of simulation words added from counterexamples
+	private static final int MAX_REFINEMENTS = 4;
+
+	// seed of the random simulation patterns
+	private static final long SEED = 0;
+
+	private final int words;
+	private final long conflictLimit;
+	private final long checkLimit;
+
+	// statistics
+	private int initialGates;
+	private int gates;
+	private long checks;
+	private long merged;
+	private long disproved;
+	private long undecided;
+	private long refinements;
+
+	// reduced graph under construction
+	private AIG result;
+
+	// canonical literal of each node (2 * node for representatives)
+	private int[] canonical;
+
+	// simulation words of each node (width words per node)
+	private long[] simulation;
+	private int width;
+	private Random random;
+
+	// candidate classes: signature hash -> list of representatives
+	private Map<Long, Integer> classes;
+	private int[] next; // next representative in the same class (-1 = none)
+
+	// equivalence checking
+	private CDCL sat;
+	private int[] variables; // CDCL variable of each node (0 = not encoded)
+
+	// counterexamples (bit i of each input's word = value in the i-th one)
+	private long[] counterexamples;
+	private int numCounterexamples;
+
+	/** Constructs a sweeper using the default limits. */
+	public Sweeper() { this(WORDS, CONFLICT_LIMIT, CHECK_LIMIT); }
+
+	/**
+	 * Constructs a sweeper using the given limits.
+	 *
+	 * @param words number of random simulation words (64 patterns each)
+	 * @param conflictLimit maximum number of conflicts per SAT call
+	 * @param checkLimit maximum number of equivalence checks
+	 * @throws IllegalArgumentException if a limit is not positive or
+	 * {@code words} exceeds 64
+	 */
+	public Sweeper(int words, long conflictLimit, long checkLimit) {
+		if (words < 1 || words > MAX_WORDS)
+			throw new IllegalArgumentException(
+				"number of words must be in [1, " + MAX_WORDS + "]");
+		if (conflictLimit < 1 || checkLimit < 1)
+			throw new IllegalArgumentException("limits must be positive");
+
+		this.words = words;
+		this.conflictLimit = conflictLimit;
+		this.checkLimit = checkLimit;
+	}
+
+	/**
+	 * Gets the number of gates before sweeping.
+	 *
+	 * @return number of AND gates in the cone of the input's outputs
+	 */
+	public int getInitialGates() { return initialGates; }
+
+	/**
+	 * Gets the number of gates after sweeping.
+	 *
+	 * @return number of AND gates of the result
+	 */
+	public int getGates() { return gates; }
+
+	/**
+	 * Gets the number of clauses before sweeping.
+	 *
+	 * @return number of clauses of the input's Tseitin encoding (three per
+	 * gate)
+	 */
+	public long getInitialClauses() { return 3L * initialGates; }
+
+	/**
+	 * Gets the number of clauses after sweeping.
+	 *
+	 * @return number of clauses of the result's Tseitin encoding (three per
+	 * gate)
+	 */
+	public long getClauses() { return 3L * gates; }
+
+	/**
+	 * Gets the number of equivalence checks.
+	 *
+	 * @return number of candidate pairs checked by the SAT solver
+	 */
+	public long getChecks() { return checks; }
+
+	/**
+	 * Gets the number of merged gates.
+	 *
+	 * @return number of gates proven equivalent to a representative
+	 */
+	public long getMerged() { return merged; }
+
+	/**
+	 * Gets the number of disproved candidates.
+	 *
+	 * @return number of checks yielding a counterexample
+	 */
+	public long getDisproved() { return disproved; }
+
+	/**
+	 * Gets the number of undecided candidates.
+	 *
+	 * @return number of checks exceeding the conflict limit
+	 */
+	public long getUndecided() { return undecided; }
+
+	/**
+	 * Gets the number of simulation refinements.
+	 *
+	 * @return number of simulation words added from counterexamples
+	 */
+	public long getRefinements() { return refinements; }
+
+	/**
+	 * Sweeps the matrix of a formula in PNF.
+	 * <p>
+	 * Propositional formulas are regarded as PNF with an empty prefix.
+	 *
+	 * @param pnf {@link QBF} in PNF
+	 * @return an equivalent formula in PNF with the same prefix and a
+	 * reduced matrix in NNF
+	 * @throws IllegalArgumentException if {@code pnf} is not in PNF
+	 */
+	public QBF apply(QBF pnf) {
+		FormulaEvent event = new FormulaEvent.Sweep();
+		event.begin();
+
+		List<Quantifier> prefix = new ArrayList<>();
+		QBF matrix = pnf;
+		while (matrix.isQuantifier()) {
+			prefix.add((Quantifier) matrix);
+			matrix = ((Quantifier) matrix).subformula;
+		}
+
+		if (!matrix.getBoundVariables().isEmpty())
+			throw new IllegalArgumentException("not in prenex normal form");
+
+		AIG reduced = apply(AIG.of(matrix));
+		QBF result = reduced.toNNF(reduced.getOutput(0)).get(0);
+
+		for (int i = prefix.size() - 1; i >= 0; i--) {
+			Quantifier q = prefix.get(i);
+			result = q.isForAll()
+				? new ForAll(result, q.variables)
+				: new Exists(result, q.variables);
+		}
+
+		event.end(pnf, result);
+		return result;
+	}
+
+	/**
+	 * Sweeps an {@link AIG}.
+	 * <p>
+	 * The result contains the same inputs and outputs (in order and with
+	 * the same names), where only gates in the outputs' cone are kept.
+	 *
+	 * @param aig an {@link AIG}
+	 * @return an equivalent {@link AIG} without (detected) functionally
+	 * equivalent gates
+	 */
+	public AIG apply(AIG aig) {
+		initialGates = gates = 0;
+		checks = merged = disproved = undecided = refinements = 0;
+
+		int n = aig.getNumNodes();
+		boolean[] inCone = getCone(aig, getOutputs(aig));
+		for (int node = 1; node < n; node++)
+			if (inCone[node] && aig.isAnd(node))
+				initialGates++;
+
+		// result nodes never outnumber the input's
+		result = new AIG();
+		canonical = new int[n];
+		width = words;
+		simulation = new long[n * width];
+		random = new Random(SEED);
+		classes = new HashMap<>();
+		next = new int[n];
+		sat = new CDCL();
+		variables = new int[n];
+		counterexamples = new long[aig.getNumInputs()];
+		numCounterexamples = 0;
+
+		// constant node
+		variables[0] = sat.newVariable();
+		sat.addClause(-variables[0]);
+		insert(0);
+
+		// inputs first - preserving order and names
+		int[] map = new int[n];
+		for (int i = 0; i < aig.getNumInputs(); i++) {
+			int input = result.addInput(aig.getInputName(i));
+			int node = AIG.getNode(input);
+			for (int w = 0; w < width; w++)
+				simulation[node * width + w] = random.nextLong();
+			map[AIG.getNode(aig.getInput(i))] = input;
+			insert(node);
+		}
+
+		for (int node = 1; node < n; node++) {
+			if (!inCone[node] || !aig.isAnd(node))
+				continue;
+
+			int numNodes = result.getNumNodes();
+			int literal = result.and(
+				translate(aig.getLeft(node), map),
+				translate(aig.getRight(node), map));
+			int gate = AIG.getNode(literal);
+
+			map[node] = gate >= numNodes
+				? sweep(gate) ^ (literal & 1)
+				: canonical[gate] ^ (literal & 1);
+		}
+
+		// copy the outputs' cone
+		int[] outputs = new int[aig.getNumOutputs()];
+		for (int i = 0; i < outputs.length; i++)
+			outputs[i] = translate(aig.getOutput(i), map);
+
+		String[] names = new String[outputs.length];
+		for (int i = 0; i < outputs.length; i++)
+			names[i] = aig.getOutputName(i);
+
+		AIG reduced = copy(result, outputs, names);
+		gates = reduced.getNumAnds();
+
+		// release state
+		result = null;
+		canonical = next = variables = null;
+		simulation = counterexamples = null;
+		classes = null;
+		sat = null;
+
+		return reduced;
+	}
+
+	private static int[] getOutputs(AIG aig) {
+		int[] outputs = new int[aig.getNumOutputs()];
+		for (int i = 0; i < outputs.length; i++)
+			outputs[i] = aig.getOutput(i);
+		return outputs;
+	}
+
+	// nodes in the cone of the given literals
+	private static boolean[] getCone(AIG aig, int[] literals) {
+		boolean[] inCone = new boolean[aig.getNumNodes()];
+		for (int literal : literals)
+			inCone[AIG.getNode(literal)] = true;
+		for (int node = aig.getNumNodes() - 1; node > 0; node--)
+			if (inCone[node] && aig.isAnd(node)) {
+				inCone[AIG.getNode(aig.getLeft(node))] = true;
+				inCone[AIG.getNode(aig.getRight(node))] = true;
+			}
+		return inCone;
+	}
+
+	// copies all inputs and the cone of the given outputs
+	private static AIG copy(AIG aig, int[] outputs, String[] names) {
+		AIG copy = new AIG();
+		int[] map = new int[aig.getNumNodes()];
+
+		for (int i = 0; i < aig.getNumInputs(); i++)
+			map[AIG.getNode(aig.getInput(i))] =
+				copy.addInput(aig.getInputName(i));
+
+		boolean[] inCone = getCone(aig, outputs);
+		for (int node = 1; node < aig.getNumNodes(); node++)
+			if (inCone[node] && aig.isAnd(node))
+				map[node] = copy.and(
+					translate(aig.getLeft(node), map),
+					translate(aig.getRight(node), map));
+
+		for (int i = 0; i < outputs.length; i++)
+			copy.addOutput(translate(outputs[i], map), names[i]);
+
+		return copy;
+	}
+
+	private static int translate(int literal, int[] map) {
+		return map[AIG.getNode(literal)] ^ (literal & 1);
+	}
+
+	// simulation word of a literal
+	private long simulate(int literal, int w) {
+		return simulation[AIG.getNode(literal) * width + w] ^ -(literal & 1);
+	}
+
+	private void simulate(int gate, int from, int to) {
+		int left = result.getLeft(gate), right = result.getRight(gate);
+		for (int w = from; w < to; w++)
+			simulation[gate * width + w] =
+				simulate(left, w) & simulate(right, w);
+	}
+
+	// phase of a node's signature (value under the first pattern)
+	private long phase(int node) {
+		return -(simulation[node * width] & 1);
+	}
+
+	private long hash(int node) {
+		long phase = phase(node), h = 0;
+		for (int w = 0; w < width; w++)
+			h = (h ^ simulation[node * width + w] ^ phase)
+				* 0x9E3779B97F4A7C15L;
+		return h ^ h >>> 32;
+	}
+
+	// compares normalized signatures
+	private boolean isCandidate(int a, int b) {
+		long phaseA = phase(a), phaseB = phase(b);
+		for (int w = 0; w < width; w++)
+			if ((simulation[a * width + w] ^ phaseA)
+				!= (simulation[b * width + w] ^ phaseB))
+				return false;
+		return true;
+	}
+
+	// adds a representative to its candidate class
+	private void insert(int node) {
+		canonical[node] = 2 * node;
+		Integer head = classes.put(hash(node), node);
+		next[node] = head == null ? -1 : head;
+	}
+
+	// returns the canonical literal of a new gate
+	private int sweep(int gate) {
+		simulate(gate, 0, width);
+
+		int literal = -1;
+		Integer head = classes.get(hash(gate));
+		for (int r = head == null ? -1 : head; r >= 0; r = next[r]) {
+			if (checks >= checkLimit)
+				break;
+			if (!isCandidate(gate, r))
+				continue;
+
+			int candidate = 2 * r + (phase(gate) == phase(r) ? 0 : 1);
+			Boolean equivalent = prove(2 * gate, candidate);
+			if (equivalent == null) {
+				undecided++;
+			} else if (equivalent) {
+				merged++;
+				literal = canonical[gate] = candidate;
+				break;
+			} else {
+				disproved++;
+			}
+		}
+
+		if (literal < 0) {
+			insert(gate);
+			literal = 2 * gate;
+		}
+
+		if (numCounterexamples == 64)
+			refine();
+
+		return literal;
+	}
+
+	// checks the equivalence of two literals
+	private Boolean prove(int a, int b) {
+		checks++;
+
+		int x = encode(a), y = encode(b);
+
+		for (int sign = 1; sign >= -1; sign -= 2) {
+			Boolean satisfiable =
+				sat.solveLimited(conflictLimit, sign * x, -sign * y);
+			if (satisfiable == null)
+				return null;
+			if (satisfiable) {
+				addCounterexample();
+				return false;
+			}
+		}
+
+		sat.addClause(-x, y);
+		sat.addClause(x, -y);
+
+		return true;
+	}
+
+	// encodes the cone of a literal - returns its DIMACS literal
+	private int encode(int literal) {
+		int[] stack = new int[16];
+		int size = 0;
+		stack[size++] = AIG.getNode(literal);
+
+		while (size > 0) {
+			int node = stack[size - 1];
+			if (variables[node] != 0) {
+				size--;
+				continue;
+			}
+
+			if (result.isInput(node)) {
+				variables[node] = sat.newVariable();
+				size--;
+				continue;
+			}
+
+			int left = result.getLeft(node), right = result.getRight(node);
+			if (variables[AIG.getNode(left)] == 0
+				|| variables[AIG.getNode(right)] == 0) {
+				if (size + 2 > stack.length)
+					stack = Arrays.copyOf(stack, stack.length << 1);
+				if (variables[AIG.getNode(left)] == 0)
+					stack[size++] = AIG.getNode(left);
+				if (variables[AIG.getNode(right)] == 0)
+					stack[size++] = AIG.getNode(right);
+				continue;
+			}
+
+			int v = sat.newVariable();
+			int a = toDIMACS(left), b = toDIMACS(right);
+			sat.addClause(-v, a);
+			sat.addClause(-v, b);
+			sat.addClause(v, -a, -b);
+			variables[node] = v;
+			size--;
+		}
+
+		return toDIMACS(literal);
+	}
+
+	private int toDIMACS(int literal) {
+		int var = variables[AIG.getNode(literal)];
+		return AIG.isComplemented(literal) ? -var : var;
+	}
+
+	// stores the input values of the last model
+	private void addCounterexample() {
+		for (int i = 0; i < counterexamples.length; i++) {
+			int var = variables[AIG.getNode(result.getInput(i))];
+			boolean value = var != 0 ? sat.getValue(var) : random.nextBoolean();
+			if (value)
+				counterexamples[i] |= 1L << numCounterexamples;
+		}
+		numCounterexamples++;
+	}
+
+	// appends the counterexamples to the simulation patterns
+	private void refine() {
+		numCounterexamples = 0;
+
+		if (width == words + MAX_REFINEMENTS) {
+			Arrays.fill(counterexamples, 0);
+			return;
+		}
+
+		refinements++;
+
+		int numNodes = result.getNumNodes();
+		long[] extended = new long[canonical.length * (width + 1)];
+		for (int node = 0; node < numNodes; node++)
+			System.arraycopy(
+				simulation, node * width,
+				extended, node * (width + 1),
+				width);
+		simulation = extended;
+		width++;
+
+		for (int i = 0; i < counterexamples.length; i++) {
+			int node = AIG.getNode(result.getInput(i));
+			simulation[node * width + width - 1] = counterexamples[i];
+			counterexamples[i] = 0;
+		}
+
+		// resimulate and rebuild the candidate classes
+		classes.clear();
+		insert(0);
+		for (int node = 1; node < numNodes; node++) {
+			if (result.isAnd(node))
+				simulate(node, width - 1, width);
+			if (canonical[node] == 2 * node)
+				insert(node);
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package at.jku.fmv.qbf.eval;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+
+/**
+ * A compiled evaluator of propositional formulas.
+ * <p>
+ * The formula's DAG is linearized into a topologically ordered array of
+ * {@link And} and {@link Or} gates over literals (negations are folded into
+ * the gates' operands).
+ * Evaluation is bit-parallel: each {@code long} word holds 64 independent
+ * assignments, i.e. bit {@code i} of variable {@code v}'s word is the value
+ * of {@code v} in assignment {@code i}.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * Evaluator eval = new Evaluator(formula.getSkeleton());
+ * long[] inputs = new long[eval.getVariables().size()];
+ * // fill inputs with 64 assignments
+ * long outputs = eval.evaluate(inputs);
+ * }</pre>
+ * Instances are immutable and thread-safe, evaluation only allocates a
+ * value buffer per call.
+ *
+ * @author phlo
+ */
+public final class Evaluator {
+
+	// literal encoding: 2 * signal + negated
+	// signal 0: constant false, 1 .. #variables: inputs, then gates
+
+	private final List<String> variables;
+	private final Map<String, Integer> indices;
+
+	// gates in topological order: operands of gate i are in
+	// operands[offsets[i] .. offsets[i + 1])
+	private final boolean[] isAnd;
+	private final int[] offsets;
+	private final int[] operands;
+
+	private final int output;
+
+	/**
+	 * Compiles a given propositional formula.
+	 *
+	 * @param formula a quantifier-free {@link QBF}
+	 * @throws IllegalArgumentException if {@code formula} contains
+	 * quantifiers
+	 */
+	public Evaluator(QBF formula) {
+		List<String> variables = new ArrayList<>();
+		Map<String, Integer> indices = new HashMap<>();
+
+		// gates in post-order
+		List<MultiaryOperator> gates = new ArrayList<>();
+		Set<QBF> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		// iterative post-order traversal - formulas may be deep
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(formula);
+		while (!stack.isEmpty()) {
+			QBF node = stack.peek();
+
+			if (visited.contains(node)) {
+				stack.pop();
+				continue;
+			}
+
+			List<QBF> children = node.apply(
+				(True t) -> Collections.<QBF>emptyList(),
+				(False f) -> Collections.<QBF>emptyList(),
+				(Variable var) -> Collections.<QBF>emptyList(),
+				(Not not) -> Collections.singletonList(not.subformula),
+				(And and) -> and.subformulas,
+				(Or or) -> or.subformulas,
+				(ForAll forall) -> {
+					throw new IllegalArgumentException("not propositional");
+				},
+				(Exists exists) -> {
+					throw new IllegalArgumentException("not propositional");
+				});
+
+			boolean finished = true;
+			for (QBF child : children)
+				if (!visited.contains(child)) {
+					stack.push(child);
+					finished = false;
+				}
+
+			if (!finished) continue;
+
+			stack.pop();
+			visited.add(node);
+
+			node.accept(
+				(True t) -> {},
+				(False f) -> {},
+				(Variable var) -> {
+					if (!indices.containsKey(var.name)) {
+						indices.put(var.name, variables.size());
+						variables.add(var.name);
+					}
+				},
+				(Not not) -> {},
+				(And and) -> gates.add(and),
+				(Or or) -> gates.add(or),
+				(ForAll forall) -> {},
+				(Exists exists) -> {});
+		}
+
+		this.variables = Collections.unmodifiableList(variables);
+		this.indices = indices;
+
+		// gates follow the constant and inputs
+		Map<QBF, Integer> signals = new IdentityHashMap<>();
+		for (int i = 0; i < gates.size(); i++)
+			signals.put(gates.get(i), 1 + variables.size() + i);
+
+		isAnd = new boolean[gates.size()];
+		offsets = new int[gates.size() + 1];
+		operands = new int[
+			gates.stream().mapToInt(g -> g.subformulas.size()).sum()];
+
+		for (int i = 0, j = 0; i < gates.size(); i++) {
+			MultiaryOperator gate = gates.get(i);
+			isAnd[i] = gate.isAnd();
+			for (QBF f : gate.subformulas)
+				operands[j++] = getLiteral(f, signals);
+			offsets[i + 1] = j;
+		}
+
+		output = getLiteral(formula, signals);
+	}
+
+	private int getLiteral(QBF node, Map<QBF, Integer> signals) {
+		int negated = 0;
+		while (node.isNegation()) {
+			node = ((Not) node).subformula;
+			negated ^= 1;
+		}
+
+		int literal = node.apply(
+			(True t) -> 1, // ¬false
+			(False f) -> 0,
+			(Variable var) -> 2 * (1 + indices.get(var.name)),
+			(Not not) -> -1,
+			(And and) -> 2 * signals.get(and),
+			(Or or) -> 2 * signals.get(or),
+			(ForAll forall) -> -1,
+			(Exists exists) -> -1);
+
+		return literal ^ negated;
+	}
+
+	/**
+	 * Gets the formula's variables.
+	 *
+	 * @return an unmodifiable list of variables, in input order
+	 */
+	public List<String> getVariables() { return variables; }
+
+	/**
+	 * Gets the number of gates.
+	 *
+	 * @return number of {@link And} and {@link Or} gates
+	 */
+	public int getNumGates() { return isAnd.length; }
+
+	// branch-free: negated literals flip all bits
+	private static long get(long[] values, int literal) {
+		return values[literal >>> 1] ^ -(long) (literal & 1);
+	}
+
+	/**
+	 * Evaluates 64 assignments in parallel.
+	 *
+	 * @param inputs one word per variable (in order of {@link #getVariables})
+	 * @return output word, where bit {@code i} is the formula's value under
+	 * assignment {@code i}
+	 * @throws IllegalArgumentException if the number of inputs is wrong
+	 */
+	public long evaluate(long[] inputs) {
+		if (inputs.length != variables.size())
+			throw new IllegalArgumentException("illegal number of inputs");
+
+		long[] values = new long[1 + inputs.length + isAnd.length];
+		System.arraycopy(inputs, 0, values, 1, inputs.length);
+
+		for (int g = 0, signal = 1 + inputs.length; g < isAnd.length; g++) {
+			int from = offsets[g], to = offsets[g + 1];
+			long value;
+			if (isAnd[g]) {
+				value = -1L;
+				for (int j = from; j < to; j++)
+					value &= get(values, operands[j]);
+			} else {
+				value = 0L;
+				for (int j = from; j < to; j++)
+					value |= get(values, operands[j]);
+			}
+			values[signal++] = value;
+		}
+
+		return get(values, output);
+	}
+
+	/**
+	 * Evaluates 64 partial assignments in parallel.
+	 * <p>
+	 * Uses dual-rail encoding: variable {@code v} is true in assignment
+	 * {@code i} if bit {@code i} of {@code ones[v]} is set, false if bit
+	 * {@code i} of {@code zeros[v]} is set, and unassigned otherwise.
+	 *
+	 * @param ones words of true variables (in order of {@link #getVariables})
+	 * @param zeros words of false variables
+	 * @return two words, containing the assignments under which the formula
+	 * evaluates to true (index 0) and false (index 1)
+	 * @throws IllegalArgumentException if the number of inputs is wrong or
+	 * a variable is both true and false
+	 */
+	public long[] evaluate(long[] ones, long[] zeros) {
+		if (ones.length != variables.size() || zeros.length != ones.length)
+			throw new IllegalArgumentException("illegal number of inputs");
+
+		int n = 1 + ones.length + isAnd.length;
+		long[] t = new long[n], f = new long[n];
+
+		f[0] = -1L;
+		for (int i = 0; i < ones.length; i++) {
+			if ((ones[i] & zeros[i]) != 0)
+				throw new IllegalArgumentException(
+					"conflicting assignment of " + variables.get(i));
+			t[i + 1] = ones[i];
+			f[i + 1] = zeros[i];
+		}
+
+		for (int g = 0, signal = 1 + ones.length; g < isAnd.length; g++) {
+			// any operand false (∧) / true (∨) vs. all operands true / false
+			long any = 0L, all = -1L;
+			for (int j = offsets[g]; j < offsets[g + 1]; j++) {
+				int literal = operands[j], s = literal >>> 1;
+				boolean negated = (literal & 1) != 0;
+				long on = negated ? f[s] : t[s];
+				long off = negated ? t[s] : f[s];
+				if (isAnd[g]) {
+					any |= off;
+					all &= on;
+				} else {
+					any |= on;
+					all &= off;
+				}
+			}
+
+			if (isAnd[g]) {
+				t[signal] = all;
+				f[signal] = any;
+			} else {
+				t[signal] = any;
+				f[signal] = all;
+			}
+			signal++;
+		}
+
+		int s = output >>> 1;
+		return (output & 1) == 0
+			? new long[] {t[s], f[s]}
+			: new long[] {f[s], t[s]};
+	}
+
+	/**
+	 * Evaluates a single (partial) assignment.
+	 *
+	 * @param assignment maps variables to their values - missing variables
+	 * are unassigned
+	 * @return the formula's value or {@code null} if undetermined
+	 */
+	public Boolean evaluate(Map<String, Boolean> assignment) {
+		long[] ones = new long[variables.size()];
+		long[] zeros = new long[variables.size()];
+
+		assignment.forEach((var, value) -> {
+			Integer idx = indices.get(var);
+			if (idx != null && value != null) {
+				if (value) ones[idx] = 1;
+				else zeros[idx] = 1;
+			}
+		});
+
+		long[] result = evaluate(ones, zeros);
+		return (result[0] & 1) != 0
+			? Boolean.TRUE
+			: (result[1] & 1) != 0 ? Boolean.FALSE : null;
+	}
+
+	@Override
+	public String toString() {
+		return "Evaluator[variables=" + variables.size()
+			+ ", gates=" + isAnd.length + "]";
+	}
+}
@@ -0,0 +1,465 @@
+package at.jku.fmv.qbf.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import at.jku.fmv.qbf.aig.AIG;
+import at.jku.fmv.qbf.io.util.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+/**
+ * A class for reading and writing (combinational) AIGER files.
+ * <p>
+ * Both the ASCII ({@code aag}) and the binary ({@code aig}) format are
+ * supported, including symbol tables of inputs and outputs.
+ * Latches and the extensions of AIGER 1.9 (bad state properties,
+ * constraints, justice and fairness) are not supported.
+ * <p>
+ * See
+ * <a href="http://fmv.jku.at/aiger/FORMAT">
+ * http://fmv.jku.at/aiger/FORMAT
+ * </a>
+ * for details on the file format.
+ *
+ * @author phlo
+ */
+public final class AIGER {
+
+	// prevent instantiation
+	private AIGER() {}
+
+	// header fields
+	private static final int M = 0, I = 1, L = 2, O = 3, A = 4;
+
+	/**
+	 * Reads a given AIGER file.
+	 *
+	 * @param file a file {@link Path}
+	 * @return the contained {@link AIG}
+	 * @throws IOException if the given {@link Path} is not accessible
+	 */
+	public static AIG read(Path file) throws IOException {
+		byte[] buffer = Files.readAllBytes(file);
+
+		if (buffer.length == 0)
+			throw new ParserException(file, "file is empty");
+
+		FormulaEvent event = new FormulaEvent.Parse(
+			file.toString(),
+			buffer.length);
+		event.begin();
+
+		BufferTokenizer t = new BufferTokenizer(buffer);
+		BufferTokenizer words = new BufferTokenizer(buffer);
+
+		// header
+		t.nextLine();
+		words.reset(t.start, t.end);
+		words.nextWord();
+
+		boolean binary = words.matches("aig");
+		if (!binary && !words.matches("aag"))
+			throw new ParserException(file, "missing header", 1);
+
+		int[] header = new int[9];
+		int fields = 0;
+		while (words.nextWord()) {
+			if (fields == header.length)
+				throw new ParserException(file, "illegal header", 1);
+			try {
+				header[fields++] = words.parseInt();
+			} catch (NumberFormatException e) {
+				throw new ParserException(
+					file,
+					"illegal header field '" + words + "'",
+					1);
+			}
+		}
+
+		if (fields < 5)
+			throw new ParserException(file, "incomplete header", 1);
+		if (header[L] != 0)
+			throw new ParserException(file, "latches not supported", 1);
+		for (int i = 5; i < fields; i++)
+			if (header[i] != 0)
+				throw new ParserException(
+					file,
+					"AIGER 1.9 extensions not supported",
+					1);
+		if (header[M] < header[I] + header[A] || header[M] < 0)
+			throw new ParserException(file, "inconsistent header", 1);
+		if (binary && header[M] != header[I] + header[A])
+			throw new ParserException(file, "inconsistent header", 1);
+
+		int maxVariable = header[M];
+		int line = 1;
+
+		// inputs
+		int[] inputs = new int[header[I]];
+		for (int i = 0; i < inputs.length; i++)
+			if (binary) {
+				inputs[i] = i + 1;
+			} else {
+				nextLine(file, t, words, ++line);
+				int lit = parseLiteral(file, words, line, maxVariable);
+				if ((lit & 1) != 0 || lit < 2)
+					throw new ParserException(
+						file,
+						"illegal input literal " + lit,
+						line);
+				inputs[i] = lit >>> 1;
+			}
+
+		// outputs
+		int[] outputs = new int[header[O]];
+		for (int i = 0; i < outputs.length; i++) {
+			nextLine(file, t, words, ++line);
+			outputs[i] = parseLiteral(file, words, line, maxVariable);
+		}
+
+		// gates - defining variable and fanin literals
+		int[] gates = new int[header[A]];
+		int[] fanins = new int[2 * header[A]];
+		int pos = t.position();
+		for (int i = 0; i < gates.length; i++)
+			if (binary) {
+				int lhs = 2 * (header[I] + i + 1);
+				int delta0, delta1;
+				try {
+					delta0 = decode(buffer, pos);
+					pos += length(delta0);
+					delta1 = decode(buffer, pos);
+					pos += length(delta1);
+				} catch (IndexOutOfBoundsException e) {
+					throw new ParserException(file, "unexpected end of file");
+				}
+				int rhs0 = lhs - delta0, rhs1 = rhs0 - delta1;
+				if (delta0 <= 0 || rhs1 < 0)
+					throw new ParserException(
+						file,
+						"illegal delta encoding of gate " + lhs);
+				gates[i] = lhs >>> 1;
+				fanins[2 * i] = rhs0;
+				fanins[2 * i + 1] = rhs1;
+			} else {
+				nextLine(file, t, words, ++line);
+				int lhs = parseLiteral(file, words, line, maxVariable);
+				if ((lhs & 1) != 0 || lhs < 2)
+					throw new ParserException(
+						file,
+						"illegal gate literal " + lhs,
+						line);
+				gates[i] = lhs >>> 1;
+				fanins[2 * i] = parseLiteral(file, words, line, maxVariable);
+				fanins[2 * i + 1] = parseLiteral(file, words, line, maxVariable);
+			}
+
+		if (binary)
+			t.reset(pos, buffer.length);
+
+		// symbol table
+		String[] inputNames = new String[inputs.length];
+		String[] outputNames = new String[outputs.length];
+		while (t.nextLine()) {
+			line++;
+			if (t.isEmpty())
+				continue;
+			if (t.startsWith("c"))
+				break;
+
+			words.reset(t.start, t.end);
+			if (!words.next(' '))
+				throw new ParserException(file, "illegal symbol", line);
+			String name = new String(
+				buffer,
+				words.position(),
+				t.end - words.position(),
+				StandardCharsets.UTF_8);
+
+			byte type = buffer[words.start];
+			words.start++;
+			int index;
+			try {
+				index = words.parseInt();
+			} catch (NumberFormatException e) {
+				index = -1;
+			}
+
+			String[] names =
+				type == 'i' ? inputNames : type == 'o' ? outputNames : null;
+			if (names == null || index < 0 || index >= names.length)
+				throw new ParserException(file, "illegal symbol", line);
+			names[index] = name;
+		}
+
+		// build AIG - ASCII gates may be defined in any order
+		AIG aig = new AIG();
+		int[] map = new int[maxVariable + 1];
+		Arrays.fill(map, -1);
+		map[0] = AIG.FALSE;
+
+		int[] definition = new int[maxVariable + 1];
+		Arrays.fill(definition, -1);
+
+		try {
+			for (int i = 0; i < inputs.length; i++) {
+				if (map[inputs[i]] >= 0)
+					throw new ParserException(
+						file,
+						"variable " + inputs[i] + " defined twice");
+				map[inputs[i]] = aig.addInput(inputNames[i]);
+			}
+		} catch (IllegalArgumentException e) {
+			throw new ParserException(file, e.getMessage(), e);
+		}
+
+		for (int i = 0; i < gates.length; i++) {
+			if (map[gates[i]] >= 0 || definition[gates[i]] >= 0)
+				throw new ParserException(
+					file,
+					"variable " + gates[i] + " defined twice");
+			definition[gates[i]] = i;
+		}
+
+		// iterative depth first search (-2 = visiting)
+		int[] stack = new int[16];
+		for (int i = 0; i < gates.length; i++) {
+			int size = 0;
+			stack[size++] = gates[i];
+
+			while (size > 0) {
+				int var = stack[size - 1];
+				if (map[var] >= 0) {
+					size--;
+					continue;
+				}
+
+				int g = definition[var];
+				if (g < 0)
+					throw new ParserException(
+						file,
+						"undefined variable " + var);
+
+				int left = fanins[2 * g] >>> 1, right = fanins[2 * g + 1] >>> 1;
+				if (map[var] == -1 && (map[left] < 0 || map[right] < 0)) {
+					map[var] = -2;
+					if (size + 2 > stack.length)
+						stack = Arrays.copyOf(stack, stack.length << 1);
+					if (map[left] == -1) stack[size++] = left;
+					if (map[right] == -1) stack[size++] = right;
+					continue;
+				}
+
+				if (map[left] < 0 || map[right] < 0)
+					throw new ParserException(
+						file,
+						"cyclic definition of variable " + var);
+
+				map[var] = aig.and(
+					map[left] ^ (fanins[2 * g] & 1),
+					map[right] ^ (fanins[2 * g + 1] & 1));
+				size--;
+			}
+		}
+
+		for (int i = 0; i < outputs.length; i++) {
+			int var = outputs[i] >>> 1;
+			if (map[var] < 0)
+				throw new ParserException(
+					file,
+					"undefined variable " + var);
+			aig.addOutput(map[var] ^ (outputs[i] & 1), outputNames[i]);
+		}
+
+		event.end(null, null);
+		return aig;
+	}
+
+	// advances lines to the next one and restricts words to it
+	private static void nextLine(
+		Path file,
+		BufferTokenizer lines,
+		BufferTokenizer words,
+		int line
+	) {
+		if (!lines.nextLine())
+			throw new ParserException(file, "unexpected end of file", line);
+		words.reset(lines.start, lines.end);
+	}
+
+	private static int parseLiteral(
+		Path file,
+		BufferTokenizer t,
+		int line,
+		int maxVariable
+	) {
+		if (!t.nextWord())
+			throw new ParserException(file, "missing literal", line);
+
+		int lit;
+		try {
+			lit = t.parseInt();
+		} catch (NumberFormatException e) {
+			throw new ParserException(file, "illegal literal '" + t + "'", line);
+		}
+
+		if (lit < 0 || lit >>> 1 > maxVariable)
+			throw new ParserException(file, "illegal literal " + lit, line);
+
+		return lit;
+	}
+
+	// decodes a 7-bit variable length integer
+	private static int decode(byte[] buffer, int pos) {
+		int x = 0, shift = 0, b;
+		do {
+			b = buffer[pos++] & 0xFF;
+			x |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return x;
+	}
+
+	// number of bytes of an encoded integer
+	private static int length(int x) {
+		int n = 1;
+		while ((x >>>= 7) != 0)
+			n++;
+		return n;
+	}
+
+	private static void encode(OutputStream out, int x) throws IOException {
+		while ((x & ~0x7F) != 0) {
+			out.write((x & 0x7F) | 0x80);
+			x >>>= 7;
+		}
+		out.write(x);
+	}
+
+	/**
+	 * Writes the given {@link AIG} to an AIGER file.
+	 * <p>
+	 * Files ending in {@code .aag} are written in ASCII format, all others
+	 * in binary format.
+	 *
+	 * @param aig an {@link AIG} worth saving
+	 * @param file a file {@link Path}
+	 * @throws IOException if the given {@link Path} is not accessible
+	 */
+	public static void write(AIG aig, Path file) throws IOException {
+		try (OutputStream out = Files.newOutputStream(file)) {
+			write(aig, out, !file.toString().endsWith(".aag"));
+		}
+	}
+
+	/**
+	 * Writes the given {@link AIG} in AIGER format to a given stream.
+	 * <p>
+	 * Only gates in the cone of influence of the outputs are written.
+	 * Inputs are numbered first, followed by the gates in topological order.
+	 *
+	 * @param aig an {@link AIG} worth saving
+	 * @param stream an {@link OutputStream} (not closed)
+	 * @param binary write binary ({@code aig}) instead of ASCII
+	 * ({@code aag}) format
+	 * @throws IOException if writing fails
+	 */
+	public static void write(AIG aig, OutputStream stream, boolean binary)
+		throws IOException {
+
+		FormulaEvent event = new FormulaEvent.Write("AIGER");
+		event.begin();
+
+		// cone of influence
+		int n = aig.getNumNodes();
+		boolean[] inCone = new boolean[n];
+		for (int i = 0; i < aig.getNumOutputs(); i++)
+			inCone[AIG.getNode(aig.getOutput(i))] = true;
+		for (int node = n - 1; node > 0; node--)
+			if (inCone[node] && aig.isAnd(node)) {
+				inCone[AIG.getNode(aig.getLeft(node))] = true;
+				inCone[AIG.getNode(aig.getRight(node))] = true;
+			}
+
+		// renumber - inputs first
+		int numInputs = aig.getNumInputs();
+		int[] map = new int[n];
+		for (int i = 0; i < numInputs; i++)
+			map[AIG.getNode(aig.getInput(i))] = i + 1;
+
+		int numGates = 0;
+		for (int node = 1; node < n; node++)
+			if (inCone[node] && aig.isAnd(node))
+				map[node] = numInputs + ++numGates;
+
+		OutputStream out = new BufferedOutputStream(stream, 1 << 16);
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(binary ? "aig " : "aag ")
+			.append(numInputs + numGates).append(' ')
+			.append(numInputs).append(" 0 ")
+			.append(aig.getNumOutputs()).append(' ')
+			.append(numGates).append('\n');
+
+		if (!binary)
+			for (int i = 1; i <= numInputs; i++)
+				sb.append(2 * i).append('\n');
+
+		for (int i = 0; i < aig.getNumOutputs(); i++)
+			sb.append(translate(aig.getOutput(i), map)).append('\n');
+
+		out.write(sb.toString().getBytes(StandardCharsets.US_ASCII));
+		sb.setLength(0);
+
+		for (int node = 1; node < n; node++) {
+			if (!inCone[node] || !aig.isAnd(node))
+				continue;
+
+			int lhs = 2 * map[node];
+			int rhs0 = translate(aig.getLeft(node), map);
+			int rhs1 = translate(aig.getRight(node), map);
+			if (rhs0 < rhs1) {
+				int tmp = rhs0;
+				rhs0 = rhs1;
+				rhs1 = tmp;
+			}
+
+			if (binary) {
+				encode(out, lhs - rhs0);
+				encode(out, rhs0 - rhs1);
+			} else {
+				sb.append(lhs).append(' ')
+					.append(rhs0).append(' ')
+					.append(rhs1).append('\n');
+				if (sb.length() > 1 << 15) {
+					out.write(sb.toString().getBytes(StandardCharsets.US_ASCII));
+					sb.setLength(0);
+				}
+			}
+		}
+
+		// symbol table
+		for (int i = 0; i < numInputs; i++)
+			if (aig.getInputName(i) != null)
+				sb.append('i').append(i).append(' ')
+					.append(aig.getInputName(i)).append('\n');
+		for (int i = 0; i < aig.getNumOutputs(); i++)
+			if (aig.getOutputName(i) != null)
+				sb.append('o').append(i).append(' ')
+					.append(aig.getOutputName(i)).append('\n');
+
+		out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+		out.flush();
+
+		event.end(null, null);
+	}
+
+	private static int translate(int literal, int[] map) {
+		return 2 * map[AIG.getNode(literal)] + (literal & 1);
+	}
+}
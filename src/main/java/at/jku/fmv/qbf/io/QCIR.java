@@ -4,7 +4,9 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -20,6 +22,7 @@ import java.util.stream.Stream;
 import at.jku.fmv.qbf.QBF;
 import at.jku.fmv.qbf.QBF.*;
 import at.jku.fmv.qbf.io.util.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
 
 /**
  * A class for reading and writing QCIR-G14 files.
@@ -37,6 +40,425 @@ public final class QCIR {
 	// prevent instantiation
 	private QCIR() {}
 
+	/** Default number of bytes per chunk of gate definitions. */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	private static final byte AND = 0;
+	private static final byte OR = 1;
+	private static final byte FORALL = 2;
+	private static final byte EXISTS = 3;
+
+	// primitive gate table
+	private static final class Gates {
+
+		final SymbolTable symbols;
+
+		int size = 0;
+		int lines = 0;
+
+		int[] line = new int[256];
+		int[] id = new int[256];
+		byte[] type = new byte[256];
+
+		// operands of gate i are in [offset[i], offset[i + 1]), where negated
+		// operands are stored as ~symbol
+		// quantifiers: variables followed by the subformula (if any)
+		int[] offset = new int[257];
+		int[] numVariables = new int[256];
+		int[] operands = new int[1024];
+
+		// first illegal gate definition (context-free, hence deferrable)
+		int errorLine = -1;
+		RuntimeException error;
+
+		Gates(SymbolTable symbols) { this.symbols = symbols; }
+
+		void clear() { size = 0; }
+
+		private void ensureCapacity() {
+			if (size + 1 == line.length) {
+				int len = line.length << 1;
+				line = Arrays.copyOf(line, len);
+				id = Arrays.copyOf(id, len);
+				type = Arrays.copyOf(type, len);
+				offset = Arrays.copyOf(offset, len + 1);
+				numVariables = Arrays.copyOf(numVariables, len);
+			}
+		}
+
+		private void push(int operand) {
+			int pos = offset[size + 1]++;
+			if (pos == operands.length)
+				operands = Arrays.copyOf(operands, pos << 1);
+			operands[pos] = operand;
+		}
+
+		// adds the current (comma delimited) operand
+		private void addOperand(BufferTokenizer t) {
+			if (t.isEmpty()) return;
+
+			boolean negated = !t.trim().isEmpty() && t.buffer[t.start] == '-';
+			if (negated) t.start++;
+
+			if (t.isEmpty())
+				throw new IllegalArgumentException("missing variable");
+
+			int symbol = symbols.intern(t);
+			push(negated ? ~symbol : symbol);
+		}
+
+		// adds a gate, given the tokenizer's range as right-hand side
+		void add(int lineNumber, int gateID, BufferTokenizer t) {
+			ensureCapacity();
+
+			line[size] = lineNumber;
+			id[size] = gateID;
+			offset[size + 1] = offset[size];
+			numVariables[size] = 0;
+
+			// gate type
+			boolean hasOperands = t.next('(') && !t.isEmpty();
+			int typeStart = t.start, typeEnd = t.end;
+
+			// operand list
+			t.next(')');
+			int from = t.start, to = t.end;
+
+			if (!hasOperands || from == to)
+				throw new IllegalArgumentException("missing operands");
+
+			t.start = typeStart;
+			t.end = typeEnd;
+			t.trim();
+
+			if (t.matches("and"))
+				type[size] = AND;
+			else if (t.matches("or"))
+				type[size] = OR;
+			else if (t.matches("forall"))
+				type[size] = FORALL;
+			else if (t.matches("exists"))
+				type[size] = EXISTS;
+			else
+				throw new IllegalArgumentException(
+					"unknown gate type '" + t + "'");
+
+			t.reset(from, to);
+
+			if (type[size] == FORALL || type[size] == EXISTS) {
+				boolean hasSubformula = t.next(';');
+				int subformula = t.position();
+
+				t.reset(t.start, t.end);
+				while (t.hasRemaining()) {
+					t.next(',');
+					if (!t.isEmpty()) {
+						push(symbols.intern(t.trim()));
+						numVariables[size]++;
+					}
+				}
+
+				if (hasSubformula)
+					t.reset(subformula, to);
+			}
+
+			while (t.hasRemaining()) {
+				t.next(',');
+				addOperand(t);
+			}
+
+			// operand lists consisting of delimiters only (e.g. "and(,)")
+			if ((type[size] == AND || type[size] == OR)
+				&& offset[size + 1] == offset[size])
+				throw new IllegalArgumentException("missing operands");
+
+			// quantifier gates without subformula (e.g. "3 = exists(1)"),
+			// unlike prefix lines (gate ID -1), which are linked to one later
+			if (gateID >= 0
+				&& (type[size] == FORALL || type[size] == EXISTS)
+				&& offset[size + 1] == offset[size] + numVariables[size])
+				throw new IllegalArgumentException("missing subformula");
+
+			size++;
+		}
+	}
+
+	// phase 1: tokenizes and classifies the gate definitions in [from, to)
+	private static Gates parseGates(
+		byte[] buffer,
+		int from,
+		int to,
+		SymbolTable symbols
+	) {
+		Gates gates = new Gates(symbols);
+
+		BufferTokenizer lines = new BufferTokenizer(buffer).reset(from, to);
+		BufferTokenizer t = new BufferTokenizer(buffer);
+
+		for (; lines.nextLine() && gates.error == null; gates.lines++) {
+			if (lines.isEmpty() || lines.startsWith("#"))
+				continue;
+
+			try {
+				parseGate(gates, t, lines.start, lines.end, gates.lines);
+			} catch (RuntimeException e) {
+				gates.error = e;
+				gates.errorLine = gates.lines;
+			}
+		}
+
+		return gates;
+	}
+
+	// tokenizes the gate definition in [from, to) into the given table
+	private static void parseGate(
+		Gates gates,
+		BufferTokenizer t,
+		int from,
+		int to,
+		int line
+	) {
+		t.reset(from, to);
+
+		boolean isAssignment = t.next('=');
+		int gateID = t.trim().isEmpty() ? -1 : gates.symbols.intern(t);
+
+		t.next('=');
+		t.trim();
+
+		if (!isAssignment || gateID < 0 || t.isEmpty())
+			throw new IllegalArgumentException("illegal gate definition");
+
+		gates.add(line, gateID, t.reset(t.start, t.end));
+	}
+
+	// phase 2: links gates in order of their definition
+	private static final class Linker {
+
+		final Path file;
+		final SymbolTable symbols;
+
+		// defined gates and variables by symbol
+		QBF[] gates = new QBF[256];
+		Variable[] variables = new Variable[256];
+
+		Linker(Path file, SymbolTable symbols) {
+			this.file = file;
+			this.symbols = symbols;
+		}
+
+		private void ensureCapacity() {
+			if (gates.length < symbols.size()) {
+				int len = Math.max(gates.length << 1, symbols.size());
+				gates = Arrays.copyOf(gates, len);
+				variables = Arrays.copyOf(variables, len);
+			}
+		}
+
+		private QBF getVariableOrFormula(int symbol) {
+			QBF gate = gates[symbol];
+			if (gate != null)
+				return gate;
+
+			Variable var = variables[symbol];
+			if (var == null)
+				variables[symbol] = var = new Variable(symbols.get(symbol));
+			return var;
+		}
+
+		// builds gate i, using sub as a quantifier's subformula if non null
+		private QBF link(Gates g, int[] remap, int i, QBF sub) {
+			int from = g.offset[i] + g.numVariables[i], to = g.offset[i + 1];
+
+			QBF[] operands = new QBF[to - from];
+			for (int j = from; j < to; j++) {
+				int operand = g.operands[j];
+				int symbol = operand < 0 ? ~operand : operand;
+				QBF f = getVariableOrFormula(remap == null ? symbol : remap[symbol]);
+				operands[j - from] = operand < 0 ? new Not(f) : f;
+			}
+
+			switch (g.type[i]) {
+				case AND:
+					return operands.length > 1
+						? new And(operands)
+						: operands[0];
+				case OR:
+					return operands.length > 1
+						? new Or(operands)
+						: operands[0];
+				default:
+					Set<String> vars = new HashSet<>();
+					for (int j = g.offset[i]; j < from; j++)
+						vars.add(symbols.get(
+							remap == null ? g.operands[j] : remap[g.operands[j]]));
+
+					QBF subformula = sub == null
+						? operands[0]
+						: sub;
+
+					return g.type[i] == FORALL
+						? new ForAll(subformula, vars)
+						: new Exists(subformula, vars);
+			}
+		}
+
+		// links all gates of the given table, starting at the given line
+		void link(Gates g, int lineOffset) {
+			int[] remap = null;
+
+			if (g.symbols != symbols) {
+				remap = new int[g.symbols.size()];
+				for (int symbol = 0; symbol < remap.length; symbol++)
+					remap[symbol] = symbols.intern(g.symbols, symbol);
+			}
+
+			ensureCapacity();
+
+			for (int i = 0; i < g.size; i++)
+				try {
+					QBF gate = link(g, remap, i, null);
+					gates[remap == null ? g.id[i] : remap[g.id[i]]] = gate;
+				} catch (IllegalArgumentException e) {
+					throw new ParserException(file, lineOffset + g.line[i] + 1, e);
+				}
+
+			if (g.error instanceof IllegalArgumentException)
+				throw new ParserException(
+					file,
+					lineOffset + g.errorLine + 1,
+					g.error);
+			else if (g.error != null)
+				throw g.error;
+		}
+
+		// prepends the given prefix lines (in reverse order) to the output
+		QBF prepend(BufferTokenizer prefix, int[] lines, int output) {
+			ensureCapacity();
+			return prepend(prefix, lines, getVariableOrFormula(output));
+		}
+
+		// prepends the given prefix lines (in reverse order) to a formula
+		QBF prepend(BufferTokenizer prefix, int[] lines, QBF formula) {
+			Gates g = new Gates(symbols);
+
+			for (int i = lines.length / 2 - 1; i >= 0; i--)
+				try {
+					prefix.reset(lines[2 * i], lines[2 * i + 1]);
+
+					if (prefix.isEmpty() || prefix.startsWith("#"))
+						continue;
+
+					g.clear();
+					g.add(i, -1, prefix);
+					ensureCapacity();
+					formula = link(g, null, 0, formula);
+				} catch (IllegalArgumentException e) {
+					throw new ParserException(file, i + 1, e);
+				}
+
+			return formula;
+		}
+	}
+
+	// prefix and output lines
+	private static final class Header {
+
+		// boundaries of the lines preceding the output
+		final int[] prefix;
+
+		// number of lines up to and including the output
+		final int lines;
+
+		// first byte of the gate definitions
+		final int gatesStart;
+
+		// output gate id
+		final int outputStart, outputEnd;
+
+		Header(byte[] buffer, Path file) {
+			// find output - keep prefix line boundaries
+			BufferTokenizer t = new BufferTokenizer(buffer);
+			int[] prefix = new int[16];
+			int outputIdx = 0;
+
+			while (t.nextLine() && !(outputIdx > 0 && t.startsWith("output"))) {
+				if (2 * outputIdx + 1 >= prefix.length)
+					prefix = Arrays.copyOf(prefix, prefix.length << 1);
+				prefix[2 * outputIdx] = t.start;
+				prefix[2 * outputIdx + 1] = t.end;
+				outputIdx++;
+			}
+
+			if (!t.startsWith("output") || outputIdx == 0)
+				throw new ParserException(file, "missing output");
+
+			this.prefix = Arrays.copyOf(prefix, 2 * outputIdx);
+			this.lines = outputIdx + 1;
+			this.gatesStart = t.position();
+
+			// parse output variable
+			t.reset(t.start, t.end);
+			t.next('(');
+			t.next(')');
+
+			if (t.isEmpty())
+				throw new ParserException(file, "illegal output", outputIdx + 1);
+
+			this.outputStart = t.start;
+			this.outputEnd = t.end;
+		}
+	}
+
+	// gate definitions' line boundaries by gate id
+	private static final class Index {
+
+		final SymbolTable symbols = new SymbolTable();
+
+		int size = 0;
+
+		// line boundaries and (relative) line number of each definition
+		int[] start = new int[256];
+		int[] end = new int[256];
+		int[] line = new int[256];
+
+		// previous definition of the same gate id (-1 = none)
+		int[] previous = new int[256];
+
+		// latest definition of each symbol (-1 = none)
+		int[] latest = new int[0];
+
+		void add(int symbol, int from, int to, int lineNumber) {
+			if (size == start.length) {
+				int len = size << 1;
+				start = Arrays.copyOf(start, len);
+				end = Arrays.copyOf(end, len);
+				line = Arrays.copyOf(line, len);
+				previous = Arrays.copyOf(previous, len);
+			}
+
+			if (symbol >= latest.length) {
+				int len = latest.length;
+				latest = Arrays.copyOf(latest, Math.max(len << 1, symbol + 1));
+				Arrays.fill(latest, len, latest.length, -1);
+			}
+
+			start[size] = from;
+			end[size] = to;
+			line[size] = lineNumber;
+			previous[size] = latest[symbol];
+			latest[symbol] = size++;
+		}
+
+		// gets the latest definition of a symbol before the given line
+		int get(int symbol, int before) {
+			int d = symbol < latest.length ? latest[symbol] : -1;
+			while (d >= 0 && line[d] >= before)
+				d = previous[d];
+			return d;
+		}
+	}
+
 	/**
 	 * Reads a given QCIR file.
 	 *
@@ -45,144 +467,241 @@ public final class QCIR {
 	 * @throws IOException if the given {@link Path} is not accessible
 	 */
 	public static QBF read(Path file) throws IOException {
+		return readParallel(file, Integer.MAX_VALUE, 1);
+	}
+
+	/**
+	 * Reads a given QCIR file using all available processors.
+	 *
+	 * @param file a file {@link Path}
+	 * @return the contained {@link QBF}
+	 * @throws IOException if the given {@link Path} is not accessible
+	 * @see #readParallel(Path, int, int)
+	 */
+	public static QBF readParallel(Path file) throws IOException {
+		return readParallel(
+			file,
+			DEFAULT_CHUNK_SIZE,
+			Runtime.getRuntime().availableProcessors());
+	}
 
-		List<String> lines = Files.readAllLines(file);
+	/**
+	 * Reads a given QCIR file in two phases.
+	 * <p>
+	 * The gate definitions are split into chunks of (at least)
+	 * {@code chunkSize} bytes ending at line boundaries, which are tokenized
+	 * concurrently into a primitive gate table (gate id, type and operand
+	 * ids), using {@code threads} threads.
+	 * The resulting gates are then linked in a single pass in order of their
+	 * definition, yielding the same {@link QBF} as {@link #read(Path)}.
+	 *
+	 * @param file a file {@link Path}
+	 * @param chunkSize minimum number of bytes per chunk
+	 * @param threads number of threads
+	 * @return the contained {@link QBF}
+	 * @throws IOException if the given {@link Path} is not accessible
+	 */
+	public static QBF readParallel(Path file, int chunkSize, int threads)
+		throws IOException {
 
-		if (lines.isEmpty())
+		return read(Files.readAllBytes(file), file, chunkSize, threads);
+	}
+
+	/**
+	 * Reads a QCIR formula from a given buffer.
+	 *
+	 * @param buffer the formula's bytes
+	 * @param source {@link Path} of the buffer's origin, used in error
+	 * messages only
+	 * @return the contained {@link QBF}
+	 */
+	public static QBF read(byte[] buffer, Path source) {
+		return read(buffer, source, Integer.MAX_VALUE, 1);
+	}
+
+	private static QBF read(
+		byte[] buffer,
+		Path file,
+		int chunkSize,
+		int threads
+	) {
+		if (buffer.length == 0)
 			throw new ParserException(file, "file is empty");
 
-		StringTokenizer splitComa = new StringTokenizer(',');
-		StringTokenizer splitEquals = new StringTokenizer('=');
-		StringTokenizer splitLPar = new StringTokenizer('(');
-		StringTokenizer splitRPar = new StringTokenizer(')');
-		StringTokenizer splitSemiColon = new StringTokenizer(';');
+		FormulaEvent event = new FormulaEvent.Parse(
+			file.toString(),
+			buffer.length);
+		event.begin();
+
+		Header header = new Header(buffer, file);
 
-		Map<String, QBF> subformulas = new HashMap<String, QBF>();
+		// phase 1: parse gates in parallel
+		List<Gates> chunks = Chunks.parse(
+			buffer,
+			Chunks.split(buffer, header.gatesStart, buffer.length, chunkSize),
+			threads,
+			(b, from, to) -> parseGates(b, from, to, new SymbolTable()));
 
-		BiFunction<String, QBF, QBF> parseGate = (str, sub) -> {
+		// phase 2: link gates in order of their definition
+		Linker linker = new Linker(file, chunks.get(0).symbols);
 
-			Function<String, Stream<String>> streamOperands = lst ->
-				splitComa.stream(lst)
-					.map(String::trim);
+		int lineOffset = header.lines;
+		for (Gates gates : chunks) {
+			linker.link(gates, lineOffset);
+			lineOffset += gates.lines;
+		}
 
-			Function<Stream<String>, List<QBF>> getOperands = s -> {
+		// prepend prefix
+		QBF formula = linker.prepend(
+			new BufferTokenizer(buffer),
+			header.prefix,
+			linker.symbols.intern(buffer, header.outputStart, header.outputEnd));
 
-				Function<String, QBF> getVariableOrFormula = id ->
-					subformulas.containsKey(id)
-						? subformulas.get(id)
-						: new Variable(id);
-				return
-					s.map(id -> id.startsWith("-")
-						? new Not(getVariableOrFormula.apply(id.substring(1)))
-						: getVariableOrFormula.apply(id))
-					.collect(Collectors.toList());
-			};
+		event.end(null, formula);
+		return formula;
+	}
 
-			Function<String, List<QBF>> parseOperands =
-				streamOperands.andThen(getOperands);
+	/**
+	 * Reads the output's cone of influence of a given QCIR file.
+	 *
+	 * @param file a file {@link Path}
+	 * @return the contained {@link QBF}
+	 * @throws IOException if the given {@link Path} is not accessible
+	 * @see #readCone(byte[], Path)
+	 */
+	public static QBF readCone(Path file) throws IOException {
+		return readCone(Files.readAllBytes(file), file);
+	}
 
-			List<String> args = splitLPar.stream(str)
-				.flatMap(splitRPar::stream)
-				.map(String::trim)
-				.collect(Collectors.toList());
+	/**
+	 * Reads the output's cone of influence from a given buffer.
+	 * <p>
+	 * The gate definitions are indexed first, where only the gate ids on
+	 * their left-hand side are tokenized.
+	 * Starting at the output, only reachable gates are then tokenized and
+	 * built on demand, such that time and memory (apart from the buffer and
+	 * the index) depend on the used part of the circuit only.
+	 * <p>
+	 * For valid files, the result is the same as {@link #read(Path)}'s.
+	 * Malformed right-hand sides of unreachable gates are not detected.
+	 *
+	 * @param buffer the formula's bytes
+	 * @param source {@link Path} of the buffer's origin, used in error
+	 * messages only
+	 * @return the contained {@link QBF}
+	 */
+	public static QBF readCone(byte[] buffer, Path source) {
+		if (buffer.length == 0)
+			throw new ParserException(source, "file is empty");
 
-			if (args.size() < 2)
-				throw new IllegalArgumentException("missing operands");
+		FormulaEvent event = new FormulaEvent.Parse(
+			source.toString(),
+			buffer.length);
+		event.begin();
 
-			switch (args.get(0)) {
-				case "and":
-					List<QBF> operands = parseOperands.apply(args.get(1));
-					return operands.size() > 1
-						? new And(operands)
-						: operands.isEmpty() ? QBF.True : operands.get(0);
-				case "or":
-					operands = parseOperands.apply(args.get(1));
-					return operands.size() > 1
-						? new Or(operands)
-						: operands.isEmpty() ? QBF.False : operands.get(0);
-				case "forall":
-					args = splitSemiColon.stream(args.get(1))
-						.map(String::trim)
-						.collect(Collectors.toList());
-					return
-						new ForAll(
-							sub == null
-								? parseOperands.apply(args.get(1)).get(0)
-								: sub,
-							streamOperands.apply(args.get(0))
-								.collect(Collectors.toSet()));
-				case "exists":
-					args = splitSemiColon.stream(args.get(1))
-						.map(String::trim)
-						.collect(Collectors.toList());
-					return
-						new Exists(
-							sub == null
-								? parseOperands.apply(args.get(1)).get(0)
-								: sub,
-							streamOperands.apply(args.get(0))
-								.collect(Collectors.toSet()));
-				default:
-					throw new IllegalArgumentException(
-						"unknown gate type '" + args.get(0) + "'");
-			}
-		};
+		Header header = new Header(buffer, source);
 
-		Consumer<String> parseSubformula = line -> {
+		// index gate definitions
+		Index index = new Index();
+		BufferTokenizer lines =
+			new BufferTokenizer(buffer).reset(header.gatesStart, buffer.length);
+		BufferTokenizer t = new BufferTokenizer(buffer);
 
-			List<String> args = splitEquals.stream(line)
-				.map(String::trim)
-				.collect(Collectors.toList());
+		for (int line = 0; lines.nextLine(); line++) {
+			if (lines.isEmpty() || lines.startsWith("#"))
+				continue;
 
-			if (args.size() < 2 || args.stream().anyMatch(String::isEmpty))
+			t.reset(lines.start, lines.end);
+			if (!t.next('=') || t.trim().isEmpty())
 				throw new ParserException(
-					file,
+					source,
 					"illegal gate definition",
-					lines.indexOf(line) + 1);
+					header.lines + line + 1);
 
-			try {
-				subformulas.put(
-					args.get(0),
-					parseGate.apply(args.get(1), null));
-			} catch (IllegalArgumentException e) {
-				throw new ParserException(file, lines.indexOf(line) + 1, e);
-			}
-		};
-
-		// find output
-		int outputIdx = IntStream.range(1, lines.size())
-			.parallel()
-			.filter(i -> lines.get(i).startsWith("output"))
-			.findAny()
-			.orElseThrow(() ->
-				new ParserException(file, "missing output"));
-
-		// parse output variable
-		String output = splitLPar.stream(lines.get(outputIdx))
-			.skip(1)
-			.flatMap(splitRPar::stream)
-			.findFirst()
-			.orElseThrow(() ->
-				new ParserException(file, "illegal output", outputIdx + 1));
-
-		// parse gates
-		lines.stream()
-			.skip(outputIdx + 1)
-			.filter(s -> !s.isEmpty() && !s.startsWith("#"))
-			.forEach(parseSubformula);
+			index.add(index.symbols.intern(t), lines.start, lines.end, line);
+		}
+
+		// build reachable gates (post-order), parsed into a common table
+		Gates gates = new Gates(index.symbols);
+		Linker linker = new Linker(source, index.symbols);
+
+		int[] row = new int[index.size];
+		Arrays.fill(row, -1);
+		QBF[] built = new QBF[index.size];
+
+		int output = index.symbols.intern(
+			buffer,
+			header.outputStart,
+			header.outputEnd);
+		int root = index.get(output, Integer.MAX_VALUE);
+
+		int[] stack = new int[16];
+		int top = 0;
+		if (root >= 0)
+			stack[top++] = root;
+
+		while (top > 0) {
+			int d = stack[top - 1];
+
+			if (built[d] != null) {
+				top--;
+				continue;
+			}
+
+			int line = index.line[d];
+
+			if (row[d] < 0)
+				try {
+					parseGate(gates, t, index.start[d], index.end[d], line);
+					row[d] = gates.size - 1;
+				} catch (IllegalArgumentException e) {
+					throw new ParserException(source, header.lines + line + 1, e);
+				}
+
+			int r = row[d];
+			int from = gates.offset[r] + gates.numVariables[r];
+			int to = gates.offset[r + 1];
+
+			boolean finished = true;
+			for (int j = from; j < to; j++) {
+				int operand = gates.operands[j];
+				int sub = index.get(operand < 0 ? ~operand : operand, line);
+				if (sub >= 0 && built[sub] == null) {
+					if (top == stack.length)
+						stack = Arrays.copyOf(stack, top << 1);
+					stack[top++] = sub;
+					finished = false;
+				}
+			}
+
+			if (!finished) continue;
+
+			top--;
+
+			// bind operands to the definitions visible in this line
+			linker.ensureCapacity();
+			for (int j = from; j < to; j++) {
+				int operand = gates.operands[j];
+				int symbol = operand < 0 ? ~operand : operand;
+				int sub = index.get(symbol, line);
+				linker.gates[symbol] = sub < 0 ? null : built[sub];
+			}
 
-		// prepend prefix
-		// BUUUUUUHHH! ... reducing different types not supported
-		QBF formula = subformulas.get(output);
-		for (int i = outputIdx - 1; i >= 0; i--)
 			try {
-				String line = lines.get(i);
-				if (!line.isEmpty() && !line.startsWith("#"))
-					formula = parseGate.apply(line, formula);
+				built[d] = linker.link(gates, null, r, null);
 			} catch (IllegalArgumentException e) {
-				throw new ParserException(file, i + 1, e);
+				throw new ParserException(source, header.lines + line + 1, e);
 			}
+		}
+
+		// prepend prefix
+		linker.ensureCapacity();
+		QBF formula = linker.prepend(
+			t,
+			header.prefix,
+			root < 0 ? linker.getVariableOrFormula(output) : built[root]);
 
+		event.end(null, formula);
 		return formula;
 	}
 
@@ -197,18 +716,34 @@ public final class QCIR {
 	public static void write(QBF formula, Path file, boolean isCleansed)
 		throws IOException {
 
+		try (BufferedWriter bw = Files.newBufferedWriter(file)) {
+			write(formula, bw, isCleansed);
+		}
+	}
+
+	/**
+	 * Writes the given {@link QBF} in QCIR format to a given writer.
+	 *
+	 * @param formula a {@link QBF} worth saving
+	 * @param bw a {@link BufferedWriter} (not closed)
+	 * @param isCleansed write in cleansed form
+	 * @throws IOException if writing fails
+	 */
+	public static void write(
+		QBF formula,
+		BufferedWriter bw,
+		boolean isCleansed
+	) throws IOException {
+
+		FormulaEvent event = new FormulaEvent.Write("QCIR");
+		event.begin();
+
 		class Writer {
 			StringBuilder buffer = new StringBuilder();
 
-			Set<String> boundVars = formula.streamBoundVariables()
-				.unordered()
-				.parallel()
-				.collect(Collectors.toSet());
+			Set<String> boundVars = formula.getBoundVariables();
 
-			Set<String> freeVars = formula.streamFreeVariables()
-				.unordered()
-				.parallel()
-				.collect(Collectors.toSet());
+			Set<String> freeVars = formula.getFreeVariables();
 
 			int counter = boundVars.size() + freeVars.size() + 1;
 
@@ -340,9 +875,9 @@ public final class QCIR {
 			}
 		}
 
-		try (BufferedWriter bw = Files.newBufferedWriter(file)) {
-			bw.append(new Writer().buffer);
-		}
+		bw.append(new Writer().buffer);
+
+		event.end(formula, null);
 	}
 
 	public static void writeParallel(QBF formula, Path file, boolean isCleansed)
@@ -351,15 +886,9 @@ public final class QCIR {
 		class Writer {
 			StringBuffer buffer = new StringBuffer();
 
-			Set<String> boundVars = formula.streamBoundVariables()
-				.unordered()
-				.parallel()
-				.collect(Collectors.toSet());
+			Set<String> boundVars = formula.getBoundVariables();
 
-			Set<String> freeVars = formula.streamFreeVariables()
-				.unordered()
-				.parallel()
-				.collect(Collectors.toSet());
+			Set<String> freeVars = formula.getFreeVariables();
 
 			AtomicInteger counter =
 				new AtomicInteger(boundVars.size() + freeVars.size() + 1);
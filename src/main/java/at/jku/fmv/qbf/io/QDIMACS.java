@@ -4,16 +4,21 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 import at.jku.fmv.qbf.QBF;
 import at.jku.fmv.qbf.QBF.*;
 import at.jku.fmv.qbf.io.util.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
 
 /**
  * A class for reading and writing QDIMACS files.
@@ -31,84 +36,256 @@ public class QDIMACS {
 	// prevent instantiation
 	private QDIMACS() {}
 
+	/** Default number of bytes per matrix chunk. */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
 	/**
 	 * Reads a given QDIMACS file.
+	 * <p>
+	 * The matrix is parsed in chunks of {@link #DEFAULT_CHUNK_SIZE} bytes,
+	 * using all available processors.
 	 *
 	 * @param file a file {@link Path}
 	 * @return the contained {@link QBF}
 	 * @throws IOException if the given {@link Path} is not accessible
 	 */
 	public static QBF read(Path file) throws IOException {
+		return read(
+			file,
+			DEFAULT_CHUNK_SIZE,
+			Runtime.getRuntime().availableProcessors());
+	}
 
-		List<String> lines = Files.lines(file).collect(Collectors.toList());
-
-		if (lines.isEmpty())
-			throw new ParserException(file, "file is empty");
-
-		StringTokenizer splitSpace = new StringTokenizer(' ');
+	// parsed matrix chunk: zero terminated clauses of integer literals
+	private static final class Clauses {
+		int[] literals = new int[1024];
+		int size = 0;
+		int lines = 0;
+		int maxVariable = 0;
+		int errorLine = -1;
+		String error;
+
+		void add(int literal) {
+			if (size == literals.length)
+				literals = Arrays.copyOf(literals, size << 1);
+			literals[size++] = literal;
+		}
 
-		Function<String, QBF> parseLiteral = s ->
-			s.startsWith("-")
-				? new Not(new Variable(s.substring(1)))
-				: new Variable(s);
+		void fail(String msg) {
+			if (error == null) {
+				error = msg;
+				errorLine = lines;
+			}
+		}
+	}
 
-		Function<String, QBF> parseClause = line -> {
+	// parses the lines in [from, to) - each non-empty line is a clause
+	// (a lone 0 is the empty clause)
+	private static Clauses parseClauses(byte[] buffer, int from, int to) {
+		Clauses clauses = new Clauses();
+
+		BufferTokenizer lines = new BufferTokenizer(buffer).reset(from, to);
+		BufferTokenizer t = new BufferTokenizer(buffer);
+
+		for (; lines.nextLine() && clauses.error == null; clauses.lines++) {
+			if (lines.isEmpty())
+				continue;
+
+			int start = clauses.size;
+			boolean terminated = false;
+
+			t.reset(lines.start, lines.end);
+			while (t.nextWord()) {
+				int literal;
+				try {
+					literal = t.parseInt();
+				} catch (NumberFormatException e) {
+					clauses.fail("illegal literal '" + t + "'");
+					break;
+				}
+
+				if (literal != 0) {
+					clauses.add(literal);
+					clauses.maxVariable =
+						Math.max(clauses.maxVariable, Math.abs(literal));
+				} else if (t.length() > 1) {
+					clauses.fail("illegal literal '" + t + "'");
+					break;
+				} else {
+					terminated = true;
+				}
+			}
+
+			if (clauses.size == start && !terminated)
+				clauses.fail("missing variables");
+
+			clauses.add(0);
+		}
 
-			List<QBF> variables = splitSpace.stream(line)
-				.filter(s -> !s.equals("0"))
-				.map(parseLiteral)
-				.collect(Collectors.toList());
+		return clauses;
+	}
 
-			if (variables.isEmpty())
-				throw new ParserException(
-					file,
-					"missing variables",
-					lines.indexOf(line) + 1);
+	/**
+	 * Reads a given QDIMACS file.
+	 * <p>
+	 * The matrix is split into chunks of (at least) {@code chunkSize} bytes
+	 * ending at line boundaries, which are parsed concurrently using
+	 * {@code threads} threads and concatenated in order.
+	 *
+	 * @param file a file {@link Path}
+	 * @param chunkSize minimum number of bytes per chunk
+	 * @param threads number of threads
+	 * @return the contained {@link QBF}
+	 * @throws IOException if the given {@link Path} is not accessible
+	 */
+	public static QBF read(Path file, int chunkSize, int threads)
+		throws IOException {
 
-			return variables.size() > 1
-				? new Or(variables)
-				: variables.get(0);
-		};
+		byte[] buffer = Files.readAllBytes(file);
 
-		// scan pre{amble,fix} - for loop because we want to break early
-		int prefixStart = 0, prefixEnd = 0;
+		if (buffer.length == 0)
+			throw new ParserException(file, "file is empty");
 
-		for (String line : lines) {
-			if (line.startsWith("c") || line.startsWith("p"))
+		FormulaEvent event = new FormulaEvent.Parse(
+			file.toString(),
+			buffer.length);
+		event.begin();
+
+		BufferTokenizer t = new BufferTokenizer(buffer);
+
+		// scan pre{amble,fix} - keep prefix line boundaries
+		int[] prefix = new int[16];
+		int prefixStart = 0, prefixEnd = 0, line = 0, pos = 0;
+
+		for (; t.nextLine(); line++) {
+			if (t.startsWith("a") || t.startsWith("e")) {
+				if (2 * prefixEnd + 1 >= prefix.length)
+					prefix = Arrays.copyOf(prefix, prefix.length << 1);
+				prefix[2 * prefixEnd] = t.start;
+				prefix[2 * prefixEnd + 1] = t.end;
+				prefixEnd++;
+			} else if (prefixEnd == 0
+				&& (t.startsWith("c") || t.startsWith("p")))
 				prefixStart++;
-			else if (line.startsWith("a") || line.startsWith("e"))
-				prefixEnd = (prefixEnd == 0 ? prefixStart : prefixEnd + 1);
-			else break;
+			else
+				break;
+
+			pos = t.position();
 		}
 
 		// parse matrix
-		List<QBF> clauses = lines.subList(prefixEnd + 1, lines.size()).stream()
-			.filter(s -> !s.isEmpty())
-			.map(parseClause)
-			.collect(Collectors.toList());
+		List<Clauses> chunks = Chunks.parse(
+			buffer,
+			Chunks.split(buffer, pos, buffer.length, chunkSize),
+			threads,
+			QDIMACS::parseClauses);
+
+		int lineOffset = line;
+		for (Clauses clauses : chunks) {
+			if (clauses.error != null)
+				throw new ParserException(
+					file,
+					clauses.error,
+					lineOffset + clauses.errorLine + 1);
+			lineOffset += clauses.lines;
+		}
 
-		if (clauses.isEmpty())
-			throw new ParserException(file, "missing clauses");
+		// variables are shared among clauses
+		int maxVariable = chunks.stream()
+			.mapToInt(c -> c.maxVariable)
+			.max()
+			.orElse(0);
+		AtomicReferenceArray<Variable> variables =
+			new AtomicReferenceArray<>(maxVariable + 1);
+		AtomicReferenceArray<Not> negations =
+			new AtomicReferenceArray<>(maxVariable + 1);
+
+		// shared by all chunk threads - the first node created wins
+		IntFunction<QBF> getLiteral = lit -> {
+			int idx = Math.abs(lit);
+			Variable var = variables.get(idx);
+			if (var == null
+				&& !variables.compareAndSet(
+					idx,
+					null,
+					var = new Variable(Integer.toString(idx))))
+				var = variables.get(idx);
+			if (lit > 0)
+				return var;
+			Not not = negations.get(idx);
+			if (not == null
+				&& !negations.compareAndSet(idx, null, not = new Not(var)))
+				not = negations.get(idx);
+			return not;
+		};
 
+		List<List<QBF>> matrix = Chunks.map(chunks.size(), threads, idx -> {
+			Clauses chunk = chunks.get(idx);
+			List<QBF> result = new ArrayList<>();
+			for (int i = 0, j = 0; i < chunk.size; i = ++j) {
+				while (chunk.literals[j] != 0)
+					j++;
+
+				if (j == i)
+					result.add(QBF.False);
+				else if (j - i == 1)
+					result.add(getLiteral.apply(chunk.literals[i]));
+				else {
+					QBF[] literals = new QBF[j - i];
+					for (int k = i; k < j; k++)
+						literals[k - i] = getLiteral.apply(chunk.literals[k]);
+					result.add(new Or(literals));
+				}
+			}
+			return result;
+		});
+
+		List<QBF> clauses = new ArrayList<>(
+			matrix.stream().mapToInt(List::size).sum());
+		matrix.forEach(clauses::addAll);
+
+		// an empty matrix is true
 		QBF formula = clauses.size() > 1
 			? new And(clauses)
-			: clauses.get(0);
+			: clauses.isEmpty() ? QBF.True : clauses.get(0);
 
 		// prepend prefix
-		for (int i = prefixEnd; i >= prefixStart; i--) {
-			Set<String> variables = splitSpace.stream(lines.get(i))
-				.skip(1)
-				.filter(s -> !s.equals("0"))
-				.collect(Collectors.toSet());
-
-			if (variables.isEmpty())
-				throw new ParserException(file, "missing variables", i + 1);
-
-			formula = lines.get(i).startsWith("a")
-				? new ForAll(formula, variables)
-				: new Exists(formula, variables);
+		for (int i = prefixEnd - 1; i >= 0; i--) {
+			t.reset(prefix[2 * i], prefix[2 * i + 1]);
+
+			boolean isForAll = t.startsWith("a");
+
+			Set<String> vars = new HashSet<>();
+
+			for (t.nextWord(); t.nextWord(); ) {
+				int var;
+				try {
+					var = t.parseInt();
+				} catch (NumberFormatException e) {
+					throw new ParserException(
+						file,
+						"illegal variable '" + t + "'",
+						prefixStart + i + 1);
+				}
+
+				if (var != 0)
+					vars.add(var <= maxVariable && variables.get(var) != null
+						? variables.get(var).name
+						: Integer.toString(var));
+			}
+
+			if (vars.isEmpty())
+				throw new ParserException(
+					file,
+					"missing variables",
+					prefixStart + i + 1);
+
+			formula = isForAll
+				? new ForAll(formula, vars)
+				: new Exists(formula, vars);
 		}
 
+		event.end(null, formula);
 		return formula;
 	}
 
@@ -121,80 +298,103 @@ public class QDIMACS {
 	 */
 	public static void write(QBF formula, Path file) throws IOException {
 		try (BufferedWriter bw = Files.newBufferedWriter(file)) {
-			Consumer<QBF> noCNF = f -> {
-				throw new IllegalArgumentException("skeleton not in CNF");
-			};
-			Consumer<True> illegalTrue = x -> noCNF.accept(x);
-			Consumer<False> illegalFalse = x -> noCNF.accept(x);
-			Consumer<And> illegalAnd = x -> noCNF.accept(x);
-			Consumer<Or> illegalOr = x -> noCNF.accept(x);
-			Consumer<ForAll> illegalForAll = x -> noCNF.accept(x);
-			Consumer<Exists> illegalExists = x -> noCNF.accept(x);
+			write(formula, bw);
+		}
+	}
+
+	/**
+	 * Writes the given {@link QBF} in QDIMACS format to a given writer.
+	 *
+	 * @param formula a {@link QBF} worth saving
+	 * @param bw a {@link BufferedWriter} (not closed)
+	 * @throws IOException if writing fails
+	 */
+	public static void write(QBF formula, BufferedWriter bw)
+		throws IOException {
 
-			StringBuilder buffer = new StringBuilder();
+		FormulaEvent event = new FormulaEvent.Write("QDIMACS");
+		event.begin();
 
-			Set<String> variables = new HashSet<>();
+		Consumer<QBF> noCNF = f -> {
+			throw new IllegalArgumentException("skeleton not in CNF");
+		};
+		Consumer<True> illegalTrue = x -> noCNF.accept(x);
+		Consumer<False> illegalFalse = x -> noCNF.accept(x);
+		Consumer<And> illegalAnd = x -> noCNF.accept(x);
+		Consumer<Or> illegalOr = x -> noCNF.accept(x);
+		Consumer<ForAll> illegalForAll = x -> noCNF.accept(x);
+		Consumer<Exists> illegalExists = x -> noCNF.accept(x);
 
-			int[] numClauses = {0};
+		StringBuilder buffer = new StringBuilder();
 
-			QBF[] matrix = {formula};
+		Set<String> variables = new HashSet<>();
 
-			Function<Quantifier, String> getVariables = q ->
-				q.variables.stream()
-					.peek(variables::add)
-					.collect(Collectors.joining(" "));
+		int[] numClauses = {0};
 
-			Function<QBF, String> getVariable = v -> {
-				String var = v.isLiteral()
-					? v.isNegation()
-						? ((Variable) ((Not) v).subformula).name
-						: ((Variable) v).name
-					: null;
+		QBF[] matrix = {formula};
 
-				if (var == null) noCNF.accept(v);
+		Function<Quantifier, String> getVariables = q ->
+			q.variables.stream()
+				.peek(variables::add)
+				.collect(Collectors.joining(" "));
 
-				variables.add(var);
-				return v.isNegation() ? "-" + var : var;
-			};
+		Function<QBF, String> getVariable = v -> {
+			String var = v.isLiteral()
+				? v.isNegation()
+					? ((Variable) ((Not) v).subformula).name
+					: ((Variable) v).name
+				: null;
 
-			Consumer<String> appendLine = s -> buffer.append(s + " 0\n");
+			if (var == null) noCNF.accept(v);
 
-			Consumer<String> appendClause = s -> {
-				appendLine.accept(s);
+			variables.add(var);
+			return v.isNegation() ? "-" + var : var;
+		};
+
+		Consumer<String> appendLine = s -> buffer.append(s + " 0\n");
+
+		Consumer<String> appendClause = s -> {
+			appendLine.accept(s);
+			numClauses[0]++;
+			// NOTE: andThen(x -> numClauses[0]++) not working!?
+		};
+
+		// append prefix
+		formula.streamPrefix().forEach(q -> {
+			if (!q.subformula.isQuantifier())
+				matrix[0] = q.subformula;
+
+			q.accept(
+				f -> appendLine.accept("a " + getVariables.apply(f)),
+				e -> appendLine.accept("e " + getVariables.apply(e)));
+		});
+
+		// append matrix - constants are given by no or an empty clause
+		matrix[0].accept(
+			t -> {},
+			f -> {
+				buffer.append("0\n");
 				numClauses[0]++;
-				// NOTE: andThen(x -> numClauses[0]++) not working!?
-			};
-
-			// append prefix
-			formula.streamPrefix().forEach(q -> {
-				if (!q.subformula.isQuantifier())
-					matrix[0] = q.subformula;
-
-				q.accept(
-					f -> appendLine.accept("a " + getVariables.apply(f)),
-					e -> appendLine.accept("e " + getVariables.apply(e)));
-			});
-
-			// append matrix
-			matrix[0].accept(illegalTrue, illegalFalse,
-				var -> appendClause.accept(getVariable.apply(var)),
-				not -> appendClause.accept(getVariable.apply(not)),
-				and -> and.subformulas.stream().forEach(f ->
-					f.accept(illegalTrue, illegalFalse,
-						var -> appendClause.accept(getVariable.apply(var)),
-						not -> appendClause.accept(getVariable.apply(not)),
-						illegalAnd,
-						or -> appendClause.accept(
-							or.subformulas.stream()
-								.map(getVariable)
-								.collect(Collectors.joining(" "))),
-						illegalForAll, illegalExists)),
-				illegalOr, illegalForAll, illegalExists
-			);
-
-			// write to file
-			bw.append("p cnf " + variables.size() + " " + numClauses[0] + "\n");
-			bw.append(buffer);
-		}
+			},
+			var -> appendClause.accept(getVariable.apply(var)),
+			not -> appendClause.accept(getVariable.apply(not)),
+			and -> and.subformulas.stream().forEach(f ->
+				f.accept(illegalTrue, illegalFalse,
+					var -> appendClause.accept(getVariable.apply(var)),
+					not -> appendClause.accept(getVariable.apply(not)),
+					illegalAnd,
+					or -> appendClause.accept(
+						or.subformulas.stream()
+							.map(getVariable)
+							.collect(Collectors.joining(" "))),
+					illegalForAll, illegalExists)),
+			illegalOr, illegalForAll, illegalExists
+		);
+
+		// write formula
+		bw.append("p cnf " + variables.size() + " " + numClauses[0] + "\n");
+		bw.append(buffer);
+
+		event.end(formula, null);
 	}
 }
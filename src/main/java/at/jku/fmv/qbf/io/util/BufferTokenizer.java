@@ -0,0 +1,234 @@
+package at.jku.fmv.qbf.io.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A cursor-style tokenizer operating on a byte buffer.
+ * <p>
+ * Instead of allocating substrings, the current token is represented by its
+ * offsets {@link #start} (inclusive) and {@link #end} (exclusive) into the
+ * underlying buffer, which may then be parsed or
+ * {@link SymbolTable#intern interned} in place.
+ *
+ * @author phlo
+ */
+public final class BufferTokenizer {
+
+	/** The underlying buffer. */
+	public final byte[] buffer;
+
+	/** Start of the current token (inclusive). */
+	public int start;
+
+	/** End of the current token (exclusive). */
+	public int end;
+
+	// current position and end of the tokenized range
+	private int pos, limit;
+
+	/**
+	 * Constructs a tokenizer over the whole buffer.
+	 *
+	 * @param buffer the input buffer
+	 */
+	public BufferTokenizer(byte[] buffer) {
+		this.buffer = buffer;
+		reset(0, buffer.length);
+	}
+
+	/**
+	 * Restricts the tokenizer to a given range.
+	 * <p>
+	 * The current token spans the whole range.
+	 *
+	 * @param from index of the range's first byte (inclusive)
+	 * @param to index of the range's last byte (exclusive)
+	 * @return this tokenizer
+	 */
+	public BufferTokenizer reset(int from, int to) {
+		pos = start = from;
+		end = limit = to;
+		return this;
+	}
+
+	/**
+	 * Gets the current position.
+	 *
+	 * @return index of the next byte to be tokenized
+	 */
+	public int position() { return pos; }
+
+	/**
+	 * Gets the end of the tokenized range.
+	 *
+	 * @return index of the range's last byte (exclusive)
+	 */
+	public int limit() { return limit; }
+
+	/**
+	 * Tests if there are bytes left in the tokenized range.
+	 *
+	 * @return {@code true} if the position is before the range's end
+	 */
+	public boolean hasRemaining() { return pos < limit; }
+
+	/**
+	 * Tests if the given byte is a whitespace character.
+	 *
+	 * @param b a byte
+	 * @return {@code true} for ASCII control characters and spaces
+	 */
+	public static boolean isWhitespace(byte b) {
+		return b >= 0 && b <= ' ';
+	}
+
+	/**
+	 * Advances to the next line.
+	 * <p>
+	 * The current token spans the line, excluding any line terminator.
+	 *
+	 * @return {@code false} if there are no lines left
+	 */
+	public boolean nextLine() {
+		if (pos >= limit) return false;
+
+		start = pos;
+		while (pos < limit && buffer[pos] != '\n')
+			pos++;
+
+		end = pos > start && buffer[pos - 1] == '\r' ? pos - 1 : pos;
+
+		if (pos < limit) pos++;
+
+		return true;
+	}
+
+	/**
+	 * Advances to the next whitespace delimited token.
+	 *
+	 * @return {@code false} if there are no tokens left
+	 */
+	public boolean nextWord() {
+		while (pos < limit && isWhitespace(buffer[pos]))
+			pos++;
+
+		if (pos >= limit) return false;
+
+		start = pos;
+		while (pos < limit && !isWhitespace(buffer[pos]))
+			pos++;
+		end = pos;
+
+		return true;
+	}
+
+	/**
+	 * Advances to the next token, ending at the given delimiter.
+	 * <p>
+	 * The delimiter is consumed and the token may be empty.
+	 *
+	 * @param delimiter delimiting (ASCII) character
+	 * @return {@code true} if the delimiter was found
+	 */
+	public boolean next(char delimiter) {
+		start = pos;
+		while (pos < limit && buffer[pos] != delimiter)
+			pos++;
+		end = pos;
+
+		if (pos < limit) {
+			pos++;
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Removes leading and trailing whitespace from the current token.
+	 *
+	 * @return this tokenizer
+	 */
+	public BufferTokenizer trim() {
+		while (start < end && isWhitespace(buffer[start]))
+			start++;
+		while (end > start && isWhitespace(buffer[end - 1]))
+			end--;
+		return this;
+	}
+
+	/**
+	 * Gets the length of the current token.
+	 *
+	 * @return number of bytes in the current token
+	 */
+	public int length() { return end - start; }
+
+	/**
+	 * Tests if the current token is empty.
+	 *
+	 * @return {@code true} if the current token's length is 0
+	 */
+	public boolean isEmpty() { return start == end; }
+
+	/**
+	 * Tests if the current token starts with the given ASCII string.
+	 *
+	 * @param prefix an ASCII string
+	 * @return {@code true} if the current token starts with {@code prefix}
+	 */
+	public boolean startsWith(String prefix) {
+		if (end - start < prefix.length())
+			return false;
+
+		for (int i = 0; i < prefix.length(); i++)
+			if (buffer[start + i] != prefix.charAt(i))
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Tests if the current token equals the given ASCII string.
+	 *
+	 * @param str an ASCII string
+	 * @return {@code true} if the current token equals {@code str}
+	 */
+	public boolean matches(String str) {
+		return end - start == str.length() && startsWith(str);
+	}
+
+	/**
+	 * Parses the current token as decimal integer.
+	 *
+	 * @return the token's value
+	 * @throws NumberFormatException if the token is not a valid integer
+	 */
+	public int parseInt() {
+		int i = start;
+		boolean negative = i < end && buffer[i] == '-';
+		if (negative) i++;
+
+		if (i == end)
+			throw new NumberFormatException(toString());
+
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = buffer[i] - '0';
+			if (digit < 0 || digit > 9
+				|| (value = value * 10 + digit) > Integer.MAX_VALUE)
+				throw new NumberFormatException(toString());
+		}
+
+		return (int) (negative ? -value : value);
+	}
+
+	/**
+	 * Decodes the current token.
+	 *
+	 * @return the current token as (UTF-8 decoded) String
+	 */
+	public String toString() {
+		return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+	}
+}
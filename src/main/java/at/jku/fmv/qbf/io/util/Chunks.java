@@ -0,0 +1,145 @@
+package at.jku.fmv.qbf.io.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Utility for processing a byte buffer in line aligned chunks.
+ *
+ * @author phlo
+ */
+public final class Chunks {
+
+	/**
+	 * Processes a single chunk.
+	 *
+	 * @param <T> result type
+	 */
+	@FunctionalInterface
+	public interface Parser<T> {
+
+		/**
+		 * Parses the given chunk.
+		 *
+		 * @param buffer the input buffer
+		 * @param from index of the chunk's first byte (inclusive)
+		 * @param to index of the chunk's last byte (exclusive)
+		 * @return the chunk's result
+		 */
+		public T parse(byte[] buffer, int from, int to);
+	}
+
+	// prevent instantiation
+	private Chunks() {}
+
+	/**
+	 * Splits the given range into chunks ending at newline boundaries.
+	 *
+	 * @param buffer the input buffer
+	 * @param from index of the range's first byte (inclusive)
+	 * @param to index of the range's last byte (exclusive)
+	 * @param chunkSize minimum number of bytes per chunk
+	 * @return chunk boundaries, where chunk {@code i} spans
+	 * {@code [bounds[i], bounds[i + 1])}
+	 */
+	public static int[] split(byte[] buffer, int from, int to, int chunkSize) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("illegal chunk size");
+
+		int[] bounds = new int[(to - from) / chunkSize + 2];
+		int num = 0;
+
+		bounds[num++] = from;
+
+		int pos = from;
+		while ((pos = (int) Math.min(to, (long) pos + chunkSize)) < to) {
+			while (pos < to && buffer[pos - 1] != '\n')
+				pos++;
+			bounds[num++] = pos;
+		}
+
+		if (bounds[num - 1] < to || num == 1)
+			bounds[num++] = to;
+
+		int[] result = new int[num];
+		System.arraycopy(bounds, 0, result, 0, num);
+		return result;
+	}
+
+	/**
+	 * Parses the given chunks using a fixed number of threads.
+	 *
+	 * @param <T> result type
+	 * @param buffer the input buffer
+	 * @param bounds chunk boundaries as returned by {@link #split}
+	 * @param threads number of threads
+	 * @param parser {@link Parser} applied to each chunk
+	 * @return list of results in chunk order
+	 */
+	public static <T> List<T> parse(
+		byte[] buffer,
+		int[] bounds,
+		int threads,
+		Parser<T> parser
+	) {
+		return map(
+			bounds.length - 1,
+			threads,
+			i -> parser.parse(buffer, bounds[i], bounds[i + 1]));
+	}
+
+	/**
+	 * Applies a given task to each index in {@code [0, n)} using a fixed
+	 * number of threads.
+	 *
+	 * @param <T> result type
+	 * @param n number of tasks
+	 * @param threads number of threads
+	 * @param task {@link IntFunction} applied to each index
+	 * @return list of results in index order
+	 */
+	public static <T> List<T> map(int n, int threads, IntFunction<T> task) {
+		if (threads < 1)
+			throw new IllegalArgumentException("illegal number of threads");
+
+		List<T> results = new ArrayList<>(n);
+
+		// no need to spin up a pool
+		if (threads == 1 || n <= 1) {
+			for (int i = 0; i < n; i++)
+				results.add(task.apply(i));
+			return results;
+		}
+
+		List<Callable<T>> tasks = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			int idx = i;
+			tasks.add(() -> task.apply(idx));
+		}
+
+		ExecutorService pool =
+			Executors.newFixedThreadPool(Math.min(threads, n));
+
+		try {
+			for (Future<T> result : pool.invokeAll(tasks))
+				results.add(result.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ParserException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new ParserException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		return results;
+	}
+}
@@ -0,0 +1,148 @@
+package at.jku.fmv.qbf.io.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A table interning byte sequences as consecutive integer symbols.
+ * <p>
+ * Lookups of already interned sequences don't allocate and each symbol's
+ * String is only created once, on demand.
+ * Not thread-safe.
+ *
+ * @author phlo
+ */
+public final class SymbolTable {
+
+	// concatenated keys, where key i is in [offsets[i], offsets[i + 1])
+	private byte[] keys = new byte[1 << 12];
+	private int[] offsets = new int[257];
+	private int[] hashes = new int[256];
+	private String[] names = new String[256];
+
+	private int size = 0;
+
+	// open addressing: symbol + 1 (0 = free)
+	private int[] table = new int[512];
+
+	private static int hash(byte[] buffer, int from, int to) {
+		int h = 1;
+		for (int i = from; i < to; i++)
+			h = 31 * h + buffer[i];
+		return h ^ (h >>> 16);
+	}
+
+	private boolean matches(int symbol, byte[] buffer, int from, int to) {
+		int offset = offsets[symbol];
+		int len = offsets[symbol + 1] - offset;
+
+		if (len != to - from)
+			return false;
+
+		for (int i = 0; i < len; i++)
+			if (keys[offset + i] != buffer[from + i])
+				return false;
+
+		return true;
+	}
+
+	private void rehash() {
+		table = new int[table.length << 1];
+		int mask = table.length - 1;
+		for (int symbol = 0; symbol < size; symbol++) {
+			int idx = hashes[symbol] & mask;
+			while (table[idx] != 0)
+				idx = (idx + 1) & mask;
+			table[idx] = symbol + 1;
+		}
+	}
+
+	/**
+	 * Interns the given byte range.
+	 *
+	 * @param buffer a byte buffer
+	 * @param from index of the range's first byte (inclusive)
+	 * @param to index of the range's last byte (exclusive)
+	 * @return the range's symbol
+	 */
+	public int intern(byte[] buffer, int from, int to) {
+		int h = hash(buffer, from, to);
+		int mask = table.length - 1;
+		int idx = h & mask;
+
+		for (int s; (s = table[idx]) != 0; idx = (idx + 1) & mask)
+			if (hashes[s - 1] == h && matches(s - 1, buffer, from, to))
+				return s - 1;
+
+		// add new symbol
+		int len = to - from;
+		int offset = offsets[size];
+
+		if (offset + len > keys.length)
+			keys = Arrays.copyOf(keys, Math.max(keys.length << 1, offset + len));
+
+		if (size + 1 == hashes.length) {
+			hashes = Arrays.copyOf(hashes, size << 1);
+			names = Arrays.copyOf(names, size << 1);
+			offsets = Arrays.copyOf(offsets, (size << 1) + 1);
+		}
+
+		System.arraycopy(buffer, from, keys, offset, len);
+		offsets[size + 1] = offset + len;
+		hashes[size] = h;
+		table[idx] = size + 1;
+
+		if (++size << 1 > table.length)
+			rehash();
+
+		return size - 1;
+	}
+
+	/**
+	 * Interns the current token of the given {@link BufferTokenizer}.
+	 *
+	 * @param tokenizer a {@link BufferTokenizer}
+	 * @return the token's symbol
+	 */
+	public int intern(BufferTokenizer tokenizer) {
+		return intern(tokenizer.buffer, tokenizer.start, tokenizer.end);
+	}
+
+	/**
+	 * Interns a symbol of another table.
+	 *
+	 * @param other a {@link SymbolTable}
+	 * @param symbol a symbol of {@code other}
+	 * @return the corresponding symbol in this table
+	 */
+	public int intern(SymbolTable other, int symbol) {
+		return intern(
+			other.keys,
+			other.offsets[symbol],
+			other.offsets[symbol + 1]);
+	}
+
+	/**
+	 * Gets the String represented by a given symbol.
+	 *
+	 * @param symbol an interned symbol
+	 * @return the (UTF-8 decoded) String
+	 */
+	public String get(int symbol) {
+		String name = names[symbol];
+		if (name == null)
+			names[symbol] = name = new String(
+				keys,
+				offsets[symbol],
+				offsets[symbol + 1] - offsets[symbol],
+				StandardCharsets.UTF_8);
+		return name;
+	}
+
+	/**
+	 * Gets the number of interned symbols.
+	 *
+	 * @return number of symbols
+	 */
+	public int size() { return size; }
+}
@@ -1,10 +1,13 @@
 package at.jku.fmv.qbf.pcnf;
 
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import at.jku.fmv.qbf.QBF;
 import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
 
 /**
  * A conjunctive normal form encoder.
@@ -23,23 +26,50 @@ public interface CNFEncoder {
 
 	/**
 	 * Transforms the given formula from PNF into PCNF.
+	 * <p>
+	 * Auxiliary variables introduced by the encoding are existentially
+	 * quantified in the innermost quantifier block, while free variables of
+	 * {@code pnf} remain free.
 	 *
 	 * @param pnf {@link QBF} in PNF
 	 * @return {@link QBF} in PCNF
 	 */
 	public default QBF encode(QBF pnf) {
-		Function<QBF, QBF> applySkeleton = s ->
-			s.isCNF() ? s : new And(getClauses(s));
-
-		Function<Quantifier, QBF> applyQuantifier = q ->
-			q.subformula.isQuantifier()
-				? encode(q.subformula)
-				: applySkeleton.apply(q.subformula);
-
-		return pnf.isQuantifier()
-			? pnf.apply(
-				f -> new ForAll(applyQuantifier.apply(f), f.variables),
-				e -> new Exists(applyQuantifier.apply(e), e.variables))
-			: applySkeleton.apply(pnf);
+		FormulaEvent event = new FormulaEvent.CNF(getClass());
+		event.begin();
+
+		List<Quantifier> prefix = pnf.streamPrefix().collect(Collectors.toList());
+
+		QBF skeleton = prefix.isEmpty()
+			? pnf
+			: prefix.get(prefix.size() - 1).subformula;
+
+		QBF pcnf = skeleton;
+
+		if (!skeleton.isCNF()) {
+			pcnf = new And(getClauses(skeleton));
+
+			// bind auxiliary variables in the innermost block
+			Set<String> auxiliary = new HashSet<>(pcnf.getFreeVariables());
+			auxiliary.removeAll(skeleton.getFreeVariables());
+
+			if (!auxiliary.isEmpty()) {
+				int last = prefix.size() - 1;
+				if (last >= 0 && prefix.get(last).isExists())
+					auxiliary.addAll(prefix.remove(last).variables);
+				pcnf = new Exists(pcnf, auxiliary);
+			}
+		}
+
+		// rebuild prefix from the innermost quantifier
+		for (int i = prefix.size() - 1; i >= 0; i--) {
+			QBF matrix = pcnf;
+			pcnf = prefix.get(i).apply(
+				f -> new ForAll(matrix, f.variables),
+				e -> new Exists(matrix, e.variables));
+		}
+
+		event.end(pnf, pcnf);
+		return pcnf;
 	}
 }
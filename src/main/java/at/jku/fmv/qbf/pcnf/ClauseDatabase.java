@@ -0,0 +1,583 @@
+package at.jku.fmv.qbf.pcnf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+
+/**
+ * A primitive clause database of a formula in PCNF.
+ * <p>
+ * Variables are numbered {@code 1 .. n} and literals are encoded as
+ * {@code 2 * variable + negated}, i.e. {@code literal ^ 1} is the
+ * complementary literal.
+ * Each variable is assigned the level of its quantifier block, counted from
+ * the outermost one.
+ * Free variables are treated as existentially quantified in an additional
+ * outermost block at level 0 (as in QDIMACS).
+ * <p>
+ * Clauses are arrays of distinct literals, identified by their index.
+ * Every literal has an occurrence list of clause ids, which is cleaned
+ * lazily when {@link #occurrences queried}, and an exact
+ * {@link #count occurrence count}.
+ * Clauses becoming unit and variables losing all occurrences of a literal
+ * are recorded in {@link #units} and {@link #candidates}.
+ *
+ * @author phlo
+ */
+final class ClauseDatabase {
+
+	/** A growable stack of integers. */
+	static final class IntStack {
+		private int[] elements = new int[16];
+		private int size = 0;
+
+		void push(int e) {
+			if (size == elements.length)
+				elements = Arrays.copyOf(elements, size << 1);
+			elements[size++] = e;
+		}
+
+		int pop() { return elements[--size]; }
+
+		boolean isEmpty() { return size == 0; }
+
+		int size() { return size; }
+
+		void clear() { size = 0; }
+
+		int[] toArray() { return Arrays.copyOf(elements, size); }
+	}
+
+	// variable names
+	private final String[] names;
+
+	// quantifier level and type of each variable
+	private final int[] level;
+	private final boolean[] universal;
+
+	// type of each quantifier level
+	private final boolean[] isForAll;
+
+	/** Assigned value of each variable (0 = unassigned, 1 = ⊤, -1 = ⊥). */
+	final byte[] value;
+
+	/** Literal replacing each variable (0 = not substituted). */
+	final int[] substitute;
+
+	/** Clauses (null if removed). */
+	int[][] clauses = new int[1024][];
+
+	/** Number of allocated clause ids. */
+	int numClauses = 0;
+
+	/** Number of clauses in the database. */
+	int size = 0;
+
+	// bloom filters of each clause's literals
+	private long[] signatures = new long[1024];
+
+	// nodes of unchanged input clauses
+	private QBF[] origins = new QBF[1024];
+
+	// occurrence lists, indexed by literal
+	private final int[][] occurrences;
+	private final int[] numOccurrences;
+
+	// literals removed from clauses still listing them
+	private final boolean[] stale;
+
+	/** Exact number of occurrences of each literal. */
+	final int[] count;
+
+	/** Apply universal reduction to added or strengthened clauses. */
+	final boolean universalReduction;
+
+	/** Number of universal literals removed by universal reduction. */
+	long reducedLiterals = 0;
+
+	/** The empty clause has been derived, i.e. the formula is false. */
+	boolean conflict = false;
+
+	/** Clauses which became unit. */
+	final IntStack units = new IntStack();
+
+	/** Variables which lost all occurrences of a literal. */
+	final IntStack candidates = new IntStack();
+
+	// literal marks - stamped to avoid clearing
+	private final int[] marks;
+	private int stamp = 0;
+
+	/**
+	 * Constructs a clause database from a given formula in PCNF.
+	 *
+	 * @param pcnf a {@link QBF} in PCNF
+	 * @param universalReduction apply universal reduction
+	 * @throws IllegalArgumentException if {@code pcnf} is not in PCNF
+	 */
+	ClauseDatabase(QBF pcnf, boolean universalReduction) {
+		this.universalReduction = universalReduction;
+
+		Map<String, Integer> indices = new HashMap<>();
+		List<String> names = new ArrayList<>();
+		List<Integer> levels = new ArrayList<>();
+		List<Boolean> types = new ArrayList<>();
+		names.add(null);
+		levels.add(0);
+
+		// free variables form the outermost (existential) block
+		types.add(false);
+
+		// prefix
+		QBF matrix = pcnf;
+		while (matrix.isQuantifier()) {
+			Quantifier q = (Quantifier) matrix;
+			int l = types.size();
+			types.add(q.isForAll());
+			for (String v : q.variables)
+				if (!indices.containsKey(v)) {
+					indices.put(v, names.size());
+					names.add(v);
+					levels.add(l);
+				}
+			matrix = q.subformula;
+		}
+
+		// matrix
+		List<QBF> matrixClauses = matrix.isAnd()
+			? ((And) matrix).subformulas
+			: matrix.isConstant()
+				? new ArrayList<>()
+				: Arrays.asList(matrix);
+
+		// literal nodes are usually shared
+		Map<QBF, Integer> cache = new IdentityHashMap<>();
+
+		List<int[]> literals = new ArrayList<>(matrixClauses.size());
+		for (QBF clause : matrixClauses) {
+			List<QBF> lits = clause instanceof Or
+				? ((Or) clause).subformulas
+				: Collections.singletonList(clause);
+
+			int[] c = new int[lits.size()];
+			for (int i = 0; i < c.length; i++) {
+				QBF lit = lits.get(i);
+				Integer literal = cache.get(lit);
+				if (literal == null) {
+					QBF var = lit instanceof Not ? ((Not) lit).subformula : lit;
+					if (!(var instanceof Variable))
+						throw new IllegalArgumentException("skeleton not in CNF");
+
+					String name = ((Variable) var).name;
+					Integer idx = indices.get(name);
+					if (idx == null) {
+						// free variables are outermost existentials
+						indices.put(name, idx = names.size());
+						names.add(name);
+						levels.add(0);
+					}
+					cache.put(lit, literal = 2 * idx + (var == lit ? 0 : 1));
+				}
+				c[i] = literal;
+			}
+			literals.add(c);
+		}
+
+		int n = names.size();
+
+		this.names = names.toArray(new String[n]);
+		this.isForAll = new boolean[types.size()];
+		for (int i = 0; i < isForAll.length; i++)
+			isForAll[i] = types.get(i);
+
+		level = new int[n];
+		universal = new boolean[n];
+		for (int v = 1; v < n; v++) {
+			level[v] = levels.get(v);
+			universal[v] = isForAll[level[v]];
+		}
+
+		value = new byte[n];
+		substitute = new int[n];
+		occurrences = new int[2 * n][];
+		numOccurrences = new int[2 * n];
+		stale = new boolean[2 * n];
+		count = new int[2 * n];
+		marks = new int[2 * n];
+
+		for (int v = 1; v < n; v++)
+			candidates.push(v);
+
+		if (matrix == QBF.False)
+			conflict = true;
+
+		for (int i = 0; i < literals.size(); i++) {
+			int[] c = literals.get(i);
+			int id = add(c);
+			// keep unchanged clauses' nodes
+			if (id >= 0 && clauses[id].length == c.length)
+				origins[id] = matrixClauses.get(i);
+		}
+	}
+
+	/**
+	 * Gets the number of variables.
+	 *
+	 * @return the highest variable + 1
+	 */
+	int numVariables() { return names.length; }
+
+	static int var(int literal) { return literal >>> 1; }
+
+	String name(int var) { return names[var]; }
+
+	boolean isUniversal(int var) { return universal[var]; }
+
+	int level(int var) { return level[var]; }
+
+	/**
+	 * Tests if a given variable is still part of the formula.
+	 *
+	 * @param var a variable
+	 * @return {@code true} if {@code var} is neither assigned nor substituted
+	 */
+	boolean isActive(int var) {
+		return value[var] == 0 && substitute[var] == 0;
+	}
+
+	/**
+	 * Gets the number of active variables occurring in the formula.
+	 *
+	 * @return number of variables
+	 */
+	int countVariables() {
+		int n = 0;
+		for (int v = 1; v < names.length; v++)
+			if (count[2 * v] + count[2 * v + 1] > 0)
+				n++;
+		return n;
+	}
+
+	/**
+	 * Gets the total number of literals in all clauses.
+	 *
+	 * @return number of literals
+	 */
+	long countLiterals() {
+		long n = 0;
+		for (int lit = 2; lit < count.length; lit++)
+			n += count[lit];
+		return n;
+	}
+
+	private int nextStamp() {
+		if (++stamp == Integer.MAX_VALUE) {
+			Arrays.fill(marks, 0);
+			stamp = 1;
+		}
+		return stamp;
+	}
+
+	/**
+	 * Marks the literals of a given clause for {@link #isMarked}.
+	 *
+	 * @param clause a clause's literals
+	 */
+	void mark(int[] clause) {
+		int s = nextStamp();
+		for (int lit : clause)
+			marks[lit] = s;
+	}
+
+	boolean isMarked(int literal) { return marks[literal] == stamp; }
+
+	static long signature(int[] clause) {
+		long signature = 0;
+		for (int lit : clause)
+			signature |= 1L << (lit & 63);
+		return signature;
+	}
+
+	long signature(int clause) { return signatures[clause]; }
+
+	// removes duplicates and universally reducible literals
+	// returns null for tautologies
+	private int[] normalize(int[] clause) {
+		int s = nextStamp();
+		int n = 0, maxLevel = -1;
+		int[] result = new int[clause.length];
+
+		for (int lit : clause) {
+			if (marks[lit ^ 1] == s)
+				return null;
+			if (marks[lit] == s)
+				continue;
+			marks[lit] = s;
+			result[n++] = lit;
+			if (!universal[var(lit)])
+				maxLevel = Math.max(maxLevel, level[var(lit)]);
+		}
+
+		if (universalReduction) {
+			int m = 0;
+			for (int i = 0; i < n; i++)
+				if (!universal[var(result[i])] || level[var(result[i])] < maxLevel)
+					result[m++] = result[i];
+			reducedLiterals += n - m;
+			n = m;
+		}
+
+		return n == result.length ? result : Arrays.copyOf(result, n);
+	}
+
+	/**
+	 * Adds a clause.
+	 *
+	 * @param clause an array of literals (may contain duplicates)
+	 * @return the clause's id or -1 if it is a tautology
+	 */
+	int add(int[] clause) {
+		clause = normalize(clause);
+		if (clause == null)
+			return -1;
+
+		if (numClauses == clauses.length) {
+			clauses = Arrays.copyOf(clauses, numClauses << 1);
+			signatures = Arrays.copyOf(signatures, numClauses << 1);
+			origins = Arrays.copyOf(origins, numClauses << 1);
+		}
+
+		int id = numClauses++;
+		clauses[id] = clause;
+		signatures[id] = signature(clause);
+		size++;
+
+		for (int lit : clause) {
+			count[lit]++;
+			int[] occs = occurrences[lit];
+			if (occs == null)
+				occurrences[lit] = occs = new int[4];
+			else if (numOccurrences[lit] == occs.length)
+				occurrences[lit] = occs = Arrays.copyOf(occs, occs.length << 1);
+			occs[numOccurrences[lit]++] = id;
+		}
+
+		if (clause.length == 0)
+			conflict = true;
+		else if (clause.length == 1)
+			units.push(id);
+
+		return id;
+	}
+
+	private void decrement(int literal) {
+		if (--count[literal] == 0)
+			candidates.push(var(literal));
+	}
+
+	// removes a literal from a clause, which stays in its occurrence list
+	private void unlink(int literal) {
+		stale[literal] = true;
+		decrement(literal);
+	}
+
+	/**
+	 * Removes a clause.
+	 *
+	 * @param clause id of the removed clause
+	 */
+	void remove(int clause) {
+		for (int lit : clauses[clause])
+			decrement(lit);
+		clauses[clause] = null;
+		origins[clause] = null;
+		size--;
+	}
+
+	/**
+	 * Removes a literal from a clause, followed by universal reduction.
+	 *
+	 * @param clause id of the strengthened clause
+	 * @param literal the removed literal
+	 */
+	void strengthen(int clause, int literal) {
+		int[] lits = clauses[clause];
+		int[] result = new int[lits.length - 1];
+		int n = 0, maxLevel = -1;
+
+		for (int lit : lits)
+			if (lit != literal) {
+				result[n++] = lit;
+				if (!universal[var(lit)])
+					maxLevel = Math.max(maxLevel, level[var(lit)]);
+			}
+
+		unlink(literal);
+
+		if (universalReduction) {
+			int m = 0;
+			for (int i = 0; i < n; i++) {
+				int lit = result[i];
+				if (!universal[var(lit)] || level[var(lit)] < maxLevel)
+					result[m++] = lit;
+				else
+					unlink(lit);
+			}
+			reducedLiterals += n - m;
+			if (m < n)
+				result = Arrays.copyOf(result, m);
+		}
+
+		clauses[clause] = result;
+		signatures[clause] = signature(result);
+		origins[clause] = null;
+
+		if (result.length == 0)
+			conflict = true;
+		else if (result.length == 1)
+			units.push(clause);
+	}
+
+	/**
+	 * Gets the ids of all clauses containing a given literal.
+	 * <p>
+	 * Removes stale entries from the literal's occurrence list.
+	 *
+	 * @param literal a literal
+	 * @return a copy of the literal's occurrence list
+	 */
+	int[] occurrences(int literal) {
+		int[] occs = occurrences[literal];
+		if (occs == null)
+			return new int[0];
+
+		boolean check = stale[literal];
+		int n = 0;
+		for (int i = 0; i < numOccurrences[literal]; i++) {
+			int c = occs[i];
+			if (clauses[c] != null && (!check || contains(clauses[c], literal)))
+				occs[n++] = c;
+		}
+		numOccurrences[literal] = n;
+		stale[literal] = false;
+
+		// drop lists of vanished literals
+		if (n == 0)
+			occurrences[literal] = null;
+
+		return Arrays.copyOf(occs, n);
+	}
+
+	private static boolean contains(int[] clause, int literal) {
+		for (int lit : clause)
+			if (lit == literal)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Assigns a literal, removing all satisfied clauses and strengthening
+	 * those containing its complement.
+	 *
+	 * @param literal the literal set to ⊤
+	 */
+	void assign(int literal) {
+		value[var(literal)] = (byte) ((literal & 1) == 0 ? 1 : -1);
+
+		for (int c : occurrences(literal))
+			remove(c);
+
+		for (int c : occurrences(literal ^ 1))
+			strengthen(c, literal ^ 1);
+	}
+
+	/**
+	 * Substitutes a literal for a variable in all clauses.
+	 *
+	 * @param var the replaced variable
+	 * @param literal the replacing literal
+	 */
+	void substitute(int var, int literal) {
+		substitute[var] = literal;
+
+		for (int polarity = 0; polarity < 2; polarity++)
+			for (int c : occurrences(2 * var + polarity)) {
+				int[] clause = clauses[c].clone();
+				for (int i = 0; i < clause.length; i++)
+					if (var(clause[i]) == var)
+						clause[i] = literal ^ (clause[i] & 1);
+				remove(c);
+				add(clause);
+			}
+	}
+
+	/**
+	 * Converts the database into a {@link QBF} in PCNF.
+	 * <p>
+	 * Variables keep their names, free variables remain free and clauses
+	 * keep their order.
+	 *
+	 * @return the database's formula
+	 */
+	QBF toQBF() {
+		if (conflict)
+			return QBF.False;
+
+		QBF[] variables = new QBF[names.length];
+		QBF[] negations = new QBF[names.length];
+
+		List<QBF> matrix = new ArrayList<>(size);
+		for (int c = 0; c < numClauses; c++) {
+			int[] clause = clauses[c];
+			if (clause == null)
+				continue;
+
+			if (origins[c] != null) {
+				matrix.add(origins[c]);
+				continue;
+			}
+
+			QBF[] lits = new QBF[clause.length];
+			for (int i = 0; i < lits.length; i++) {
+				int v = var(clause[i]);
+				if (variables[v] == null)
+					variables[v] = new Variable(names[v]);
+				if ((clause[i] & 1) == 0)
+					lits[i] = variables[v];
+				else if ((lits[i] = negations[v]) == null)
+					lits[i] = negations[v] = new Not(variables[v]);
+			}
+			matrix.add(lits.length == 1 ? lits[0] : new Or(lits));
+		}
+
+		if (matrix.isEmpty())
+			return QBF.True;
+
+		QBF formula = matrix.size() == 1 ? matrix.get(0) : new And(matrix);
+
+		// remaining variables of each quantifier block (except the free one)
+		List<Set<String>> blocks = new ArrayList<>();
+		for (int l = 0; l < isForAll.length; l++)
+			blocks.add(new HashSet<>());
+		for (int v = 1; v < names.length; v++)
+			if (level[v] > 0 && count[2 * v] + count[2 * v + 1] > 0)
+				blocks.get(level[v]).add(names[v]);
+
+		for (int l = blocks.size() - 1; l > 0; l--)
+			if (!blocks.get(l).isEmpty())
+				formula = isForAll[l]
+					? new ForAll(formula, blocks.get(l))
+					: new Exists(formula, blocks.get(l));
+
+		return formula;
+	}
+}
@@ -0,0 +1,449 @@
+package at.jku.fmv.qbf.pcnf;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import at.jku.fmv.qbf.QBF;
+
+/**
+ * Dependencies of existential on universal variables of a formula in PCNF.
+ * <p>
+ * A dependency scheme over-approximates the universal variables an
+ * existential variable's Skolem function has to depend on, starting from
+ * the trivial scheme, where an existential depends on all universals
+ * quantified to its left.
+ * Two refinements are supported, where a universal {@code x} and an
+ * existential {@code y} right of {@code x} are only considered dependent
+ * if they are connected via existential variables right of {@code x}:
+ * <ul>
+ *   <li>{@link Type#Standard}: {@code x} and {@code y} occur in clauses
+ *     connected by shared connecting variables (computed with union-find
+ *     over clauses, processing universal blocks from the innermost one)
+ *   <li>{@link Type#ReflexiveResolutionPath}: there are resolution paths
+ *     from {@code x} to {@code y} and from {@code ¬x} to {@code ¬y} (or
+ *     from {@code x} to {@code ¬y} and from {@code ¬x} to {@code y}), i.e.
+ *     chains of clauses linked by complementary connecting literals, where
+ *     a clause is never left through the variable it was entered by
+ *     (computed with a breadth-first search per universal literal)
+ * </ul>
+ * The literal-clause incidence graph is stored in primitive adjacency
+ * arrays and the dependencies in a bit matrix, holding a row of universal
+ * variables for each existential with at least one dependency.
+ * <p>
+ * Free variables are treated as existentially quantified in an additional
+ * outermost block.
+ *
+ * @author phlo
+ */
+public final class DependencyScheme {
+
+	/** Supported dependency schemes. */
+	public enum Type {
+
+		/** Connection via clauses sharing connecting variables. */
+		Standard,
+
+		/** Connection via resolution paths in both polarities. */
+		ReflexiveResolutionPath
+	}
+
+	private final Type type;
+
+	// universal and existential variables in prefix order
+	private final String[] universals;
+	private final String[] existentials;
+
+	// indices of universal and existential variables
+	private final Map<String, Integer> universalIndex = new HashMap<>();
+	private final Map<String, Integer> existentialIndex = new HashMap<>();
+
+	// dependency matrix - bit u of row e is set if e depends on u
+	private final long[][] rows;
+
+	private long size = 0;
+	private long trivialSize = 0;
+
+	// variables, their levels and quantifier types
+	private final int n;
+	private final int[] level;
+	private final boolean[] universal;
+
+	// clauses' literals: clauseLiterals[clauseStart[c] .. clauseStart[c + 1]]
+	private final int[] clauseStart;
+	private final int[] clauseLiterals;
+
+	// literals' clauses: occurrences[occurrenceStart[l] .. occurrenceStart[l + 1]]
+	private final int[] occurrenceStart;
+	private final int[] occurrences;
+
+	// variable indices in the dependency matrix
+	private final int[] index;
+
+	/**
+	 * Computes a given dependency scheme.
+	 *
+	 * @param pcnf a {@link QBF} in PCNF
+	 * @param type the dependency scheme
+	 * @throws IllegalArgumentException if {@code pcnf} is not in PCNF
+	 */
+	public DependencyScheme(QBF pcnf, Type type) {
+		this.type = type;
+
+		ClauseDatabase db = new ClauseDatabase(pcnf, false);
+
+		// variables
+		n = db.numVariables();
+		level = new int[n];
+		universal = new boolean[n];
+		index = new int[n];
+
+		// prefix order (stable w.r.t. variable numbers)
+		Integer[] order = new Integer[n - 1];
+		for (int v = 1; v < n; v++)
+			order[v - 1] = v;
+		Arrays.sort(order, (a, b) -> Integer.compare(db.level(a), db.level(b)));
+
+		int numUniversals = 0, numExistentials = 0;
+		for (int v = 1; v < n; v++) {
+			level[v] = db.level(v);
+			universal[v] = db.isUniversal(v);
+			if (universal[v])
+				numUniversals++;
+			else
+				numExistentials++;
+		}
+
+		universals = new String[numUniversals];
+		existentials = new String[numExistentials];
+		numUniversals = numExistentials = 0;
+		for (int v : order) {
+			if (universal[v]) {
+				index[v] = numUniversals;
+				universals[numUniversals] = db.name(v);
+				universalIndex.put(db.name(v), numUniversals++);
+			} else {
+				index[v] = numExistentials;
+				existentials[numExistentials] = db.name(v);
+				existentialIndex.put(db.name(v), numExistentials++);
+				trivialSize += numUniversals;
+			}
+		}
+
+		rows = new long[numExistentials][];
+
+		// literal-clause incidence graph
+		int m = 0, numLiterals = 0;
+		for (int c = 0; c < db.numClauses; c++)
+			if (db.clauses[c] != null) {
+				m++;
+				numLiterals += db.clauses[c].length;
+			}
+
+		clauseStart = new int[m + 1];
+		clauseLiterals = new int[numLiterals];
+		occurrenceStart = new int[2 * n + 1];
+		occurrences = new int[numLiterals];
+
+		m = numLiterals = 0;
+		for (int c = 0; c < db.numClauses; c++)
+			if (db.clauses[c] != null) {
+				for (int lit : db.clauses[c]) {
+					clauseLiterals[numLiterals++] = lit;
+					occurrenceStart[lit + 1]++;
+				}
+				clauseStart[++m] = numLiterals;
+			}
+
+		for (int lit = 0; lit < 2 * n; lit++)
+			occurrenceStart[lit + 1] += occurrenceStart[lit];
+
+		int[] next = Arrays.copyOf(occurrenceStart, 2 * n);
+		for (int c = 0; c < m; c++)
+			for (int i = clauseStart[c]; i < clauseStart[c + 1]; i++)
+				occurrences[next[clauseLiterals[i]]++] = c;
+
+		if (type == Type.Standard)
+			computeStandard(order);
+		else
+			computeResolutionPaths();
+	}
+
+	private static int var(int literal) { return literal >>> 1; }
+
+	private void addDependency(int y, int x) {
+		long[] row = rows[index[y]];
+		if (row == null)
+			row = rows[index[y]] = new long[(universals.length + 63) >>> 6];
+
+		int u = index[x];
+		long bit = 1L << u;
+		if ((row[u >>> 6] & bit) == 0) {
+			row[u >>> 6] |= bit;
+			size++;
+		}
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i)
+			i = parent[i] = parent[parent[i]];
+		return i;
+	}
+
+	// clauses connected by existentials right of x, from the innermost x
+	private void computeStandard(Integer[] order) {
+		int m = clauseStart.length - 1;
+
+		int[] parent = new int[m];
+		for (int c = 0; c < m; c++)
+			parent[c] = c;
+
+		// existentials right of the current block, grouped by component
+		int[] added = new int[existentials.length];
+		int numAdded = 0;
+		int[] head = new int[m];
+		int[] headStamp = new int[m];
+		int[] nextInGroup = new int[n];
+		int stamp = 0;
+
+		// components containing the current universal
+		int[] marks = new int[m];
+
+		int j = order.length - 1;
+		for (int i = order.length - 1; i >= 0; ) {
+			if (!universal[order[i]]) {
+				i--;
+				continue;
+			}
+			int block = level[order[i]];
+
+			// connect clauses via existentials right of the block
+			for (; level[order[j]] > block; j--) {
+				int e = order[j];
+				if (universal[e])
+					continue;
+
+				added[numAdded++] = e;
+				int first = -1;
+				for (int lit = 2 * e; lit <= 2 * e + 1; lit++)
+					for (int k = occurrenceStart[lit]; k < occurrenceStart[lit + 1]; k++) {
+						int r = find(parent, occurrences[k]);
+						if (first < 0)
+							first = r;
+						else if (r != first)
+							parent[r] = first;
+					}
+			}
+
+			// group existentials by their clauses' component
+			stamp++;
+			for (int k = 0; k < numAdded; k++) {
+				int e = added[k];
+				int c = firstClause(e);
+				if (c < 0)
+					continue;
+				int r = find(parent, c);
+				if (headStamp[r] != stamp) {
+					headStamp[r] = stamp;
+					head[r] = 0;
+				}
+				nextInGroup[e] = head[r];
+				head[r] = e;
+			}
+
+			// universals depend on the existentials of their components
+			for (; i >= 0 && level[order[i]] == block; i--) {
+				int x = order[i];
+				for (int lit = 2 * x; lit <= 2 * x + 1; lit++)
+					for (int k = occurrenceStart[lit]; k < occurrenceStart[lit + 1]; k++) {
+						int r = find(parent, occurrences[k]);
+						if (marks[r] == x || headStamp[r] != stamp)
+							continue;
+						marks[r] = x;
+						for (int e = head[r]; e != 0; e = nextInGroup[e])
+							addDependency(e, x);
+					}
+			}
+		}
+	}
+
+	private int firstClause(int var) {
+		for (int lit = 2 * var; lit <= 2 * var + 1; lit++)
+			if (occurrenceStart[lit] < occurrenceStart[lit + 1])
+				return occurrences[occurrenceStart[lit]];
+		return -1;
+	}
+
+	// resolution path search state
+	private int[] entry;
+	private int[] visited;
+	private int[] queue;
+	private int[] trail;
+	private int[] reached;
+	private int search = 0;
+	private int tail;
+	private int numReached;
+
+	// resolution paths starting at both literals of each universal
+	private void computeResolutionPaths() {
+		int m = clauseStart.length - 1;
+		entry = new int[m];
+		visited = new int[m];
+		queue = new int[2 * n];
+		trail = new int[2 * n];
+
+		// literals reached from ¬x and x
+		int[] negative = new int[2 * n];
+		int[] positive = new int[2 * n];
+
+		for (int x = 1; x < n; x++) {
+			if (!universal[x] || reach(2 * x + 1, negative) == 0)
+				continue;
+
+			int numPositive = reach(2 * x, positive);
+			for (int k = 0; k < numPositive; k++) {
+				int lit = trail[k];
+				int y = var(lit);
+				if (!universal[y]
+					&& level[y] > level[x]
+					&& negative[lit ^ 1] == x)
+					addDependency(y, x);
+			}
+		}
+
+		entry = visited = queue = trail = reached = null;
+	}
+
+	// breadth-first search for literals reachable by resolution paths
+	private int reach(int source, int[] reached) {
+		this.reached = reached;
+		search++;
+		tail = numReached = 0;
+
+		int x = var(source);
+
+		// clauses containing the source are left through any other variable
+		for (int k = occurrenceStart[source]; k < occurrenceStart[source + 1]; k++)
+			enter(occurrences[k], x, x);
+
+		// clauses containing a connecting literal's complement
+		for (int head = 0; head < tail; head++) {
+			int lit = queue[head];
+			for (int k = occurrenceStart[lit ^ 1]; k < occurrenceStart[(lit ^ 1) + 1]; k++)
+				enter(occurrences[k], var(lit), x);
+		}
+
+		return numReached;
+	}
+
+	private void enter(int clause, int through, int x) {
+		if (visited[clause] != search) {
+			visited[clause] = search;
+			entry[clause] = through;
+			for (int i = clauseStart[clause]; i < clauseStart[clause + 1]; i++)
+				if (var(clauseLiterals[i]) != through)
+					mark(clauseLiterals[i], x);
+		} else if (entry[clause] != 0 && entry[clause] != through) {
+			// entered through a second variable - may be left through any
+			int v = entry[clause];
+			entry[clause] = 0;
+			for (int i = clauseStart[clause]; i < clauseStart[clause + 1]; i++)
+				if (var(clauseLiterals[i]) == v)
+					mark(clauseLiterals[i], x);
+		}
+	}
+
+	private void mark(int literal, int x) {
+		if (reached[literal] == x)
+			return;
+		reached[literal] = x;
+		trail[numReached++] = literal;
+		if (!universal[var(literal)] && level[var(literal)] > level[x])
+			queue[tail++] = literal;
+	}
+
+	/**
+	 * Gets the computed dependency scheme.
+	 *
+	 * @return the {@link Type} of this dependency scheme
+	 */
+	public Type getType() { return type; }
+
+	/**
+	 * Gets all universal variables in prefix order.
+	 *
+	 * @return an unmodifiable list of universal variables
+	 */
+	public List<String> getUniversals() {
+		return Collections.unmodifiableList(Arrays.asList(universals));
+	}
+
+	/**
+	 * Gets all existential variables (including free ones) in prefix order.
+	 *
+	 * @return an unmodifiable list of existential variables
+	 */
+	public List<String> getExistentials() {
+		return Collections.unmodifiableList(Arrays.asList(existentials));
+	}
+
+	/**
+	 * Tests if an existential depends on a universal variable.
+	 *
+	 * @param existential an existential variable
+	 * @param universal a universal variable
+	 * @return {@code true} if {@code existential} depends on {@code universal}
+	 * @throws IllegalArgumentException if the variables are unknown or of the
+	 * wrong type
+	 */
+	public boolean dependsOn(String existential, String universal) {
+		long[] row = rows[getIndex(existentialIndex, existential)];
+		int u = getIndex(universalIndex, universal);
+		return row != null && (row[u >>> 6] & 1L << u) != 0;
+	}
+
+	/**
+	 * Gets the universal variables an existential variable depends on.
+	 *
+	 * @param existential an existential variable
+	 * @return an unmodifiable set of universal variables in prefix order
+	 * @throws IllegalArgumentException if {@code existential} is unknown
+	 */
+	public Set<String> getDependencies(String existential) {
+		long[] row = rows[getIndex(existentialIndex, existential)];
+		if (row == null)
+			return Collections.emptySet();
+
+		Set<String> dependencies = new LinkedHashSet<>();
+		for (int w = 0; w < row.length; w++)
+			for (long bits = row[w]; bits != 0; bits &= bits - 1)
+				dependencies.add(
+					universals[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+		return Collections.unmodifiableSet(dependencies);
+	}
+
+	private static int getIndex(Map<String, Integer> indices, String var) {
+		Integer i = indices.get(var);
+		if (i == null)
+			throw new IllegalArgumentException("unknown variable " + var);
+		return i;
+	}
+
+	/**
+	 * Gets the number of dependencies.
+	 *
+	 * @return number of dependent pairs of variables
+	 */
+	public long size() { return size; }
+
+	/**
+	 * Gets the number of dependencies of the trivial dependency scheme.
+	 *
+	 * @return number of universal-existential pairs in prefix order
+	 */
+	public long getTrivialSize() { return trivialSize; }
+}
@@ -46,7 +46,7 @@ public class PG86 implements CNFEncoder {
 	private Stream<QBF> encodeAnd(And and) {
 		Not aux = new Not(getAuxiliary(and));
 		return and.subformulas.stream()
-			.map(f -> new Or(aux, f));
+			.map(f -> new Or(aux, getAuxiliary(f)));
 	}
 
 	private Stream<QBF> encodeOr(Or or) {
@@ -0,0 +1,609 @@
+package at.jku.fmv.qbf.pcnf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.pcnf.ClauseDatabase.IntStack;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+/**
+ * A preprocessor for formulas in PCNF.
+ * <p>
+ * Applies the selected {@link Technique techniques} to a
+ * {@link ClauseDatabase} until a fixpoint is reached.
+ * The result is satisfiability equivalent, where free variables are treated
+ * as outermost existentials (as in QDIMACS).
+ * <p>
+ * Preprocessors are stateful - use a new instance for each formula.
+ *
+ * @author phlo
+ */
+public class Preprocessor {
+
+	/** Preprocessing techniques. */
+	public enum Technique {
+
+		/**
+		 * Removes universal literals quantified inside all existential
+		 * literals of their clause (counts removed literals).
+		 */
+		UniversalReduction,
+
+		/** Assigns literals of unit clauses (counts assigned variables). */
+		UnitPropagation,
+
+		/**
+		 * Assigns existential literals without complementary occurrences
+		 * and removes such universal literals (counts assigned variables).
+		 */
+		PureLiterals,
+
+		/** Removes subsumed clauses (counts removed clauses). */
+		Subsumption,
+
+		/**
+		 * Substitutes equivalent literals, detected as strongly connected
+		 * components of the binary implication graph (counts substituted
+		 * variables).
+		 */
+		Equivalences,
+
+		/**
+		 * Removes clauses blocked on an existential literal, i.e. whose
+		 * resolvents on it are all tautologies on an outer or equally
+		 * quantified variable (counts removed clauses).
+		 */
+		BlockedClauses,
+
+		/**
+		 * Eliminates existential variables by clause distribution if neither
+		 * the number of clauses increases nor resolvents exceed a size limit
+		 * (counts eliminated variables).
+		 * <p>
+		 * Only variables not preceding any other variable of their clauses
+		 * are eliminated, e.g. the auxiliary variables introduced by
+		 * {@link PG86}.
+		 */
+		VariableElimination
+	}
+
+	// occurrences of a literal considered by blocked clause elimination
+	// and of the rarer literal considered by variable elimination
+	private static final int OCCURRENCE_LIMIT = 16;
+
+	// maximum size of resolvents added by variable elimination
+	private static final int RESOLVENT_LIMIT = 32;
+
+	/** An indexed binary min-heap of variables. */
+	private static final class VariableQueue {
+		private final int[] heap;
+		private final int[] position; // index in heap + 1 (0 = not queued)
+		private final long[] key;
+		private int size = 0;
+
+		VariableQueue(int numVariables) {
+			heap = new int[numVariables];
+			position = new int[numVariables];
+			key = new long[numVariables];
+		}
+
+		boolean isEmpty() { return size == 0; }
+
+		// inserts or moves a variable
+		void update(int var, long k) {
+			if (position[var] == 0) {
+				heap[size] = var;
+				position[var] = ++size;
+				key[var] = k;
+				up(size - 1);
+			} else {
+				long old = key[var];
+				key[var] = k;
+				if (k < old) up(position[var] - 1);
+				else down(position[var] - 1);
+			}
+		}
+
+		int poll() {
+			int var = heap[0];
+			position[var] = 0;
+			if (--size > 0) {
+				heap[0] = heap[size];
+				position[heap[0]] = 1;
+				down(0);
+			}
+			return var;
+		}
+
+		private void up(int i) {
+			int var = heap[i];
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (key[heap[parent]] <= key[var])
+					break;
+				heap[i] = heap[parent];
+				position[heap[i]] = i + 1;
+				i = parent;
+			}
+			heap[i] = var;
+			position[var] = i + 1;
+		}
+
+		private void down(int i) {
+			int var = heap[i];
+			for (int child; (child = 2 * i + 1) < size; i = child) {
+				if (child + 1 < size && key[heap[child + 1]] < key[heap[child]])
+					child++;
+				if (key[var] <= key[heap[child]])
+					break;
+				heap[i] = heap[child];
+				position[heap[i]] = i + 1;
+			}
+			heap[i] = var;
+			position[var] = i + 1;
+		}
+	}
+
+	private final Set<Technique> techniques;
+
+	private final Map<Technique, Long> counts = new EnumMap<>(Technique.class);
+
+	private ClauseDatabase db;
+
+	/**
+	 * Constructs a preprocessor applying all {@link Technique techniques}.
+	 */
+	public Preprocessor() { this(EnumSet.allOf(Technique.class)); }
+
+	/**
+	 * Constructs a preprocessor applying the given techniques.
+	 *
+	 * @param techniques the applied {@link Technique techniques}
+	 */
+	public Preprocessor(Set<Technique> techniques) {
+		this.techniques = techniques.isEmpty()
+			? EnumSet.noneOf(Technique.class)
+			: EnumSet.copyOf(techniques);
+
+		for (Technique t : Technique.values())
+			counts.put(t, 0L);
+	}
+
+	/**
+	 * Gets the number of eliminations performed by a given technique.
+	 *
+	 * @param technique a {@link Technique}
+	 * @return number of eliminated literals, variables or clauses (see
+	 * {@link Technique})
+	 */
+	public long getCount(Technique technique) {
+		return counts.get(technique);
+	}
+
+	private void increment(Technique technique) {
+		counts.merge(technique, 1L, Long::sum);
+	}
+
+	/**
+	 * Preprocesses a given formula.
+	 *
+	 * @param pcnf {@link QBF} in PCNF
+	 * @return a satisfiability equivalent {@link QBF} in PCNF
+	 * @throws IllegalArgumentException if {@code pcnf} is not in PCNF
+	 */
+	public QBF apply(QBF pcnf) {
+		FormulaEvent event = new FormulaEvent.Preprocess();
+		event.begin();
+
+		db = new ClauseDatabase(
+			pcnf,
+			techniques.contains(Technique.UniversalReduction));
+
+		boolean changed = true;
+		while (changed && !db.conflict) {
+			propagate();
+
+			changed = false;
+			if (techniques.contains(Technique.Subsumption) && !db.conflict)
+				changed |= subsume();
+			if (techniques.contains(Technique.Equivalences) && !db.conflict)
+				changed |= substituteEquivalences();
+			if (techniques.contains(Technique.BlockedClauses) && !db.conflict)
+				changed |= eliminateBlockedClauses();
+			if (techniques.contains(Technique.VariableElimination)
+				&& !db.conflict)
+				changed |= eliminateVariables();
+		}
+
+		counts.put(Technique.UniversalReduction, db.reducedLiterals);
+
+		QBF result = db.toQBF();
+		db = null;
+
+		event.end(pcnf, result);
+		return result;
+	}
+
+	// applies unit propagation and pure literal elimination until fixpoint
+	private void propagate() {
+		boolean units = techniques.contains(Technique.UnitPropagation);
+		boolean pure = techniques.contains(Technique.PureLiterals);
+
+		while (!db.conflict) {
+			if (units && !db.units.isEmpty()) {
+				int[] clause = db.clauses[db.units.pop()];
+				if (clause == null || clause.length != 1)
+					continue;
+
+				// universal units are falsified
+				if (db.isUniversal(clause[0] >>> 1)) {
+					db.conflict = true;
+					break;
+				}
+
+				db.assign(clause[0]);
+				increment(Technique.UnitPropagation);
+			} else if (pure && !db.candidates.isEmpty()) {
+				int var = db.candidates.pop();
+				int pos = db.count[2 * var], neg = db.count[2 * var + 1];
+				if (!db.isActive(var) || (pos == 0) == (neg == 0))
+					continue;
+
+				// satisfy existential, falsify universal occurrences
+				int lit = 2 * var + (pos == 0 ? 1 : 0);
+				db.assign(db.isUniversal(var) ? lit ^ 1 : lit);
+				increment(Technique.PureLiterals);
+			} else {
+				break;
+			}
+		}
+
+		db.units.clear();
+		db.candidates.clear();
+	}
+
+	// backward subsumption using each clause's rarest literal
+	private boolean subsume() {
+		boolean changed = false;
+
+		for (int c = 0; c < db.numClauses; c++) {
+			int[] clause = db.clauses[c];
+			if (clause == null)
+				continue;
+
+			int min = clause[0];
+			for (int lit : clause)
+				if (db.count[lit] < db.count[min])
+					min = lit;
+
+			if (db.count[min] < 2)
+				continue;
+
+			long signature = db.signature(c);
+			db.mark(clause);
+
+			for (int d : db.occurrences(min)) {
+				if (d == c || (signature & ~db.signature(d)) != 0)
+					continue;
+
+				int[] other = db.clauses[d];
+				if (other.length < clause.length)
+					continue;
+
+				int matches = 0;
+				for (int lit : other)
+					if (db.isMarked(lit))
+						matches++;
+
+				if (matches == clause.length) {
+					db.remove(d);
+					increment(Technique.Subsumption);
+					changed = true;
+				}
+			}
+		}
+
+		// removed clauses may leave pure literals
+		for (int v = 1; v < db.numVariables(); v++)
+			if (db.count[2 * v] == 0 || db.count[2 * v + 1] == 0)
+				db.candidates.push(v);
+
+		return changed;
+	}
+
+	// successors of a literal in the binary implication graph
+	private int[] getImplications(int literal) {
+		int[] occs = db.occurrences(literal ^ 1);
+		int[] successors = new int[occs.length];
+		int n = 0;
+		for (int c : occs) {
+			int[] clause = db.clauses[c];
+			if (clause.length == 2)
+				successors[n++] =
+					clause[0] == (literal ^ 1) ? clause[1] : clause[0];
+		}
+		return Arrays.copyOf(successors, n);
+	}
+
+	// substitutes equivalent literals - returns true if any were found
+	private boolean substituteEquivalences() {
+		int numLiterals = 2 * db.numVariables();
+
+		// iterative Tarjan
+		int[] index = new int[numLiterals];
+		int[] lowlink = new int[numLiterals];
+		boolean[] onStack = new boolean[numLiterals];
+		int[][] successors = new int[numLiterals][];
+		int[] next = new int[numLiterals];
+
+		IntStack stack = new IntStack();
+		IntStack dfs = new IntStack();
+		List<int[]> components = new ArrayList<>();
+		int counter = 0;
+
+		for (int root = 2; root < numLiterals; root++) {
+			if (index[root] != 0 || db.count[root] + db.count[root ^ 1] == 0)
+				continue;
+
+			dfs.push(root);
+			while (!dfs.isEmpty()) {
+				int lit = dfs.pop();
+
+				if (successors[lit] == null) {
+					index[lit] = lowlink[lit] = ++counter;
+					successors[lit] = getImplications(lit);
+					stack.push(lit);
+					onStack[lit] = true;
+				}
+
+				if (next[lit] < successors[lit].length) {
+					int succ = successors[lit][next[lit]++];
+					dfs.push(lit);
+					if (index[succ] == 0)
+						dfs.push(succ);
+					else if (onStack[succ])
+						lowlink[lit] = Math.min(lowlink[lit], index[succ]);
+					continue;
+				}
+
+				// finished - propagate lowlink to parent
+				if (!dfs.isEmpty()) {
+					int parent = dfs.pop();
+					lowlink[parent] = Math.min(lowlink[parent], lowlink[lit]);
+					dfs.push(parent);
+				}
+
+				if (lowlink[lit] == index[lit]) {
+					IntStack component = new IntStack();
+					int l;
+					do {
+						l = stack.pop();
+						onStack[l] = false;
+						component.push(l);
+					} while (l != lit);
+
+					if (component.size() > 1)
+						components.add(component.toArray());
+				}
+			}
+		}
+
+		// free memory before substituting
+		successors = null;
+
+		boolean[] done = new boolean[db.numVariables()];
+		boolean changed = false;
+
+		for (int[] component : components) {
+			if (done[ClauseDatabase.var(component[0])])
+				continue;
+
+			// select representative: the universal or outermost existential
+			int representative = 0, universals = 0;
+			for (int lit : component) {
+				int var = ClauseDatabase.var(lit);
+				if (done[var]) {
+					// x ≡ ¬x
+					db.conflict = true;
+					return false;
+				}
+				done[var] = true;
+
+				if (db.isUniversal(var)) {
+					universals++;
+					representative = lit;
+				} else if (universals == 0 && (representative == 0
+					|| db.level(var) < db.level(representative >>> 1)
+					|| db.level(var) == db.level(representative >>> 1)
+						&& var < representative >>> 1))
+					representative = lit;
+			}
+
+			int level = db.level(representative >>> 1);
+			for (int lit : component) {
+				int var = ClauseDatabase.var(lit);
+				if (lit == representative)
+					continue;
+
+				// universals must not be equivalent to other universals or
+				// outer existentials
+				if (universals > 1 || universals == 1 && db.level(var) < level) {
+					db.conflict = true;
+					return false;
+				}
+
+				db.substitute(var, representative ^ (lit & 1));
+				increment(Technique.Equivalences);
+				changed = true;
+			}
+		}
+
+		return changed;
+	}
+
+	// tests if the resolvent of the marked clause and a given clause on a
+	// literal is a tautology on a variable not quantified after it
+	private boolean isTautology(int[] clause, int literal) {
+		int level = db.level(literal >>> 1);
+		for (int lit : clause)
+			if (lit != (literal ^ 1)
+				&& db.isMarked(lit ^ 1)
+				&& db.level(lit >>> 1) <= level)
+				return true;
+		return false;
+	}
+
+	// removes blocked clauses - returns true if any were found
+	private boolean eliminateBlockedClauses() {
+		boolean changed = false;
+
+		for (int lit = 2; lit < 2 * db.numVariables(); lit++) {
+			if (db.isUniversal(lit >>> 1)
+				|| db.count[lit] == 0
+				|| db.count[lit ^ 1] > OCCURRENCE_LIMIT)
+				continue;
+
+			int[] resolving = db.occurrences(lit ^ 1);
+
+			for (int c : db.occurrences(lit)) {
+				int[] clause = db.clauses[c];
+				if (clause == null)
+					continue;
+
+				// resolving clauses without complementary literals can't
+				// be tautologies
+				long complements = 0;
+				for (int l : clause)
+					if (l != lit)
+						complements |= 1L << ((l ^ 1) & 63);
+
+				db.mark(clause);
+
+				boolean blocked = true;
+				for (int d : resolving)
+					if (db.clauses[d] != null
+						&& ((db.signature(d) & complements) == 0
+							|| !isTautology(db.clauses[d], lit))) {
+						blocked = false;
+						break;
+					}
+
+				if (blocked) {
+					db.remove(c);
+					increment(Technique.BlockedClauses);
+					changed = true;
+				}
+			}
+		}
+
+		return changed;
+	}
+
+	// number of resolvents in the worst case
+	private long getEliminationCost(int var) {
+		return (long) db.count[2 * var] * db.count[2 * var + 1];
+	}
+
+	private boolean isEliminable(int var) {
+		int pos = db.count[2 * var], neg = db.count[2 * var + 1];
+		return db.isActive(var)
+			&& !db.isUniversal(var)
+			&& pos + neg > 0
+			&& Math.min(pos, neg) <= OCCURRENCE_LIMIT;
+	}
+
+	// eliminates variables in order of their cost
+	private boolean eliminateVariables() {
+		VariableQueue queue = new VariableQueue(db.numVariables());
+		for (int v = 1; v < db.numVariables(); v++)
+			if (isEliminable(v))
+				queue.update(v, getEliminationCost(v));
+
+		boolean changed = false;
+		IntStack touched = new IntStack();
+
+		while (!queue.isEmpty() && !db.conflict) {
+			int var = queue.poll();
+			if (!isEliminable(var) || !eliminate(var, touched))
+				continue;
+
+			increment(Technique.VariableElimination);
+			changed = true;
+
+			// neighbours' costs changed
+			while (!touched.isEmpty()) {
+				int v = touched.pop();
+				if (v != var && isEliminable(v))
+					queue.update(v, getEliminationCost(v));
+			}
+		}
+
+		return changed;
+	}
+
+	// replaces a variable's clauses by their non-tautological resolvents
+	// pushes the variables of removed clauses to touched
+	private boolean eliminate(int var, IntStack touched) {
+		int[] pos = db.occurrences(2 * var);
+		int[] neg = db.occurrences(2 * var + 1);
+
+		// variables must not precede any other variable of their clauses
+		int level = db.level(var);
+		for (int[] occs : new int[][] {pos, neg})
+			for (int c : occs)
+				for (int lit : db.clauses[c])
+					if (db.level(lit >>> 1) > level)
+						return false;
+
+		int limit = pos.length + neg.length;
+		List<int[]> resolvents = new ArrayList<>();
+		int[] buffer = new int[RESOLVENT_LIMIT];
+
+		for (int c : pos) {
+			int[] clause = db.clauses[c];
+			db.mark(clause);
+
+			for (int d : neg) {
+				int[] other = db.clauses[d];
+				if (isTautology(other, 2 * var))
+					continue;
+
+				int n = 0;
+				for (int lit : clause)
+					if (lit != 2 * var) {
+						if (n == RESOLVENT_LIMIT)
+							return false;
+						buffer[n++] = lit;
+					}
+				for (int lit : other)
+					if (lit != 2 * var + 1 && !db.isMarked(lit)) {
+						if (n == RESOLVENT_LIMIT)
+							return false;
+						buffer[n++] = lit;
+					}
+
+				if (resolvents.size() == limit)
+					return false;
+				resolvents.add(Arrays.copyOf(buffer, n));
+			}
+		}
+
+		for (int[] occs : new int[][] {pos, neg})
+			for (int c : occs) {
+				for (int lit : db.clauses[c])
+					touched.push(lit >>> 1);
+				db.remove(c);
+			}
+
+		for (int[] resolvent : resolvents)
+			db.add(resolvent);
+
+		return true;
+	}
+}
@@ -0,0 +1,486 @@
+package at.jku.fmv.qbf.pcnf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+/**
+ * Circuit rewriting of a formula's propositional gates prior to CNF
+ * encoding.
+ * <p>
+ * Gates are rewritten bottom-up, where every distinct node is processed
+ * exactly once and all resulting nodes are hash-consed, i.e. structurally
+ * equal gates are shared:
+ * <ul>
+ *   <li>associative gates are flattened into their parent if referenced
+ *       only once ({@code a ∧ (b ∧ c) → a ∧ b ∧ c}), shared gates are kept
+ *   <li>constants, duplicate and complementary operands are removed
+ *       ({@code a ∧ a → a}, {@code a ∧ ¬a → ⊥}, {@code ¬¬a → a})
+ *   <li>absorption: {@code a ∧ (a ∨ b) → a}
+ *   <li>strengthening: {@code a ∧ (¬a ∨ b) → a ∧ b}
+ *   <li>subsumption of sibling gates:
+ *       {@code (a ∨ b) ∧ (a ∨ b ∨ c) → a ∨ b}
+ * </ul>
+ * (and dually for {@code ∨}).
+ * Quantifiers are kept, where the rules treat quantified subformulas as
+ * atoms.
+ * <p>
+ * Optionally, the rewritten gates are balanced afterwards: gates exceeding
+ * a given arity are decomposed into a tree of gates with at most that many
+ * operands, always combining the operands of least height first, which
+ * minimizes the resulting height.
+ * <p>
+ * Rewriters are stateful - statistics refer to the last call to
+ * {@link #apply(QBF)}.
+ *
+ * @author phlo
+ */
+public final class Rewriter {
+
+	// maximum number of sibling gates checked for subsumption
+	private static final int SUBSUMPTION_LIMIT = 32;
+
+	// maximum number of operands per gate (0 = unbounded)
+	private final int arity;
+
+	// statistics
+	private long initialSize;
+	private long size;
+	private int initialHeight;
+	private int height;
+
+	// hash-consing: canonical instance of each resulting node
+	private Map<Key, QBF> unique;
+
+	// number of distinct parents of each input node
+	private Map<QBF, Integer> references;
+
+	// structural key of nodes with canonical children
+	private static final class Key {
+		final QBF node;
+
+		Key(QBF node) { this.node = node; }
+
+		@Override
+		public int hashCode() { return node.hashCode(); }
+
+		@Override
+		public boolean equals(Object o) {
+			QBF other = ((Key) o).node;
+			if (node.getClass() != other.getClass())
+				return false;
+			return node.apply(
+				(True t) -> true,
+				(False f) -> true,
+				(Variable var) -> var.name.equals(((Variable) other).name),
+				(Not not) -> not.subformula == ((Not) other).subformula,
+				(And and) -> isSame(and.subformulas, ((And) other).subformulas),
+				(Or or) -> isSame(or.subformulas, ((Or) other).subformulas),
+				(ForAll forall) -> isSame(forall, (Quantifier) other),
+				(Exists exists) -> isSame(exists, (Quantifier) other));
+		}
+	}
+
+	// tests if two lists contain the same nodes (in order)
+	private static boolean isSame(List<QBF> a, List<QBF> b) {
+		if (a.size() != b.size())
+			return false;
+		for (int i = 0; i < a.size(); i++)
+			if (a.get(i) != b.get(i))
+				return false;
+		return true;
+	}
+
+	private static boolean isSame(Quantifier a, Quantifier b) {
+		return a.subformula == b.subformula && a.variables.equals(b.variables);
+	}
+
+	/** Constructs a rewriter without balancing. */
+	public Rewriter() { arity = 0; }
+
+	/**
+	 * Constructs a rewriter balancing gates to a given arity.
+	 *
+	 * @param arity maximum number of operands per gate
+	 * @throws IllegalArgumentException if {@code arity < 2}
+	 */
+	public Rewriter(int arity) {
+		if (arity < 2)
+			throw new IllegalArgumentException("arity must be at least 2");
+		this.arity = arity;
+	}
+
+	/**
+	 * Gets the formula's size before rewriting.
+	 *
+	 * @return number of distinct nodes of the input
+	 */
+	public long getInitialSize() { return initialSize; }
+
+	/**
+	 * Gets the formula's size after rewriting.
+	 *
+	 * @return number of distinct nodes of the result
+	 */
+	public long getSize() { return size; }
+
+	/**
+	 * Gets the formula's height before rewriting.
+	 *
+	 * @return length of the input's longest path to a terminal
+	 */
+	public int getInitialHeight() { return initialHeight; }
+
+	/**
+	 * Gets the formula's height after rewriting.
+	 *
+	 * @return length of the result's longest path to a terminal
+	 */
+	public int getHeight() { return height; }
+
+	/**
+	 * Rewrites a given formula.
+	 *
+	 * @param formula a {@link QBF}
+	 * @return an equivalent {@link QBF} with the same quantifiers
+	 */
+	public QBF apply(QBF formula) {
+		FormulaEvent event = new FormulaEvent.Rewrite();
+		event.begin();
+
+		initialSize = formula.getDAGSize();
+		initialHeight = formula.getHeight();
+
+		unique = new HashMap<>();
+		references = countReferences(formula);
+
+		QBF result = transform(formula, (node, results) -> node.apply(
+			(True t) -> t,
+			(False f) -> f,
+			(Variable var) -> intern(var),
+			(Not not) -> negate(results.get(not.subformula)),
+			(And and) -> rewrite(and, results),
+			(Or or) -> rewrite(or, results),
+			(ForAll forall) -> rewrite(forall, results),
+			(Exists exists) -> rewrite(exists, results)));
+
+		if (arity > 0)
+			result = transform(result, this::balance);
+
+		unique = null;
+		references = null;
+
+		size = result.getDAGSize();
+		height = result.getHeight();
+
+		event.end(formula, result);
+		return result;
+	}
+
+	// memoized bottom-up transformation
+	private static QBF transform(
+		QBF formula,
+		BiFunction<QBF, Map<QBF, QBF>, QBF> function
+	) {
+		Map<QBF, QBF> results = new IdentityHashMap<>();
+
+		// iterative post-order traversal - formulas may be deep
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(formula);
+		while (!stack.isEmpty()) {
+			QBF node = stack.peek();
+
+			if (results.containsKey(node)) {
+				stack.pop();
+				continue;
+			}
+
+			boolean finished = true;
+			for (QBF child : getChildren(node))
+				if (!results.containsKey(child)) {
+					stack.push(child);
+					finished = false;
+				}
+
+			if (!finished) continue;
+
+			stack.pop();
+
+			results.put(node, function.apply(node, results));
+		}
+
+		return results.get(formula);
+	}
+
+	private static List<QBF> getChildren(QBF node) {
+		return node.apply(
+			(True t) -> Collections.<QBF>emptyList(),
+			(False f) -> Collections.<QBF>emptyList(),
+			(Variable var) -> Collections.<QBF>emptyList(),
+			(Not not) -> Collections.singletonList(not.subformula),
+			(And and) -> and.subformulas,
+			(Or or) -> or.subformulas,
+			(ForAll forall) -> Collections.singletonList(forall.subformula),
+			(Exists exists) -> Collections.singletonList(exists.subformula));
+	}
+
+	// counts the distinct parents of each node
+	private static Map<QBF, Integer> countReferences(QBF formula) {
+		Map<QBF, Integer> references = new IdentityHashMap<>();
+		Set<QBF> visited = newIdentitySet();
+
+		Deque<QBF> stack = new ArrayDeque<>();
+		stack.push(formula);
+		while (!stack.isEmpty()) {
+			QBF node = stack.pop();
+			if (!visited.add(node))
+				continue;
+			Set<QBF> children = newIdentitySet();
+			children.addAll(getChildren(node));
+			for (QBF child : children) {
+				references.merge(child, 1, Integer::sum);
+				stack.push(child);
+			}
+		}
+
+		return references;
+	}
+
+	private static Set<QBF> newIdentitySet() {
+		return Collections.newSetFromMap(new IdentityHashMap<>());
+	}
+
+	// gets the canonical instance of a given node with canonical children
+	private QBF intern(QBF node) {
+		QBF canonical = unique.putIfAbsent(new Key(node), node);
+		return canonical == null ? node : canonical;
+	}
+
+	private QBF negate(QBF node) {
+		return node == QBF.True
+			? QBF.False
+			: node == QBF.False
+				? QBF.True
+				: node instanceof Not
+					? ((Not) node).subformula
+					: intern(new Not(node));
+	}
+
+	// tests if the complement of a canonical node is contained in a set
+	private boolean containsComplement(Set<QBF> nodes, QBF node) {
+		if (node instanceof Not)
+			return nodes.contains(((Not) node).subformula);
+		QBF complement = unique.get(new Key(new Not(node)));
+		return complement != null && nodes.contains(complement);
+	}
+
+	private static boolean isGate(QBF node, boolean and) {
+		return and ? node instanceof And : node instanceof Or;
+	}
+
+	private QBF rewrite(MultiaryOperator op, Map<QBF, QBF> results) {
+		boolean and = op.isAnd();
+		QBF neutral = and ? QBF.True : QBF.False;
+		QBF dominant = and ? QBF.False : QBF.True;
+
+		// flatten single-referenced operands of the same type
+		List<QBF> flattened = new ArrayList<>(op.subformulas.size());
+		for (QBF f : op.subformulas) {
+			QBF sub = results.get(f);
+			if (isGate(sub, and) && references.get(f) == 1)
+				flattened.addAll(((MultiaryOperator) sub).subformulas);
+			else
+				flattened.add(sub);
+		}
+
+		// canonical operands (identity) in order of their first occurrence
+		Set<QBF> operands = newIdentitySet();
+		List<QBF> order = new ArrayList<>();
+		if (!add(operands, order, flattened, neutral, dominant))
+			return dominant;
+
+		// absorption and strengthening until fixpoint
+		boolean changed;
+		do {
+			changed = false;
+			for (QBF operand : new ArrayList<>(order)) {
+				if (!isGate(operand, !and) || !operands.contains(operand))
+					continue;
+
+				List<QBF> remaining = new ArrayList<>();
+				boolean absorbed = false;
+				for (QBF sub : ((MultiaryOperator) operand).subformulas) {
+					if (operands.contains(sub)) {
+						absorbed = true;
+						break;
+					}
+					if (!containsComplement(operands, sub))
+						remaining.add(sub);
+				}
+
+				if (absorbed) {
+					operands.remove(operand);
+					changed = true;
+				} else if (remaining.size() < getSize(operand)) {
+					operands.remove(operand);
+					changed = true;
+					QBF strengthened = build(!and, remaining);
+					if (!add(
+							operands,
+							order,
+							Collections.singletonList(strengthened),
+							neutral,
+							dominant))
+						return dominant;
+				}
+			}
+		} while (changed);
+
+		subsume(operands, order, and);
+
+		List<QBF> result = new ArrayList<>(operands.size());
+		for (QBF operand : order)
+			if (operands.remove(operand))
+				result.add(operand);
+
+		if (isSame(result, op.subformulas))
+			return intern(op);
+
+		return build(and, result);
+	}
+
+	// adds operands, returns false if a dominant or complementary one occurs
+	private boolean add(
+		Set<QBF> operands,
+		List<QBF> order,
+		List<QBF> nodes,
+		QBF neutral,
+		QBF dominant
+	) {
+		for (QBF node : nodes) {
+			if (node == dominant || containsComplement(operands, node))
+				return false;
+			if (node != neutral && operands.add(node))
+				order.add(node);
+		}
+		return true;
+	}
+
+	private static int getSize(QBF gate) {
+		return ((MultiaryOperator) gate).subformulas.size();
+	}
+
+	// removes sibling gates of the dual type subsumed by a smaller one
+	private static void subsume(
+		Set<QBF> operands,
+		List<QBF> order,
+		boolean and
+	) {
+		List<Set<QBF>> gates = new ArrayList<>();
+		List<QBF> nodes = new ArrayList<>();
+		Set<QBF> collected = newIdentitySet();
+		for (QBF operand : order)
+			if (isGate(operand, !and)
+				&& operands.contains(operand)
+				&& collected.add(operand)) {
+				Set<QBF> subformulas = newIdentitySet();
+				subformulas.addAll(((MultiaryOperator) operand).subformulas);
+				nodes.add(operand);
+				gates.add(subformulas);
+			}
+
+		if (gates.size() < 2 || gates.size() > SUBSUMPTION_LIMIT)
+			return;
+
+		for (int i = 0; i < gates.size(); i++)
+			for (int j = 0; j < gates.size(); j++) {
+				Set<QBF> a = gates.get(i), b = gates.get(j);
+				if (i == j || a == null || b == null || a.size() > b.size())
+					continue;
+				if (b.containsAll(a)) {
+					operands.remove(nodes.get(j));
+					gates.set(j, null);
+				}
+			}
+	}
+
+	// builds a gate from simplified operands
+	private QBF build(boolean and, List<QBF> operands) {
+		switch (operands.size()) {
+			case 0: return and ? QBF.True : QBF.False;
+			case 1: return operands.get(0);
+			default:
+				return intern(and ? new And(operands) : new Or(operands));
+		}
+	}
+
+	// decomposes gates exceeding the arity into a tree of minimal height
+	private QBF balance(QBF node, Map<QBF, QBF> results) {
+		List<QBF> children = getChildren(node);
+		List<QBF> balanced = new ArrayList<>(children.size());
+		for (QBF child : children)
+			balanced.add(results.get(child));
+
+		if (!(node instanceof MultiaryOperator) || children.size() <= arity)
+			return isSame(balanced, children)
+				? intern(node)
+				: intern(node.apply(
+					(True t) -> t,
+					(False f) -> f,
+					(Variable var) -> var,
+					(Not not) -> new Not(balanced.get(0)),
+					(And and) -> new And(balanced),
+					(Or or) -> new Or(balanced),
+					(ForAll forall) ->
+						new ForAll(balanced.get(0), forall.variables),
+					(Exists exists) ->
+						new Exists(balanced.get(0), exists.variables)));
+
+		boolean and = node.isAnd();
+
+		// combine least high operands first
+		PriorityQueue<QBF> queue = new PriorityQueue<>(
+			balanced.size(),
+			Comparator.comparingInt(QBF::getHeight));
+		queue.addAll(balanced);
+
+		while (queue.size() > arity) {
+			int n = Math.min(arity, queue.size() - arity + 1);
+			List<QBF> subformulas = new ArrayList<>(n);
+			for (int i = 0; i < n; i++)
+				subformulas.add(queue.poll());
+			queue.add(build(and, subformulas));
+		}
+
+		List<QBF> subformulas = new ArrayList<>(queue.size());
+		while (!queue.isEmpty())
+			subformulas.add(queue.poll());
+		return build(and, subformulas);
+	}
+
+	private QBF rewrite(Quantifier q, Map<QBF, QBF> results) {
+		QBF sub = results.get(q.subformula);
+		if (sub.isConstant())
+			return sub;
+
+		if (sub == q.subformula)
+			return intern(q);
+
+		return intern(q.apply(
+			(ForAll forall) -> new ForAll(sub, forall.variables),
+			(Exists exists) -> new Exists(sub, exists.variables)));
+	}
+}
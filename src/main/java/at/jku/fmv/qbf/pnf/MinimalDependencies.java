@@ -0,0 +1,388 @@
+package at.jku.fmv.qbf.pnf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+/**
+ * Dependency-aware prenexing.
+ * <p>
+ * Orders the prefix according to the dependencies of the original formula's
+ * quantifier scope tree, refined by variable occurrence: a quantifier only
+ * depends on the enclosing quantifiers binding a variable that occurs free in
+ * its scope and, transitively, on their dependencies.
+ * Any linearization of these dependencies yields an equivalent PNF, which is
+ * chosen greedily to introduce as few spurious dependencies of existential on
+ * universal variables as possible: existential quantifiers are placed as soon
+ * as their dependencies are met, while universal quantifiers are delayed until
+ * they are required, preferring those introducing the fewest spurious
+ * dependencies.
+ * <p>
+ * Requires a formula in which every variable is bound at most once (see
+ * {@link QBF#cleanse}).
+ *
+ * @author phlo
+ */
+public class MinimalDependencies implements PrenexingStrategy {
+
+	// a quantifier node of the original formula
+	private static final class Scope {
+		final Set<String> variables;
+		final boolean forall;
+		final int index;
+
+		// index of universal scopes in dependency bit sets
+		int universal = -1;
+
+		// directly preceding and succeeding scopes
+		Set<Scope> predecessors = Collections.emptySet();
+		final List<Scope> successors = new ArrayList<>();
+
+		// transitively preceding universal scopes
+		BitSet dependencies;
+
+		Scope(Quantifier quantifier, int index) {
+			this.variables = quantifier.variables;
+			this.forall = quantifier.isForAll();
+			this.index = index;
+		}
+	}
+
+	// dependency analysis of a non-prenex formula
+	private static final class Analysis {
+
+		final Map<QBF, Scope> scopes = new IdentityHashMap<>();
+		final Map<String, Scope> binders = new HashMap<>();
+		final List<Scope> universals = new ArrayList<>();
+
+		Analysis(QBF formula) {
+			collect(formula);
+			link(formula);
+			close();
+		}
+
+		private static List<QBF> getChildren(QBF node) {
+			return node.apply(
+				(True t) -> Collections.<QBF>emptyList(),
+				(False f) -> Collections.<QBF>emptyList(),
+				(Variable var) -> Collections.<QBF>emptyList(),
+				(Not not) -> Collections.singletonList(not.subformula),
+				(And and) -> and.subformulas,
+				(Or or) -> or.subformulas,
+				(ForAll forall) -> Collections.singletonList(forall.subformula),
+				(Exists exists) -> Collections.singletonList(exists.subformula));
+		}
+
+		// number quantifiers in pre-order and map variables to their binders
+		private void collect(QBF formula) {
+			Set<QBF> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+			Deque<QBF> stack = new ArrayDeque<>();
+			stack.push(formula);
+
+			while (!stack.isEmpty()) {
+				QBF node = stack.pop();
+
+				if (!visited.add(node))
+					continue;
+
+				if (node.isQuantifier()) {
+					Scope scope = new Scope((Quantifier) node, scopes.size());
+					scopes.put(node, scope);
+
+					for (String v : scope.variables)
+						if (binders.put(v, scope) != null)
+							throw new IllegalArgumentException(
+								"variable '" + v + "' bound multiple times");
+
+					if (scope.forall) {
+						scope.universal = universals.size();
+						universals.add(scope);
+					}
+				}
+
+				List<QBF> children = getChildren(node);
+				for (int i = children.size() - 1; i >= 0; i--)
+					stack.push(children.get(i));
+			}
+		}
+
+		private static Set<Scope> union(Set<Scope> s1, Set<Scope> s2) {
+			if (s1.size() < s2.size()) {
+				Set<Scope> tmp = s1;
+				s1 = s2;
+				s2 = tmp;
+			}
+			if (s1.containsAll(s2))
+				return s1;
+
+			Set<Scope> union = new HashSet<>(s1);
+			union.addAll(s2);
+			return union;
+		}
+
+		// link scopes binding variables occurring free in another scope
+		private void link(QBF formula) {
+			Map<QBF, Set<Scope>> free = new IdentityHashMap<>();
+			Deque<QBF> stack = new ArrayDeque<>();
+			stack.push(formula);
+
+			while (!stack.isEmpty()) {
+				QBF node = stack.peek();
+
+				if (free.containsKey(node)) {
+					stack.pop();
+					continue;
+				}
+
+				List<QBF> children = getChildren(node);
+				boolean ready = true;
+				for (QBF child : children)
+					if (!free.containsKey(child)) {
+						stack.push(child);
+						ready = false;
+					}
+
+				if (!ready)
+					continue;
+
+				stack.pop();
+
+				Set<Scope> occurring = Collections.emptySet();
+				for (QBF child : children)
+					occurring = union(occurring, free.get(child));
+
+				if (node.isVariable()) {
+					Scope binder = binders.get(((Variable) node).name);
+					if (binder != null)
+						occurring = Collections.singleton(binder);
+				} else if (node.isQuantifier()) {
+					Scope scope = scopes.get(node);
+					if (occurring.contains(scope)) {
+						occurring = new HashSet<>(occurring);
+						occurring.remove(scope);
+					}
+					scope.predecessors = occurring;
+					for (Scope predecessor : occurring)
+						predecessor.successors.add(scope);
+				}
+
+				free.put(node, occurring);
+			}
+		}
+
+		// compute transitive universal dependencies in topological order
+		private void close() {
+			Map<Scope, Integer> pending = new IdentityHashMap<>();
+			Deque<Scope> ready = new ArrayDeque<>();
+
+			for (Scope scope : scopes.values())
+				if (scope.predecessors.isEmpty())
+					ready.add(scope);
+				else
+					pending.put(scope, scope.predecessors.size());
+
+			int processed = 0;
+			while (!ready.isEmpty()) {
+				Scope scope = ready.poll();
+				processed++;
+
+				scope.dependencies = new BitSet(universals.size());
+				for (Scope predecessor : scope.predecessors) {
+					scope.dependencies.or(predecessor.dependencies);
+					if (predecessor.forall)
+						scope.dependencies.set(predecessor.universal);
+				}
+
+				for (Scope successor : scope.successors)
+					if (pending.merge(successor, -1, Integer::sum) == 0)
+						ready.add(successor);
+			}
+
+			// only possible if variables occur outside of their scope
+			if (processed < scopes.size())
+				throw new IllegalArgumentException(
+					"variables occurring outside of their scope");
+		}
+	}
+
+	// greedily linearize the analyzed dependencies
+	private static List<Scope> order(Analysis analysis) {
+		List<Scope> order = new ArrayList<>(analysis.scopes.size());
+
+		// number of remaining existential variables depending on a universal
+		long[] dependents = new long[analysis.universals.size()];
+		long remaining = 0;
+
+		Map<Scope, Integer> pending = new IdentityHashMap<>();
+		Deque<Scope> readyExists = new ArrayDeque<>();
+		List<Scope> readyForAll = new ArrayList<>();
+
+		List<Scope> scopes = new ArrayList<>(analysis.scopes.values());
+		scopes.sort((s1, s2) -> Integer.compare(s1.index, s2.index));
+
+		for (Scope scope : scopes) {
+			if (!scope.forall) {
+				remaining += scope.variables.size();
+				for (int u = scope.dependencies.nextSetBit(0);
+					u >= 0;
+					u = scope.dependencies.nextSetBit(u + 1))
+					dependents[u] += scope.variables.size();
+			}
+
+			if (scope.predecessors.isEmpty())
+				(scope.forall ? readyForAll : readyExists).add(scope);
+			else
+				pending.put(scope, scope.predecessors.size());
+		}
+
+		while (!readyExists.isEmpty() || !readyForAll.isEmpty()) {
+			Scope scope;
+
+			if (!readyExists.isEmpty()) {
+				// existential variables are placed as soon as possible
+				scope = readyExists.poll();
+				remaining -= scope.variables.size();
+				for (int u = scope.dependencies.nextSetBit(0);
+					u >= 0;
+					u = scope.dependencies.nextSetBit(u + 1))
+					dependents[u] -= scope.variables.size();
+			} else {
+				// universal variables add spurious dependencies to every
+				// remaining existential variable not depending on them
+				int best = 0;
+				long min = Long.MAX_VALUE;
+				for (int i = 0; i < readyForAll.size(); i++) {
+					Scope s = readyForAll.get(i);
+					long spurious =
+						(remaining - dependents[s.universal])
+						* s.variables.size();
+					if (spurious < min
+						|| spurious == min
+						&& s.index < readyForAll.get(best).index) {
+						best = i;
+						min = spurious;
+					}
+				}
+
+				scope = readyForAll.get(best);
+				readyForAll.set(best, readyForAll.get(readyForAll.size() - 1));
+				readyForAll.remove(readyForAll.size() - 1);
+			}
+
+			order.add(scope);
+
+			for (Scope successor : scope.successors)
+				if (pending.merge(successor, -1, Integer::sum) == 0)
+					(successor.forall ? readyForAll : readyExists)
+						.add(successor);
+		}
+
+		assert order.size() == analysis.scopes.size();
+
+		return order;
+	}
+
+	private static QBF assemble(List<Scope> order, QBF skeleton) {
+		List<Boolean> quantifiers = new ArrayList<>();
+		List<Set<String>> variables = new ArrayList<>();
+
+		for (Scope scope : order) {
+			int last = quantifiers.size() - 1;
+			if (last < 0 || quantifiers.get(last) != scope.forall) {
+				quantifiers.add(scope.forall);
+				variables.add(new HashSet<>(scope.variables));
+			} else {
+				variables.get(last).addAll(scope.variables);
+			}
+		}
+
+		QBF pnf = skeleton;
+		for (int i = quantifiers.size() - 1; i >= 0; i--)
+			pnf = quantifiers.get(i)
+				? new ForAll(pnf, variables.get(i))
+				: new Exists(pnf, variables.get(i));
+
+		return pnf;
+	}
+
+	public QBF apply(QBF formula) {
+		FormulaEvent event = new FormulaEvent.Prenex(getClass());
+		event.begin();
+
+		Analysis analysis = new Analysis(formula);
+
+		// propositional formula
+		QBF pnf = analysis.scopes.isEmpty()
+			? formula
+			: assemble(order(analysis), formula.getSkeleton());
+
+		event.end(formula, pnf);
+		return pnf;
+	}
+
+	/**
+	 * Counts the spurious dependencies of existential on universal variables
+	 * introduced by prenexing a formula.
+	 * <p>
+	 * Every pair of a universal variable preceding an existential variable in
+	 * the prefix, which does not correspond to a dependency in the original
+	 * formula, is spurious.
+	 *
+	 * @param formula the original {@link QBF} in NNF
+	 * @param pnf the prenexed {@link QBF}
+	 * @return the number of spurious dependencies
+	 */
+	public static long countSpuriousDependencies(QBF formula, QBF pnf) {
+		Analysis analysis = new Analysis(formula);
+
+		// number of universal variables placed so far per universal scope
+		long[] placed = new long[analysis.universals.size()];
+		long universals = 0;
+		long spurious = 0;
+
+		for (Quantifier q : (Iterable<Quantifier>) pnf.streamPrefix()::iterator) {
+			if (q.isForAll()) {
+				universals += q.variables.size();
+				for (String v : q.variables) {
+					Scope scope = analysis.binders.get(v);
+					if (scope != null && scope.forall)
+						placed[scope.universal]++;
+				}
+				continue;
+			}
+
+			Map<Scope, Integer> blocks = new HashMap<>();
+			for (String v : q.variables) {
+				Scope scope = analysis.binders.get(v);
+				if (scope == null)
+					spurious += universals;
+				else
+					blocks.merge(scope, 1, Integer::sum);
+			}
+
+			for (Map.Entry<Scope, Integer> block : blocks.entrySet()) {
+				BitSet dependencies = block.getKey().dependencies;
+				long required = 0;
+				for (int u = dependencies.nextSetBit(0);
+					u >= 0;
+					u = dependencies.nextSetBit(u + 1))
+					required += placed[u];
+				spurious += (universals - required) * block.getValue();
+			}
+		}
+
+		return spurious;
+	}
+}
@@ -9,6 +9,7 @@ import java.util.stream.IntStream;
 
 import at.jku.fmv.qbf.QBF;
 import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
 
 /**
  * Abstract class for strategies based on quantifier shifting.
@@ -49,7 +50,7 @@ public abstract class ShiftingStrategy implements PrenexingStrategy {
 	private static List<Set<String>> getVariableOrdering(List<QBF> qpaths) {
 
 		assert qpaths.stream()
-			.mapToLong(qp -> qp.streamPrefix().count())
+			.mapToInt(QBF::getPrefixLength)
 			.distinct()
 			.count() == 1;
 
@@ -73,7 +74,7 @@ public abstract class ShiftingStrategy implements PrenexingStrategy {
 		List<Set<String>> variableOrdering,
 		QBF skeleton
 	) {
-		assert qpath.streamPrefix().count() == variableOrdering.size();
+		assert qpath.getPrefixLength() == variableOrdering.size();
 
 		return qpath.apply(
 			t -> skeleton, f -> skeleton, var -> skeleton,
@@ -93,7 +94,26 @@ public abstract class ShiftingStrategy implements PrenexingStrategy {
 		);
 	}
 
-	private QBF apply(List<QBF> qpaths, QBF skeleton) {
+	/**
+	 * Applies the prenexing strategy to a formula's previously extracted
+	 * q-paths and propositional skeleton.
+	 *
+	 * @param qpaths the formula's q-paths (see {@link QBF#getQPaths})
+	 * @param skeleton the formula's propositional skeleton (see
+	 * {@link QBF#getSkeleton})
+	 * @return {@link QBF} in PNF
+	 */
+	public QBF apply(List<QBF> qpaths, QBF skeleton) {
+		FormulaEvent event = new FormulaEvent.Prenex(getClass());
+		event.begin();
+
+		QBF pnf = qpaths.isEmpty() ? skeleton : prenex(qpaths, skeleton);
+
+		event.end(skeleton, pnf);
+		return pnf;
+	}
+
+	private QBF prenex(List<QBF> qpaths, QBF skeleton) {
 
 		// single quantified subformula
 		if (qpaths.size() == 1)
@@ -107,7 +127,7 @@ public abstract class ShiftingStrategy implements PrenexingStrategy {
 		// all qpaths equal (single critical path and all of equal length)
 		if (criticalPaths.size() == 1
 			&& qpaths.stream()
-				.mapToLong(qp -> qp.streamPrefix().count())
+				.mapToInt(QBF::getPrefixLength)
 				.distinct()
 				.count() == 1)
 			return assemble(
@@ -124,14 +144,17 @@ public abstract class ShiftingStrategy implements PrenexingStrategy {
 	}
 
 	public QBF apply(QBF formula) {
+		FormulaEvent event = new FormulaEvent.Prenex(getClass());
+		event.begin();
+
 		List<QBF> qpaths = formula.getQPaths();
 
 		// propositional formula
-		if (qpaths.isEmpty())
-			return formula;
-
-		QBF skeleton = formula.getSkeleton();
+		QBF pnf = qpaths.isEmpty()
+			? formula
+			: prenex(qpaths, formula.getSkeleton());
 
-		return apply(qpaths, skeleton);
+		event.end(formula, pnf);
+		return pnf;
 	}
 }
@@ -58,7 +58,7 @@ public abstract class SimpleUpDownStrategy extends ShiftingStrategy {
 					.collect(Collectors.toSet())));
 
 		long[] numCritical = new long[1];
-		numCritical[0] = criticalPath.streamPrefix().count();
+		numCritical[0] = criticalPath.getPrefixLength();
 
 		return criticalPath.streamPrefix()
 			.map(cp -> {
@@ -71,7 +71,7 @@ public abstract class SimpleUpDownStrategy extends ShiftingStrategy {
 							qp.isForAll() :
 							qp.isExists())
 					.flatMap(qp -> {
-						long numQPath = qp.streamPrefix().count();
+						long numQPath = qp.getPrefixLength();
 						Set<String> vars = varsPerQuant.get(qp);
 						Set<String> merged = qp.apply(
 							f -> vars.stream()
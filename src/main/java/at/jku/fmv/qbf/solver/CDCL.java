@@ -0,0 +1,915 @@
+package at.jku.fmv.qbf.solver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.pcnf.CNFEncoder;
+import at.jku.fmv.qbf.pcnf.PG86;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+/**
+ * An incremental conflict-driven clause learning (CDCL) SAT solver.
+ * <p>
+ * The interface uses DIMACS literals: variables are numbered {@code 1 .. n}
+ * and {@code -v} denotes the negation of variable {@code v}.
+ * Clauses may be added between calls to {@link #solve(int...)}, which
+ * optionally takes a set of assumptions, i.e. literals assumed to be true
+ * for the current call only.
+ * <p>
+ * Internally, literals are encoded as {@code 2 * variable + negated} and
+ * clauses are stored consecutively in a single integer array (arena),
+ * referenced by their offset:
+ * <pre>
+ * [size, header, literal 1, ..., literal n]
+ * </pre>
+ * where the header holds a learned clause's literal block distance (LBD,
+ * number of distinct decision levels) and its learned / deleted flags.
+ * Each clause watches its first two literals, with watch lists storing
+ * pairs of clause reference and blocking literal - a clause is skipped if
+ * its blocking literal is true.
+ * <p>
+ * Conflicts are analyzed to the first unique implication point and the
+ * learned clause is minimized by removing literals implied by the
+ * remaining ones.
+ * Decisions pick the unassigned variable with the highest activity (VSIDS)
+ * and assign its saved phase.
+ * Restarts follow the Luby sequence and learned clauses are periodically
+ * reduced to the half with the lowest LBD, keeping binary and glue clauses
+ * ({@code LBD <= 2}) as well as current reasons.
+ * <p>
+ * Propositional {@link QBF} formulas are added by {@link #add(QBF)}, where
+ * variables are referred to by name.
+ *
+ * @author phlo
+ */
+public final class CDCL implements Solver {
+
+	// header flags
+	private static final int LEARNED = 1;
+	private static final int DELETED = 2;
+	private static final int FLAGS = 2;
+
+	// conflicts between restarts (scaled by the luby sequence)
+	private static final int RESTART_INTERVAL = 100;
+
+	// conflicts before the first (and between subsequent) reductions
+	private static final int REDUCE_INTERVAL = 2000;
+	private static final int REDUCE_INCREMENT = 300;
+
+	// learned clauses with an LBD up to this limit are kept
+	private static final int GLUE = 2;
+
+	// encoder of non-CNF formulas
+	private final CNFEncoder encoder;
+
+	// named variables
+	private final Map<String, Integer> variables = new HashMap<>();
+
+	// number of variables (including the unused 0)
+	private int numVariables = 1;
+
+	// clause arena
+	private int[] arena = new int[1 << 10];
+	private int arenaSize;
+
+	// references of learned clauses
+	private int[] learned = new int[1 << 6];
+	private int numLearned;
+
+	// watch lists, indexed by literal (pairs of clause and blocking literal)
+	private int[][] watches = new int[2][];
+	private int[] numWatches = new int[2];
+
+	// assignment - values indexed by literal (0 = unassigned, 1 = ⊤, -1 = ⊥)
+	private byte[] value = new byte[2];
+	private int[] decisionLevel = new int[1];
+	private int[] reason = new int[1]; // -1 = decision or level 0
+	private boolean[] phase = new boolean[1]; // saved phase (true = negated)
+
+	private int[] trail = new int[1];
+	private int trailSize;
+	private int head;
+
+	// trail index of each decision level's decision
+	private int[] levelStart = new int[16];
+	private int currentLevel;
+
+	private final VariableOrder order = new VariableOrder();
+
+	// variable (and decision level) marks - stamped to avoid clearing
+	private int[] marks = new int[1];
+	private int[] levelMarks = new int[16];
+	private int stamp;
+
+	// learned clause buffer
+	private int[] working = new int[16];
+	private int workingSize;
+
+	// false if the clauses are unsatisfiable
+	private boolean consistent = true;
+
+	// current assumptions and the subset responsible for unsatisfiability
+	private int[] assumptions = new int[0];
+	private int[] failed = new int[0];
+
+	// assignment of the last satisfiable call
+	private boolean[] model = new boolean[1];
+
+	// statistics
+	private long decisions;
+	private long propagations;
+	private long conflicts;
+	private long restarts;
+	private long reductions;
+	private long deleted;
+
+	/** Constructs a solver, encoding non-CNF formulas with {@link PG86}. */
+	public CDCL() { this(new PG86()); }
+
+	/**
+	 * Constructs a solver, encoding non-CNF formulas with a given encoder.
+	 *
+	 * @param encoder a {@link CNFEncoder}
+	 */
+	public CDCL(CNFEncoder encoder) { this.encoder = encoder; }
+
+	/**
+	 * Adds the given formula and decides the conjunction of all formulas
+	 * added so far.
+	 * <p>
+	 * Existential quantifiers are ignored, i.e. their variables are treated
+	 * like free ones.
+	 *
+	 * @param formula a propositional {@link QBF}, optionally prefixed by
+	 * existential quantifiers
+	 * @return {@code true} if satisfiable
+	 * @throws IllegalArgumentException if {@code formula} contains universal
+	 * quantifiers
+	 */
+	@Override
+	public boolean solve(QBF formula) {
+		FormulaEvent event = new FormulaEvent.Solve(getClass());
+		event.begin();
+
+		QBF matrix = formula;
+		while (matrix.isExists())
+			matrix = ((Exists) matrix).subformula;
+
+		add(matrix);
+		boolean result = solve();
+
+		event.end(formula, result ? QBF.True : QBF.False);
+		return result;
+	}
+
+	/**
+	 * Gets the number of decisions.
+	 *
+	 * @return number of decisions since construction
+	 */
+	public long getDecisions() { return decisions; }
+
+	/**
+	 * Gets the number of propagated literals.
+	 *
+	 * @return number of assigned literals processed by unit propagation
+	 * since construction
+	 */
+	public long getPropagations() { return propagations; }
+
+	/**
+	 * Gets the number of conflicts.
+	 *
+	 * @return number of falsified clauses since construction
+	 */
+	public long getConflicts() { return conflicts; }
+
+	/**
+	 * Gets the number of restarts.
+	 *
+	 * @return number of restarts since construction
+	 */
+	public long getRestarts() { return restarts; }
+
+	/**
+	 * Gets the number of learned clause database reductions.
+	 *
+	 * @return number of reductions since construction
+	 */
+	public long getReductions() { return reductions; }
+
+	/**
+	 * Gets the number of deleted learned clauses.
+	 *
+	 * @return number of learned clauses removed by reductions
+	 */
+	public long getDeletedClauses() { return deleted; }
+
+	/**
+	 * Gets the number of currently stored learned clauses.
+	 *
+	 * @return number of learned clauses
+	 */
+	public int getLearnedClauses() { return numLearned; }
+
+	/**
+	 * Gets the number of variables.
+	 *
+	 * @return the highest variable
+	 */
+	public int getNumVariables() { return numVariables - 1; }
+
+	/**
+	 * Creates a new variable.
+	 *
+	 * @return the new variable
+	 */
+	public int newVariable() {
+		int var = numVariables++;
+
+		if (numVariables > reason.length) {
+			int n = Math.max(2 * reason.length, numVariables);
+			value = Arrays.copyOf(value, 2 * n);
+			decisionLevel = Arrays.copyOf(decisionLevel, n);
+			reason = Arrays.copyOf(reason, n);
+			phase = Arrays.copyOf(phase, n);
+			trail = Arrays.copyOf(trail, n);
+			marks = Arrays.copyOf(marks, n);
+			watches = Arrays.copyOf(watches, 2 * n);
+			numWatches = Arrays.copyOf(numWatches, 2 * n);
+		}
+
+		phase[var] = true;
+		order.grow(numVariables);
+		order.insert(var);
+
+		return var;
+	}
+
+	/**
+	 * Gets the variable of a given name, creating it if necessary.
+	 *
+	 * @param name a variable name
+	 * @return the variable of {@code name}
+	 */
+	public int getVariable(String name) {
+		Integer var = variables.get(name);
+		if (var == null)
+			variables.put(name, var = newVariable());
+		return var;
+	}
+
+	/**
+	 * Adds a clause.
+	 *
+	 * @param literals DIMACS literals of existing variables
+	 * @return {@code false} if the clauses became unsatisfiable
+	 * @throws IllegalArgumentException if a literal is {@code 0} or refers
+	 * to an unknown variable
+	 */
+	public boolean addClause(int... literals) {
+		if (!consistent)
+			return false;
+
+		backtrack(0);
+
+		// remove duplicate and false literals
+		int s = nextStamp();
+		workingSize = 0;
+		for (int l : literals) {
+			int lit = toLiteral(l), var = lit >>> 1;
+			if (value[lit] > 0)
+				return true;
+			if (marks[var] == s) {
+				if (hasLiteral(lit ^ 1))
+					return true;
+				continue;
+			}
+			marks[var] = s;
+			if (value[lit] == 0)
+				push(lit);
+		}
+
+		if (workingSize == 0)
+			return consistent = false;
+
+		if (workingSize == 1) {
+			assign(working[0], -1);
+			return consistent = propagate() < 0;
+		}
+
+		int c = allocate(working, workingSize, 0);
+		watch(working[0], c, working[1]);
+		watch(working[1], c, working[0]);
+		return true;
+	}
+
+	private boolean hasLiteral(int literal) {
+		for (int i = 0; i < workingSize; i++)
+			if (working[i] == literal)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Adds a propositional formula, referring to variables by name.
+	 * <p>
+	 * Formulas in CNF are added clause by clause, others are encoded by the
+	 * solver's {@link CNFEncoder} after propagating constants and
+	 * transforming into NNF, where auxiliary variables are renamed to fresh
+	 * ones.
+	 *
+	 * @param formula a propositional {@link QBF}
+	 * @return {@code false} if the clauses became unsatisfiable
+	 * @throws IllegalArgumentException if {@code formula} contains
+	 * quantifiers
+	 */
+	public boolean add(QBF formula) {
+		if (formula.isCNF())
+			return addClauses(((And) formula).subformulas, null);
+
+		QBF simplified = formula.assign(Collections.emptyMap());
+		if (simplified == QBF.True)
+			return consistent;
+		if (simplified == QBF.False)
+			return addClause();
+
+		Set<String> names = simplified.getFreeVariables();
+		List<QBF> clauses = encoder.getClauses(simplified.toNNF());
+
+		// fresh variables for the encoder's auxiliary ones
+		Map<String, Integer> auxiliary = new HashMap<>();
+		for (String name : names)
+			auxiliary.put(name, getVariable(name));
+
+		return addClauses(clauses, auxiliary);
+	}
+
+	// adds a list of clauses over named variables (renamed if given)
+	private boolean addClauses(List<QBF> clauses, Map<String, Integer> rename) {
+		// literal nodes are usually shared
+		Map<QBF, Integer> cache = new IdentityHashMap<>();
+
+		for (QBF clause : clauses) {
+			List<QBF> lits = clause instanceof Or
+				? ((Or) clause).subformulas
+				: Collections.singletonList(clause);
+
+			int[] c = new int[lits.size()];
+			for (int i = 0; i < c.length; i++) {
+				QBF lit = lits.get(i);
+				Integer literal = cache.get(lit);
+				if (literal == null) {
+					// literals may contain multiple negations
+					QBF var = lit;
+					boolean negated = false;
+					while (var instanceof Not) {
+						var = ((Not) var).subformula;
+						negated = !negated;
+					}
+					if (!(var instanceof Variable))
+						throw new IllegalArgumentException(
+							"not a propositional formula");
+
+					String name = ((Variable) var).name;
+					Integer v = rename == null
+						? getVariable(name)
+						: rename.computeIfAbsent(name, k -> newVariable());
+					cache.put(lit, literal = negated ? -v : v);
+				}
+				c[i] = literal;
+			}
+
+			if (!addClause(c))
+				return false;
+		}
+
+		return consistent;
+	}
+
+	/**
+	 * Decides the clauses under the given assumptions.
+	 *
+	 * @param assumptions DIMACS literals assumed to be true
+	 * @return {@code true} if satisfiable
+	 * @throws IllegalArgumentException if a literal is {@code 0} or refers
+	 * to an unknown variable
+	 */
+	public boolean solve(int... assumptions) {
+		return solveLimited(Long.MAX_VALUE, assumptions);
+	}
+
+	/**
+	 * Decides the clauses under the given assumptions, giving up after a
+	 * number of conflicts.
+	 *
+	 * @param conflictLimit maximum number of conflicts
+	 * @param assumptions DIMACS literals assumed to be true
+	 * @return {@code true} if satisfiable, {@code false} if unsatisfiable or
+	 * {@code null} if the limit was reached
+	 * @throws IllegalArgumentException if a literal is {@code 0} or refers
+	 * to an unknown variable
+	 */
+	public Boolean solveLimited(long conflictLimit, int... assumptions) {
+		this.assumptions = new int[assumptions.length];
+		for (int i = 0; i < assumptions.length; i++)
+			this.assumptions[i] = toLiteral(assumptions[i]);
+		failed = new int[0];
+
+		if (!consistent)
+			return false;
+
+		backtrack(0);
+		if (propagate() >= 0)
+			return consistent = false;
+
+		return search(conflictLimit);
+	}
+
+	/**
+	 * Gets the value of a variable in the model found by the last
+	 * satisfiable call to {@link #solve(int...)}.
+	 *
+	 * @param variable a variable
+	 * @return the variable's value
+	 */
+	public boolean getValue(int variable) {
+		return variable < model.length && model[variable];
+	}
+
+	/**
+	 * Gets the value of a named variable in the model found by the last
+	 * satisfiable call to {@link #solve(int...)}.
+	 *
+	 * @param name a variable name
+	 * @return the variable's value ({@code false} if unknown)
+	 */
+	public boolean getValue(String name) {
+		Integer var = variables.get(name);
+		return var != null && getValue(var);
+	}
+
+	/**
+	 * Gets the assumptions responsible for the last unsatisfiable call to
+	 * {@link #solve(int...)}.
+	 *
+	 * @return a subset of the assumptions (DIMACS literals), which is empty
+	 * if the clauses are unsatisfiable on their own
+	 */
+	public int[] getFailedAssumptions() {
+		int[] result = new int[failed.length];
+		for (int i = 0; i < failed.length; i++)
+			result[i] = toDIMACS(failed[i]);
+		return result;
+	}
+
+	private int toLiteral(int literal) {
+		int var = Math.abs(literal);
+		if (literal == 0 || var >= numVariables)
+			throw new IllegalArgumentException("illegal literal " + literal);
+		return 2 * var + (literal < 0 ? 1 : 0);
+	}
+
+	private static int toDIMACS(int literal) {
+		return (literal & 1) == 0 ? literal >>> 1 : -(literal >>> 1);
+	}
+
+	private int nextStamp() {
+		if (++stamp == Integer.MAX_VALUE) {
+			Arrays.fill(marks, 0);
+			Arrays.fill(levelMarks, 0);
+			stamp = 1;
+		}
+		return stamp;
+	}
+
+	private void push(int literal) {
+		if (workingSize == working.length)
+			working = Arrays.copyOf(working, workingSize << 1);
+		working[workingSize++] = literal;
+	}
+
+	// stores a clause in the arena and returns its reference
+	private int allocate(int[] literals, int size, int header) {
+		if (arenaSize + 2 + size > arena.length)
+			arena = Arrays.copyOf(
+				arena,
+				Math.max(arena.length << 1, arenaSize + 2 + size));
+
+		int c = arenaSize;
+		arena[c] = size;
+		arena[c + 1] = header;
+		System.arraycopy(literals, 0, arena, c + 2, size);
+		arenaSize += 2 + size;
+		return c;
+	}
+
+	private void watch(int literal, int c, int blocker) {
+		int[] ws = watches[literal];
+		if (ws == null)
+			watches[literal] = ws = new int[8];
+		else if (numWatches[literal] == ws.length)
+			watches[literal] = ws = Arrays.copyOf(ws, ws.length << 1);
+		ws[numWatches[literal]++] = c;
+		ws[numWatches[literal]++] = blocker;
+	}
+
+	private void assign(int literal, int r) {
+		int var = literal >>> 1;
+		value[literal] = 1;
+		value[literal ^ 1] = -1;
+		decisionLevel[var] = currentLevel;
+		reason[var] = r;
+		trail[trailSize++] = literal;
+	}
+
+	private void newDecisionLevel() {
+		if (++currentLevel == levelStart.length) {
+			levelStart = Arrays.copyOf(levelStart, currentLevel << 1);
+			levelMarks = Arrays.copyOf(levelMarks, currentLevel << 1);
+		}
+		levelStart[currentLevel] = trailSize;
+	}
+
+	private void backtrack(int target) {
+		if (currentLevel <= target)
+			return;
+
+		for (int i = trailSize - 1; i >= levelStart[target + 1]; i--) {
+			int lit = trail[i], var = lit >>> 1;
+			value[lit] = value[lit ^ 1] = 0;
+			phase[var] = (lit & 1) != 0;
+			order.insert(var);
+		}
+
+		trailSize = head = levelStart[target + 1];
+		currentLevel = target;
+	}
+
+	// returns a conflicting clause or -1
+	private int propagate() {
+		int[] arena = this.arena;
+
+		while (head < trailSize) {
+			int falsified = trail[head++] ^ 1;
+			propagations++;
+
+			int[] ws = watches[falsified];
+			int n = numWatches[falsified], i = 0, j = 0;
+
+			next:
+			while (i < n) {
+				int c = ws[i], blocker = ws[i + 1];
+				i += 2;
+
+				if (value[blocker] > 0) {
+					ws[j++] = c;
+					ws[j++] = blocker;
+					continue;
+				}
+
+				// make sure the false literal is the second one
+				int base = c + 2;
+				if (arena[base] == falsified) {
+					arena[base] = arena[base + 1];
+					arena[base + 1] = falsified;
+				}
+
+				int first = arena[base];
+				if (first != blocker && value[first] > 0) {
+					ws[j++] = c;
+					ws[j++] = first;
+					continue;
+				}
+
+				// look for a new literal to watch
+				for (int k = base + 2, end = base + arena[c]; k < end; k++) {
+					int lit = arena[k];
+					if (value[lit] >= 0) {
+						arena[base + 1] = lit;
+						arena[k] = falsified;
+						watch(lit, c, first);
+						continue next;
+					}
+				}
+
+				// unit or conflicting
+				ws[j++] = c;
+				ws[j++] = first;
+
+				if (value[first] < 0) {
+					while (i < n)
+						ws[j++] = ws[i++];
+					numWatches[falsified] = j;
+					return c;
+				}
+
+				assign(first, c);
+			}
+
+			numWatches[falsified] = j;
+		}
+
+		return -1;
+	}
+
+	// derives a learned clause (first unique implication point) into the
+	// working buffer - the asserting literal first and a literal of the
+	// backjump level second
+	private void analyze(int conflict) {
+		int s = nextStamp();
+		workingSize = 0;
+		push(-1);
+
+		int paths = 0, pivot = -1, index = trailSize - 1;
+		int c = conflict;
+
+		do {
+			for (int k = c + (pivot < 0 ? 2 : 3), end = c + 2 + arena[c];
+				k < end;
+				k++
+			) {
+				int lit = arena[k], var = lit >>> 1;
+				if (marks[var] != s && decisionLevel[var] > 0) {
+					marks[var] = s;
+					order.bump(var);
+					if (decisionLevel[var] >= currentLevel)
+						paths++;
+					else
+						push(lit);
+				}
+			}
+
+			while (marks[trail[index] >>> 1] != s)
+				index--;
+			pivot = trail[index--];
+			marks[pivot >>> 1] = 0;
+			c = reason[pivot >>> 1];
+			paths--;
+		} while (paths > 0);
+
+		working[0] = pivot ^ 1;
+
+		// remove literals implied by the remaining ones
+		int n = 1;
+		for (int i = 1; i < workingSize; i++)
+			if (!isRedundant(working[i], s))
+				working[n++] = working[i];
+		workingSize = n;
+
+		// move a literal of the highest remaining decision level second
+		if (workingSize > 1) {
+			int max = 1;
+			for (int i = 2; i < workingSize; i++)
+				if (decisionLevel[working[i] >>> 1]
+					> decisionLevel[working[max] >>> 1])
+					max = i;
+			int t = working[1];
+			working[1] = working[max];
+			working[max] = t;
+		}
+	}
+
+	private boolean isRedundant(int literal, int s) {
+		int c = reason[literal >>> 1];
+		if (c < 0)
+			return false;
+
+		for (int k = c + 3, end = c + 2 + arena[c]; k < end; k++) {
+			int var = arena[k] >>> 1;
+			if (marks[var] != s && decisionLevel[var] > 0)
+				return false;
+		}
+		return true;
+	}
+
+	// number of distinct decision levels of the working buffer
+	private int getLBD() {
+		int s = nextStamp(), lbd = 0;
+		for (int i = 0; i < workingSize; i++) {
+			int dl = decisionLevel[working[i] >>> 1];
+			if (levelMarks[dl] != s) {
+				levelMarks[dl] = s;
+				lbd++;
+			}
+		}
+		return lbd;
+	}
+
+	// collects the assumptions implying the given (false) assumption
+	private void analyzeFinal(int literal) {
+		int s = nextStamp();
+		workingSize = 0;
+		push(literal);
+
+		if (currentLevel == 0) {
+			failed = Arrays.copyOf(working, workingSize);
+			return;
+		}
+
+		marks[literal >>> 1] = s;
+		for (int i = trailSize - 1; i >= levelStart[1]; i--) {
+			int var = trail[i] >>> 1;
+			if (marks[var] != s)
+				continue;
+
+			int c = reason[var];
+			if (c < 0) {
+				push(trail[i]);
+			} else {
+				for (int k = c + 3, end = c + 2 + arena[c]; k < end; k++)
+					if (decisionLevel[arena[k] >>> 1] > 0)
+						marks[arena[k] >>> 1] = s;
+			}
+		}
+
+		failed = Arrays.copyOf(working, workingSize);
+	}
+
+	private boolean isLocked(int c) {
+		int lit = arena[c + 2];
+		return value[lit] > 0 && reason[lit >>> 1] == c;
+	}
+
+	// deletes the half of learned clauses with the highest LBD
+	private void reduce() {
+		reductions++;
+
+		Integer[] candidates = new Integer[numLearned];
+		int n = 0;
+		for (int i = 0; i < numLearned; i++) {
+			int c = learned[i];
+			if (arena[c] > 2 && arena[c + 1] >>> FLAGS > GLUE && !isLocked(c))
+				candidates[n++] = c;
+		}
+
+		Arrays.sort(candidates, 0, n, (a, b) ->
+			Integer.compare(arena[b + 1] >>> FLAGS, arena[a + 1] >>> FLAGS));
+
+		for (int i = 0, limit = numLearned / 2; i < n && i < limit; i++) {
+			int c = candidates[i];
+			arena[c + 1] |= DELETED;
+			deleted++;
+		}
+
+		// deleted clauses must not become reasons - remove them right away
+		collectGarbage();
+	}
+
+	// compacts the arena and rebuilds all watch lists
+	private void collectGarbage() {
+		int[] old = arena;
+		arena = new int[old.length];
+		int size = arenaSize;
+		arenaSize = 0;
+
+		// replace each clause's size by its new reference (-1 if deleted)
+		for (int c = 0; c < size; ) {
+			int n = old[c], next = c + 2 + n;
+			if ((old[c + 1] & DELETED) == 0) {
+				int r = arenaSize;
+				System.arraycopy(old, c, arena, r, 2 + n);
+				arenaSize += 2 + n;
+				old[c] = r;
+			} else {
+				old[c] = -1;
+			}
+			c = next;
+		}
+
+		for (int i = 0; i < trailSize; i++) {
+			int var = trail[i] >>> 1;
+			if (reason[var] >= 0)
+				reason[var] = old[reason[var]];
+		}
+
+		int m = 0;
+		for (int i = 0; i < numLearned; i++)
+			if (old[learned[i]] >= 0)
+				learned[m++] = old[learned[i]];
+		numLearned = m;
+
+		Arrays.fill(numWatches, 0);
+		for (int c = 0; c < arenaSize; c += 2 + arena[c]) {
+			watch(arena[c + 2], c, arena[c + 3]);
+			watch(arena[c + 3], c, arena[c + 2]);
+		}
+	}
+
+	// x-th element of the luby sequence (starting at 0)
+	private static int luby(int x) {
+		int size = 1, seq = 0;
+		while (size < x + 1) {
+			seq++;
+			size = 2 * size + 1;
+		}
+		while (size - 1 != x) {
+			size = (size - 1) >>> 1;
+			seq--;
+			x = x % size;
+		}
+		return 1 << seq;
+	}
+
+	private Boolean search(long conflictLimit) {
+		long limit = conflicts + conflictLimit < conflicts
+			? Long.MAX_VALUE
+			: conflicts + conflictLimit;
+		long conflictsSinceRestart = 0;
+		long nextReduce = conflicts + REDUCE_INTERVAL;
+		int numRestarts = 0;
+
+		while (true) {
+			int c = propagate();
+
+			if (c >= 0) {
+				conflicts++;
+				conflictsSinceRestart++;
+
+				if (currentLevel == 0)
+					return consistent = false;
+
+				analyze(c);
+				backtrack(workingSize > 1 ? decisionLevel[working[1] >>> 1] : 0);
+
+				if (workingSize == 1) {
+					assign(working[0], -1);
+				} else {
+					int lbd = getLBD();
+					int r = allocate(working, workingSize, lbd << FLAGS | LEARNED);
+					watch(working[0], r, working[1]);
+					watch(working[1], r, working[0]);
+					if (numLearned == learned.length)
+						learned = Arrays.copyOf(learned, numLearned << 1);
+					learned[numLearned++] = r;
+					assign(working[0], r);
+				}
+
+				order.decay();
+
+				if (conflicts >= limit) {
+					backtrack(0);
+					return null;
+				}
+
+				continue;
+			}
+
+			if (conflictsSinceRestart >= RESTART_INTERVAL * luby(numRestarts)) {
+				backtrack(0);
+				numRestarts++;
+				restarts++;
+				conflictsSinceRestart = 0;
+			}
+
+			if (conflicts >= nextReduce) {
+				nextReduce = conflicts + REDUCE_INTERVAL
+					+ REDUCE_INCREMENT * reductions;
+				reduce();
+			}
+
+			// assumptions are decided first - one per decision level
+			int next = -1;
+			while (currentLevel < assumptions.length) {
+				int lit = assumptions[currentLevel];
+				if (value[lit] > 0) {
+					newDecisionLevel();
+				} else if (value[lit] < 0) {
+					analyzeFinal(lit);
+					backtrack(0);
+					return false;
+				} else {
+					next = lit;
+					break;
+				}
+			}
+
+			if (next < 0) {
+				int var;
+				do {
+					if (order.isEmpty(0)) {
+						model = new boolean[numVariables];
+						for (int v = 1; v < numVariables; v++)
+							model[v] = value[2 * v] > 0;
+						backtrack(0);
+						return true;
+					}
+					var = order.removeMax(0);
+				} while (value[2 * var] != 0);
+
+				next = 2 * var + (phase[var] ? 1 : 0);
+				decisions++;
+			}
+
+			newDecisionLevel();
+			assign(next, -1);
+		}
+	}
+}
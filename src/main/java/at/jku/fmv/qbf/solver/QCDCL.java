@@ -0,0 +1,850 @@
+package at.jku.fmv.qbf.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+/**
+ * A search-based solver for formulas in PCNF, learning clauses and cubes
+ * (QCDCL).
+ * <p>
+ * Variables are numbered {@code 1 .. n} and literals are encoded as
+ * {@code 2 * variable + negated}.
+ * Clauses and learned cubes are both stored as arrays of literals, where
+ * cubes are stored negated, i.e. as the clause of their complementary
+ * literals.
+ * Thus, a constraint's <em>primary</em> literals are the existential ones
+ * for clauses and the universal ones for cubes - all remaining literals are
+ * <em>secondary</em>.
+ * <p>
+ * With respect to the current assignment, a constraint without true
+ * literals is
+ * <ul>
+ *   <li>conflicting if all primary literals are false and the unassigned
+ *       secondary literals are reducible (universal or existential
+ *       reduction), i.e. a falsified clause or a satisfied cube and</li>
+ *   <li>unit if all but one primary literal are false and all unassigned
+ *       secondary literals are quantified after it, which is then
+ *       assigned.</li>
+ * </ul>
+ * Both are detected by watching two literals of each constraint.
+ * Conflicts are analyzed by Q-resolution (clauses) and term resolution
+ * (cubes), where the initial cube of a satisfying assignment consists of a
+ * true literal of each clause.
+ * If analysis can't derive an asserting constraint (e.g. due to a
+ * tautological resolvent), the solver falls back to chronological
+ * backtracking.
+ * <p>
+ * Decisions follow the quantifier prefix: the unassigned variable with the
+ * highest activity (VSIDS) of the outermost quantifier level containing
+ * unassigned variables is assigned its saved phase.
+ * Restarts follow the Luby sequence.
+ * <p>
+ * Free variables are treated as outermost existentials.
+ * Solvers are stateful - use a new instance for each formula.
+ *
+ * @author phlo
+ */
+public final class QCDCL implements Solver {
+
+	// results of updating a constraint's watches
+	private static final int KEEP = 0;
+	private static final int MOVED = 1;
+	private static final int CONFLICT = 2;
+
+	// learned constraints between restarts (scaled by the luby sequence)
+	private static final int RESTART_INTERVAL = 100;
+
+	// variables
+	private int numVariables;
+	private int[] level;
+	private boolean[] universal;
+
+	// constraints
+	private int[][] constraints;
+	private boolean[] isCube;
+	private int numConstraints;
+	private int numClauses;
+
+	// watch lists, indexed by literal
+	private int[][] watches;
+	private int[] numWatches;
+
+	// assignment - values indexed by literal (0 = unassigned, 1 = ⊤, -1 = ⊥)
+	private byte[] value;
+	private int[] decisionLevel;
+	private int[] reason; // -1 = decision
+	private int[] trailPosition;
+	private boolean[] phase; // saved phase (true = negated)
+
+	private int[] trail;
+	private int trailSize;
+	private int head;
+
+	// trail index of each decision level's decision
+	private int[] levelStart;
+	// decision levels whose decision is the second branch
+	private boolean[] flipped;
+	private int currentLevel;
+
+	// unassigned variables of each quantifier level
+	private int[] unassigned;
+
+	private VariableOrder order;
+
+	// literal marks - stamped to avoid clearing
+	private int[] marks;
+	private int stamp;
+
+	// working constraint of the analysis
+	private int[] working;
+	private int workingSize;
+	private int backjumpLevel;
+
+	// clause found falsified by a total assignment
+	private int falsified;
+
+	// statistics
+	private long decisions;
+	private long propagations;
+	private long conflicts;
+	private long solutions;
+	private long learnedClauses;
+	private long learnedCubes;
+	private long backtracks;
+	private long restarts;
+
+	/**
+	 * Decides a formula in PCNF.
+	 *
+	 * @param pcnf {@link QBF} in PCNF
+	 * @return {@code true} if {@code pcnf} is true
+	 * @throws IllegalArgumentException if {@code pcnf} is not in PCNF
+	 */
+	@Override
+	public boolean solve(QBF pcnf) {
+		FormulaEvent event = new FormulaEvent.Solve(getClass());
+		event.begin();
+
+		decisions = propagations = conflicts = solutions = 0;
+		learnedClauses = learnedCubes = backtracks = restarts = 0;
+
+		boolean result = load(pcnf) && search();
+
+		// free memory
+		constraints = null;
+		watches = null;
+		order = null;
+
+		event.end(pcnf, result ? QBF.True : QBF.False);
+		return result;
+	}
+
+	/**
+	 * Gets the number of decisions.
+	 *
+	 * @return number of decisions during the last call to {@link #solve}
+	 */
+	public long getDecisions() { return decisions; }
+
+	/**
+	 * Gets the number of propagated literals.
+	 *
+	 * @return number of assigned literals processed by unit propagation
+	 */
+	public long getPropagations() { return propagations; }
+
+	/**
+	 * Gets the number of conflicts.
+	 *
+	 * @return number of falsified clauses
+	 */
+	public long getConflicts() { return conflicts; }
+
+	/**
+	 * Gets the number of solutions.
+	 *
+	 * @return number of satisfying assignments and satisfied cubes
+	 */
+	public long getSolutions() { return solutions; }
+
+	/**
+	 * Gets the number of learned clauses.
+	 *
+	 * @return number of learned clauses
+	 */
+	public long getLearnedClauses() { return learnedClauses; }
+
+	/**
+	 * Gets the number of learned cubes.
+	 *
+	 * @return number of learned cubes
+	 */
+	public long getLearnedCubes() { return learnedCubes; }
+
+	/**
+	 * Gets the number of chronological backtracks.
+	 *
+	 * @return number of conflicts and solutions without an asserting
+	 * constraint
+	 */
+	public long getBacktracks() { return backtracks; }
+
+	/**
+	 * Gets the number of restarts.
+	 *
+	 * @return number of restarts
+	 */
+	public long getRestarts() { return restarts; }
+
+	// initializes the solver - returns false if the matrix is trivially false
+	private boolean load(QBF pcnf) {
+		Map<String, Integer> indices = new HashMap<>();
+		List<Integer> levels = new ArrayList<>();
+		List<Boolean> types = new ArrayList<>();
+		levels.add(0);
+
+		// free variables form the outermost (existential) block
+		types.add(false);
+
+		// prefix
+		QBF matrix = pcnf;
+		while (matrix.isQuantifier()) {
+			Quantifier q = (Quantifier) matrix;
+			int l = types.size();
+			types.add(q.isForAll());
+			for (String v : q.variables)
+				if (!indices.containsKey(v)) {
+					indices.put(v, levels.size());
+					levels.add(l);
+				}
+			matrix = q.subformula;
+		}
+
+		List<QBF> clauses = matrix.isAnd()
+			? ((And) matrix).subformulas
+			: matrix.isConstant()
+				? Collections.emptyList()
+				: Collections.singletonList(matrix);
+
+		// literal nodes are usually shared
+		Map<QBF, Integer> cache = new IdentityHashMap<>();
+
+		List<int[]> literals = new ArrayList<>(clauses.size());
+		for (QBF clause : clauses) {
+			List<QBF> lits = clause instanceof Or
+				? ((Or) clause).subformulas
+				: Collections.singletonList(clause);
+
+			int[] c = new int[lits.size()];
+			for (int i = 0; i < c.length; i++) {
+				QBF lit = lits.get(i);
+				Integer literal = cache.get(lit);
+				if (literal == null) {
+					QBF var = lit instanceof Not ? ((Not) lit).subformula : lit;
+					if (!(var instanceof Variable))
+						throw new IllegalArgumentException("skeleton not in CNF");
+
+					String name = ((Variable) var).name;
+					Integer idx = indices.get(name);
+					if (idx == null) {
+						// free variables are outermost existentials
+						indices.put(name, idx = levels.size());
+						levels.add(0);
+					}
+					cache.put(lit, literal = 2 * idx + (var == lit ? 0 : 1));
+				}
+				c[i] = literal;
+			}
+			literals.add(c);
+		}
+
+		int n = numVariables = levels.size();
+
+		level = new int[n];
+		universal = new boolean[n];
+		unassigned = new int[types.size()];
+		for (int v = 1; v < n; v++) {
+			level[v] = levels.get(v);
+			universal[v] = types.get(level[v]);
+			unassigned[level[v]]++;
+		}
+
+		value = new byte[2 * n];
+		decisionLevel = new int[n];
+		reason = new int[n];
+		trailPosition = new int[n];
+		phase = new boolean[n];
+		Arrays.fill(phase, true);
+
+		trail = new int[n];
+		trailSize = head = 0;
+		levelStart = new int[16];
+		flipped = new boolean[16];
+		currentLevel = 0;
+
+		constraints = new int[Math.max(16, 2 * literals.size())][];
+		isCube = new boolean[constraints.length];
+		numConstraints = 0;
+
+		watches = new int[2 * n][];
+		numWatches = new int[2 * n];
+
+		marks = new int[2 * n];
+		stamp = 0;
+		working = new int[16];
+
+		order = new VariableOrder(level, types.size());
+		for (int v = 1; v < n; v++)
+			order.insert(v);
+
+		if (matrix == QBF.False)
+			return false;
+
+		// add clauses, assign units afterwards
+		List<Integer> units = new ArrayList<>();
+		for (int[] clause : literals) {
+			clause = normalize(clause);
+			if (clause == null)
+				continue;
+			if (clause.length == 0)
+				return false;
+
+			int id = add(clause, false);
+			if (clause.length == 1)
+				units.add(id);
+			else
+				attach(id);
+		}
+		numClauses = numConstraints;
+
+		for (int id : units) {
+			int lit = constraints[id][0];
+			if (value[lit] < 0)
+				return false;
+			if (value[lit] == 0)
+				assign(lit, id);
+		}
+
+		return true;
+	}
+
+	private boolean isPrimary(int literal, boolean cube) {
+		return universal[literal >>> 1] == cube;
+	}
+
+	private int nextStamp() {
+		if (++stamp == Integer.MAX_VALUE) {
+			Arrays.fill(marks, 0);
+			stamp = 1;
+		}
+		return stamp;
+	}
+
+	// removes duplicates and universally reducible literals
+	// returns null for tautologies
+	private int[] normalize(int[] clause) {
+		int s = nextStamp();
+		int n = 0, maxLevel = -1;
+		int[] result = new int[clause.length];
+
+		for (int lit : clause) {
+			if (marks[lit ^ 1] == s)
+				return null;
+			if (marks[lit] == s)
+				continue;
+			marks[lit] = s;
+			result[n++] = lit;
+			if (!universal[lit >>> 1])
+				maxLevel = Math.max(maxLevel, level[lit >>> 1]);
+		}
+
+		int m = 0;
+		for (int i = 0; i < n; i++)
+			if (!universal[result[i] >>> 1] || level[result[i] >>> 1] < maxLevel)
+				result[m++] = result[i];
+
+		return Arrays.copyOf(result, m);
+	}
+
+	private int add(int[] literals, boolean cube) {
+		if (numConstraints == constraints.length) {
+			constraints = Arrays.copyOf(constraints, numConstraints << 1);
+			isCube = Arrays.copyOf(isCube, numConstraints << 1);
+		}
+		constraints[numConstraints] = literals;
+		isCube[numConstraints] = cube;
+		return numConstraints++;
+	}
+
+	private void watch(int literal, int c) {
+		int[] ws = watches[literal];
+		if (ws == null)
+			watches[literal] = ws = new int[4];
+		else if (numWatches[literal] == ws.length)
+			watches[literal] = ws = Arrays.copyOf(ws, ws.length << 1);
+		ws[numWatches[literal]++] = c;
+	}
+
+	private void unwatch(int literal, int c) {
+		int[] ws = watches[literal];
+		int n = numWatches[literal];
+		for (int i = 0; i < n; i++)
+			if (ws[i] == c) {
+				ws[i] = ws[n - 1];
+				numWatches[literal]--;
+				return;
+			}
+	}
+
+	private static void swap(int[] a, int i, int j) {
+		int t = a[i];
+		a[i] = a[j];
+		a[j] = t;
+	}
+
+	// watches two primary literals or a primary and an outer secondary one
+	private void attach(int c) {
+		int[] con = constraints[c];
+		boolean cube = isCube[c];
+
+		int first = -1, second = -1;
+		for (int i = 0; i < con.length && second < 0; i++)
+			if (isPrimary(con[i], cube)) {
+				if (first < 0) first = i;
+				else second = i;
+			}
+
+		if (first < 0) first = 0;
+		if (second < 0) second = first == 0 ? 1 : 0;
+
+		swap(con, 0, first);
+		if (second == 0) second = first;
+		swap(con, 1, second);
+
+		watch(con[0], c);
+		watch(con[1], c);
+	}
+
+	private void assign(int literal, int r) {
+		int var = literal >>> 1;
+		value[literal] = 1;
+		value[literal ^ 1] = -1;
+		decisionLevel[var] = currentLevel;
+		reason[var] = r;
+		trailPosition[var] = trailSize;
+		trail[trailSize++] = literal;
+		unassigned[level[var]]--;
+	}
+
+	private void newDecisionLevel() {
+		if (++currentLevel == levelStart.length) {
+			levelStart = Arrays.copyOf(levelStart, currentLevel << 1);
+			flipped = Arrays.copyOf(flipped, currentLevel << 1);
+		}
+		levelStart[currentLevel] = trailSize;
+		flipped[currentLevel] = false;
+	}
+
+	private void backtrack(int target) {
+		if (currentLevel <= target)
+			return;
+
+		for (int i = trailSize - 1; i >= levelStart[target + 1]; i--) {
+			int lit = trail[i], var = lit >>> 1;
+			value[lit] = value[lit ^ 1] = 0;
+			phase[var] = (lit & 1) != 0;
+			unassigned[level[var]]++;
+			order.insert(var);
+		}
+
+		trailSize = head = levelStart[target + 1];
+		currentLevel = target;
+	}
+
+	// restores the watch invariant of constraint c after its second watched
+	// literal became false
+	private int update(int c) {
+		int[] con = constraints[c];
+		boolean cube = isCube[c];
+
+		// unassigned primary, unassigned outermost secondary and true literal
+		int p1 = -1, p2 = -1, s = -1, t = -1;
+		for (int i = 0; i < con.length; i++) {
+			int lit = con[i];
+			if (value[lit] > 0) {
+				if (t < 0) t = i;
+			} else if (value[lit] == 0) {
+				if (isPrimary(lit, cube)) {
+					if (p1 < 0) p1 = i;
+					else if (p2 < 0) p2 = i;
+				} else if (s < 0 || level[lit >>> 1] < level[con[s] >>> 1]) {
+					s = i;
+				}
+			}
+		}
+
+		// prefer watches which remain valid after backtracking
+		if (p2 >= 0) {
+			rewatch(c, p1, p2);
+			return MOVED;
+		}
+
+		if (p1 >= 0 && s >= 0 && level[con[s] >>> 1] < level[con[p1] >>> 1]) {
+			rewatch(c, p1, s);
+			return MOVED;
+		}
+
+		if (t >= 0) {
+			swap(con, 1, t);
+			watch(con[1], c);
+			return MOVED;
+		}
+
+		if (p1 >= 0) {
+			if (p1 != 0) {
+				unwatch(con[0], c);
+				swap(con, 0, p1);
+				watch(con[0], c);
+			}
+			assign(con[0], c);
+			return KEEP;
+		}
+
+		return CONFLICT;
+	}
+
+	// watches literals i and j instead of the first and second one
+	private void rewatch(int c, int i, int j) {
+		int[] con = constraints[c];
+		int old = con[0];
+
+		swap(con, 0, i);
+		if (j == 0) j = i;
+		swap(con, 1, j);
+
+		if (con[0] != old) {
+			unwatch(old, c);
+			watch(con[0], c);
+		}
+		watch(con[1], c);
+	}
+
+	// returns a conflicting constraint or -1
+	private int propagate() {
+		while (head < trailSize) {
+			int falsified = trail[head++] ^ 1;
+			propagations++;
+
+			int[] ws = watches[falsified];
+			int n = numWatches[falsified], j = 0;
+
+			for (int i = 0; i < n; i++) {
+				int c = ws[i];
+				int[] con = constraints[c];
+
+				if (con[0] == falsified) {
+					con[0] = con[1];
+					con[1] = falsified;
+				}
+
+				if (value[con[0]] > 0) {
+					ws[j++] = c;
+					continue;
+				}
+
+				int result = update(c);
+				if (result == KEEP) {
+					ws[j++] = c;
+				} else if (result == CONFLICT) {
+					while (i < n)
+						ws[j++] = ws[i++];
+					numWatches[falsified] = j;
+					return c;
+				}
+			}
+
+			numWatches[falsified] = j;
+		}
+
+		return -1;
+	}
+
+	private void decide() {
+		int l = 0;
+		while (unassigned[l] == 0)
+			l++;
+
+		int var;
+		do {
+			var = order.removeMax(l);
+		} while (value[2 * var] != 0);
+
+		newDecisionLevel();
+		decisions++;
+		assign(2 * var + (phase[var] ? 1 : 0), -1);
+	}
+
+	// cube of a true literal of each clause (stored negated)
+	// returns null if a clause is falsified
+	private int[] getModelCube() {
+		int s = nextStamp();
+		workingSize = 0;
+
+		for (int c = 0; c < numClauses; c++) {
+			int[] con = constraints[c];
+
+			int best = -1;
+			for (int lit : con) {
+				if (value[lit] <= 0)
+					continue;
+				if (marks[lit] == s) {
+					best = -2;
+					break;
+				}
+				// deep existentials are likely to be reduced
+				if (best < 0
+					|| universal[best >>> 1] && !universal[lit >>> 1]
+					|| universal[best >>> 1] == universal[lit >>> 1]
+						&& level[lit >>> 1] > level[best >>> 1])
+					best = lit;
+			}
+
+			if (best == -1) {
+				falsified = c;
+				return null;
+			}
+
+			if (best >= 0) {
+				marks[best] = s;
+				push(best ^ 1);
+			}
+		}
+
+		return Arrays.copyOf(working, workingSize);
+	}
+
+	private void push(int literal) {
+		if (workingSize == working.length)
+			working = Arrays.copyOf(working, workingSize << 1);
+		working[workingSize++] = literal;
+	}
+
+	// applies universal (clauses) or existential (cubes) reduction to the
+	// working constraint
+	private void reduce(boolean cube) {
+		int maxLevel = -1;
+		for (int i = 0; i < workingSize; i++)
+			if (isPrimary(working[i], cube))
+				maxLevel = Math.max(maxLevel, level[working[i] >>> 1]);
+
+		int n = 0;
+		for (int i = 0; i < workingSize; i++) {
+			int lit = working[i];
+			if (isPrimary(lit, cube) || level[lit >>> 1] < maxLevel)
+				working[n++] = lit;
+			else
+				marks[lit] = 0;
+		}
+		workingSize = n;
+	}
+
+	// derives an asserting constraint from a conflicting one
+	// returns null if impossible and an empty array if the formula is decided
+	private int[] analyze(int[] conflict, boolean cube) {
+		int s = nextStamp();
+		workingSize = 0;
+		for (int lit : conflict) {
+			marks[lit] = s;
+			push(lit);
+		}
+		reduce(cube);
+
+		while (true) {
+			// most recently assigned primary literal
+			int pivot = -1;
+			for (int i = 0; i < workingSize; i++) {
+				int lit = working[i];
+				if (isPrimary(lit, cube)
+					&& (pivot < 0
+						|| trailPosition[lit >>> 1] > trailPosition[pivot >>> 1]))
+					pivot = lit;
+			}
+
+			if (pivot < 0)
+				return new int[0];
+
+			// asserting if all other literals are assigned at lower decision
+			// levels or reducible after backjumping
+			int dl = decisionLevel[pivot >>> 1];
+			int second = -1;
+			boolean asserting = true;
+			for (int i = 0; i < workingSize && asserting; i++) {
+				int lit = working[i], var = lit >>> 1;
+				if (lit == pivot
+					|| !isPrimary(lit, cube) && level[var] > level[pivot >>> 1])
+					continue;
+				if (value[lit] == 0 || decisionLevel[var] >= dl)
+					asserting = false;
+				else if (second < 0
+					|| decisionLevel[var] > decisionLevel[second >>> 1])
+					second = lit;
+			}
+
+			// falsified at decision level 0
+			if (asserting && dl == 0)
+				return new int[0];
+
+			if (asserting) {
+				backjumpLevel = second < 0 ? 0 : decisionLevel[second >>> 1];
+
+				int[] learned = new int[workingSize];
+				int n = 0;
+				learned[n++] = pivot;
+				if (second >= 0)
+					learned[n++] = second;
+				for (int i = 0; i < workingSize; i++)
+					if (working[i] != pivot && working[i] != second)
+						learned[n++] = working[i];
+				return learned;
+			}
+
+			int r = reason[pivot >>> 1];
+			if (r < 0 || isCube[r] != cube)
+				return null;
+
+			// resolve on the pivot - fail on tautologies
+			int[] antecedent = constraints[r];
+			for (int lit : antecedent)
+				if (lit != (pivot ^ 1) && marks[lit ^ 1] == s)
+					return null;
+
+			int n = 0;
+			for (int i = 0; i < workingSize; i++)
+				if (working[i] != pivot)
+					working[n++] = working[i];
+			workingSize = n;
+			marks[pivot] = 0;
+
+			for (int lit : antecedent)
+				if (lit != (pivot ^ 1) && marks[lit] != s) {
+					marks[lit] = s;
+					push(lit);
+				}
+
+			reduce(cube);
+		}
+	}
+
+	// learns from a conflict (clause) or solution (cube)
+	// returns the formula's value if decided, null otherwise
+	private Boolean learn(int[] conflict, boolean cube) {
+		if (currentLevel == 0)
+			return cube;
+
+		int[] learned = analyze(conflict, cube);
+
+		if (learned == null)
+			return backtrackChronologically(cube);
+
+		if (learned.length == 0)
+			return cube;
+
+		backtrack(backjumpLevel);
+
+		int id = add(learned, cube);
+		if (learned.length > 1) {
+			watch(learned[0], id);
+			watch(learned[1], id);
+		}
+		assign(learned[0], id);
+
+		for (int lit : learned)
+			order.bump(lit >>> 1);
+		order.decay();
+
+		if (cube) learnedCubes++;
+		else learnedClauses++;
+
+		return null;
+	}
+
+	// flips the most recent existential (conflict) or universal (solution)
+	// decision, which hasn't been flipped already
+	private Boolean backtrackChronologically(boolean cube) {
+		for (int d = currentLevel; d > 0; d--) {
+			int decision = trail[levelStart[d]];
+			if (!flipped[d] && universal[decision >>> 1] == cube) {
+				backtrack(d - 1);
+				newDecisionLevel();
+				flipped[currentLevel] = true;
+				assign(decision ^ 1, -1);
+				backtracks++;
+				return null;
+			}
+		}
+		return cube;
+	}
+
+	// x-th element of the luby sequence (starting at 0)
+	private static int luby(int x) {
+		int size = 1, seq = 0;
+		while (size < x + 1) {
+			seq++;
+			size = 2 * size + 1;
+		}
+		while (size - 1 != x) {
+			size = (size - 1) >>> 1;
+			seq--;
+			x = x % size;
+		}
+		return 1 << seq;
+	}
+
+	private boolean search() {
+		long learnedSinceRestart = 0;
+		int numRestarts = 0;
+
+		while (true) {
+			int c = propagate();
+
+			int[] conflict;
+			boolean cube;
+			if (c >= 0) {
+				conflict = constraints[c];
+				cube = isCube[c];
+			} else if (trailSize == numVariables - 1) {
+				conflict = getModelCube();
+				cube = conflict != null;
+				if (!cube)
+					conflict = constraints[falsified];
+			} else {
+				if (learnedSinceRestart >= RESTART_INTERVAL * luby(numRestarts)) {
+					backtrack(0);
+					numRestarts++;
+					restarts++;
+					learnedSinceRestart = 0;
+				}
+				decide();
+				continue;
+			}
+
+			if (cube) solutions++;
+			else conflicts++;
+
+			Boolean result = learn(conflict, cube);
+			if (result != null)
+				return result;
+
+			learnedSinceRestart++;
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package at.jku.fmv.qbf.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.stats.FormulaEvent;
+
+/**
+ * An expansion-based solver for formulas in PNF, using recursive
+ * abstraction refinement [JKMC12].
+ * <p>
+ * The formula is regarded as a game of the existential and universal
+ * player, assigning the quantifier blocks in order, where each player wants
+ * to satisfy their <em>goal</em>: the matrix for the existential player and
+ * its negation for the universal one.
+ * A game {@code Q X Q' Y Ψ} is won by the player of {@code X}, if they
+ * find an assignment {@code τ} of {@code X} (a winning move), such that the
+ * opponent loses {@code Q' Y Ψ[τ]}.
+ * <p>
+ * Candidates are obtained from an abstraction, which initially places no
+ * constraints on {@code X}.
+ * Whenever the opponent's counter game is won by a move {@code μ}, the
+ * abstraction is refined by the expansion {@code Ψ[μ]}, where variables of
+ * subsequent blocks are replaced by fresh copies, which join the
+ * abstraction's quantifier blocks.
+ * If the abstraction is lost, so is the game.
+ * Abstractions have two blocks less than their game and are solved
+ * recursively, down to propositional games, which are decided by an
+ * incremental {@link CDCL} solver.
+ * <p>
+ * The matrix is never converted into CNF up front: expansions are built by
+ * {@link QBF#assign assigning} and {@link QBF#rename renaming} the DAG of
+ * the goal, sharing unaffected subformulas, and only encoded when added to
+ * a SAT solver.
+ * <p>
+ * Free variables are treated as outermost existentials.
+ * <p>
+ * [JKMC12] M. Janota, W. Klieber, J. Marques-Silva and E. Clarke. Solving
+ * QBF with Counterexample Guided Refinement. In <i>Proc. SAT</i>, LNCS
+ * 7317, pp. 114-128, 2012.
+ *
+ * @author phlo
+ */
+public final class RAReQS implements Solver {
+
+	// prefix of fresh variables
+	private static final String prefix = "_rq";
+
+	private int copies;
+
+	// statistics
+	private long games;
+	private long refinements;
+	private long satCalls;
+
+	/**
+	 * Decides a formula in PNF.
+	 *
+	 * @param pnf {@link QBF} in PNF
+	 * @return {@code true} if {@code pnf} is true
+	 * @throws IllegalArgumentException if {@code pnf} is not in PNF
+	 */
+	@Override
+	public boolean solve(QBF pnf) {
+		FormulaEvent event = new FormulaEvent.Solve(getClass());
+		event.begin();
+
+		copies = 0;
+		games = refinements = satCalls = 0;
+
+		// quantifier blocks (merging adjacent ones of the same type)
+		List<Set<String>> blocks = new ArrayList<>();
+		Set<String> bound = new HashSet<>();
+		boolean universal = pnf.isForAll(), last = universal;
+
+		QBF matrix = pnf;
+		while (matrix.isQuantifier()) {
+			Quantifier q = (Quantifier) matrix;
+			if (blocks.isEmpty() || q.isForAll() != last)
+				blocks.add(new HashSet<>());
+			last = q.isForAll();
+			for (String v : q.variables)
+				if (bound.add(v))
+					blocks.get(blocks.size() - 1).add(v);
+			matrix = q.subformula;
+		}
+
+		if (!matrix.getBoundVariables().isEmpty())
+			throw new IllegalArgumentException("not in prenex normal form");
+
+		// free variables are outermost existentials
+		Set<String> free = new HashSet<>(matrix.getFreeVariables());
+		free.removeAll(bound);
+		if (blocks.isEmpty() || universal && !free.isEmpty()) {
+			blocks.add(0, new HashSet<>());
+			universal = false;
+		}
+		blocks.get(0).addAll(free);
+
+		boolean result =
+			(new Game(blocks, universal ? matrix.negate() : matrix).solve()
+				!= null)
+			!= universal;
+
+		event.end(pnf, result ? QBF.True : QBF.False);
+		return result;
+	}
+
+	/**
+	 * Gets the number of games.
+	 *
+	 * @return number of (counter) games created during the last call to
+	 * {@link #solve}
+	 */
+	public long getGames() { return games; }
+
+	/**
+	 * Gets the number of refinements.
+	 *
+	 * @return number of expansions added to abstractions
+	 */
+	public long getRefinements() { return refinements; }
+
+	/**
+	 * Gets the number of SAT solver calls.
+	 *
+	 * @return number of calls to {@link CDCL#solve(int...)}
+	 */
+	public long getSATCalls() { return satCalls; }
+
+	private static QBF conjunction(List<QBF> formulas) {
+		return formulas.isEmpty()
+			? QBF.True
+			: formulas.size() == 1
+				? formulas.get(0)
+				: new And(formulas);
+	}
+
+	// a game from the perspective of the first block's player
+	private final class Game {
+
+		// quantifier blocks - alternating, starting with the player's own
+		final List<Set<String>> blocks;
+
+		// conjunction of the player's goals
+		final List<QBF> goals = new ArrayList<>();
+
+		// propositional games are decided by a SAT solver
+		CDCL sat;
+
+		// others are abstracted by a game of the same player
+		Game abstraction;
+
+		Game(List<Set<String>> blocks, QBF goal) {
+			games++;
+			this.blocks = blocks;
+
+			if (blocks.size() == 1) {
+				sat = new CDCL();
+			} else {
+				List<Set<String>> abstracted = new ArrayList<>();
+				abstracted.add(new HashSet<>(blocks.get(0)));
+				for (int i = 3; i < blocks.size(); i++)
+					abstracted.add(new HashSet<>());
+				abstraction = new Game(abstracted, QBF.True);
+			}
+
+			refine(goal, null);
+		}
+
+		// adds a goal, whose variables are added to the given blocks
+		void refine(QBF goal, List<Set<String>> variables) {
+			if (variables != null && !variables.isEmpty()) {
+				for (int i = 0; i < variables.size(); i++)
+					blocks.get(i).addAll(variables.get(i));
+
+				// the abstraction has to assign the player's new variables
+				if (abstraction != null)
+					abstraction.refine(
+						QBF.True,
+						Collections.singletonList(variables.get(0)));
+			}
+
+			if (goal == QBF.True)
+				return;
+
+			goals.add(goal);
+			if (sat != null)
+				sat.add(goal);
+		}
+
+		// returns a winning move on the first block or null if lost
+		Map<String, Boolean> solve() {
+			if (sat != null) {
+				satCalls++;
+				return sat.solve() ? getMove(sat::getValue) : null;
+			}
+
+			while (true) {
+				Map<String, Boolean> candidate = abstraction.solve();
+				if (candidate == null)
+					return null;
+
+				// variables unknown to the abstraction are unconstrained
+				Map<String, Boolean> move =
+					getMove(v -> candidate.getOrDefault(v, false));
+
+				QBF goal = conjunction(goals);
+
+				Game counter = new Game(
+					blocks.subList(1, blocks.size()),
+					goal.assign(move).negate());
+
+				Map<String, Boolean> counterMove = counter.solve();
+				if (counterMove == null)
+					return move;
+
+				// expansion by the counter move with fresh inner variables
+				QBF expansion = goal.assign(counterMove);
+				Set<String> occurring = expansion.getFreeVariables();
+
+				Map<String, String> fresh = new HashMap<>();
+				List<Set<String>> variables = new ArrayList<>();
+				for (int i = 2; i < blocks.size(); i++) {
+					Set<String> block = new HashSet<>();
+					for (String v : blocks.get(i))
+						if (occurring.contains(v)) {
+							String copy = prefix + copies++ + "_" + v;
+							fresh.put(v, copy);
+							block.add(copy);
+						}
+					variables.add(block);
+				}
+
+				refinements++;
+				abstraction.refine(
+					fresh.isEmpty() ? expansion : expansion.rename(fresh),
+					variables);
+			}
+		}
+
+		private Map<String, Boolean> getMove(Predicate<String> value) {
+			Map<String, Boolean> move = new HashMap<>();
+			for (String v : blocks.get(0))
+				move.put(v, value.test(v));
+			return move;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package at.jku.fmv.qbf.solver;
+
+import at.jku.fmv.qbf.QBF;
+
+/**
+ * A decision procedure for quantified boolean formulas.
+ * <p>
+ * Free variables are treated as outermost existentials (as in QDIMACS).
+ *
+ * @author phlo
+ */
+public interface Solver {
+
+	/**
+	 * Decides the given formula.
+	 *
+	 * @param formula a {@link QBF}
+	 * @return {@code true} if {@code formula} is true
+	 * @throws IllegalArgumentException if {@code formula} is not supported
+	 */
+	public boolean solve(QBF formula);
+}
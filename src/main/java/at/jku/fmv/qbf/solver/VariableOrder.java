@@ -0,0 +1,159 @@
+package at.jku.fmv.qbf.solver;
+
+import java.util.Arrays;
+
+/**
+ * Variable activities (VSIDS) with a binary max-heap per group of variables.
+ * <p>
+ * Groups partition the variables, e.g. into quantifier levels, such that
+ * the most active variable of a given group can be selected.
+ * Variables are numbered {@code 1 .. n}, each heap is backed by its own
+ * array, while positions are shared.
+ *
+ * @author phlo
+ */
+final class VariableOrder {
+
+	private static final double DECAY = 0.95;
+
+	private double[] activity;
+	private double increment = 1;
+
+	// group of each variable
+	private int[] group;
+
+	// heaps of each group and each variable's index in its heap (-1 = none)
+	private final int[][] heaps;
+	private final int[] sizes;
+	private int[] position;
+
+	/**
+	 * Constructs an empty variable order of a single group, which has to be
+	 * {@link #grow grown} before inserting variables.
+	 */
+	VariableOrder() { this(new int[1], 1); }
+
+	/**
+	 * Constructs a variable order.
+	 *
+	 * @param group group of each variable (index 0 is ignored)
+	 * @param numGroups number of groups
+	 */
+	VariableOrder(int[] group, int numGroups) {
+		this.group = group;
+
+		int[] capacities = new int[numGroups];
+		for (int v = 1; v < group.length; v++)
+			capacities[group[v]]++;
+
+		heaps = new int[numGroups][];
+		for (int g = 0; g < numGroups; g++)
+			heaps[g] = new int[capacities[g]];
+		sizes = new int[numGroups];
+
+		activity = new double[group.length];
+		position = new int[group.length];
+		Arrays.fill(position, -1);
+	}
+
+	/**
+	 * Adds variables to group 0 (only for a single group).
+	 *
+	 * @param numVariables new number of variables (including 0)
+	 */
+	void grow(int numVariables) {
+		if (numVariables <= group.length)
+			return;
+
+		int n = Math.max(2 * group.length, numVariables);
+		group = new int[n];
+		activity = Arrays.copyOf(activity, n);
+		heaps[0] = Arrays.copyOf(heaps[0], n);
+		int m = position.length;
+		position = Arrays.copyOf(position, n);
+		Arrays.fill(position, m, n, -1);
+	}
+
+	boolean contains(int var) { return position[var] >= 0; }
+
+	boolean isEmpty(int g) { return sizes[g] == 0; }
+
+	/**
+	 * Inserts a variable into its group's heap, if not already contained.
+	 *
+	 * @param var a variable
+	 */
+	void insert(int var) {
+		if (contains(var))
+			return;
+		int g = group[var];
+		heaps[g][sizes[g]] = var;
+		position[var] = sizes[g]++;
+		up(heaps[g], position[var]);
+	}
+
+	/**
+	 * Removes the most active variable of a given group.
+	 *
+	 * @param g a non-empty group
+	 * @return the variable with the highest activity
+	 */
+	int removeMax(int g) {
+		int[] heap = heaps[g];
+		int var = heap[0];
+		position[var] = -1;
+		if (--sizes[g] > 0) {
+			heap[0] = heap[sizes[g]];
+			position[heap[0]] = 0;
+			down(heap, sizes[g], 0);
+		}
+		return var;
+	}
+
+	/**
+	 * Increases a variable's activity.
+	 *
+	 * @param var a variable
+	 */
+	void bump(int var) {
+		if ((activity[var] += increment) > 1e100) {
+			for (int v = 1; v < activity.length; v++)
+				activity[v] *= 1e-100;
+			increment *= 1e-100;
+		}
+		if (contains(var))
+			up(heaps[group[var]], position[var]);
+	}
+
+	/** Decays all activities (by increasing future bumps). */
+	void decay() { increment /= DECAY; }
+
+	private void up(int[] heap, int i) {
+		int var = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (activity[heap[parent]] >= activity[var])
+				break;
+			heap[i] = heap[parent];
+			position[heap[i]] = i;
+			i = parent;
+		}
+		heap[i] = var;
+		position[var] = i;
+	}
+
+	private void down(int[] heap, int size, int i) {
+		int var = heap[i];
+		for (int child; (child = 2 * i + 1) < size; i = child) {
+			if (child + 1 < size
+				&& activity[heap[child + 1]] > activity[heap[child]])
+				child++;
+			if (activity[var] >= activity[heap[child]])
+				break;
+			heap[i] = heap[child];
+			position[heap[i]] = i;
+		}
+		heap[i] = var;
+		position[var] = i;
+	}
+}
@@ -0,0 +1,212 @@
+package at.jku.fmv.qbf.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.stats.Statistics.Metrics;
+
+/**
+ * Java Flight Recorder event of a formula transformation.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * FormulaEvent event = new FormulaEvent.NNF();
+ * event.begin();
+ * QBF nnf = ...;
+ * event.end(formula, nnf);
+ * }</pre>
+ * The formulas' {@link Metrics} are only computed if the event is
+ * actually recorded - without an active recording, the event is optimized
+ * away by the JIT compiler.
+ *
+ * @author phlo
+ */
+@Category("qbf4j")
+@StackTrace(false)
+public abstract class FormulaEvent extends Event {
+
+	@Label("Input Nodes")
+	@Description("Number of distinct nodes in the input formula")
+	long inputNodes = -1;
+
+	@Label("Output Nodes")
+	@Description("Number of distinct nodes in the output formula")
+	long outputNodes = -1;
+
+	@Label("Variables")
+	@Description("Number of distinct variables")
+	long variables = -1;
+
+	@Label("Alternation Depth")
+	@Description("Maximum number of quantifier blocks along any path")
+	int alternationDepth = -1;
+
+	/**
+	 * Ends the event and commits it, if enabled.
+	 *
+	 * @param input the transformation's input (may be {@code null})
+	 * @param output the transformation's output (may be {@code null})
+	 */
+	public void end(QBF input, QBF output) {
+		end();
+
+		if (!shouldCommit())
+			return;
+
+		Metrics in = input == null ? null : Metrics.of(input);
+		Metrics out = output == null ? in : Metrics.of(output);
+
+		if (in != null)
+			inputNodes = in.nodes;
+
+		if (out != null) {
+			if (output != null)
+				outputNodes = out.nodes;
+			variables = out.variables;
+			alternationDepth = out.alternationDepth;
+		}
+
+		commit();
+	}
+
+	/** Reading a formula. */
+	@Name("at.jku.fmv.qbf.Parse")
+	@Label("Parse")
+	public static final class Parse extends FormulaEvent {
+
+		@Label("Source")
+		String source;
+
+		@Label("Bytes")
+		@Description("Size of the parsed input")
+		long bytes;
+
+		/**
+		 * Constructs a parse event.
+		 *
+		 * @param source name of the parsed input
+		 * @param bytes size of the parsed input
+		 */
+		public Parse(String source, long bytes) {
+			this.source = source;
+			this.bytes = bytes;
+		}
+	}
+
+	/** Transformation into negation normal form. */
+	@Name("at.jku.fmv.qbf.NNF")
+	@Label("NNF")
+	public static final class NNF extends FormulaEvent {}
+
+	/** Transformation into prenex normal form. */
+	@Name("at.jku.fmv.qbf.Prenex")
+	@Label("Prenex")
+	public static final class Prenex extends FormulaEvent {
+
+		@Label("Strategy")
+		Class<?> strategy;
+
+		/**
+		 * Constructs a prenexing event.
+		 *
+		 * @param strategy the applied prenexing strategy's class
+		 */
+		public Prenex(Class<?> strategy) {
+			this.strategy = strategy;
+		}
+	}
+
+	/** Minimizing the scopes of a formula's quantifiers. */
+	@Name("at.jku.fmv.qbf.Miniscope")
+	@Label("Miniscope")
+	public static final class Miniscope extends FormulaEvent {}
+
+	/** Decomposing a formula into independent components. */
+	@Name("at.jku.fmv.qbf.Decompose")
+	@Label("Decompose")
+	public static final class Decompose extends FormulaEvent {}
+
+	/** Transformation into conjunctive normal form. */
+	@Name("at.jku.fmv.qbf.CNF")
+	@Label("CNF")
+	public static final class CNF extends FormulaEvent {
+
+		@Label("Encoder")
+		Class<?> encoder;
+
+		/**
+		 * Constructs a CNF encoding event.
+		 *
+		 * @param encoder the applied CNF encoder's class
+		 */
+		public CNF(Class<?> encoder) {
+			this.encoder = encoder;
+		}
+	}
+
+	/** Preprocessing a formula in PCNF. */
+	@Name("at.jku.fmv.qbf.Preprocess")
+	@Label("Preprocess")
+	public static final class Preprocess extends FormulaEvent {}
+
+	/** Rewriting a formula's propositional gates. */
+	@Name("at.jku.fmv.qbf.Rewrite")
+	@Label("Rewrite")
+	public static final class Rewrite extends FormulaEvent {}
+
+	/** Merging functionally equivalent gates of a propositional matrix. */
+	@Name("at.jku.fmv.qbf.Sweep")
+	@Label("Sweep")
+	public static final class Sweep extends FormulaEvent {}
+
+	/** Deciding a formula. */
+	@Name("at.jku.fmv.qbf.Solve")
+	@Label("Solve")
+	public static final class Solve extends FormulaEvent {
+
+		@Label("Solver")
+		Class<?> solver;
+
+		/**
+		 * Constructs a solving event.
+		 *
+		 * @param solver the applied solver's class
+		 */
+		public Solve(Class<?> solver) {
+			this.solver = solver;
+		}
+	}
+
+	/** Cleansing a formula. */
+	@Name("at.jku.fmv.qbf.Cleanse")
+	@Label("Cleanse")
+	public static final class Cleanse extends FormulaEvent {}
+
+	/** Assigning constants to variables. */
+	@Name("at.jku.fmv.qbf.Assign")
+	@Label("Assign")
+	public static final class Assign extends FormulaEvent {}
+
+	/** Writing a formula. */
+	@Name("at.jku.fmv.qbf.Write")
+	@Label("Write")
+	public static final class Write extends FormulaEvent {
+
+		@Label("Format")
+		String format;
+
+		/**
+		 * Constructs a write event.
+		 *
+		 * @param format name of the output format
+		 */
+		public Write(String format) {
+			this.format = format;
+		}
+	}
+}
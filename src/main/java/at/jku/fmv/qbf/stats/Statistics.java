@@ -0,0 +1,397 @@
+package at.jku.fmv.qbf.stats;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+
+/**
+ * Records time, allocation and formula metrics of a transformation pipeline.
+ * <p>
+ * Each stage is executed through {@link #measure}, e.g.:
+ * <pre>{@code
+ * Statistics stats = new Statistics();
+ * QBF qbf = stats.measure("read", null, () -> QCIR.read(file));
+ * QBF pnf = stats.measure("pnf", qbf, () -> qbf.toPNF(strategy));
+ * stats.getStages().forEach(stage -> ...);
+ * }</pre>
+ * CPU time and allocated bytes are those of the calling thread, as reported
+ * by {@link ThreadMXBean}, or {@code -1} if not supported by the JVM.
+ * Formula metrics are computed after a stage has been measured.
+ * Not thread-safe.
+ *
+ * @author phlo
+ */
+public final class Statistics {
+
+	/**
+	 * Size metrics of a {@link QBF}.
+	 *
+	 * @author phlo
+	 */
+	public static final class Metrics {
+
+		/** Number of distinct nodes (shared subformulas are counted once). */
+		public final long nodes;
+
+		/** Number of distinct (free and bound) variables. */
+		public final long variables;
+
+		/** Maximum number of quantifier blocks along any path. */
+		public final int alternationDepth;
+
+		private Metrics(long nodes, long variables, int alternationDepth) {
+			this.nodes = nodes;
+			this.variables = variables;
+			this.alternationDepth = alternationDepth;
+		}
+
+		/**
+		 * Computes the metrics of a given formula.
+		 *
+		 * @param formula a {@link QBF}
+		 * @return the formula's {@link Metrics}
+		 */
+		public static Metrics of(QBF formula) {
+			Set<String> variables = new HashSet<>(formula.getFreeVariables());
+			variables.addAll(formula.getBoundVariables());
+
+			return new Metrics(
+				formula.getDAGSize(),
+				variables.size(),
+				formula.getAlternationDepth());
+		}
+
+		/**
+		 * Computes the combined metrics of the given formulas.
+		 *
+		 * @param formulas a collection of {@link QBF}
+		 * @return the formulas' {@link Metrics}
+		 */
+		public static Metrics of(Collection<QBF> formulas) {
+			// [blocks starting with ∀, blocks starting with ∃] per node
+			Map<QBF, int[]> blocks = new IdentityHashMap<>();
+			Set<String> variables = new HashSet<>();
+
+			// iterative post-order traversal - formulas may be deep
+			Deque<QBF> stack = new ArrayDeque<>(formulas);
+			while (!stack.isEmpty()) {
+				QBF node = stack.peek();
+
+				if (blocks.containsKey(node)) {
+					stack.pop();
+					continue;
+				}
+
+				List<QBF> children = node.apply(
+					(True t) -> Collections.<QBF>emptyList(),
+					(False f) -> Collections.<QBF>emptyList(),
+					(Variable var) -> Collections.<QBF>emptyList(),
+					(Not not) -> Collections.singletonList(not.subformula),
+					(And and) -> and.subformulas,
+					(Or or) -> or.subformulas,
+					(ForAll forall) ->
+						Collections.singletonList(forall.subformula),
+					(Exists exists) ->
+						Collections.singletonList(exists.subformula));
+
+				boolean visited = true;
+				for (QBF child : children)
+					if (!blocks.containsKey(child)) {
+						stack.push(child);
+						visited = false;
+					}
+
+				if (!visited) continue;
+
+				stack.pop();
+
+				int[] b = new int[2];
+				for (QBF child : children) {
+					int[] c = blocks.get(child);
+					b[0] = Math.max(b[0], c[0]);
+					b[1] = Math.max(b[1], c[1]);
+				}
+
+				node.accept(
+					(True t) -> {},
+					(False f) -> {},
+					(Variable var) -> variables.add(var.name),
+					(Not not) -> {
+						// negation swaps quantifiers
+						int tmp = b[0]; b[0] = b[1]; b[1] = tmp;
+					},
+					(And and) -> {},
+					(Or or) -> {},
+					(ForAll forall) -> {
+						variables.addAll(forall.variables);
+						b[0] = Math.max(b[0], b[1] + 1);
+						b[1] = 0;
+					},
+					(Exists exists) -> {
+						variables.addAll(exists.variables);
+						b[1] = Math.max(b[1], b[0] + 1);
+						b[0] = 0;
+					});
+
+				blocks.put(node, b);
+			}
+
+			int depth = formulas.stream()
+				.map(blocks::get)
+				.mapToInt(b -> Math.max(b[0], b[1]))
+				.max()
+				.orElse(0);
+
+			return new Metrics(blocks.size(), variables.size(), depth);
+		}
+
+		String toJSON() {
+			return "{\"nodes\": " + nodes
+				+ ", \"variables\": " + variables
+				+ ", \"alternationDepth\": " + alternationDepth + "}";
+		}
+	}
+
+	/**
+	 * Statistics of a single pipeline stage.
+	 *
+	 * @author phlo
+	 */
+	public static final class Stage {
+
+		/** The stage's name. */
+		public final String name;
+
+		/** Elapsed wall clock time in nanoseconds. */
+		public final long wallTime;
+
+		/** Consumed CPU time in nanoseconds ({@code -1} if unsupported). */
+		public final long cpuTime;
+
+		/** Allocated heap memory in bytes ({@code -1} if unsupported). */
+		public final long allocatedBytes;
+
+		/** Metrics of the stage's input ({@code null} if not a formula). */
+		public final Metrics input;
+
+		/** Metrics of the stage's output ({@code null} if not a formula). */
+		public final Metrics output;
+
+		private Stage(
+			String name,
+			long wallTime,
+			long cpuTime,
+			long allocatedBytes,
+			Metrics input,
+			Metrics output
+		) {
+			this.name = name;
+			this.wallTime = wallTime;
+			this.cpuTime = cpuTime;
+			this.allocatedBytes = allocatedBytes;
+			this.input = input;
+			this.output = output;
+		}
+
+		/**
+		 * Gets a JSON representation of this stage.
+		 *
+		 * @return a JSON object
+		 */
+		public String toJSON() {
+			return "{\"name\": \"" + name.replace("\"", "\\\"") + "\""
+				+ ", \"wallTime\": " + wallTime
+				+ ", \"cpuTime\": " + cpuTime
+				+ ", \"allocatedBytes\": " + allocatedBytes
+				+ ", \"input\": " + (input == null ? "null" : input.toJSON())
+				+ ", \"output\": " + (output == null ? "null" : output.toJSON())
+				+ "}";
+		}
+
+		public String toString() {
+			return String.format(
+				"%-10s %10.1f %10s %12s %10s %10s %8s %5s",
+				name,
+				wallTime / 1e6,
+				cpuTime < 0 ? "-" : String.format("%.1f", cpuTime / 1e6),
+				allocatedBytes < 0
+					? "-"
+					: String.format("%.1f", allocatedBytes / 1048576.0),
+				input == null ? "-" : input.nodes,
+				output == null ? "-" : output.nodes,
+				output == null ? "-" : output.variables,
+				output == null ? "-" : output.alternationDepth);
+		}
+	}
+
+	/**
+	 * A pipeline stage's computation.
+	 *
+	 * @param <T> result type ({@link Void} for stages without result)
+	 * @param <E> exception type
+	 */
+	@FunctionalInterface
+	public interface Task<T, E extends Exception> {
+
+		/**
+		 * Executes the stage.
+		 *
+		 * @return the stage's result
+		 * @throws E if the stage fails
+		 */
+		public T run() throws E;
+	}
+
+	private static final String header = String.format(
+		"%-10s %10s %10s %12s %10s %10s %8s %5s",
+		"stage",
+		"wall [ms]",
+		"cpu [ms]",
+		"alloc [MiB]",
+		"nodes in",
+		"nodes out",
+		"vars",
+		"alt");
+
+	private final List<Stage> stages = new ArrayList<>();
+
+	// metrics of the last stage's output, reused for the next stage's input
+	private Object lastOutput = null;
+	private Metrics lastMetrics = null;
+
+	/**
+	 * Gets the current thread's consumed CPU time.
+	 *
+	 * @return CPU time in nanoseconds or {@code -1} if unsupported
+	 */
+	public static long getCpuTime() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		return bean.isCurrentThreadCpuTimeSupported()
+			&& bean.isThreadCpuTimeEnabled()
+			? bean.getCurrentThreadCpuTime()
+			: -1;
+	}
+
+	/**
+	 * Gets the total amount of memory allocated by the current thread.
+	 *
+	 * @return allocated bytes or {@code -1} if unsupported
+	 */
+	public static long getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean hotspot =
+				(com.sun.management.ThreadMXBean) bean;
+			if (hotspot.isThreadAllocatedMemorySupported()
+				&& hotspot.isThreadAllocatedMemoryEnabled())
+				return hotspot.getThreadAllocatedBytes(
+					Thread.currentThread().getId());
+		}
+
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Metrics getMetrics(Object result) {
+		if (result == null)
+			return null;
+
+		if (result == lastOutput)
+			return lastMetrics;
+
+		if (result instanceof QBF)
+			return Metrics.of((QBF) result);
+
+		if (result instanceof Collection
+			&& ((Collection<?>) result).stream()
+				.allMatch(QBF.class::isInstance))
+			return Metrics.of((Collection<QBF>) result);
+
+		return null;
+	}
+
+	/**
+	 * Executes and measures a pipeline stage.
+	 *
+	 * @param <T> the stage's result type
+	 * @param <E> the stage's exception type
+	 * @param name the stage's name
+	 * @param input the stage's input formula (may be {@code null})
+	 * @param stage the stage to execute
+	 * @return the stage's result
+	 * @throws E if the stage fails
+	 */
+	public <T, E extends Exception> T measure(
+		String name,
+		QBF input,
+		Task<T, E> stage
+	) throws E {
+		long cpuTime = getCpuTime();
+		long allocatedBytes = getAllocatedBytes();
+		long wallTime = System.nanoTime();
+
+		T result = stage.run();
+
+		wallTime = System.nanoTime() - wallTime;
+		if (allocatedBytes >= 0)
+			allocatedBytes = getAllocatedBytes() - allocatedBytes;
+		if (cpuTime >= 0)
+			cpuTime = getCpuTime() - cpuTime;
+
+		Metrics in = getMetrics(input);
+		Metrics out = getMetrics(result);
+
+		stages.add(new Stage(
+			name,
+			wallTime,
+			cpuTime,
+			allocatedBytes,
+			in,
+			out));
+
+		lastOutput = result;
+		lastMetrics = out;
+
+		return result;
+	}
+
+	/**
+	 * Gets the recorded stages.
+	 *
+	 * @return an unmodifiable list of stages in order of execution
+	 */
+	public List<Stage> getStages() {
+		return Collections.unmodifiableList(stages);
+	}
+
+	/**
+	 * Gets a JSON representation of all recorded stages.
+	 *
+	 * @return a JSON object containing an array of stages
+	 */
+	public String toJSON() {
+		return stages.stream()
+			.map(Stage::toJSON)
+			.collect(Collectors.joining(", ", "{\"stages\": [", "]}"));
+	}
+
+	public String toString() {
+		return stages.stream()
+			.map(Stage::toString)
+			.collect(Collectors.joining("\n", header + "\n", ""));
+	}
+}
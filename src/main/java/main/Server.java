@@ -0,0 +1,292 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.pnf.PrenexingStrategy;
+
+/**
+ * A long-running {@link qcir2pnf} accepting conversion requests on a local
+ * TCP socket.
+ * <p>
+ * Each request is a single line, containing the same options as
+ * {@link qcir2pnf} followed by the path of a QCIR input file or
+ * {@code -}, in which case the QCIR formula's lines follow inline,
+ * terminated by a line containing a single {@code .}.
+ * The response either is a line {@code ok}, followed by the converted
+ * formula and a terminating {@code .} line, or a single line
+ * {@code error: <message>}.
+ * Connections may be used for any number of requests.
+ * <p>
+ * Accepted connections are served by a fixed number of workers.
+ * Further connections are kept in a bounded queue - if it is full, no more
+ * connections are accepted until a worker becomes available.
+ * Connections idle for longer than a given timeout are closed, such that
+ * idle clients can't occupy workers indefinitely.
+ *
+ * @author phlo
+ */
+public final class Server implements Closeable {
+
+	// inline input / end of output marker
+	static final String INLINE = "-";
+	static final String END = ".";
+
+	// default idle timeout in milliseconds
+	static final int TIMEOUT = 60000;
+
+	private final ServerSocket socket;
+	private final BlockingQueue<Socket> queue;
+	private final List<Thread> threads = new ArrayList<>();
+	private final int timeout;
+
+	// prenexing strategies are stateless and may be shared
+	private final Map<Class<? extends PrenexingStrategy>, PrenexingStrategy>
+		strategies = new ConcurrentHashMap<>();
+
+	private volatile boolean closed = false;
+
+	/**
+	 * Starts a server listening on the loopback interface, closing
+	 * connections idle for more than a minute.
+	 *
+	 * @param port port to listen on (0 = any free port)
+	 * @param workers number of worker threads
+	 * @param capacity maximum number of pending connections
+	 * @throws IOException if the socket can't be bound
+	 */
+	public Server(int port, int workers, int capacity) throws IOException {
+		this(port, workers, capacity, TIMEOUT);
+	}
+
+	/**
+	 * Starts a server listening on the loopback interface.
+	 *
+	 * @param port port to listen on (0 = any free port)
+	 * @param workers number of worker threads
+	 * @param capacity maximum number of pending connections
+	 * @param timeout milliseconds a connection may be idle before it is
+	 * closed
+	 * @throws IOException if the socket can't be bound
+	 */
+	public Server(int port, int workers, int capacity, int timeout)
+		throws IOException {
+		if (workers < 1)
+			throw new IllegalArgumentException("illegal number of threads");
+		if (timeout < 1)
+			throw new IllegalArgumentException("illegal timeout");
+
+		this.timeout = timeout;
+
+		qcir2pnf.getStrategies().forEach(this::getStrategy);
+
+		socket = new ServerSocket(
+			port,
+			capacity,
+			InetAddress.getLoopbackAddress());
+		queue = new ArrayBlockingQueue<>(capacity);
+
+		threads.add(new Thread(this::accept, "qcir2pnf-acceptor"));
+		for (int i = 0; i < workers; i++)
+			threads.add(new Thread(this::work, "qcir2pnf-worker-" + i));
+
+		threads.forEach(t -> {
+			t.setDaemon(true);
+			t.start();
+		});
+	}
+
+	/**
+	 * Gets the port the server is listening on.
+	 *
+	 * @return the local port
+	 */
+	public int getPort() { return socket.getLocalPort(); }
+
+	/**
+	 * Waits until the server is closed.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void join() throws InterruptedException {
+		for (Thread t : threads)
+			t.join();
+	}
+
+	/**
+	 * Stops accepting connections and terminates all workers.
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+
+		try {
+			socket.close();
+		} catch (IOException e) {}
+
+		threads.forEach(Thread::interrupt);
+
+		Socket pending;
+		while ((pending = queue.poll()) != null)
+			closeQuietly(pending);
+	}
+
+	private static void closeQuietly(Socket s) {
+		try {
+			s.close();
+		} catch (IOException e) {}
+	}
+
+	private PrenexingStrategy getStrategy(
+		Class<? extends PrenexingStrategy> clazz
+	) {
+		return strategies.computeIfAbsent(clazz, c -> {
+			try {
+				return c.getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalArgumentException(
+					"unable to instantiate " + c.getName(),
+					e);
+			}
+		});
+	}
+
+	private void accept() {
+		try {
+			while (!closed)
+				queue.put(socket.accept());
+		} catch (IOException | InterruptedException e) {
+			close();
+		}
+	}
+
+	private void work() {
+		try {
+			while (!closed) {
+				Socket s = queue.take();
+				try {
+					s.setSoTimeout(timeout);
+					serve(s);
+				} catch (IOException e) {
+					// connection lost or timed out
+				} catch (RuntimeException e) {
+					// keep the worker alive - drop the connection
+				} finally {
+					closeQuietly(s);
+				}
+			}
+		} catch (InterruptedException e) {
+			// closed
+		}
+	}
+
+	private void serve(Socket s) throws IOException {
+		BufferedReader in = new BufferedReader(
+			new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+		BufferedWriter out = new BufferedWriter(
+			new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+
+		String request;
+		while (!closed && (request = in.readLine()) != null) {
+			if (request.trim().isEmpty())
+				continue;
+
+			handle(request.trim().split("\\s+"), in, out);
+			out.flush();
+		}
+	}
+
+	private void handle(String[] args, BufferedReader in, BufferedWriter out)
+		throws IOException {
+
+		String input = args[args.length - 1];
+
+		// consume inline formula first to stay in sync on errors
+		byte[] inline = null;
+		if (input.equals(INLINE)) {
+			StringBuilder qcir = new StringBuilder();
+			String line;
+			while ((line = in.readLine()) != null && !line.equals(END))
+				qcir.append(line).append('\n');
+			inline = qcir.toString().getBytes(StandardCharsets.UTF_8);
+		}
+
+		QBF formula;
+		qcir2pnf.Converter converter;
+
+		try {
+			converter = qcir2pnf.Converter.parse(args, args.length - 1);
+
+			if (converter.threads != 0)
+				throw new IllegalArgumentException(
+					"batch mode not supported");
+
+			if (converter.stats != null)
+				throw new IllegalArgumentException(
+					"statistics not supported");
+
+			Path file = Paths.get(input);
+
+			formula = converter.apply(
+				inline == null
+					? converter.read(file)
+					: converter.read(inline, file),
+				getStrategy(converter.strategy),
+				null);
+
+		} catch (IOException e) {
+			error(out, qcir2pnf.describe(e));
+			return;
+		} catch (ClassNotFoundException e) {
+			error(out, e.getMessage() + " class not found");
+			return;
+		} catch (InstantiationException e) {
+			error(out, "unable to instantiate " + e.getMessage());
+			return;
+		} catch (RuntimeException | StackOverflowError e) {
+			error(out, e.getMessage() != null
+				? e.getMessage()
+				: e.getClass().getName());
+			return;
+		}
+
+		// buffer the output to avoid partial responses
+		StringWriter buffer = new StringWriter();
+		try (BufferedWriter bw = new BufferedWriter(buffer)) {
+			converter.write(formula, bw);
+		} catch (RuntimeException | StackOverflowError e) {
+			error(out, e.getMessage() != null
+				? e.getMessage()
+				: e.getClass().getName());
+			return;
+		}
+
+		out.write("ok\n");
+		out.write(buffer.toString());
+		out.write(END + "\n");
+	}
+
+	private static void error(BufferedWriter out, String msg)
+		throws IOException {
+		out.write("error: " + msg.replace('\n', ' ') + "\n");
+	}
+}
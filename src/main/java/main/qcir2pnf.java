@@ -1,30 +1,38 @@
 package main;
 
-import java.io.File;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Modifier;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.URL;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.aig.Sweeper;
 import at.jku.fmv.qbf.io.*;
 import at.jku.fmv.qbf.pcnf.CNFEncoder;
 import at.jku.fmv.qbf.pcnf.PG86;
+import at.jku.fmv.qbf.pcnf.Preprocessor;
+import at.jku.fmv.qbf.pcnf.Rewriter;
 import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
 import at.jku.fmv.qbf.pnf.PrenexingStrategy;
+import at.jku.fmv.qbf.pnf.ShiftingStrategy;
+import at.jku.fmv.qbf.stats.Statistics;
 
 public class qcir2pnf {
 
@@ -36,121 +44,109 @@ public class qcir2pnf {
 
 	private static void error(int status, String msg) {
 		System.err.println("error: " + msg);
-		System.out.println(usage);
+		System.out.println(usage());
 		System.exit(status);
 	}
 
-	public static <T> T instanceOf(
-		final String name,
-		final Class<? extends T> type
-	) throws
-		ClassNotFoundException,
-		InvocationTargetException,
-		InstantiationException,
-		NoSuchMethodException,
-		IllegalAccessException
-	{
-		return Class.forName(name).asSubclass(type).newInstance();
+	// describes an I/O error - only missing files are reported as not found
+	static String describe(IOException e) {
+		return e instanceof NoSuchFileException
+			? e.getMessage() + " file not found"
+			: e.toString();
 	}
 
-	private static List<String> listClassesPath(URI uri, String pkg) {
-		Path pkgPath = Paths.get(uri);
-		Path classPath =
-			Arrays.stream(pkg.split("\\."))
-				.reduce(
-					pkgPath,
-					(p1, p2) -> p1.getParent(),
-					(p1, p2) -> p1.getParent());
-
+	// instantiates a class using its nullary constructor
+	static <T> T newInstance(final Class<T> clazz)
+		throws InstantiationException {
 		try {
-			return Files.walk(pkgPath)
-				.filter(path -> path.toString().endsWith(".class"))
-				.map(clazzPath -> classPath.relativize(clazzPath))
-				.map(clazzPath -> clazzPath.toString()
-					.replace("/", ".")
-					.replace(".class", ""))
-				.collect(Collectors.toList());
-		} catch (IOException e) {
-			throw new RuntimeException(e);
+			return clazz.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			InstantiationException ie =
+				new InstantiationException(clazz.getName());
+			ie.initCause(e);
+			throw ie;
 		}
 	}
 
-	private static List<String> listClassesJAR(URI uri, String pkg) {
-        try (ZipFile zip = new ZipFile(new File(uri))) {
-			String pkgPath = pkg.replace(".", "/");
-			return zip.stream()
-				.filter(ze -> !ze.isDirectory())
-				.map(ZipEntry::getName)
-				.filter(f -> f.startsWith(pkgPath))
-				.filter(f -> f.endsWith(".class"))
-				.map(f -> f.replace("/", "."))
-				.map(f -> f.replace(".class", ""))
-				.collect(Collectors.toList());
-		} catch (IOException e) {
-			throw new RuntimeException(e);
+	// resolves a fully qualified or a registered implementation's simple name
+	static <T> Class<? extends T> classOf(
+		final String name,
+		final Supplier<List<Class<? extends T>>> implementations,
+		final Class<T> type
+	) throws ClassNotFoundException {
+		try {
+			return Class.forName(name).asSubclass(type);
+		} catch (ClassNotFoundException e) {
+			return implementations.get().stream()
+				.filter(clazz -> clazz.getSimpleName().equals(name))
+				.findFirst()
+				.orElseThrow(() -> e);
 		}
 	}
 
+	private static int parseThreads(String threads) {
+		try {
+			int n = Integer.parseInt(threads);
+			if (n > 0)
+				return n;
+		} catch (NumberFormatException e) {}
+
+		throw new IllegalArgumentException(
+			"illegal number of threads " + threads);
+	}
+
+	private static int parseArity(String arity) {
+		try {
+			int n = Integer.parseInt(arity);
+			if (n > 1)
+				return n;
+		} catch (NumberFormatException e) {}
+
+		throw new IllegalArgumentException("illegal arity " + arity);
+	}
+
+	// implementations registered in META-INF/services - loaded on demand
 	private static <T> List<Class<? extends T>> getImplementations(
-		final Class<? extends T> type
+		final Class<T> type
 	) {
-		try {
-			String pkg = type.getPackage().getName();
-
-			Enumeration<URL> urls = Thread.currentThread()
-				.getContextClassLoader()
-				.getResources(pkg.replace('.', '/'));
-
-			List<Class<? extends T>> implementations = new ArrayList<>();
-
-			while (urls.hasMoreElements()) {
-				URL url = urls.nextElement();
-				(url.getProtocol().equals("jar")
-					? listClassesJAR(new URI(url.getFile().split("!")[0]), pkg)
-					: listClassesPath(url.toURI(), pkg))
-					.stream()
-					.map(clazzName -> {
-						Class<? extends T> clazz;
-						try {
-							clazz = Class.forName(clazzName).asSubclass(type);
-						} catch (Exception e) {
-							clazz = null;
-						}
-						return Optional.ofNullable(clazz);
-					})
-					.filter(Optional::isPresent)
-					.map(Optional::get)
-					.filter(clazz ->
-						!clazz.isInterface()
-						&& !clazz.isLocalClass()
-						&& !Modifier.isAbstract(clazz.getModifiers()))
-					.forEach(implementations::add);
-			}
+		List<Class<? extends T>> implementations = new ArrayList<>();
 
-			implementations.sort(
-				(c1, c2) -> c1.getName().compareTo(c2.getName()));
-			return implementations;
+		for (T provider : ServiceLoader.load(type))
+			implementations.add(provider.getClass().asSubclass(type));
 
-		} catch (URISyntaxException | IOException e) {
-			throw new RuntimeException(e);
-		}
+		implementations.sort(
+			(c1, c2) -> c1.getName().compareTo(c2.getName()));
+		return implementations;
 	}
 
-	private static List<Class<? extends PrenexingStrategy>> strategies =
-		getImplementations(PrenexingStrategy.class);
+	private static List<Class<? extends PrenexingStrategy>> strategies = null;
+
+	private static List<Class<? extends CNFEncoder>> encodings = null;
+
+	static synchronized List<Class<? extends PrenexingStrategy>>
+		getStrategies() {
+		if (strategies == null)
+			strategies = getImplementations(PrenexingStrategy.class);
+		return strategies;
+	}
 
-	private static List<Class<? extends CNFEncoder>> encodings =
-		getImplementations(CNFEncoder.class);
+	static synchronized List<Class<? extends CNFEncoder>> getEncodings() {
+		if (encodings == null)
+			encodings = getImplementations(CNFEncoder.class);
+		return encodings;
+	}
 
-	private static String usage =
-		"Usage: qcir2pnf [OPTION]... <input-file> <output-file>\n"
+	private static String usage() {
+		return "Usage: qcir2pnf [OPTION]... <input-file> <output-file>\n"
+		+ "  or:  qcir2pnf -b [<threads>] [OPTION]... <input> <output-dir>\n"
+		+ "  or:  qcir2pnf --server[=<port>] [<threads>]\n"
 		+ "\n"
 		+ "  -s <class>, --strategy=<class>  prenexing strategy to apply, where <class>\n"
 		+ "                                  is the fully qualified name of a class\n"
-		+ "                                  implementing the PrenexingStrategy interface,\n"
-		+ "                                  e.g.:\n"
+		+ "                                  implementing the PrenexingStrategy interface\n"
+		+ "                                  or the simple name of a registered one:\n"
 		+ "\n"
-		+ strategies.stream()
+		+ getStrategies().stream()
 			.map(clazz ->
 				"                                  "
 				+ clazz.getName()
@@ -161,9 +157,10 @@ public class qcir2pnf {
 		+ "\n"
 		+ "  -c [<class>], --cnf[=<class>]   transform to PCNF, where <class> is the fully\n"
 		+ "                                  qualified name of a class implementing the\n"
-		+ "                                  CNFEncoder interface, e.g.:\n"
+		+ "                                  CNFEncoder interface or the simple name of a\n"
+		+ "                                  registered one:\n"
 		+ "\n"
-		+ encodings.stream()
+		+ getEncodings().stream()
 			.map(clazz ->
 				"                                  "
 				+ clazz.getName()
@@ -172,86 +169,497 @@ public class qcir2pnf {
 					: ""))
 			.collect(Collectors.joining("\n")) + "\n"
 		+ "\n"
+		+ "  -p, --preprocess                transform to PCNF and apply universal\n"
+		+ "                                  reduction, unit propagation, pure literal\n"
+		+ "                                  elimination, subsumption, equivalence\n"
+		+ "                                  substitution, blocked clause elimination\n"
+		+ "                                  and bounded variable elimination\n"
+		+ "\n"
+		+ "  -r [<arity>],                   rewrite gates before CNF encoding (flatten,\n"
+		+ "  --rewrite[=<arity>]             remove duplicate and complementary\n"
+		+ "                                  operands, absorption, strengthening,\n"
+		+ "                                  subsumption) and balance gates with more\n"
+		+ "                                  than <arity> operands, if given\n"
+		+ "\n"
+		+ "  -m, --miniscope                 minimize quantifier scopes and output the\n"
+		+ "                                  resulting (non-prenex) formula instead of\n"
+		+ "                                  prenexing (excludes -c, -p, --sweep and\n"
+		+ "                                  --qdimacs)\n"
+		+ "\n"
+		+ "  --cone                          only read the output's cone of influence,\n"
+		+ "                                  skipping unreachable gate definitions\n"
+		+ "\n"
+		+ "  --sweep                         merge functionally equivalent gates of the\n"
+		+ "                                  matrix (SAT sweeping) after prenexing\n"
+		+ "\n"
 		+ "  --cleanse                       cleanse formula\n"
 		+ "\n"
-		+ "  --qdimacs                       output formula in QDIMACS format\n";
+		+ "  --qdimacs                       output formula in QDIMACS format\n"
+		+ "\n"
+		+ "  -b [<threads>],                 batch mode: convert each file of directory\n"
+		+ "  --batch[=<threads>]             or file list <input> (one path per line)\n"
+		+ "                                  into <output-dir>, largest first, using\n"
+		+ "                                  <threads> workers (default: number of\n"
+		+ "                                  processors), and print a summary\n"
+		+ "\n"
+		+ "  --server[=<port>] [<threads>]   server mode: accept conversion requests on\n"
+		+ "                                  localhost:<port> (default: any free port)\n"
+		+ "                                  using <threads> workers (default: number\n"
+		+ "                                  of processors), see main.Server\n"
+		+ "\n"
+		+ "  --stats[=<format>]              print time, allocation and size statistics\n"
+		+ "                                  of each conversion stage, where <format> is\n"
+		+ "                                  text (default) or json\n"
+		+ "\n"
+		+ "  -h, --help                      print this help\n";
+	}
 
-	public static void main(String[] args) {
-		if (args.length < 2)
-			error(1, "missing arguments");
+	// converts files according to the given command line options
+	static class Converter {
 
-		try {
-			PrenexingStrategy strategy = null;
-			CNFEncoder encoder = null;
+		Class<? extends PrenexingStrategy> strategy = defaultStrategy;
+		Class<? extends CNFEncoder> encoder = defaultEncoder;
+
+		boolean toPCNF = false;
+		boolean toQDIMACS = false;
+		boolean preprocess = false;
+		boolean sweep = false;
+		boolean rewrite = false;
+		boolean miniscope = false;
+		boolean cone = false;
+
+		// maximum number of operands per rewritten gate (0 = unbounded)
+		int arity = 0;
+		boolean cleanse = false;
+
+		// number of threads in batch mode (0 = single file)
+		int threads = 0;
+
+		// print pipeline statistics (null = disabled, "text" or "json")
+		String stats = null;
 
-			boolean toPCNF = false;
-			boolean toQDIMACS = false;
-			boolean cleanse = false;
+		// parses the options in args[0, to)
+		static Converter parse(String[] args, int to)
+			throws ClassNotFoundException {
 
-			for (int i = 0; i < args.length - 2; i++) {
+			Converter converter = new Converter();
+
+			for (int i = 0; i < to; i++) {
 				String[] opt = args[i].split("=");
 				switch(opt[0]) {
 				case "--strategy":
 					if (opt.length < 2)
-						error(1, opt[0] + " missing prenexing strategy class");
+						throw new IllegalArgumentException(
+							opt[0] + " missing prenexing strategy class");
 				case "-s":
-					strategy = opt.length > 1
-						? instanceOf(opt[1], PrenexingStrategy.class)
-						: instanceOf(args[++i], PrenexingStrategy.class);
+					converter.strategy = classOf(
+						opt.length > 1 ? opt[1] : args[++i],
+						qcir2pnf::getStrategies,
+						PrenexingStrategy.class);
 					break;
 
 				case "-c":
 				case "--cnf":
-					toPCNF = true;
+					converter.toPCNF = true;
+					if (opt.length > 1)
+						converter.encoder =
+							classOf(opt[1], qcir2pnf::getEncodings, CNFEncoder.class);
+					else if (i < to - 1 && !args[i + 1].startsWith("-"))
+						converter.encoder =
+							classOf(args[++i], qcir2pnf::getEncodings, CNFEncoder.class);
+					break;
+
+				case "-b":
+				case "--batch":
+					converter.threads =
+						Runtime.getRuntime().availableProcessors();
+					if (opt.length > 1)
+						converter.threads = parseThreads(opt[1]);
+					else if (i < to - 1 && args[i + 1].matches("\\d+"))
+						converter.threads = parseThreads(args[++i]);
+					break;
+
+				case "--stats":
+					converter.stats = opt.length > 1 ? opt[1] : "text";
+					if (!converter.stats.matches("text|json"))
+						throw new IllegalArgumentException(
+							"unknown statistics format " + opt[1]);
+					break;
+
+				case "-p":
+				case "--preprocess":
+					converter.toPCNF = converter.preprocess = true;
+					break;
+
+				case "--sweep":
+					converter.sweep = true;
+					break;
+
+				case "-m":
+				case "--miniscope":
+					converter.miniscope = true;
+					break;
+
+				case "--cone":
+					converter.cone = true;
+					break;
+
+				case "-r":
+				case "--rewrite":
+					converter.rewrite = true;
 					if (opt.length > 1)
-						encoder = instanceOf(opt[1], CNFEncoder.class);
-					else if (i < args.length - 3 && !args[i + 1].startsWith("-"))
-						encoder = instanceOf(args[++i], CNFEncoder.class);
+						converter.arity = parseArity(opt[1]);
+					else if (i < to - 1 && args[i + 1].matches("\\d+"))
+						converter.arity = parseArity(args[++i]);
 					break;
 
 				case "--qdimacs":
-					toQDIMACS = true;
+					converter.toQDIMACS = true;
 				case "--cleanse":
-					cleanse = true;
+					converter.cleanse = true;
 					break;
 				default:
-					error(1, "unknown argument " + opt[0]);
+					throw new IllegalArgumentException(
+						"unknown argument " + opt[0]);
 				}
 			}
 
-			if (strategy == null)
-				strategy = defaultStrategy.newInstance();
+			if (converter.miniscope
+				&& (converter.toPCNF || converter.toQDIMACS || converter.sweep))
+				throw new IllegalArgumentException(
+					"--miniscope excludes prenex normal form options");
 
-			if (encoder == null)
-				encoder = defaultEncoder.newInstance();
+			return converter;
+		}
 
-			Path inFile = Paths.get(args[args.length - 2]);
-			Path outFile = Paths.get(args[args.length - 1]);
+		// measures the given stage if stats != null
+		private static <T, E extends Exception> T measure(
+			Statistics stats,
+			String name,
+			QBF input,
+			Statistics.Task<T, E> stage
+		) throws E {
+			return stats == null
+				? stage.run()
+				: stats.measure(name, input, stage);
+		}
+
+		QBF read(Path file) throws IOException {
+			return cone ? QCIR.readCone(file) : QCIR.read(file);
+		}
+
+		QBF read(byte[] buffer, Path source) {
+			return cone
+				? QCIR.readCone(buffer, source)
+				: QCIR.read(buffer, source);
+		}
+
+		QBF apply(QBF formula, PrenexingStrategy strategy, Statistics stats)
+			throws InstantiationException {
+
+			if (miniscope)
+				return miniscope(formula, stats);
+
+			QBF nnf = measure(stats, "nnf", formula, formula::toNNF);
+
+			// measure q-path extraction separately if possible
+			QBF pnf;
+			if (strategy instanceof ShiftingStrategy) {
+				List<QBF> qpaths = measure(stats, "qpaths", nnf, nnf::getQPaths);
+				QBF skeleton = measure(stats, "skeleton", nnf, nnf::getSkeleton);
+				pnf = measure(stats, "prenex", nnf, () ->
+					((ShiftingStrategy) strategy).apply(qpaths, skeleton));
+			} else {
+				pnf = measure(stats, "prenex", nnf, () -> strategy.apply(nnf));
+			}
+
+			if (sweep) {
+				QBF in = pnf;
+				pnf = measure(stats, "sweep", in, () -> new Sweeper().apply(in));
+			}
+
+			if (rewrite)
+				pnf = rewrite(pnf, stats);
 
-			QBF formula = QCIR.read(inFile);
+			// encoders may be stateful - use fresh instances for each file
+			if (toPCNF || toQDIMACS) {
+				CNFEncoder cnf = newInstance(encoder);
+				QBF in = pnf;
+				pnf = measure(stats, "cnf", in, () -> cnf.encode(in));
+			}
+
+			if (preprocess) {
+				QBF in = pnf;
+				pnf = measure(stats, "preprocess", in, () ->
+					new Preprocessor().apply(in));
+			}
+
+			if (!cleanse)
+				return pnf;
+
+			QBF in = pnf;
+			return measure(stats, "cleanse", in, in::cleanse);
+		}
+
+		private QBF rewrite(QBF formula, Statistics stats) {
+			Rewriter rewriter =
+				arity == 0 ? new Rewriter() : new Rewriter(arity);
+			return measure(stats, "rewrite", formula, () ->
+				rewriter.apply(formula));
+		}
+
+		// skips prenexing - the result is written as is
+		private QBF miniscope(QBF formula, Statistics stats) {
+			QBF result = measure(stats, "miniscope", formula, formula::miniscope);
+
+			if (rewrite)
+				result = rewrite(result, stats);
 
-			formula = toPCNF || toQDIMACS
-				? formula.toPCNF(strategy, encoder)
-				: formula.toPNF(strategy);
+			if (!cleanse)
+				return result;
 
-			if (cleanse)
-				formula = formula.cleanse();
+			QBF in = result;
+			return measure(stats, "cleanse", in, in::cleanse);
+		}
 
+		void write(QBF formula, BufferedWriter bw) throws IOException {
 			if (toQDIMACS)
-				QDIMACS.write(formula, outFile);
+				QDIMACS.write(formula, bw);
 			else
-				QCIR.write(formula, outFile, cleanse);
+				QCIR.write(formula, bw, cleanse);
+		}
+
+		Statistics convert(Path inFile, Path outFile) throws
+			IOException,
+			InstantiationException
+		{
+			Statistics stats = this.stats == null ? null : new Statistics();
+
+			QBF formula = apply(
+				measure(stats, "read", null, () -> read(inFile)),
+				newInstance(strategy),
+				stats);
+
+			measure(stats, "write", formula, () -> {
+				try (BufferedWriter bw = Files.newBufferedWriter(outFile)) {
+					write(formula, bw);
+				}
+				return null;
+			});
+
+			return stats;
+		}
+
+		String format(Statistics statistics) {
+			return stats.equals("json")
+				? statistics.toJSON()
+				: statistics.toString();
+		}
+	}
+
+	// summary of a single file's conversion in batch mode
+	private static class Result {
+
+		final Path file;
+
+		long time = 0;
+		long allocated = -1;
+		String error = null;
+
+		Statistics stats = null;
+
+		Result(Path file) { this.file = file; }
+
+		public String toString() {
+			return String.format(
+				"%10.1f ms %10s  %s%s",
+				time / 1e6,
+				allocated < 0
+					? "-"
+					: String.format("%.1f MiB", allocated / 1048576.0),
+				file,
+				error == null ? "" : "  error: " + error);
+		}
+	}
+
+	private static long getPeakHeapUsage() {
+		return ManagementFactory.getMemoryPoolMXBeans().stream()
+			.filter(pool -> pool.getType() == MemoryType.HEAP)
+			.mapToLong(pool -> pool.getPeakUsage().getUsed())
+			.sum();
+	}
+
+	private static List<Path> listInputFiles(Path input) throws IOException {
+		if (Files.isDirectory(input))
+			return Files.walk(input)
+				.filter(Files::isRegularFile)
+				.collect(Collectors.toList());
+
+		// file list: one path per line
+		return Files.readAllLines(input).stream()
+			.map(String::trim)
+			.filter(line -> !line.isEmpty())
+			.map(Paths::get)
+			.collect(Collectors.toList());
+	}
+
+	private static Path getOutputFile(
+		Path input,
+		Path outDir,
+		Path file,
+		boolean toQDIMACS
+	) {
+		// keep directory structure, flatten file lists
+		Path outFile = Files.isDirectory(input)
+			? outDir.resolve(input.relativize(file))
+			: outDir.resolve(file.getFileName());
+
+		if (toQDIMACS) {
+			String name = outFile.getFileName().toString();
+			int ext = name.lastIndexOf('.');
+			outFile = outFile.resolveSibling(
+				(ext > 0 ? name.substring(0, ext) : name) + ".qdimacs");
+		}
 
+		return outFile;
+	}
+
+	private static boolean batch(
+		Converter converter,
+		Path input,
+		Path outDir
+	) throws IOException {
+		int threads = converter.threads;
+		List<Path> files = listInputFiles(input);
+
+		// schedule largest files first to balance the pool
+		Map<Path, Long> sizes = new HashMap<>();
+		for (Path file : files)
+			sizes.put(file, Files.isRegularFile(file) ? Files.size(file) : -1);
+		files.sort((f1, f2) -> Long.compare(sizes.get(f2), sizes.get(f1)));
+
+		List<Callable<Result>> tasks = files.stream()
+			.map(file -> (Callable<Result>) () -> {
+				Result result = new Result(file);
+				long allocated = Statistics.getAllocatedBytes();
+				long start = System.nanoTime();
+				try {
+					Path outFile =
+						getOutputFile(input, outDir, file, converter.toQDIMACS);
+					Files.createDirectories(outFile.getParent());
+					result.stats = converter.convert(file, outFile);
+				} catch (Exception | StackOverflowError e) {
+					result.error = e instanceof IOException
+						? describe((IOException) e)
+						: e.getMessage() != null
+							? e.getMessage()
+							: e.getClass().getName();
+				}
+				result.time = System.nanoTime() - start;
+				if (allocated >= 0)
+					result.allocated = Statistics.getAllocatedBytes() - allocated;
+				return result;
+			})
+			.collect(Collectors.toList());
+
+		long start = System.nanoTime();
+		List<Result> results = new ArrayList<>(files.size());
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+		try {
+			for (Future<Result> result : pool.invokeAll(tasks))
+				results.add(result.get());
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		long time = System.nanoTime() - start;
+		long failed = results.stream().filter(r -> r.error != null).count();
+
+		for (Result result : results) {
+			System.out.println(result);
+			if (result.stats != null)
+				System.out.println(converter.format(result.stats));
+		}
+		System.out.println(String.format(
+			"%d files (%d failed) in %.1f s using %d threads, "
+				+ "peak heap usage %.1f MiB",
+			results.size(),
+			failed,
+			time / 1e9,
+			threads,
+			getPeakHeapUsage() / 1048576.0));
+
+		return failed == 0;
+	}
+
+	private static void serve(String[] args) {
+		String[] opt = args[0].split("=");
+
+		try {
+			int port = opt.length > 1 ? Integer.parseInt(opt[1]) : 0;
+			int threads = args.length > 1
+				? parseThreads(args[1])
+				: Runtime.getRuntime().availableProcessors();
+
+			Server server = new Server(port, threads, threads);
+			Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+			System.out.println("listening on port " + server.getPort());
+			server.join();
+
+		} catch (NumberFormatException e) {
+			error(1, "illegal port " + opt[1]);
+		} catch (IllegalArgumentException e) {
+			error(1, e.getMessage());
+		} catch (IOException e) {
+			error(1, "unable to listen: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public static void main(String[] args) {
+		if (args.length > 0 && args[0].split("=")[0].equals("--server")) {
+			serve(args);
+			return;
+		}
+
+		if (Arrays.asList(args).contains("-h")
+			|| Arrays.asList(args).contains("--help")) {
+			System.out.println(usage());
+			return;
+		}
+
+		if (args.length < 2)
+			error(1, "missing arguments");
+
+		try {
+			Converter converter = Converter.parse(args, args.length - 2);
+
+			// fail early on classes which can't be instantiated
+			newInstance(converter.strategy);
+			newInstance(converter.encoder);
+
+			Path inFile = Paths.get(args[args.length - 2]);
+			Path outFile = Paths.get(args[args.length - 1]);
+
+			if (converter.threads == 0) {
+				Statistics stats = converter.convert(inFile, outFile);
+				if (stats != null)
+					System.out.println(converter.format(stats));
+			} else if (!batch(converter, inFile, outFile))
+				System.exit(1);
+
+		} catch (IllegalArgumentException e) {
+			error(1, e.getMessage());
 		} catch (IOException e) {
-			error(1, e.getMessage() + " file not found");
-		} catch (IllegalAccessException | ClassNotFoundException e) {
+			error(1, describe(e));
+		} catch (ClassNotFoundException e) {
 			error(1, e.getMessage() + " class not found");
-		} catch (
-			InstantiationException
-			| InvocationTargetException
-			| NoSuchMethodException
-			e
-		) {
+		} catch (InstantiationException e) {
 			error(1, "unable to instantiate " + e.getMessage());
 		}
 	}
@@ -0,0 +1,84 @@
+package at.jku.fmv.qbf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF.*;
+
+@DisplayName("FormulaSpliterator")
+class FormulaSpliteratorTest {
+
+	// left-deep chain of alternating quantified conjunctions
+	static QBF chain(int depth) {
+		QBF f = new Variable("x0");
+		for (int i = 1; i <= depth; i++) {
+			QBF g = new And(f, new Variable("x" + i), new Variable("y"));
+			f = i % 2 == 0 ? new ForAll(g, "x" + i) : new Exists(g, "x" + i);
+		}
+		return f;
+	}
+
+	static <T> void assertParallel(
+		QBF formula,
+		Function<QBF, Stream<T>> stream
+	) {
+		assertEquals(
+			stream.apply(formula).collect(Collectors.toList()),
+			stream.apply(formula).parallel().collect(Collectors.toList()));
+	}
+
+	@Test
+	@DisplayName("parallel")
+	void test_parallel() {
+		for (QBF formula : new QBF[] {
+			QBFTest.lncs,
+			QBFTest.g14,
+			chain(1000)
+		}) {
+			assertParallel(formula, f -> f.stream(QBF.Traverse.PreOrder));
+			assertParallel(formula, f -> f.stream(QBF.Traverse.PostOrder));
+			assertParallel(formula, QBF::streamVariables);
+			assertParallel(formula, QBF::streamFreeVariables);
+			assertParallel(formula, QBF::streamBoundVariables);
+			assertParallel(formula, QBF::streamQPaths);
+		}
+	}
+
+	@Test
+	@DisplayName("trySplit")
+	void test_trySplit() {
+		QBF formula = chain(1000);
+		Spliterator<QBF> right =
+			formula.stream(QBF.Traverse.PreOrder).spliterator();
+
+		assertEquals(formula.getTreeSize(), right.estimateSize());
+
+		Spliterator<QBF> left = right.trySplit();
+		assertNotNull(left);
+
+		// halves are balanced and cover the whole tree
+		long size = formula.getTreeSize();
+		assertTrue(left.estimateSize() >= size / 4);
+		assertTrue(right.estimateSize() >= size / 4);
+
+		List<QBF> nodes = new ArrayList<>();
+		left.forEachRemaining(nodes::add);
+		right.forEachRemaining(nodes::add);
+		assertEquals(size, nodes.size());
+		assertEquals(
+			formula.stream(QBF.Traverse.PreOrder).collect(Collectors.toList()),
+			nodes);
+
+		// terminals can't be split
+		assertNull(new Variable("x").streamVariables().spliterator().trySplit());
+	}
+}
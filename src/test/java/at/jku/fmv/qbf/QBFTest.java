@@ -5,10 +5,14 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -16,6 +20,9 @@ import java.util.stream.Stream;
 
 import at.jku.fmv.qbf.QBF;
 import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+import at.jku.fmv.qbf.pnf.PrenexingStrategy;
+import at.jku.fmv.qbf.solver.RAReQS;
 
 @DisplayName("QBF")
 public class QBFTest {
@@ -155,6 +162,73 @@ public class QBFTest {
 		assertNotEquals(exists, and);
 	}
 
+	@Test
+	@DisplayName("getTreeSize")
+	void test_getTreeSize() {
+		assertEquals(1, QBF.True.getTreeSize());
+		assertEquals(14, lncs.getTreeSize());
+		assertEquals(8, g14.getTreeSize());
+
+		// shared subformulas are counted per occurrence
+		QBF f = new Variable(x1);
+		for (int i = 0; i < 100; i++)
+			f = new And(f, f);
+		assertEquals(Long.MAX_VALUE, f.getTreeSize());
+	}
+
+	@Test
+	@DisplayName("attributes")
+	void test_attributes() {
+		// ∃p (∀q ∃r ∀s ∃t ϕ0 ∧ ∀q' ∃r' ϕ1 ∧ ¬∀q'' ∃r'' ϕ2)
+		assertEquals(14, lncs.getDAGSize());
+		assertEquals(6, lncs.getHeight());
+		assertEquals(1, lncs.getPrefixLength());
+		assertEquals(5, lncs.getAlternationDepth());
+		assertEquals(
+			lncs.streamFreeVariables().collect(Collectors.toSet()),
+			lncs.getFreeVariables());
+		assertEquals(
+			lncs.streamBoundVariables().collect(Collectors.toSet()),
+			lncs.getBoundVariables());
+
+		// ∀z: (z ∨ ∃x1,x2: (x1 ∧ x2 ∧ z))
+		assertEquals(8, g14.getDAGSize());
+		assertEquals(4, g14.getHeight());
+		assertEquals(1, g14.getPrefixLength());
+		assertEquals(2, g14.getAlternationDepth());
+		assertTrue(g14.getFreeVariables().isEmpty());
+		assertEquals(
+			new HashSet<>(Arrays.asList("z", x1, x2)),
+			g14.getBoundVariables());
+
+		// shared subformula, bound on one path only
+		QBF x = new Variable(x1);
+		QBF shared = new And(x, new Variable(x2));
+		QBF dag = new Or(new ForAll(shared, x1), new Not(shared));
+		assertEquals(6, dag.getDAGSize());
+		assertEquals(9, dag.getTreeSize());
+		assertEquals(
+			new HashSet<>(Arrays.asList(x1, x2)),
+			dag.getFreeVariables());
+
+		// bound on all paths
+		dag = new Or(new ForAll(shared, x1), new Exists(shared, x1));
+		assertEquals(Collections.singleton(x2), dag.getFreeVariables());
+		assertEquals(Collections.singleton(x1), dag.getBoundVariables());
+
+		// caching disabled
+		QBF.setCaching(false);
+		try {
+			QBF uncached = new Not(new Exists(new Variable(x1), x1));
+			assertEquals(2, uncached.getHeight());
+			assertEquals(1, uncached.getAlternationDepth());
+			assertTrue(uncached.getFreeVariables().isEmpty());
+			assertNull(uncached.attributes);
+		} finally {
+			QBF.setCaching(true);
+		}
+	}
+
 	@Test
 	@DisplayName("stream")
 	void test_stream() {
@@ -552,6 +626,341 @@ public class QBFTest {
 		assertEquals(
 			"p,q,r,s,t,1,q',r',2,q'',r'',3",
 			joinCommaDelimited(result.streamVariables()));
+
+		// sharing is preserved - linear in the DAG size
+		QBF dag = var1;
+		for (int i = 0; i < 100; i++)
+			dag = new And(dag, new Or(dag, var2));
+		result = dag.rename(variables);
+		assertSame(
+			((And) result).subformulas.get(0),
+			((Or) ((And) result).subformulas.get(1)).subformulas.get(0));
+		assertEquals(dag.getDAGSize(), result.getDAGSize());
+	}
+
+	@Test
+	@DisplayName("assign")
+	void test_assign() {
+		QBF var1 = new Variable(x1);
+		QBF var2 = new Variable(x2);
+		QBF var3 = new Variable(x3);
+		QBF var4 = new Variable(x4);
+
+		Map<String, Boolean> assignment = new HashMap<>();
+
+		// unaffected formulas are returned as is
+		assertSame(g14, g14.assign(assignment));
+		assignment.put(x4, true);
+		assertSame(g14, g14.assign(assignment));
+
+		// ∀z: (z ∨ ∃x1,x2: (x1 ∧ x2 ∧ z))
+		assignment.clear();
+		assignment.put(x1, true);
+		assertEquals(
+			"∀z: (z ∨ ∃x2: (x2 ∧ z))",
+			g14.assign(assignment).toString());
+
+		assignment.put(x2, false);
+		assertEquals("∀z: z", g14.assign(assignment).toString());
+
+		assignment.put("z", false);
+		assertSame(QBF.False, g14.assign(assignment));
+
+		assignment.clear();
+		assignment.put("z", true);
+		assertSame(QBF.True, g14.assign(assignment));
+
+		// vanished variables: ∃x1,x2: (x1 ∨ (x2 ∧ x3)) with x3 = ⊥
+		QBF exists = new Exists(new Or(var1, new And(var2, var3)), x1, x2);
+		assignment.clear();
+		assignment.put(x3, false);
+		assertEquals("∃x1: x1", exists.assign(assignment).toString());
+
+		// negation
+		assertSame(QBF.True, new Not(new Variable("1")).assign(-1));
+		assertSame(QBF.False, new Not(new Variable("1")).assign(1));
+
+		// double negation of a collapsed gate: ¬(¬x1 ∧ x2) with x2 = ⊤
+		assertSame(
+			var1,
+			new Not(new And(new Not(var1), var2))
+				.assign(Collections.singletonMap(x2, true)));
+
+		// constants of the original formula
+		assertSame(
+			var1,
+			new And(var1, QBF.True).assign(Collections.emptyMap()));
+		assertSame(
+			QBF.True,
+			new Or(new And(var1, QBF.True), QBF.True)
+				.assign(Collections.emptyMap()));
+
+		// sharing
+		QBF shared = new Or(var1, var2);
+		QBF dag = new And(
+			new Or(shared, var3),
+			new Or(shared, var4),
+			new Not(shared));
+		QBF result = dag.assign(Collections.singletonMap(x2, false));
+		assertEquals("((x1 ∨ x3) ∧ (x1 ∨ x4) ∧ -x1)", result.toString());
+		assertSame(
+			((Or) ((And) result).subformulas.get(0)).subformulas.get(0),
+			((Or) ((And) result).subformulas.get(1)).subformulas.get(0));
+		assertSame(
+			QBF.False,
+			dag.assign(Collections.singletonMap(x1, true)));
+
+		// integer variables
+		QBF cleansed = exists.cleanse();
+		assertEquals("∃1,2: (1 ∨ (2 ∧ 3))", cleansed.toString());
+		assertEquals("∃1: 1", cleansed.assign(-3).toString());
+		assertSame(QBF.True, cleansed.assign(1));
+		assertSame(QBF.True, cleansed.assign(2, 3));
+
+		assertThrows(IllegalArgumentException.class, () -> cleansed.assign(0));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> cleansed.assign(1, -1));
+
+		// deep formulas
+		QBF deep = new Variable("1");
+		for (int i = 0; i < 100000; i++)
+			deep = new Not(deep);
+		assertSame(QBF.True, deep.assign(1));
+	}
+
+	// random circuit over variables 1 .. n with randomly quantified gates
+	public static QBF randomQBF(Random rnd) {
+		int n = 3 + rnd.nextInt(6);
+		List<QBF> nodes = new ArrayList<>();
+		for (int i = 1; i <= n; i++)
+			nodes.add(new Variable(Integer.toString(i)));
+
+		for (int i = 2 * n + rnd.nextInt(2 * n); i > 0; i--) {
+			QBF[] inputs = new QBF[2 + rnd.nextInt(2)];
+			for (int j = 0; j < inputs.length; j++) {
+				QBF input = nodes.get(rnd.nextInt(nodes.size()));
+				inputs[j] = rnd.nextInt(3) == 0 ? new Not(input) : input;
+			}
+			QBF gate = rnd.nextBoolean() ? new And(inputs) : new Or(inputs);
+			if (rnd.nextInt(3) == 0) {
+				String[] vars = new String[1 + rnd.nextInt(2)];
+				for (int j = 0; j < vars.length; j++)
+					vars[j] = Integer.toString(1 + rnd.nextInt(n));
+				gate = rnd.nextBoolean()
+					? new ForAll(gate, vars)
+					: new Exists(gate, vars);
+			}
+			nodes.add(gate);
+		}
+
+		QBF formula = nodes.get(nodes.size() - 1);
+		for (String v : formula.getFreeVariables())
+			formula = rnd.nextBoolean()
+				? new ForAll(formula, v)
+				: new Exists(formula, v);
+		return formula;
+	}
+
+	@Test
+	@DisplayName("miniscope")
+	void test_miniscope() {
+		Variable var1 = new Variable(x1);
+		Variable var2 = new Variable(x2);
+		Variable var3 = new Variable(x3);
+		Variable var4 = new Variable(x4);
+
+		// ∀z: (z ∨ ∃x1,x2: (x1 ∧ x2 ∧ z))
+		assertEquals(
+			"∀z: (z ∨ (∃x1: x1 ∧ ∃x2: x2 ∧ z))",
+			g14.miniscope().toString());
+
+		// unaffected formulas are returned as is
+		QBF exists = new Exists(new And(var1, new Or(var1, var2)), x1);
+		assertSame(exists, exists.miniscope());
+
+		// unused variables
+		assertEquals(
+			"∃x1: x1",
+			new Exists(var1, x1, x2).miniscope().toString());
+		assertSame(var1, new ForAll(var1, x2).miniscope());
+
+		// distributive gates split blocks per operand
+		assertEquals(
+			"((∀x1: x1 ∨ x3) ∧ (∀x1: x1 ∨ ∀x2: x2 ∨ x4))",
+			new ForAll(
+				new And(new Or(var1, var3), new Or(var1, var2, var4)),
+				x1, x2)
+				.miniscope().toString());
+
+		// non-distributive gates keep shared variables
+		assertEquals(
+			"(∃x1: ((x1 ∨ x3) ∧ (-x1 ∨ ∃x2: x2)) ∧ x4)",
+			new Exists(
+				new And(new Or(var1, var3), new Or(new Not(var1), var2), var4),
+				x1, x2)
+				.miniscope().toString());
+
+		// example: ∀x1: ∃x2: (x1 ∨ x2) ∧ (¬x1 ∨ ¬x2) ∧ x3
+		assertEquals(
+			"(∀x1: ∃x2: ((x1 ∨ x2) ∧ (-x1 ∨ -x2)) ∧ x3)",
+			new ForAll(
+				new Exists(
+					new And(
+						new Or(var1, var2),
+						new Or(new Not(var1), new Not(var2)),
+						var3),
+					x2),
+				x1)
+				.miniscope().toString());
+
+		// negation: ∀x1: ¬(x1 ∧ x2) = ¬∃x1: (x1 ∧ x2)
+		assertEquals(
+			"-(∃x1: x1 ∧ x2)",
+			new ForAll(new Not(new And(var1, var2)), x1)
+				.miniscope().toString());
+
+		// prefixes are merged before being pushed
+		assertEquals(
+			"(∃x1: x1 ∧ ∃x2: x2)",
+			new Exists(new Exists(new And(var1, var2), x2), x1)
+				.miniscope().toString());
+
+		// sharing
+		QBF shared = new Or(var1, var2);
+		QBF dag = new ForAll(new And(
+			new Or(shared, var3),
+			new Or(shared, var4)),
+			x3, x4);
+		QBF result = dag.miniscope();
+		assertEquals(
+			"(((x1 ∨ x2) ∨ ∀x3: x3) ∧ ((x1 ∨ x2) ∨ ∀x4: x4))",
+			result.toString());
+		assertSame(
+			((Or) ((And) result).subformulas.get(0)).subformulas.get(0),
+			((Or) ((And) result).subformulas.get(1)).subformulas.get(0));
+
+		// deep formulas
+		QBF deep = var1;
+		for (int i = 0; i < 100000; i++)
+			deep = new And(deep, new Variable("v" + i % 100));
+		assertSame(deep, new Exists(deep, x2).miniscope());
+		result = new Exists(deep, x1).miniscope();
+		assertEquals(100001, result.getHeight());
+		assertEquals(
+			"∃x1: x1",
+			result.stream(QBF.Traverse.PreOrder)
+				.filter(QBF::isQuantifier)
+				.findFirst().get().toString());
+
+		// truth is preserved
+		Random rnd = new Random(0);
+		PrenexingStrategy strategy = new ForAllUpExistsUp();
+		for (int i = 0; i < 300; i++) {
+			QBF formula = randomQBF(rnd).cleanse();
+			QBF miniscoped = formula.miniscope();
+			assertTrue(
+				miniscoped.getDAGSize() <= formula.getDAGSize() * 2,
+				formula.toString());
+			assertEquals(
+				new RAReQS().solve(formula.toPNF(strategy)),
+				new RAReQS().solve(miniscoped.cleanse().toPNF(strategy)),
+				formula.toString());
+		}
+	}
+
+	@Test
+	@DisplayName("decompose")
+	void test_decompose() {
+		Variable var1 = new Variable(x1);
+		Variable var2 = new Variable(x2);
+		Variable var3 = new Variable(x3);
+		Variable var4 = new Variable(x4);
+
+		// ∃x1,x2: ∀x3: (x1 ∨ x3) ∧ x2
+		assertEquals(
+			"[∃x1: ∀x3: (x1 ∨ x3), ∃x2: x2]",
+			new Exists(new ForAll(new And(new Or(var1, var3), var2), x3), x1, x2)
+				.decompose().toString());
+
+		// connected or non-conjunctive formulas are returned as is
+		QBF connected = new Exists(new And(new Or(var1, var2), var2), x1, x2);
+		assertEquals(Collections.singletonList(connected), connected.decompose());
+		assertSame(connected, connected.decompose().get(0));
+		assertSame(g14, g14.decompose().get(0));
+		assertSame(var1, var1.decompose().get(0));
+
+		// nested conjunctions, free and unused variables
+		assertEquals(
+			"[∀x1: (x1 ∨ x3), ∀x2: x2, -x4]",
+			new ForAll(
+				new And(
+					new And(new Or(var1, var3), var2),
+					new And(new Not(var4), var2)),
+				x1, x2)
+				.decompose().toString());
+		assertEquals(
+			"[∀x1: (x1 ∨ x3), ∃x2: (x2 ∧ -x2)]",
+			new Exists(
+				new ForAll(
+					new And(new Or(var1, var3), var2, new Not(var2)),
+					x1, x4),
+				x2)
+				.decompose().toString());
+
+		// shared subformulas connect conjuncts
+		QBF shared = new Or(var1, var2);
+		assertEquals(
+			"[((x1 ∨ x2) ∧ ((x1 ∨ x2) ∨ x4)), x3]",
+			new And(new And(shared, var3), new Or(shared, var4))
+				.decompose().toString());
+
+		// deep formulas
+		QBF deep = var1;
+		for (int i = 0; i < 100000; i++)
+			deep = new And(deep, new Variable("v" + i % 100));
+		List<QBF> components = new Exists(deep, x1, "v0").decompose();
+		assertEquals(101, components.size());
+		assertEquals("∃x1: x1", components.get(0).toString());
+		assertTrue(components.get(1).isExists());
+		assertEquals(1000, ((And) components.get(100)).subformulas.size());
+
+		// long prefixes (levels beyond the cached range of boxed integers)
+		List<QBF> a = new ArrayList<>(), b = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			a.add(new Variable("a" + i));
+			b.add(new Variable("b" + i));
+		}
+		QBF prefixed = new And(new Or(a), new Or(b));
+		QBF expectedA = new Or(a), expectedB = new Or(b);
+		for (int i = 299; i >= 0; i--)
+			if (i % 2 == 0) {
+				prefixed = new Exists(prefixed, "a" + i, "b" + i);
+				expectedA = new Exists(expectedA, "a" + i);
+				expectedB = new Exists(expectedB, "b" + i);
+			} else {
+				prefixed = new ForAll(prefixed, "a" + i, "b" + i);
+				expectedA = new ForAll(expectedA, "a" + i);
+				expectedB = new ForAll(expectedB, "b" + i);
+			}
+		assertEquals(
+			Arrays.asList(expectedA, expectedB).toString(),
+			prefixed.decompose().toString());
+
+		// truth is preserved
+		Random rnd = new Random(0);
+		PrenexingStrategy strategy = new ForAllUpExistsUp();
+		for (int i = 0; i < 300; i++) {
+			QBF formula = new And(randomQBF(rnd), randomQBF(rnd))
+				.cleanse()
+				.toPNF(strategy);
+			components = formula.decompose();
+			assertTrue(components.size() > 1, formula.toString());
+			assertEquals(
+				new RAReQS().solve(formula),
+				components.stream().allMatch(c -> new RAReQS().solve(c)),
+				formula.toString());
+		}
 	}
 
 	@Test
@@ -671,6 +1080,22 @@ public class QBFTest {
 				x3));
 	}
 
+	@Test
+	@DisplayName("toNNF (double negation)")
+	void test_toNNF_doubleNegation() {
+		QBF var = new Variable(x1);
+		QBF and = new Not(new And(new Variable(x1), new Variable(x2)));
+
+		assertSame(var, new Not(new Not(var)).toNNF());
+		assertEquals(new Not(var), new Not(new Not(new Not(var))).toNNF());
+		assertEquals(
+			new Or(new Not(new Variable(x1)), new Not(new Variable(x2))),
+			new Not(new Not(and)).toNNF());
+		assertEquals(
+			new Exists(new And(new Variable(x1), new Variable(x2)), x1),
+			new Not(new Not(new Exists(new Not(and), x1))).toNNF());
+	}
+
 	@Test
 	@DisplayName("toString")
 	void test_toString() {
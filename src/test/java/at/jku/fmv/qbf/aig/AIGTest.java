@@ -0,0 +1,216 @@
+package at.jku.fmv.qbf.aig;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
+import at.jku.fmv.qbf.solver.CDCL;
+
+@DisplayName("AIG")
+public class AIGTest {
+
+	static final Variable x = new Variable("x");
+	static final Variable y = new Variable("y");
+	static final Variable z = new Variable("z");
+
+	// random circuit over variables 1 .. n
+	public static QBF random(Random rnd) {
+		int n = 3 + rnd.nextInt(8);
+		List<QBF> nodes = new ArrayList<>();
+		for (int i = 1; i <= n; i++)
+			nodes.add(new Variable(Integer.toString(i)));
+
+		for (int i = 2 * n + rnd.nextInt(2 * n); i > 0; i--) {
+			QBF[] inputs = new QBF[2 + rnd.nextInt(2)];
+			for (int j = 0; j < inputs.length; j++) {
+				QBF input = nodes.get(rnd.nextInt(nodes.size()));
+				inputs[j] = rnd.nextInt(3) == 0 ? new Not(input) : input;
+			}
+			nodes.add(rnd.nextBoolean() ? new And(inputs) : new Or(inputs));
+		}
+
+		return nodes.get(nodes.size() - 1);
+	}
+
+	// tests equivalence by refuting the exclusive or
+	public static boolean isEquivalent(QBF a, QBF b) {
+		return !new CDCL().solve(new Or(
+			new And(a, new Not(b)),
+			new And(new Not(a), b)));
+	}
+
+	@Test
+	@DisplayName("structural hashing")
+	void test_and() {
+		AIG aig = new AIG();
+		int a = aig.addInput("a"), b = aig.addInput("b");
+
+		assertEquals(2, aig.getNumInputs());
+		assertEquals(a, aig.getInput("a"));
+		assertEquals(a, aig.getInput(0));
+		assertEquals("b", aig.getInputName(1));
+		assertTrue(aig.isInput(AIG.getNode(a)));
+		assertThrows(IllegalArgumentException.class, () -> aig.addInput("a"));
+
+		// simplification
+		assertEquals(AIG.FALSE, aig.and(a, AIG.FALSE));
+		assertEquals(b, aig.and(AIG.TRUE, b));
+		assertEquals(a, aig.and(a, a));
+		assertEquals(AIG.FALSE, aig.and(a, AIG.not(a)));
+		assertEquals(AIG.TRUE, aig.or(a, AIG.not(a)));
+		assertEquals(0, aig.getNumAnds());
+
+		// hashing
+		int ab = aig.and(a, b);
+		assertEquals(ab, aig.and(b, a));
+		assertEquals(1, aig.getNumAnds());
+		assertTrue(aig.isAnd(AIG.getNode(ab)));
+		assertFalse(AIG.isComplemented(ab));
+		assertEquals(b, aig.getLeft(AIG.getNode(ab)));
+		assertEquals(a, aig.getRight(AIG.getNode(ab)));
+
+		assertEquals(AIG.not(aig.and(AIG.not(a), AIG.not(b))), aig.or(b, a));
+		assertEquals(2, aig.getNumAnds());
+
+		// n-ary conjunctions
+		int c = aig.getInput("c");
+		assertEquals(AIG.TRUE, aig.and());
+		assertEquals(c, aig.and(c));
+		assertEquals(aig.and(ab, c), aig.and(a, b, c));
+		assertEquals(3, aig.getNumAnds());
+
+		// many gates - rehashing
+		int literal = a;
+		for (int i = 0; i < 10000; i++)
+			literal = aig.and(literal, aig.addInput());
+		assertEquals(10003, aig.getNumAnds());
+		int node = AIG.getNode(literal);
+		assertEquals(literal, aig.and(aig.getLeft(node), aig.getRight(node)));
+		assertEquals(
+			aig.getNumAnds(),
+			aig.getNumNodes() - aig.getNumInputs() - 1);
+	}
+
+	@Test
+	@DisplayName("outputs")
+	void test_outputs() {
+		AIG aig = AIG.of(new And(x, new Not(y)));
+		assertEquals(1, aig.getNumOutputs());
+		assertNull(aig.getOutputName(0));
+		assertEquals("(x ∧ -y)", aig.toQBF(aig.getOutput(0)).toString());
+
+		aig.addOutput(aig.add(new Or(x, y)), "or");
+		assertEquals(2, aig.getNumOutputs());
+		assertEquals("or", aig.getOutputName(1));
+		assertEquals(2, aig.getNumAnds());
+	}
+
+	@Test
+	@DisplayName("conversion")
+	void test_toQBF() {
+		// constants and inputs
+		AIG aig = new AIG();
+		assertEquals(AIG.TRUE, aig.add(QBF.True));
+		assertEquals(AIG.FALSE, aig.add(new And(x, new Not(x))));
+		assertEquals(QBF.False, aig.toQBF(AIG.FALSE));
+		assertEquals("-x", aig.toQBF(AIG.not(aig.getInput("x"))).toString());
+		assertEquals("2", aig.toQBF(aig.addInput()).toString());
+
+		// chains of single references are merged
+		int literal = aig.add(new And(new And(x, y), z));
+		assertEquals("(x ∧ y ∧ z)", aig.toQBF(literal).toString());
+
+		// shared nodes
+		QBF shared = new Or(x, y);
+		List<QBF> formulas = aig.toQBF(
+			aig.add(new And(shared, z)),
+			aig.add(new And(shared, new Not(z))));
+		assertEquals("(z ∧ -(-x ∧ -y))", formulas.get(0).toString());
+		assertEquals("(-z ∧ -(-x ∧ -y))", formulas.get(1).toString());
+		assertSame(
+			((And) formulas.get(0)).subformulas.get(1),
+			((And) formulas.get(1)).subformulas.get(1));
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> AIG.of(QBFTest.lncs));
+	}
+
+	@Test
+	@DisplayName("negation normal form")
+	void test_toNNF() {
+		AIG aig = new AIG();
+		int literal = aig.add(new And(new Or(x, new Not(y)), new Not(new And(x, z))));
+		assertEquals(
+			"((x ∨ -y) ∧ (-x ∨ -z))",
+			aig.toNNF(literal).get(0).toString());
+		assertEquals(
+			"((-x ∧ y) ∨ (x ∧ z))",
+			aig.toNNF(AIG.not(literal)).get(0).toString());
+		assertEquals(QBF.True, aig.toNNF(AIG.TRUE).get(0));
+
+		// shared nodes in both polarities
+		QBF shared = new And(x, y);
+		List<QBF> formulas = aig.toNNF(
+			aig.add(new And(shared, z)),
+			aig.add(new Not(shared)));
+		assertEquals("(z ∧ (x ∧ y))", formulas.get(0).toString());
+		assertEquals("(-x ∨ -y)", formulas.get(1).toString());
+
+		Random rnd = new Random(0);
+		for (int i = 0; i < 500; i++) {
+			QBF formula = random(rnd);
+			aig = AIG.of(formula);
+			QBF nnf = aig.toNNF(AIG.not(aig.getOutput(0))).get(0);
+			assertTrue(isNNF(nnf), nnf.toString());
+			assertTrue(isEquivalent(new Not(formula), nnf), formula.toString());
+		}
+	}
+
+	static boolean isNNF(QBF formula) {
+		return formula.stream(QBF.Traverse.PreOrder)
+			.filter(QBF::isNegation)
+			.allMatch(f -> ((Not) f).subformula.isVariable());
+	}
+
+	@Test
+	@DisplayName("deep formulas")
+	void test_deep() {
+		QBF formula = x;
+		for (int i = 0; i < 100000; i++)
+			formula = i % 2 == 0
+				? new And(formula, new Variable("v" + i / 2 % 100))
+				: new Or(new Not(formula), y);
+
+		AIG aig = AIG.of(formula);
+		assertEquals(102, aig.getNumInputs());
+		assertEquals(100000, aig.getNumAnds());
+
+		QBF result = aig.toQBF(aig.getOutput(0));
+		assertTrue(AIG.of(result).getNumAnds() <= aig.getNumAnds());
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 500; i++) {
+			QBF formula = random(rnd);
+			AIG aig = AIG.of(formula);
+			QBF result = aig.toQBF(aig.getOutput(0));
+			assertTrue(isEquivalent(formula, result), formula.toString());
+
+			// merged conjunctions are decomposed again
+			assertTrue(AIG.of(result).getNumAnds() <= aig.getNumAnds());
+		}
+	}
+}
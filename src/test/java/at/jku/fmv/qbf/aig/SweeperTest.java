@@ -0,0 +1,187 @@
+package at.jku.fmv.qbf.aig;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.solver.RAReQS;
+
+@DisplayName("Sweeper")
+public class SweeperTest {
+
+	static final Variable x = new Variable("x");
+	static final Variable y = new Variable("y");
+	static final Variable z = new Variable("z");
+
+	static QBF xor(QBF a, QBF b) {
+		return new Or(new And(a, new Not(b)), new And(new Not(a), b));
+	}
+
+	static QBF xnor(QBF a, QBF b) {
+		return new Or(new And(a, b), new And(new Not(a), new Not(b)));
+	}
+
+	@Test
+	@DisplayName("equivalent gates")
+	void test_merge() {
+		// associativity and complemented equivalences
+		AIG aig = new AIG();
+		aig.addOutput(aig.add(new And(new And(x, y), z)), "a");
+		aig.addOutput(aig.add(new And(x, new And(y, z))), "b");
+		aig.addOutput(aig.add(xor(x, y)), "c");
+		aig.addOutput(aig.add(xnor(x, y)), "d");
+
+		Sweeper sweeper = new Sweeper();
+		AIG swept = sweeper.apply(aig);
+
+		assertEquals(9, sweeper.getInitialGates());
+		assertEquals(5, sweeper.getGates());
+		assertEquals(27, sweeper.getInitialClauses());
+		assertEquals(15, sweeper.getClauses());
+		assertEquals(2, sweeper.getMerged());
+		assertTrue(sweeper.getChecks() >= 2);
+
+		assertEquals(3, swept.getNumInputs());
+		assertEquals("x", swept.getInputName(0));
+		assertEquals(4, swept.getNumOutputs());
+		assertEquals("d", swept.getOutputName(3));
+		assertEquals(swept.getOutput(0), swept.getOutput(1));
+		assertEquals(swept.getOutput(2), AIG.not(swept.getOutput(3)));
+	}
+
+	@Test
+	@DisplayName("constants and inputs")
+	void test_constants() {
+		// (x ∧ -y) ∧ (-x ∨ y) = ⊥, (x ∨ y) ∧ (x ∨ -y) = x
+		AIG aig = new AIG();
+		aig.addOutput(aig.add(new And(
+			new And(x, new Not(y)),
+			new Or(new Not(x), y))));
+		aig.addOutput(aig.add(new And(new Or(x, y), new Or(x, new Not(y)))));
+
+		Sweeper sweeper = new Sweeper();
+		AIG swept = sweeper.apply(aig);
+
+		assertEquals(AIG.FALSE, swept.getOutput(0));
+		assertEquals(swept.getInput(0), swept.getOutput(1));
+		assertEquals(0, swept.getNumAnds());
+		assertEquals(0, sweeper.getGates());
+	}
+
+	@Test
+	@DisplayName("limits")
+	void test_limits() {
+		assertThrows(IllegalArgumentException.class, () -> new Sweeper(0, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new Sweeper(65, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new Sweeper(1, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new Sweeper(1, 1, 0));
+
+		AIG aig = new AIG();
+		aig.addOutput(aig.add(new And(new And(x, y), z)));
+		aig.addOutput(aig.add(new And(x, new And(y, z))));
+		aig.addOutput(aig.add(xor(x, y)));
+		aig.addOutput(aig.add(xnor(x, y)));
+
+		Sweeper sweeper = new Sweeper(1, 1, 1);
+		sweeper.apply(aig);
+		assertEquals(1, sweeper.getChecks());
+		assertTrue(sweeper.getMerged() <= 1);
+	}
+
+	@Test
+	@DisplayName("prenex normal form")
+	void test_pnf() {
+		// ∀x: ∃y: (x ∧ y ∨ -x ∧ -y) ∧ (y ∧ x ∨ -y ∧ -x)
+		QBF matrix = new And(
+			xnor(x, y),
+			new Or(new And(y, x), new And(new Not(y), new Not(x))));
+		QBF pnf = new ForAll(new Exists(matrix, "y"), "x");
+
+		Sweeper sweeper = new Sweeper();
+		QBF swept = sweeper.apply(pnf);
+		assertEquals("∀x: ∃y: ((x ∧ y) ∨ (-x ∧ -y))", swept.toString());
+		assertEquals(3, sweeper.getGates());
+
+		assertEquals(QBF.True, sweeper.apply(new Or(x, new Not(x))));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> sweeper.apply(new And(x, new Exists(y, "y"))));
+	}
+
+	// equivalent copy of a formula with randomly rewritten gates
+	static QBF rewrite(QBF formula, Random rnd) {
+		AIG aig = AIG.of(formula);
+
+		// rebuild with randomly rewritten gates
+		int[] map = new int[aig.getNumNodes()];
+		AIG copy = new AIG();
+		for (int i = 0; i < aig.getNumInputs(); i++)
+			map[AIG.getNode(aig.getInput(i))] =
+				copy.addInput(aig.getInputName(i));
+
+		for (int node = 1; node < aig.getNumNodes(); node++) {
+			if (!aig.isAnd(node))
+				continue;
+			int a = map[AIG.getNode(aig.getLeft(node))]
+				^ (aig.getLeft(node) & 1);
+			int b = map[AIG.getNode(aig.getRight(node))]
+				^ (aig.getRight(node) & 1);
+
+			// a ∧ b = (a ∧ (b ∨ c)) ∧ (b ∨ ¬c) for some input c
+			int c = copy.getInput(rnd.nextInt(copy.getNumInputs()));
+			map[node] = rnd.nextBoolean()
+				? copy.and(a, b)
+				: copy.and(copy.and(a, copy.or(b, c)), copy.or(b, AIG.not(c)));
+		}
+
+		int output = aig.getOutput(0);
+		return copy.toQBF(map[AIG.getNode(output)] ^ (output & 1));
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 300; i++) {
+			QBF original = AIGTest.random(rnd);
+			QBF formula = new And(original, rewrite(original, rnd));
+			Sweeper sweeper = new Sweeper(1, 1000, 100000);
+			QBF swept = sweeper.apply(formula);
+
+			assertTrue(AIGTest.isNNF(swept), swept.toString());
+			assertTrue(AIGTest.isEquivalent(formula, swept), formula.toString());
+			assertTrue(sweeper.getGates() <= sweeper.getInitialGates());
+			assertEquals(0, sweeper.getUndecided());
+			assertEquals(
+				sweeper.getChecks(),
+				sweeper.getMerged() + sweeper.getDisproved());
+
+			// rewritten copies are merged with the originals
+			assertTrue(
+				sweeper.getGates() <= AIG.of(original).getNumAnds(),
+				formula.toString());
+		}
+
+		// truth of quantified formulas is preserved
+		for (int i = 0; i < 300; i++) {
+			QBF formula = AIGTest.random(rnd);
+			formula = new Or(formula, rewrite(formula, rnd));
+			for (String v : formula.getFreeVariables())
+				if (rnd.nextBoolean())
+					formula = rnd.nextBoolean()
+						? new ForAll(formula, v)
+						: new Exists(formula, v);
+
+			assertEquals(
+				new RAReQS().solve(formula),
+				new RAReQS().solve(new Sweeper().apply(formula)),
+				formula.toString());
+		}
+	}
+}
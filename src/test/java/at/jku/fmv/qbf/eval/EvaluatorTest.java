@@ -0,0 +1,158 @@
+package at.jku.fmv.qbf.eval;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
+
+@DisplayName("Evaluator")
+class EvaluatorTest {
+
+	// reference implementation
+	static boolean eval(QBF formula, Map<String, Boolean> assignment) {
+		return formula.apply(
+			(True t) -> true,
+			(False f) -> false,
+			(Variable var) -> assignment.get(var.name),
+			(Not not) -> !eval(not.subformula, assignment),
+			(And and) -> and.subformulas.stream()
+				.allMatch(f -> eval(f, assignment)),
+			(Or or) -> or.subformulas.stream()
+				.anyMatch(f -> eval(f, assignment)),
+			(ForAll forall) -> { throw new IllegalStateException(); },
+			(Exists exists) -> { throw new IllegalStateException(); });
+	}
+
+	static QBF random(Random rnd, List<QBF> variables, int depth) {
+		if (depth == 0 || rnd.nextInt(4) == 0) {
+			QBF var = variables.get(rnd.nextInt(variables.size()));
+			return rnd.nextBoolean() ? var : new Not(var);
+		}
+
+		QBF[] operands = new QBF[2 + rnd.nextInt(3)];
+		for (int i = 0; i < operands.length; i++)
+			operands[i] = random(rnd, variables, depth - 1);
+
+		QBF f = rnd.nextBoolean() ? new And(operands) : new Or(operands);
+		return rnd.nextInt(4) == 0 ? new Not(f) : f;
+	}
+
+	@Test
+	@DisplayName("evaluate")
+	void test_evaluate() {
+		Random rnd = new Random(0);
+		List<QBF> variables = Arrays.asList(
+			new Variable("a"),
+			new Variable("b"),
+			new Variable("c"),
+			new Variable("d"),
+			new Variable("e"),
+			QBF.True,
+			QBF.False);
+
+		for (int n = 0; n < 100; n++) {
+			QBF formula = random(rnd, variables, 6);
+			Evaluator evaluator = new Evaluator(formula);
+			List<String> inputs = evaluator.getVariables();
+
+			long[] words = new long[inputs.size()];
+			for (int i = 0; i < words.length; i++)
+				words[i] = rnd.nextLong();
+
+			long output = evaluator.evaluate(words);
+
+			for (int bit = 0; bit < 64; bit++) {
+				Map<String, Boolean> assignment = new HashMap<>();
+				for (int i = 0; i < words.length; i++)
+					assignment.put(inputs.get(i), (words[i] >>> bit & 1) != 0);
+
+				boolean expected = eval(formula, assignment);
+				assertEquals(expected, (output >>> bit & 1) != 0);
+				assertEquals(expected, evaluator.evaluate(assignment));
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("partial")
+	void test_partial() {
+		// x ∨ (y ∧ ¬z)
+		QBF formula = new Or(
+			new Variable("x"),
+			new And(new Variable("y"), new Not(new Variable("z"))));
+		Evaluator evaluator = new Evaluator(formula);
+
+		Map<String, Boolean> assignment = new HashMap<>();
+		assertNull(evaluator.evaluate(assignment));
+
+		assignment.put("x", true);
+		assertTrue(evaluator.evaluate(assignment));
+
+		assignment.put("x", false);
+		assertNull(evaluator.evaluate(assignment));
+
+		assignment.put("z", true);
+		assertFalse(evaluator.evaluate(assignment));
+
+		// unknown variables are ignored
+		assignment.put("u", true);
+		assertFalse(evaluator.evaluate(assignment));
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> evaluator.evaluate(new long[] {1, 0, 0}, new long[] {1, 0, 0}));
+	}
+
+	@Test
+	@DisplayName("constants")
+	void test_constants() {
+		assertEquals(-1L, new Evaluator(QBF.True).evaluate(new long[0]));
+		assertEquals(0L, new Evaluator(QBF.False).evaluate(new long[0]));
+		assertEquals(-1L, new Evaluator(new Not(QBF.False)).evaluate(new long[0]));
+
+		QBF x = new Variable("x");
+		assertEquals(0L, new Evaluator(new And(x, QBF.False)).evaluate(new long[] {-1L}));
+		assertFalse(new Evaluator(new And(x, QBF.False)).evaluate(new HashMap<>()));
+	}
+
+	@Test
+	@DisplayName("sharing")
+	void test_sharing() {
+		QBF x = new Variable("x"), y = new Variable("y");
+		QBF shared = new And(x, y);
+		Evaluator evaluator = new Evaluator(new Or(shared, new Not(shared)));
+
+		assertEquals(2, evaluator.getNumGates());
+		assertEquals(-1L, evaluator.evaluate(new long[] {0xF0L, 0xCCL}));
+	}
+
+	@Test
+	@DisplayName("errors")
+	void test_errors() {
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> new Evaluator(QBFTest.g14));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> new Evaluator(new Variable("x")).evaluate(new long[2]));
+	}
+
+	@Test
+	@DisplayName("skeleton")
+	void test_skeleton() {
+		Evaluator evaluator = new Evaluator(QBFTest.g14.getSkeleton());
+		Map<String, Boolean> assignment = new HashMap<>();
+		assignment.put("z", true);
+		assertTrue(evaluator.evaluate(assignment));
+	}
+}
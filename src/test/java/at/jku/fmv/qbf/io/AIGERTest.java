@@ -0,0 +1,250 @@
+package at.jku.fmv.qbf.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.aig.AIG;
+import at.jku.fmv.qbf.aig.AIGTest;
+import at.jku.fmv.qbf.io.util.ParserException;
+
+@DisplayName("AIGER")
+public class AIGERTest {
+
+	static Path ascii;
+	static Path binary;
+
+	// and gate with symbols
+	static final String and = "aag 3 2 0 1 1\n"
+		+ "2\n"
+		+ "4\n"
+		+ "6\n"
+		+ "6 4 2\n"
+		+ "i0 x\n"
+		+ "i1 y\n"
+		+ "o0 x and y\n"
+		+ "c\n"
+		+ "comment\n";
+
+	// or gate (binary)
+	static final byte[] or = {
+		'a', 'i', 'g', ' ', '3', ' ', '2', ' ', '0', ' ', '1', ' ', '1', '\n',
+		'7', '\n',
+		1, 2
+	};
+
+	@BeforeAll
+	static void setup() throws IOException {
+		Path tmpDir = Files.createTempDirectory("qbf");
+		tmpDir.toFile().deleteOnExit();
+
+		ascii = Paths.get(tmpDir.toString(), "formula.aag");
+		ascii.toFile().deleteOnExit();
+
+		binary = Paths.get(tmpDir.toString(), "formula.aig");
+		binary.toFile().deleteOnExit();
+	}
+
+	static String toString(AIG aig, boolean binary) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AIGER.write(aig, out, binary);
+		return new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+	}
+
+	static void assertError(String expected, Path file, String content)
+		throws IOException {
+		Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(
+			file.toString() + ": " + expected,
+			assertThrows(
+				ParserException.class,
+				() -> AIGER.read(file)).getMessage());
+	}
+
+	@Test
+	@DisplayName("read")
+	void test_read() throws IOException {
+		Files.write(ascii, and.getBytes(StandardCharsets.UTF_8));
+		AIG aig = AIGER.read(ascii);
+		assertEquals(2, aig.getNumInputs());
+		assertEquals(1, aig.getNumAnds());
+		assertEquals("x", aig.getInputName(0));
+		assertEquals("x and y", aig.getOutputName(0));
+		assertEquals("(x ∧ y)", aig.toQBF(aig.getOutput(0)).toString());
+
+		Files.write(binary, or);
+		aig = AIGER.read(binary);
+		assertNull(aig.getInputName(0));
+		assertEquals("-(-1 ∧ -2)", aig.toQBF(aig.getOutput(0)).toString());
+
+		// gates defined in arbitrary order, constant and input outputs
+		Files.write(ascii, ("aag 5 1 0 3 2\n"
+			+ "2\n"
+			+ "10\n"
+			+ "1\n"
+			+ "3\n"
+			+ "10 8 2\n"
+			+ "8 3 2\n").getBytes(StandardCharsets.UTF_8));
+		aig = AIGER.read(ascii);
+		assertEquals(AIG.FALSE, aig.getOutput(0));
+		assertEquals(AIG.TRUE, aig.getOutput(1));
+		assertEquals(AIG.not(aig.getInput(0)), aig.getOutput(2));
+		assertEquals(0, aig.getNumAnds());
+
+		// errors
+		Files.write(ascii, new byte[0]);
+		assertEquals(
+			ascii.toString() + ": error: file is empty",
+			assertThrows(
+				ParserException.class,
+				() -> AIGER.read(ascii)).getMessage());
+
+		assertError("1: error: missing header", ascii, "p cnf 1 1\n");
+		assertError("1: error: incomplete header", ascii, "aag 1 1 0\n");
+		assertError(
+			"1: error: illegal header field 'x'",
+			ascii,
+			"aag 1 x 0 0 0\n");
+		assertError(
+			"1: error: latches not supported",
+			ascii,
+			"aag 1 0 1 0 0\n");
+		assertError(
+			"1: error: AIGER 1.9 extensions not supported",
+			ascii,
+			"aag 1 1 0 0 0 1\n");
+		assertError("1: error: inconsistent header", ascii, "aag 1 1 0 0 1\n");
+		assertError(
+			"2: error: unexpected end of file",
+			ascii,
+			"aag 1 1 0 0 0\n");
+		assertError(
+			"2: error: illegal input literal 3",
+			ascii,
+			"aag 1 1 0 0 0\n3\n");
+		assertError("2: error: illegal literal 4", ascii, "aag 1 0 0 1 0\n4\n");
+		assertError(
+			"error: undefined variable 1",
+			ascii,
+			"aag 1 0 0 1 0\n2\n");
+		assertError(
+			"error: variable 2 defined twice",
+			ascii,
+			"aag 3 1 0 0 2\n2\n4 2 2\n4 3 3\n");
+		assertError(
+			"error: cyclic definition of variable 3",
+			ascii,
+			"aag 3 1 0 1 2\n2\n4\n4 6 2\n6 4 3\n");
+		assertError(
+			"3: error: illegal symbol",
+			ascii,
+			"aag 1 1 0 0 0\n2\ni1 x\n");
+		assertError(
+			"error: unexpected end of file",
+			binary,
+			"aig 3 2 0 1 1\n6\n\u0002");
+		assertError(
+			"error: illegal delta encoding of gate 6",
+			binary,
+			"aig 3 2 0 1 1\n6\n\u0002\u0006");
+	}
+
+	@Test
+	@DisplayName("write")
+	void test_write() throws IOException {
+		AIG aig = new AIG();
+		int x = aig.addInput("x"), y = aig.addInput("y"), z = aig.addInput();
+		aig.addOutput(aig.and(x, y), "x and y");
+		aig.addOutput(AIG.not(aig.and(AIG.not(x), AIG.not(y))));
+
+		// gates outside the outputs' cone are dropped
+		aig.and(y, z);
+
+		assertEquals("aag 5 3 0 2 2\n"
+			+ "2\n"
+			+ "4\n"
+			+ "6\n"
+			+ "8\n"
+			+ "11\n"
+			+ "8 4 2\n"
+			+ "10 5 3\n"
+			+ "i0 x\n"
+			+ "i1 y\n"
+			+ "o0 x and y\n",
+			toString(aig, false));
+
+		assertEquals("aig 5 3 0 2 2\n"
+			+ "8\n"
+			+ "11\n"
+			+ "\u0004\u0002"
+			+ "\u0005\u0002"
+			+ "i0 x\n"
+			+ "i1 y\n"
+			+ "o0 x and y\n",
+			toString(aig, true));
+
+		// constants
+		aig = new AIG();
+		aig.addOutput(AIG.TRUE);
+		assertEquals("aag 0 0 0 1 0\n1\n", toString(aig, false));
+	}
+
+	@Test
+	@DisplayName("round trip")
+	void test_roundtrip() throws IOException {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 100; i++) {
+			AIG aig = new AIG();
+			for (int j = 0; j < 3; j++)
+				aig.addOutput(aig.add(AIGTest.random(rnd)), "o" + j);
+
+			for (Path file : new Path[] {ascii, binary}) {
+				AIGER.write(aig, file);
+				AIG copy = AIGER.read(file);
+
+				assertEquals(aig.getNumInputs(), copy.getNumInputs());
+				assertEquals(aig.getNumOutputs(), copy.getNumOutputs());
+				assertTrue(aig.getNumAnds() >= copy.getNumAnds());
+				for (int j = 0; j < aig.getNumInputs(); j++)
+					assertEquals(aig.getInputName(j), copy.getInputName(j));
+				for (int j = 0; j < aig.getNumOutputs(); j++) {
+					assertEquals(aig.getOutputName(j), copy.getOutputName(j));
+					assertTrue(AIGTest.isEquivalent(
+						aig.toQBF(aig.getOutput(j)),
+						copy.toQBF(copy.getOutput(j))));
+				}
+			}
+		}
+
+		// large binary files (multi-byte deltas)
+		QBF formula = new Variable("x");
+		for (int i = 0; i < 1000; i++)
+			formula = new Or(
+				new And(formula, new Variable("v" + i)),
+				new Not(formula));
+		AIG aig = AIG.of(formula);
+		AIGER.write(aig, binary);
+		AIG copy = AIGER.read(binary);
+		assertEquals(aig.getNumAnds(), copy.getNumAnds());
+
+		// numbering is preserved once inputs come first
+		AIGER.write(copy, binary);
+		AIG copy2 = AIGER.read(binary);
+		assertTrue(
+			copy.toQBF(copy.getOutput(0))
+				.equals(copy2.toQBF(copy2.getOutput(0))));
+	}
+}
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import at.jku.fmv.qbf.*;
+import at.jku.fmv.qbf.QBF.*;
 import at.jku.fmv.qbf.io.QCIR;
 import at.jku.fmv.qbf.io.util.ParserException;
 
@@ -86,6 +87,61 @@ public class QCIRTest {
 		, "5 = and(1, 6, 7, -4)"
 	});
 
+	// valid and invalid inputs
+	static List<String> inputs = Arrays.asList(
+		String.join("\n", g14),
+		String.join("\r\n", g14),
+		String.join("\n", g14Cleansed),
+		String.join("\n", lncs),
+		String.join("\n", lncsCleansed),
+		String.join("\n", propositional),
+		"",
+		"#QCIR-G14\n",
+		"#QCIR-G14\nexists(1)\n",
+		"#QCIR-G14\nexists()\noutput(3)\n3 = or(1, 2)\n",
+		"#QCIR-G14\nexists1, 2)\noutput(3)\n3 = or(1, 2)\n",
+		"#QCIR-G14\nexists(1, 2\noutput(3)\n3 = or(1, 2)\n",
+		"#QCIR-G14\nexists(1, 2)\noutput()\n3 = or(1, 2)\n",
+		"#QCIR-G14\nnone(1, 2)\noutput(3)\n3 = or(1, 2)\n",
+		"#QCIR-G14\nexists(1, 2)\noutput(3)\n3 = or()\n",
+		"#QCIR-G14\nexists(1, 2)\noutput(3)\n3 or(1, 2)\n",
+		"#QCIR-G14\nexists(1, 2)\noutput(3)\n = or(1, 2)\n",
+		"#QCIR-G14\nexists(1, 2)\noutput(3)\n3 = \n",
+		"#QCIR-G14\nexists(1, 2)\noutput(3)\n3 = xor(1, 2)\n",
+		"#QCIR-G14\nexists(1, 2)\noutput(5)\n"
+			+ "3 = or(1, 2)\n\n# comment\n4 = and(3, -1)\n"
+			+ "5 = forall(6; 4)\n6 = xor(1)\n",
+		"#QCIR-G14\nexists(1, 2)\noutput(4)\n"
+			+ "3 = or(1, 2)\n4 = and(3, -5, , 1)\n",
+		"#QCIR-G14\nexists(1)\noutput(3)\n3 = exists(2)\n",
+		"#QCIR-G14\nexists(1)\noutput(3)\n3 = exists(2;)\n");
+
+	// expected formulas or error messages of the above inputs
+	static List<Object> outputs = Arrays.asList(
+		QBFTest.g14,
+		QBFTest.g14,
+		QBFTest.g14.cleanse(),
+		QBFTest.lncs,
+		QBFTest.lncs.cleanse(),
+		QDIMACSTest.propositional,
+		"error: file is empty",
+		"error: missing output",
+		"error: missing output",
+		"2: error: missing operands",
+		"2: error: missing operands",
+		new Exists(new Or(new Variable("1"), new Variable("2")), "1", "2"),
+		"3: error: illegal output",
+		"2: error: unknown gate type 'none'",
+		"4: error: missing operands",
+		"4: error: illegal gate definition",
+		"4: error: illegal gate definition",
+		"4: error: illegal gate definition",
+		"4: error: unknown gate type 'xor'",
+		"9: error: unknown gate type 'xor'",
+		"5: error: missing variable",
+		"4: error: missing subformula",
+		"4: error: missing subformula");
+
 	@BeforeAll
 	static void setup() throws IOException {
 		Path tmpDir = Files.createTempDirectory("qbf");
@@ -258,6 +314,18 @@ public class QCIRTest {
 				ParserException.class,
 				() -> QCIR.read(file)).getMessage());
 
+		// error: illegal gate (empty operands)
+		illegal = "#QCIR-G14\n"
+			+ "exists(1, 2)\n"
+			+ "output(3)\n"
+			+ "3 = and(,)\n";
+		Files.write(file, illegal.getBytes());
+		assertEquals(
+			file.toString() + ": 4: error: missing operands",
+			assertThrows(
+				ParserException.class,
+				() -> QCIR.read(file)).getMessage());
+
 		// error: illegal gate (unknown type)
 		illegal = "#QCIR-G14\n"
 			+ "exists(1, 2)\n"
@@ -271,6 +339,118 @@ public class QCIRTest {
 				() -> QCIR.read(file)).getMessage());
 	}
 
+	@Test
+	@DisplayName("readParallel")
+	void test_readParallel() throws IOException {
+		assertEquals(inputs.size(), outputs.size());
+
+		for (int i = 0; i < inputs.size(); i++) {
+			Files.write(file, inputs.get(i).getBytes());
+
+			Object expected = outputs.get(i);
+
+			for (int chunkSize : new int[] {1, 8, 1 << 20})
+				for (int threads : new int[] {1, 4})
+					if (expected instanceof QBF)
+						assertEquals(
+							expected,
+							QCIR.readParallel(file, chunkSize, threads),
+							inputs.get(i));
+					else
+						assertEquals(
+							file.toString() + ": " + expected,
+							assertThrows(
+								ParserException.class,
+								() -> QCIR.readParallel(file, chunkSize, threads))
+								.getMessage());
+		}
+	}
+
+	@Test
+	@DisplayName("readCone")
+	void test_readCone() throws IOException {
+		for (String input : inputs) {
+			Files.write(file, input.getBytes());
+
+			QBF expected;
+			try {
+				expected = QCIR.read(file);
+			} catch (ParserException e) {
+				// unreachable gates are not parsed
+				if (input.endsWith("6 = xor(1)\n")) {
+					assertEquals(
+						"∃1,2: ∀6: ((1 ∨ 2) ∧ -1)",
+						QCIR.readCone(file).toString());
+					continue;
+				}
+
+				assertEquals(
+					e.getMessage(),
+					assertThrows(
+						ParserException.class,
+						() -> QCIR.readCone(file)).getMessage());
+				continue;
+			}
+
+			assertEquals(expected, QCIR.readCone(file));
+		}
+
+		// unused gates (including malformed ones) are skipped
+		String input = "#QCIR-G14\n"
+			+ "exists(1, 2)\n"
+			+ "output(3)\n"
+			+ "4 = and(1, -2)\n"
+			+ "3 = or(1, 2)\n"
+			+ "5 = xor(4, 3)\n"
+			+ "6 = and(5, \n";
+		Files.write(file, input.getBytes());
+		assertEquals("∃1,2: (1 ∨ 2)", QCIR.readCone(file).toString());
+
+		// operands refer to the definitions preceding their gate
+		input = "#QCIR-G14\n"
+			+ "output(4)\n"
+			+ "3 = or(1, 2)\n"
+			+ "4 = and(3, 5)\n"
+			+ "5 = and(1, 2)\n"
+			+ "3 = and(1, -2)\n"
+			+ "4 = or(3, 4)\n";
+		Files.write(file, input.getBytes());
+		assertEquals("((1 ∧ -2) ∨ ((1 ∨ 2) ∧ 5))", QCIR.read(file).toString());
+		assertEquals(QCIR.read(file), QCIR.readCone(file));
+
+		// variable output
+		input = "#QCIR-G14\n"
+			+ "forall(z)\n"
+			+ "output(z)\n"
+			+ "y = and(z, z)\n";
+		Files.write(file, input.getBytes());
+		assertEquals("∀z: z", QCIR.read(file).toString());
+		assertEquals("∀z: z", QCIR.readCone(file).toString());
+
+		// illegal gate definition
+		input = "#QCIR-G14\n"
+			+ "output(3)\n"
+			+ "3 = or(1, 2)\n"
+			+ "4 and(3, 2)\n";
+		Files.write(file, input.getBytes());
+		assertEquals(
+			file.toString() + ": 4: error: illegal gate definition",
+			assertThrows(
+				ParserException.class,
+				() -> QCIR.readCone(file)).getMessage());
+
+		// deep formulas
+		StringBuilder deep = new StringBuilder("#QCIR-G14\noutput(g100000)\n");
+		deep.append("g0 = and(x, y)\n");
+		for (int i = 1; i <= 100000; i++)
+			deep.append("g" + i + " = or(g" + (i - 1) + ", x" + i % 10 + ")\n")
+				.append("u" + i + " = and(g" + i + ", y)\n");
+		Files.write(file, deep.toString().getBytes());
+		QBF formula = QCIR.readCone(file);
+		assertEquals(100001, formula.getHeight());
+		assertEquals(QCIR.read(file).getDAGSize(), formula.getDAGSize());
+	}
+
 	@Test
 	@DisplayName("write")
 	void test_write() throws IOException {
@@ -288,5 +468,22 @@ public class QCIRTest {
 
 		QCIR.write(QDIMACSTest.propositional, file, true);
 		assertEquals(propositional, Files.readAllLines(file));
+
+		// miniscoped formulas
+		QBF x = new QBF.Variable("x"), y = new QBF.Variable("y");
+		QBF miniscoped = new QBF.ForAll(
+			new QBF.Exists(
+				new QBF.And(
+					new QBF.Or(x, y),
+					new QBF.Or(new QBF.Not(x), new QBF.Not(y)),
+					new QBF.Variable("z")),
+				"y"),
+			"x")
+			.miniscope();
+		assertEquals(
+			"(∀x: ∃y: ((x ∨ y) ∧ (-x ∨ -y)) ∧ z)",
+			miniscoped.toString());
+		QCIR.write(miniscoped, file, false);
+		assertEquals(miniscoped.toString(), QCIR.read(file).toString());
 	}
 }
@@ -54,8 +54,8 @@ public class QDIMACSTest {
 		, "3 0"
 	});
 
-	// ∀z: ∃x1,x2: (pg0 ∧ (-_pg0 ∨ z ∨ _pg1) ∧ (-_pg1 ∨ x1) ∧ (-_pg1 ∨ x2) ∧ (-_pg1 ∨ z))
-	// ∀2: ∃4,5: (1 ∧ (-1 ∨ 2 ∨ 3) ∧ (-3 ∨ 4) ∧ (-3 ∨ 5) ∧ (-3 ∨ 2))
+	// ∀z: ∃_pg0,_pg1,x1,x2: (pg0 ∧ (-_pg0 ∨ z ∨ _pg1) ∧ (-_pg1 ∨ x1) ∧ (-_pg1 ∨ x2) ∧ (-_pg1 ∨ z))
+	// ∀2: ∃1,3,4,5: (1 ∧ (-1 ∨ 2 ∨ 3) ∧ (-3 ∨ 4) ∧ (-3 ∨ 5) ∧ (-3 ∨ 2))
 	public static QBF g14 =
 		new ForAll(
 			new Exists(
@@ -74,12 +74,12 @@ public class QDIMACSTest {
 					new Or(
 						new Not(new Variable("3")),
 						new Variable("2"))),
-				"4", "5"),
+				"1", "3", "4", "5"),
 			"2");
 	public static List<String> g14QDIMACS = Arrays.asList(new String[] {
 		"p cnf 5 5"
 		, "a 2 0"
-		, "e 4 5 0"
+		, "e 1 3 4 5 0"
 		, "1 0"
 		, "-1 2 3 0"
 		, "-3 4 0"
@@ -133,26 +133,22 @@ public class QDIMACSTest {
 				ParserException.class,
 				() -> QDIMACS.read(file)).getMessage());
 
-		String illegal;
+		// constants: no or an empty clause
+		Files.write(file, "p cnf 0 0\n".getBytes());
+		assertSame(QBF.True, QDIMACS.read(file));
 
-		// error: only problem line
-		illegal = "p cnf 0 0\n";
-		Files.write(file, illegal.getBytes());
-		assertEquals(
-			file.toString() + ": error: missing clauses",
-			assertThrows(
-				ParserException.class,
-				() -> QDIMACS.read(file)).getMessage());
+		Files.write(file, "p cnf 0 1\n0\n".getBytes());
+		assertSame(QBF.False, QDIMACS.read(file));
 
-		// error: only prefix
-		illegal = "p cnf 1 0\n"
-				+ "e 1 0\n";
-		Files.write(file, illegal.getBytes());
+		Files.write(file, "p cnf 1 0\ne 1 0\n".getBytes());
+		assertEquals(new Exists(QBF.True, "1"), QDIMACS.read(file));
+
+		Files.write(file, "p cnf 1 2\n1 0\n0\n".getBytes());
 		assertEquals(
-			file.toString() + ": error: missing clauses",
-			assertThrows(
-				ParserException.class,
-				() -> QDIMACS.read(file)).getMessage());
+			new And(new Variable("1"), QBF.False),
+			QDIMACS.read(file));
+
+		String illegal;
 
 		// error: illegal prefix (no variables)
 		illegal = "p cnf 1 1\n"
@@ -164,16 +160,58 @@ public class QDIMACSTest {
 			assertThrows(
 				ParserException.class,
 				() -> QDIMACS.read(file)).getMessage());
+	}
 
-		// error: illegal clause (no variables)
+	@Test
+	@DisplayName("read (chunked)")
+	void test_read_chunked() throws IOException {
+		for (int chunkSize : new int[] {1, 4, 16, 1 << 20})
+			for (int threads : new int[] {1, 2, 4}) {
+				Files.write(file, lncsQDIMACS);
+				assertEquals(lncs, QDIMACS.read(file, chunkSize, threads));
+
+				Files.write(file, g14QDIMACS);
+				assertEquals(g14, QDIMACS.read(file, chunkSize, threads));
+
+				Files.write(file, propositionalQDIMACS);
+				assertEquals(
+					propositional,
+					QDIMACS.read(file, chunkSize, threads));
+			}
+
+		String illegal;
+
+		// error: illegal clause in a later chunk
+		illegal = "p cnf 3 3\n"
+				+ "1 2 0\n"
+				+ "\n"
+				+ "-2 3 0\n"
+				+ "-3 y 0\n";
+		Files.write(file, illegal.getBytes());
+		assertEquals(
+			file.toString() + ": 5: error: illegal literal 'y'",
+			assertThrows(
+				ParserException.class,
+				() -> QDIMACS.read(file, 2, 2)).getMessage());
+
+		// error: illegal literal
 		illegal = "p cnf 1 1\n"
-				+ "0\n";
+				+ "1 x 0\n";
 		Files.write(file, illegal.getBytes());
 		assertEquals(
-			file.toString() + ": 2: error: missing variables",
+			file.toString() + ": 2: error: illegal literal 'x'",
 			assertThrows(
 				ParserException.class,
-				() -> QDIMACS.read(file)).getMessage());
+				() -> QDIMACS.read(file, 1, 2)).getMessage());
+
+		// error: illegal arguments
+		Files.write(file, g14QDIMACS);
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> QDIMACS.read(file, 0, 1));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> QDIMACS.read(file, 1, 0));
 	}
 
 	@Test
@@ -188,6 +226,15 @@ public class QDIMACSTest {
 		QDIMACS.write(propositional, file);
 		assertEquals(propositionalQDIMACS, Files.readAllLines(file));
 
+		// constants
+		QDIMACS.write(QBF.True, file);
+		assertEquals(Arrays.asList("p cnf 0 0"), Files.readAllLines(file));
+		assertSame(QBF.True, QDIMACS.read(file));
+
+		QDIMACS.write(QBF.False, file);
+		assertEquals(Arrays.asList("p cnf 0 1", "0"), Files.readAllLines(file));
+		assertSame(QBF.False, QDIMACS.read(file));
+
 		// error: not in PNF
 		assertEquals(
 			"skeleton not in CNF",
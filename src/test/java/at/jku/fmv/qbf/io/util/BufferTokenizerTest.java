@@ -0,0 +1,116 @@
+package at.jku.fmv.qbf.io.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("BufferTokenizer")
+class BufferTokenizerTest {
+
+	static BufferTokenizer tokenizer(String s) {
+		return new BufferTokenizer(s.getBytes());
+	}
+
+	static List<String> lines(BufferTokenizer t) {
+		List<String> tokens = new ArrayList<>();
+		while (t.nextLine())
+			tokens.add(t.toString());
+		return tokens;
+	}
+
+	static List<String> words(BufferTokenizer t) {
+		List<String> tokens = new ArrayList<>();
+		while (t.nextWord())
+			tokens.add(t.toString());
+		return tokens;
+	}
+
+	@Test
+	@DisplayName("nextLine")
+	void test_nextLine() {
+		assertEquals(
+			Arrays.asList("a", "", "b c", "d"),
+			lines(tokenizer("a\n\nb c\r\nd")));
+
+		assertEquals(
+			Arrays.asList("a"),
+			lines(tokenizer("a\n")));
+
+		assertEquals(
+			Arrays.asList(),
+			lines(tokenizer("")));
+	}
+
+	@Test
+	@DisplayName("nextWord")
+	void test_nextWord() {
+		assertEquals(
+			Arrays.asList("1", "-2", "0"),
+			words(tokenizer("  1\t-2  0 \r")));
+
+		assertEquals(
+			Arrays.asList(),
+			words(tokenizer(" \t ")));
+
+		BufferTokenizer t = tokenizer("a b c d").reset(2, 5);
+		assertEquals(Arrays.asList("b", "c"), words(t));
+	}
+
+	@Test
+	@DisplayName("next")
+	void test_next() {
+		BufferTokenizer t = tokenizer("g = and(a,,b)");
+
+		assertTrue(t.next('='));
+		assertEquals("g", t.trim().toString());
+		assertTrue(t.next('('));
+		assertEquals("and", t.trim().toString());
+		assertTrue(t.next(','));
+		assertEquals("a", t.toString());
+		assertTrue(t.next(','));
+		assertTrue(t.isEmpty());
+		assertTrue(t.next(')'));
+		assertEquals("b", t.toString());
+		assertFalse(t.hasRemaining());
+		assertFalse(t.next(')'));
+		assertTrue(t.isEmpty());
+	}
+
+	@Test
+	@DisplayName("startsWith / matches")
+	void test_startsWith_matches() {
+		BufferTokenizer t = tokenizer("exists(1, 2)");
+
+		assertTrue(t.startsWith("exists"));
+		assertTrue(t.startsWith(""));
+		assertFalse(t.startsWith("forall"));
+		assertFalse(t.startsWith("exists(1, 2) "));
+
+		assertTrue(t.next('('));
+		assertTrue(t.matches("exists"));
+		assertFalse(t.matches("exist"));
+		assertEquals(6, t.length());
+	}
+
+	@Test
+	@DisplayName("parseInt")
+	void test_parseInt() {
+		BufferTokenizer t = tokenizer("0 -1 42 2147483647 -2147483647");
+
+		int[] expected = {0, -1, 42, Integer.MAX_VALUE, -Integer.MAX_VALUE};
+		for (int value : expected) {
+			assertTrue(t.nextWord());
+			assertEquals(value, t.parseInt());
+		}
+
+		for (String illegal : new String[] {"", "-", "1a", "--1", "2147483648"}) {
+			BufferTokenizer i = tokenizer(illegal);
+			assertThrows(NumberFormatException.class, () -> i.parseInt());
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package at.jku.fmv.qbf.io.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Chunks")
+class ChunksTest {
+
+	static byte[] buffer = "a\nbb\nccc\ndddd\n".getBytes();
+
+	@Test
+	@DisplayName("split")
+	void test_split() {
+		assertArrayEquals(
+			new int[] {0, 14},
+			Chunks.split(buffer, 0, buffer.length, 1 << 20));
+
+		assertArrayEquals(
+			new int[] {0, 2, 5, 9, 14},
+			Chunks.split(buffer, 0, buffer.length, 1));
+
+		assertArrayEquals(
+			new int[] {0, 5, 9, 14},
+			Chunks.split(buffer, 0, buffer.length, 3));
+
+		assertArrayEquals(
+			new int[] {2, 5, 9, 14},
+			Chunks.split(buffer, 2, buffer.length, 2));
+
+		assertArrayEquals(
+			new int[] {14, 14},
+			Chunks.split(buffer, buffer.length, buffer.length, 1));
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> Chunks.split(buffer, 0, buffer.length, 0));
+	}
+
+	@Test
+	@DisplayName("parse")
+	void test_parse() {
+		int[] bounds = Chunks.split(buffer, 0, buffer.length, 1);
+		List<String> expected = Arrays.asList("a", "bb", "ccc", "dddd");
+
+		for (int threads = 1; threads <= 4; threads++)
+			assertEquals(
+				expected,
+				Chunks.parse(buffer, bounds, threads, (b, from, to) ->
+					new String(b, from, to - from - 1)));
+
+		assertEquals(
+			"0,1,4,9",
+			Chunks.map(4, 2, i -> i * i).stream()
+				.map(String::valueOf)
+				.collect(Collectors.joining(",")));
+
+		assertThrows(
+			ParserException.class,
+			() -> Chunks.map(4, 2, i -> {
+				throw new ParserException(null);
+			}));
+	}
+}
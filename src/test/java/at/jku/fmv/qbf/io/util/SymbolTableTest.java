@@ -0,0 +1,80 @@
+package at.jku.fmv.qbf.io.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SymbolTable")
+class SymbolTableTest {
+
+	@Test
+	@DisplayName("intern")
+	void test_intern() {
+		byte[] buffer = "a bb a c bb".getBytes();
+		SymbolTable symbols = new SymbolTable();
+
+		assertEquals(0, symbols.intern(buffer, 0, 1));
+		assertEquals(1, symbols.intern(buffer, 2, 4));
+		assertEquals(0, symbols.intern(buffer, 5, 6));
+		assertEquals(2, symbols.intern(buffer, 7, 8));
+		assertEquals(1, symbols.intern(buffer, 9, 11));
+		assertEquals(3, symbols.intern(buffer, 0, 0));
+		assertEquals(4, symbols.size());
+
+		assertEquals("a", symbols.get(0));
+		assertEquals("bb", symbols.get(1));
+		assertEquals("c", symbols.get(2));
+		assertEquals("", symbols.get(3));
+		assertSame(symbols.get(1), symbols.get(1));
+	}
+
+	@Test
+	@DisplayName("intern (tokenizer)")
+	void test_intern_tokenizer() {
+		BufferTokenizer t = new BufferTokenizer("x y x".getBytes());
+		SymbolTable symbols = new SymbolTable();
+
+		int[] expected = {0, 1, 0};
+		for (int symbol : expected) {
+			assertTrue(t.nextWord());
+			assertEquals(symbol, symbols.intern(t));
+		}
+	}
+
+	@Test
+	@DisplayName("intern (other table)")
+	void test_intern_other() {
+		SymbolTable local = new SymbolTable();
+		SymbolTable global = new SymbolTable();
+
+		byte[] buffer = "ab".getBytes();
+		global.intern(buffer, 1, 2);
+		int a = local.intern(buffer, 0, 1);
+		int b = local.intern(buffer, 1, 2);
+
+		assertEquals(1, global.intern(local, a));
+		assertEquals(0, global.intern(local, b));
+		assertEquals("a", global.get(1));
+	}
+
+	@Test
+	@DisplayName("grow")
+	void test_grow() {
+		SymbolTable symbols = new SymbolTable();
+		int n = 100000;
+
+		for (int i = 0; i < n; i++) {
+			byte[] key = Integer.toString(i).getBytes();
+			assertEquals(i, symbols.intern(key, 0, key.length));
+		}
+
+		for (int i = 0; i < n; i++) {
+			byte[] key = Integer.toString(i).getBytes();
+			assertEquals(i, symbols.intern(key, 0, key.length));
+			assertEquals(Integer.toString(i), symbols.get(i));
+		}
+
+		assertEquals(n, symbols.size());
+	}
+}
@@ -0,0 +1,364 @@
+package at.jku.fmv.qbf.pcnf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.pcnf.DependencyScheme.Type;
+
+@DisplayName("DependencyScheme")
+class DependencySchemeTest {
+
+	static final Variable x = new Variable("x");
+	static final Variable y = new Variable("y");
+	static final Variable z = new Variable("z");
+	static final Variable u = new Variable("u");
+
+	static DependencyScheme standard(QBF pcnf) {
+		return new DependencyScheme(pcnf, Type.Standard);
+	}
+
+	static DependencyScheme rrs(QBF pcnf) {
+		return new DependencyScheme(pcnf, Type.ReflexiveResolutionPath);
+	}
+
+	@Test
+	@DisplayName("trivial dependencies")
+	void test_trivial() {
+		// ∃z: ∀x,u: ∃y: (x ∨ y) ∧ (u ∨ -y ∨ z)
+		QBF pcnf = new Exists(
+			new ForAll(
+				new Exists(
+					new And(new Or(x, y), new Or(u, new Not(y), z)),
+					"y"),
+				"x", "u"),
+			"z");
+
+		DependencyScheme scheme = standard(pcnf);
+		assertEquals(Arrays.asList("u", "x"), sorted(scheme.getUniversals()));
+		assertEquals("z", scheme.getExistentials().get(0));
+		assertEquals("y", scheme.getExistentials().get(1));
+		assertEquals(2, scheme.getTrivialSize());
+		assertEquals(2, scheme.size());
+		assertTrue(scheme.dependsOn("y", "x"));
+		assertTrue(scheme.dependsOn("y", "u"));
+		assertFalse(scheme.dependsOn("z", "x"));
+		assertEquals(Collections.emptySet(), scheme.getDependencies("z"));
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> scheme.dependsOn("x", "y"));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> scheme.getDependencies("v"));
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> standard(new ForAll(new Or(x, new And(y, z)), "x")));
+	}
+
+	@Test
+	@DisplayName("standard dependency scheme")
+	void test_standard() {
+		// ∀x: ∃y,z: (x ∨ z) ∧ (y ∨ -z) - connected via z
+		QBF pcnf = new ForAll(
+			new Exists(new And(new Or(x, z), new Or(y, new Not(z))), "y", "z"),
+			"x");
+		DependencyScheme scheme = standard(pcnf);
+		assertEquals(2, scheme.size());
+		assertTrue(scheme.dependsOn("y", "x"));
+		assertTrue(scheme.dependsOn("z", "x"));
+
+		// ∃z: ∀x: ∃y: (x ∨ z) ∧ (-z ∨ y) - z is left of x
+		pcnf = new Exists(
+			new ForAll(
+				new Exists(new And(new Or(x, z), new Or(new Not(z), y)), "y"),
+				"x"),
+			"z");
+		scheme = standard(pcnf);
+		assertEquals(1, scheme.getTrivialSize());
+		assertEquals(0, scheme.size());
+
+		// ∀x: ∃y: ∀u: ∃z: (x ∨ y) ∧ (u ∨ z) ∧ (y ∨ -z)
+		pcnf = new ForAll(
+			new Exists(
+				new ForAll(
+					new Exists(
+						new And(new Or(x, y), new Or(u, z), new Or(y, new Not(z))),
+						"z"),
+					"u"),
+				"y"),
+			"x");
+		scheme = standard(pcnf);
+		assertEquals(3, scheme.getTrivialSize());
+		assertEquals(3, scheme.size());
+		assertEquals(
+			Arrays.asList("x", "u"),
+			new ArrayList<>(scheme.getDependencies("z")));
+
+		// free variables are outermost existentials
+		scheme = standard(new ForAll(new And(new Or(x, y), z), "x"));
+		assertEquals(Arrays.asList("x"), scheme.getUniversals());
+		assertEquals(0, scheme.getTrivialSize());
+		assertEquals(0, scheme.size());
+		assertFalse(scheme.dependsOn("y", "x"));
+		assertFalse(scheme.dependsOn("z", "x"));
+	}
+
+	@Test
+	@DisplayName("reflexive resolution-path dependency scheme")
+	void test_rrs() {
+		// ∀x: ∃y,z: (x ∨ z) ∧ (y ∨ -z) - no path from -x
+		QBF pcnf = new ForAll(
+			new Exists(new And(new Or(x, z), new Or(y, new Not(z))), "y", "z"),
+			"x");
+		assertEquals(2, standard(pcnf).size());
+		assertEquals(0, rrs(pcnf).size());
+
+		// ∀x: ∃y: (x ∨ y) ∧ (-x ∨ -y)
+		pcnf = new ForAll(
+			new Exists(new And(new Or(x, y), new Or(new Not(x), new Not(y))), "y"),
+			"x");
+		assertTrue(rrs(pcnf).dependsOn("y", "x"));
+
+		// ∀x: ∃y: (x ∨ y) ∧ (-x ∨ y) - same polarity
+		pcnf = new ForAll(
+			new Exists(new And(new Or(x, y), new Or(new Not(x), y)), "y"),
+			"x");
+		assertTrue(standard(pcnf).dependsOn("y", "x"));
+		assertFalse(rrs(pcnf).dependsOn("y", "x"));
+
+		// ∀x: ∃y,z: (x ∨ z) ∧ (-z ∨ y) ∧ (-x ∨ -y) - paths via y and z
+		pcnf = new ForAll(
+			new Exists(
+				new And(
+					new Or(x, z),
+					new Or(new Not(z), y),
+					new Or(new Not(x), new Not(y))),
+				"y", "z"),
+			"x");
+		DependencyScheme scheme = rrs(pcnf);
+		assertTrue(scheme.dependsOn("y", "x"));
+		assertTrue(scheme.dependsOn("z", "x"));
+
+		// ∀x: ∃y,z: (x ∨ z) ∧ (-x ∨ -z) ∧ (z ∨ y) - y only reached from -x
+		pcnf = new ForAll(
+			new Exists(
+				new And(
+					new Or(x, z),
+					new Or(new Not(x), new Not(z)),
+					new Or(z, y)),
+				"y", "z"),
+			"x");
+		scheme = rrs(pcnf);
+		assertTrue(scheme.dependsOn("z", "x"));
+		assertFalse(scheme.dependsOn("y", "x"));
+	}
+
+	static List<String> sorted(List<String> list) {
+		List<String> sorted = new ArrayList<>(list);
+		Collections.sort(sorted);
+		return sorted;
+	}
+
+	// reference implementation - clauses and prefix of a PCNF
+	static final class Reference {
+
+		final List<Set<QBF>> clauses = new ArrayList<>();
+		final Map<String, Integer> level = new HashMap<>();
+		final Set<String> universals = new HashSet<>();
+
+		Reference(QBF pcnf) {
+			QBF matrix = pcnf;
+			for (int l = 0; matrix.isQuantifier(); l++) {
+				for (String v : ((Quantifier) matrix).variables) {
+					level.put(v, l);
+					if (matrix.isForAll())
+						universals.add(v);
+				}
+				matrix = ((Quantifier) matrix).subformula;
+			}
+			// free variables are outermost
+			for (String v : pcnf.getFreeVariables())
+				level.put(v, -1);
+
+			List<QBF> cs = matrix.isAnd()
+				? ((And) matrix).subformulas
+				: Collections.singletonList(matrix);
+			for (QBF c : cs) {
+				Set<QBF> clause = new HashSet<>(c.isOr()
+					? ((Or) c).subformulas
+					: Collections.singletonList(c));
+				// skip tautologies
+				if (clause.stream().noneMatch(l -> clause.contains(negate(l))))
+					clauses.add(clause);
+			}
+		}
+
+		static QBF negate(QBF literal) {
+			return literal.isNegation() ? ((Not) literal).subformula : new Not(literal);
+		}
+
+		static String var(QBF literal) {
+			return ((Variable) (literal.isNegation()
+				? ((Not) literal).subformula
+				: literal)).name;
+		}
+
+		boolean isConnecting(String v, String x) {
+			return !universals.contains(v) && level.get(v) > level.get(x);
+		}
+
+		// clauses connected via connecting variables
+		boolean isConnected(String x, String y) {
+			Set<Integer> visited = new HashSet<>();
+			Deque<Integer> queue = new ArrayDeque<>();
+			for (int i = 0; i < clauses.size(); i++)
+				if (clauses.get(i).stream().anyMatch(l -> var(l).equals(x))) {
+					visited.add(i);
+					queue.add(i);
+				}
+			while (!queue.isEmpty()) {
+				Set<QBF> clause = clauses.get(queue.poll());
+				for (QBF l : clause) {
+					if (var(l).equals(y))
+						return true;
+					if (!isConnecting(var(l), x))
+						continue;
+					for (int i = 0; i < clauses.size(); i++)
+						if (!visited.contains(i)
+							&& clauses.get(i).stream()
+								.anyMatch(k -> var(k).equals(var(l)))) {
+							visited.add(i);
+							queue.add(i);
+						}
+				}
+			}
+			return false;
+		}
+
+		// literals reachable by resolution paths - states (clause, entry)
+		Set<QBF> reach(QBF source, String x) {
+			Set<QBF> reached = new HashSet<>();
+			Set<List<Object>> visited = new HashSet<>();
+			Deque<List<Object>> queue = new ArrayDeque<>();
+			for (int i = 0; i < clauses.size(); i++)
+				if (clauses.get(i).contains(source))
+					queue.add(Arrays.asList(i, x));
+			while (!queue.isEmpty()) {
+				List<Object> state = queue.poll();
+				if (!visited.add(state))
+					continue;
+				for (QBF l : clauses.get((Integer) state.get(0))) {
+					if (var(l).equals(state.get(1)))
+						continue;
+					reached.add(l);
+					if (!isConnecting(var(l), x))
+						continue;
+					for (int i = 0; i < clauses.size(); i++)
+						if (clauses.get(i).contains(negate(l)))
+							queue.add(Arrays.asList(i, var(l)));
+				}
+			}
+			return reached;
+		}
+
+		boolean isStandard(String x, String y) {
+			return level.get(x) < level.get(y) && isConnected(x, y);
+		}
+
+		boolean isRRS(String x, String y) {
+			if (level.get(x) >= level.get(y))
+				return false;
+			Variable vx = new Variable(x), vy = new Variable(y);
+			Set<QBF> positive = reach(vx, x);
+			Set<QBF> negative = reach(new Not(vx), x);
+			return positive.contains(vy) && negative.contains(new Not(vy))
+				|| positive.contains(new Not(vy)) && negative.contains(vy);
+		}
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 500; i++) {
+			QBF pcnf = PreprocessorTest.random(rnd);
+			if (!pcnf.getSkeleton().isCNF())
+				continue;
+
+			Reference reference = new Reference(pcnf);
+			DependencyScheme std = standard(pcnf);
+			DependencyScheme rrs = rrs(pcnf);
+
+			assertEquals(std.getTrivialSize(), rrs.getTrivialSize());
+			assertTrue(std.size() <= std.getTrivialSize());
+			assertTrue(rrs.size() <= std.size());
+
+			long stdSize = 0, rrsSize = 0;
+			for (String e : std.getExistentials())
+				for (String a : std.getUniversals()) {
+					if (!reference.level.containsKey(a)
+						|| !reference.level.containsKey(e))
+						continue;
+					assertEquals(
+						reference.isStandard(a, e),
+						std.dependsOn(e, a),
+						pcnf + " " + a + " " + e);
+					assertEquals(
+						reference.isRRS(a, e),
+						rrs.dependsOn(e, a),
+						pcnf + " " + a + " " + e);
+					if (rrs.dependsOn(e, a))
+						assertTrue(std.dependsOn(e, a));
+					stdSize += std.dependsOn(e, a) ? 1 : 0;
+					rrsSize += rrs.dependsOn(e, a) ? 1 : 0;
+				}
+			assertEquals(stdSize, std.size());
+			assertEquals(rrsSize, rrs.size());
+		}
+	}
+
+	@Test
+	@DisplayName("large formulas")
+	void test_large() {
+		// ∀x_i: ∃y_i: chains (x_i ∨ y_i) ∧ (-x_i ∨ -y_i) ∧ (y_i ∨ -c_i) ∧ ...
+		int n = 1000;
+		QBF[] xs = new QBF[n], ys = new QBF[n];
+		List<QBF> clauses = new ArrayList<>();
+		Set<String> universals = new HashSet<>(), existentials = new HashSet<>();
+		for (int i = 0; i < n; i++) {
+			xs[i] = new Variable("x" + i);
+			ys[i] = new Variable("y" + i);
+			universals.add("x" + i);
+			existentials.add("y" + i);
+			clauses.add(new Or(xs[i], ys[i]));
+			clauses.add(new Or(new Not(xs[i]), new Not(ys[i])));
+		}
+		QBF pcnf = new ForAll(new Exists(new And(clauses), existentials), universals);
+
+		DependencyScheme std = standard(pcnf);
+		DependencyScheme rrs = rrs(pcnf);
+		assertEquals((long) n * n, std.getTrivialSize());
+		assertEquals(n, std.size());
+		assertEquals(n, rrs.size());
+		assertEquals(
+			Collections.singleton("x42"),
+			rrs.getDependencies("y42"));
+	}
+}
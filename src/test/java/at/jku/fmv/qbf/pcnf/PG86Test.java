@@ -28,13 +28,17 @@ class PG86Test {
 		assertEquals(and, pg86.encode(and));
 
 		QBF or = new Or(x1, x2);
+		// auxiliary variables are bound, free variables remain free
 		assertEquals(
-			"(_pg0 ∧ (-_pg0 ∨ x1 ∨ x2))",
+			"∃_pg0: (_pg0 ∧ (-_pg0 ∨ x1 ∨ x2))",
 			pg86.encode(or).toString());
+		assertEquals(
+			"∀x1: ∃_pg0: (_pg0 ∧ (-_pg0 ∨ x1 ∨ x2))",
+			pg86.encode(new ForAll(or, x1.name)).toString());
 
 		QBF orAnd = new Or(and, new And(x3, x4));
 		assertEquals(
-			"(_pg0 "
+			"∃_pg0,_pg1,_pg2: (_pg0 "
 			+ "∧ (-_pg0 ∨ _pg1 ∨ _pg2) "
 			+ "∧ (-_pg1 ∨ x1) "
 			+ "∧ (-_pg1 ∨ x2) "
@@ -45,6 +49,16 @@ class PG86Test {
 		QBF andOr = new And(or, new Or(x3, x4));
 		assertEquals(andOr, pg86.encode(andOr));
 
+		QBF orAndOr = new Or(andOr, x1);
+		assertEquals(
+			"∃_pg0,_pg1,_pg2,_pg3: (_pg0 "
+			+ "∧ (-_pg0 ∨ _pg1 ∨ x1) "
+			+ "∧ (-_pg1 ∨ _pg2) "
+			+ "∧ (-_pg1 ∨ _pg3) "
+			+ "∧ (-_pg2 ∨ x1 ∨ x2) "
+			+ "∧ (-_pg3 ∨ x3 ∨ x4))",
+			pg86.encode(orAndOr).toString());
+
 		QBF nonPrenex = new Or(x1, new Exists(new Or(x2, x3), x2.name));
 		assertThrows(
 			IllegalArgumentException.class,
@@ -53,7 +67,7 @@ class PG86Test {
 		PrenexingStrategy aueu = new ForAllUpExistsUp();
 
 		assertEquals(
-			"∀z: ∃x1,x2: ("
+			"∀z: ∃_pg0,_pg1,x1,x2: ("
 			+ "_pg0 "
 			+ "∧ (-_pg0 ∨ z ∨ _pg1) "
 			+ "∧ (-_pg1 ∨ x1) "
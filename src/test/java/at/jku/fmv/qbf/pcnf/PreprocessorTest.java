@@ -0,0 +1,371 @@
+package at.jku.fmv.qbf.pcnf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
+import at.jku.fmv.qbf.eval.Evaluator;
+import at.jku.fmv.qbf.pcnf.Preprocessor.Technique;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+
+@DisplayName("Preprocessor")
+class PreprocessorTest {
+
+	static final Variable x = new Variable("x");
+	static final Variable y = new Variable("y");
+	static final Variable z = new Variable("z");
+	static final Variable u = new Variable("u");
+
+	static QBF preprocess(QBF pcnf, Technique... techniques) {
+		Set<Technique> set = EnumSet.noneOf(Technique.class);
+		for (Technique t : techniques)
+			set.add(t);
+		return new Preprocessor(set).apply(pcnf);
+	}
+
+	// brute force evaluation - free variables are outermost existentials
+	static boolean isTrue(QBF pcnf) {
+		List<String> variables = new ArrayList<>();
+		List<Boolean> universal = new ArrayList<>();
+
+		for (String v : pcnf.getFreeVariables()) {
+			variables.add(v);
+			universal.add(false);
+		}
+
+		QBF matrix = pcnf;
+		for (; matrix.isQuantifier(); matrix = ((Quantifier) matrix).subformula)
+			for (String v : ((Quantifier) matrix).variables) {
+				variables.add(v);
+				universal.add(matrix.isForAll());
+			}
+
+		return isTrue(
+			new Evaluator(matrix),
+			variables,
+			universal,
+			new HashMap<>());
+	}
+
+	static boolean isTrue(
+		Evaluator matrix,
+		List<String> variables,
+		List<Boolean> universal,
+		Map<String, Boolean> assignment
+	) {
+		int i = assignment.size();
+		if (i == variables.size())
+			return matrix.evaluate(assignment);
+
+		boolean result = universal.get(i);
+		for (boolean value : new boolean[] {false, true}) {
+			assignment.put(variables.get(i), value);
+			boolean r = isTrue(matrix, variables, universal, assignment);
+			assignment.remove(variables.get(i));
+			if (r != result)
+				return r;
+		}
+		return result;
+	}
+
+	static QBF random(Random rnd) {
+		int n = 4 + rnd.nextInt(5);
+		List<QBF> variables = new ArrayList<>();
+		for (int i = 1; i <= n; i++)
+			variables.add(new Variable(Integer.toString(i)));
+
+		List<QBF> clauses = new ArrayList<>();
+		for (int i = 2 + rnd.nextInt(12); i > 0; i--) {
+			QBF[] lits = new QBF[1 + rnd.nextInt(3)];
+			for (int j = 0; j < lits.length; j++) {
+				QBF var = variables.get(rnd.nextInt(n));
+				lits[j] = rnd.nextBoolean() ? var : new Not(var);
+			}
+			clauses.add(lits.length == 1 ? lits[0] : new Or(lits));
+		}
+
+		QBF formula = clauses.size() == 1 ? clauses.get(0) : new And(clauses);
+
+		// random blocks over a prefix of the variables - the rest is free
+		boolean forall = rnd.nextBoolean();
+		for (int i = n - rnd.nextInt(3); i > 0; ) {
+			Set<String> block = new HashSet<>();
+			for (int j = 1 + rnd.nextInt(2); j > 0 && i > 0; j--)
+				block.add(Integer.toString(i--));
+			formula = forall
+				? new ForAll(formula, block)
+				: new Exists(formula, block);
+			forall = !forall;
+		}
+
+		return formula;
+	}
+
+	@Test
+	@DisplayName("universal reduction")
+	void test_universalReduction() {
+		// ∃x: ∀u: (x ∨ u) ∧ (-x ∨ y ∨ u)
+		QBF pcnf = new Exists(
+			new ForAll(
+				new And(new Or(x, u), new Or(new Not(x), y, u)),
+				"u"),
+			"x");
+
+		// y is free, i.e. outermost
+		assertEquals(
+			"∃x: (x ∧ (-x ∨ y))",
+			preprocess(pcnf, Technique.UniversalReduction).toString());
+
+		// ∃x: ∀u: ∃y: (x ∨ u) ∧ (-x ∨ y ∨ u)
+		pcnf = new Exists(
+			new ForAll(
+				new Exists(
+					new And(new Or(x, u), new Or(new Not(x), y, u)),
+					"y"),
+				"u"),
+			"x");
+		assertEquals(
+			"∃x: ∀u: ∃y: (x ∧ (-x ∨ y ∨ u))",
+			preprocess(pcnf, Technique.UniversalReduction).toString());
+
+		// ∀u: (u ∨ -x) ∧ (-u ∨ x) is false for a free (outermost) x
+		pcnf = new ForAll(
+			new And(new Or(u, new Not(x)), new Or(new Not(u), x)),
+			"u");
+		assertFalse(isTrue(pcnf));
+		assertEquals(
+			"(-x ∧ x)",
+			preprocess(pcnf, Technique.UniversalReduction).toString());
+		assertSame(QBF.False, new Preprocessor().apply(pcnf));
+
+		// ∀u: u
+		assertSame(
+			QBF.False,
+			preprocess(new ForAll(u, "u"), Technique.UniversalReduction));
+	}
+
+	@Test
+	@DisplayName("unit propagation")
+	void test_unitPropagation() {
+		// ∃x,y: x ∧ (-x ∨ y) ∧ (-y ∨ z)
+		QBF pcnf = new Exists(
+			new And(x, new Or(new Not(x), y), new Or(new Not(y), z)),
+			"x", "y");
+
+		assertSame(QBF.True, preprocess(pcnf, Technique.UnitPropagation));
+
+		// x ∧ -x
+		assertSame(
+			QBF.False,
+			preprocess(new And(x, new Not(x)), Technique.UnitPropagation));
+	}
+
+	@Test
+	@DisplayName("pure literals")
+	void test_pureLiterals() {
+		// ∀u: ∃x: (u ∨ x) ∧ (u ∨ -x)
+		QBF pcnf = new ForAll(
+			new Exists(new And(new Or(u, x), new Or(u, new Not(x))), "x"),
+			"u");
+
+		assertEquals(
+			"∃x: (x ∧ -x)",
+			preprocess(pcnf, Technique.PureLiterals).toString());
+		assertSame(
+			QBF.False,
+			preprocess(pcnf, Technique.PureLiterals, Technique.UnitPropagation));
+
+		// ∃x,y: (x ∨ y) ∧ (x ∨ -y)
+		pcnf = new Exists(new And(new Or(x, y), new Or(x, new Not(y))), "x", "y");
+
+		assertSame(QBF.True, preprocess(pcnf, Technique.PureLiterals));
+	}
+
+	@Test
+	@DisplayName("subsumption")
+	void test_subsumption() {
+		// (x ∨ y) ∧ (x ∨ y ∨ z) ∧ (y ∨ x) ∧ (-x ∨ z)
+		QBF pcnf = new And(
+			new Or(x, y),
+			new Or(x, y, z),
+			new Or(y, x),
+			new Or(new Not(x), z));
+
+		Preprocessor preprocessor =
+			new Preprocessor(EnumSet.of(Technique.Subsumption));
+
+		assertEquals(
+			"((x ∨ y) ∧ (-x ∨ z))",
+			preprocessor.apply(pcnf).toString());
+		assertEquals(2, preprocessor.getCount(Technique.Subsumption));
+	}
+
+	@Test
+	@DisplayName("equivalences")
+	void test_equivalences() {
+		// ∃x,y,z: (-x ∨ y) ∧ (x ∨ -y) ∧ (y ∨ z) ∧ (-x ∨ z)
+		QBF pcnf = new Exists(
+			new And(
+				new Or(new Not(x), y),
+				new Or(x, new Not(y)),
+				new Or(y, z),
+				new Or(new Not(x), z)),
+			"x", "y", "z");
+
+		Preprocessor preprocessor =
+			new Preprocessor(EnumSet.of(Technique.Equivalences));
+
+		assertEquals(
+			"∃x,z: ((-x ∨ z) ∧ (x ∨ z))",
+			preprocessor.apply(pcnf).toString());
+		assertEquals(1, preprocessor.getCount(Technique.Equivalences));
+
+		// ∀u: ∃x: (-u ∨ x) ∧ (u ∨ -x) - x is replaced by u
+		pcnf = new ForAll(
+			new Exists(new And(new Or(new Not(u), x), new Or(u, new Not(x))), "x"),
+			"u");
+
+		assertSame(QBF.True, preprocess(pcnf, Technique.Equivalences));
+
+		// ∃x: ∀u: (-u ∨ x) ∧ (u ∨ -x)
+		pcnf = new Exists(
+			new ForAll(new And(new Or(new Not(u), x), new Or(u, new Not(x))), "u"),
+			"x");
+
+		assertSame(QBF.False, preprocess(pcnf, Technique.Equivalences));
+
+		// x → y → -x → z → x
+		pcnf = new And(
+			new Or(new Not(x), y),
+			new Or(new Not(y), new Not(x)),
+			new Or(x, z),
+			new Or(new Not(z), x));
+
+		assertSame(QBF.False, preprocess(pcnf, Technique.Equivalences));
+	}
+
+	@Test
+	@DisplayName("blocked clauses")
+	void test_blockedClauses() {
+		// ∃x,y: (x ∨ y) ∧ (-x ∨ -y) ∧ (x ∨ -y)
+		QBF pcnf = new Exists(
+			new And(
+				new Or(x, y),
+				new Or(new Not(x), new Not(y)),
+				new Or(x, new Not(y))),
+			"x", "y");
+
+		Preprocessor preprocessor =
+			new Preprocessor(EnumSet.of(Technique.BlockedClauses));
+
+		assertSame(QBF.True, preprocessor.apply(pcnf));
+		assertEquals(3, preprocessor.getCount(Technique.BlockedClauses));
+
+		// ∀u: ∃x: (u ∨ x) ∧ (-u ∨ -x) - blocked on x
+		pcnf = new ForAll(
+			new Exists(new And(new Or(u, x), new Or(new Not(u), new Not(x))), "x"),
+			"u");
+
+		assertSame(QBF.True, preprocess(pcnf, Technique.BlockedClauses));
+
+		// ∃x: ∀u: (u ∨ x) ∧ (-u ∨ -x) - tautology on an inner universal
+		pcnf = new Exists(
+			new ForAll(new And(new Or(u, x), new Or(new Not(u), new Not(x))), "u"),
+			"x");
+
+		assertEquals(
+			"∃x: ∀u: ((u ∨ x) ∧ (-u ∨ -x))",
+			preprocess(pcnf, Technique.BlockedClauses).toString());
+	}
+
+	@Test
+	@DisplayName("variable elimination")
+	void test_variableElimination() {
+		// ∀x: ∃y,z: (x ∨ y) ∧ (-y ∨ z) ∧ (-y ∨ -z ∨ x)
+		QBF pcnf = new ForAll(
+			new Exists(
+				new And(
+					new Or(x, y),
+					new Or(new Not(y), z),
+					new Or(new Not(y), new Not(z), x)),
+				"y", "z"),
+			"x");
+
+		Preprocessor preprocessor =
+			new Preprocessor(EnumSet.of(Technique.VariableElimination));
+
+		// y is eliminated first (x ∨ z), then z (x ∨ -z ∨ x)
+		assertEquals("∀x: x", preprocessor.apply(pcnf).toString());
+		assertEquals(2, preprocessor.getCount(Technique.VariableElimination));
+
+		// ∃x: ∀u: ∃y: (x ∨ y) ∧ (-x ∨ -y) ∧ (y ∨ u) ∧ (-y ∨ -u)
+		// x must not be eliminated: y depends on u
+		pcnf = new Exists(
+			new ForAll(
+				new Exists(
+					new And(
+						new Or(x, y),
+						new Or(new Not(x), new Not(y)),
+						new Or(y, u),
+						new Or(new Not(y), new Not(u))),
+					"y"),
+				"u"),
+			"x");
+
+		// y is eliminated: (x ∨ -u) ∧ (u ∨ -x)
+		assertEquals(
+			"∃x: ∀u: ((x ∨ -u) ∧ (u ∨ -x))",
+			preprocess(pcnf, Technique.VariableElimination).toString());
+	}
+
+	@Test
+	@DisplayName("PG86")
+	void test_pg86() {
+		// ∀z: ∃x1,x2: (_pg0 ∧ (-_pg0 ∨ z ∨ _pg1) ∧ (-_pg1 ∨ x1) ∧ ...)
+		QBF pcnf = QBFTest.g14.toPCNF(new ForAllUpExistsUp(), new PG86());
+
+		assertFalse(isTrue(pcnf));
+		assertSame(QBF.False, new Preprocessor().apply(pcnf));
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> new Preprocessor().apply(QBFTest.g14));
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		List<Set<Technique>> configurations = new ArrayList<>();
+		for (Technique t : Technique.values())
+			configurations.add(EnumSet.of(t));
+		configurations.add(EnumSet.allOf(Technique.class));
+
+		for (int i = 0; i < 500; i++) {
+			QBF pcnf = random(rnd);
+			boolean expected = isTrue(pcnf);
+
+			for (Set<Technique> techniques : configurations) {
+				QBF result = new Preprocessor(techniques).apply(pcnf);
+				assertEquals(
+					expected,
+					isTrue(result),
+					techniques + ": " + pcnf + " → " + result);
+			}
+		}
+	}
+}
@@ -0,0 +1,221 @@
+package at.jku.fmv.qbf.pcnf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.aig.AIGTest;
+import at.jku.fmv.qbf.solver.RAReQS;
+
+@DisplayName("Rewriter")
+class RewriterTest {
+
+	static final Variable x = new Variable("x");
+	static final Variable y = new Variable("y");
+	static final Variable z = new Variable("z");
+	static final Variable u = new Variable("u");
+
+	static String rewrite(QBF formula) {
+		return new Rewriter().apply(formula).toString();
+	}
+
+	@Test
+	@DisplayName("flattening")
+	void test_flatten() {
+		assertEquals("(x ∧ y ∧ z)", rewrite(new And(x, new And(y, z))));
+		assertEquals(
+			"(x ∨ y ∨ z ∨ u)",
+			rewrite(new Or(new Or(x, y), new Or(z, u))));
+
+		// shared gates are kept
+		QBF shared = new And(y, z);
+		QBF formula = new Or(new And(x, shared), new And(u, shared));
+		QBF result = new Rewriter().apply(formula);
+		assertEquals("((x ∧ (y ∧ z)) ∨ (u ∧ (y ∧ z)))", result.toString());
+		assertSame(
+			((And) ((Or) result).subformulas.get(0)).subformulas.get(1),
+			((And) ((Or) result).subformulas.get(1)).subformulas.get(1));
+
+		// structurally equal gates are shared
+		formula = new Or(
+			new And(x, new Or(y, z)),
+			new And(u, new Or(y, z)));
+		result = new Rewriter().apply(formula);
+		assertSame(
+			((And) ((Or) result).subformulas.get(0)).subformulas.get(1),
+			((And) ((Or) result).subformulas.get(1)).subformulas.get(1));
+	}
+
+	@Test
+	@DisplayName("operands")
+	void test_operands() {
+		assertEquals("(x ∧ y)", rewrite(new And(x, y, x)));
+		assertEquals("(x ∧ y)", rewrite(new And(x, QBF.True, y)));
+		assertEquals("x", rewrite(new Or(x, QBF.False)));
+		assertEquals("x", rewrite(new Not(new Not(x))));
+		assertEquals("-x", rewrite(new Not(new Not(new Not(x)))));
+		assertEquals(QBF.False, new Rewriter().apply(new And(x, y, new Not(x))));
+		assertEquals(QBF.True, new Rewriter().apply(new Or(new Not(x), y, x)));
+		assertEquals(QBF.True, new Rewriter().apply(new Not(QBF.False)));
+
+		// complements across flattened gates
+		assertEquals(
+			QBF.False,
+			new Rewriter().apply(new And(x, new And(y, new Not(x)))));
+	}
+
+	@Test
+	@DisplayName("absorption")
+	void test_absorption() {
+		assertEquals("x", rewrite(new And(x, new Or(x, y))));
+		assertEquals("x", rewrite(new Or(new And(y, x), x)));
+		assertEquals(
+			"(x ∧ z)",
+			rewrite(new And(new Or(y, x), new Or(u, z), x, z)));
+	}
+
+	@Test
+	@DisplayName("strengthening")
+	void test_strengthening() {
+		assertEquals("(x ∧ y)", rewrite(new And(x, new Or(new Not(x), y))));
+		assertEquals("(-x ∨ y)", rewrite(new Or(new Not(x), new And(x, y))));
+		assertEquals(
+			QBF.False,
+			new Rewriter().apply(new And(x, y, new Or(new Not(x), new Not(y)))));
+
+		// strengthened operands enable further simplifications
+		assertEquals(
+			"(x ∧ y)",
+			rewrite(new And(x, new Or(new Not(x), y), new Or(new Not(y), x))));
+		assertEquals(
+			QBF.False,
+			new Rewriter().apply(new And(
+				x,
+				new Or(new Not(x), y),
+				new Or(new Not(y), new Not(x)))));
+	}
+
+	@Test
+	@DisplayName("subsumption")
+	void test_subsumption() {
+		assertEquals(
+			"((x ∨ y) ∧ z)",
+			rewrite(new And(new Or(x, y), z, new Or(u, y, x))));
+		assertEquals(
+			"((x ∧ y) ∨ z)",
+			rewrite(new Or(new And(y, u, x), new And(x, y), z)));
+	}
+
+	@Test
+	@DisplayName("balancing")
+	void test_balance() {
+		assertThrows(IllegalArgumentException.class, () -> new Rewriter(1));
+
+		Variable[] vars = new Variable[8];
+		for (int i = 0; i < vars.length; i++)
+			vars[i] = new Variable(Integer.toString(i));
+
+		Rewriter rewriter = new Rewriter(2);
+		QBF result = rewriter.apply(new And(vars));
+		assertEquals(1, rewriter.getInitialHeight());
+		assertEquals(3, rewriter.getHeight());
+		result.stream(QBF.Traverse.PreOrder)
+			.filter(f -> f.isAnd())
+			.forEach(f -> assertEquals(2, ((And) f).subformulas.size()));
+
+		// higher operands are combined last
+		QBF high = new Or(new And(x, new Or(y, z)), u);
+		result = new Rewriter(2).apply(new And(vars[0], vars[1], vars[2], high));
+		assertEquals(4, result.getHeight());
+		assertSame(high, ((And) result).subformulas.get(1));
+
+		result = new Rewriter(3).apply(new And(vars));
+		assertEquals(2, result.getHeight());
+
+		// gates are simplified before balancing
+		assertEquals(
+			x,
+			new Rewriter(2).apply(new And(x, new Or(y, z, u, x))));
+
+		// small gates are not affected
+		assertEquals("(x ∧ y)", new Rewriter(2).apply(new And(x, y)).toString());
+	}
+
+	@Test
+	@DisplayName("quantifiers")
+	void test_quantifiers() {
+		QBF formula = new ForAll(
+			new Exists(new Or(new And(x, new Or(x, z)), y), "y", "z"),
+			"x");
+		assertEquals("∀x: ∃y,z: (x ∨ y)", rewrite(formula));
+
+		formula = new ForAll(new Or(x, new Not(x)), "x");
+		assertEquals(QBF.True, new Rewriter().apply(formula));
+
+		// quantified subformulas are atoms
+		QBF exists = new Exists(new And(x, y), "y");
+		assertEquals(
+			QBF.False,
+			new Rewriter().apply(new And(exists, new Not(exists))));
+
+		formula = new ForAll(new Or(x, new Exists(x, "x")), "x");
+		assertEquals(formula, new Rewriter().apply(formula));
+	}
+
+	@Test
+	@DisplayName("deep formulas")
+	void test_deep() {
+		QBF formula = x;
+		for (int i = 0; i < 100000; i++)
+			formula = new And(formula, new Variable("v" + i % 100));
+
+		Rewriter rewriter = new Rewriter();
+		QBF result = rewriter.apply(formula);
+		assertEquals(100000, rewriter.getInitialHeight());
+		assertEquals(1, rewriter.getHeight());
+		assertEquals(102, rewriter.getSize());
+		assertEquals(101, ((And) result).subformulas.size());
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 500; i++) {
+			QBF formula = AIGTest.random(rnd);
+			Rewriter rewriter = new Rewriter();
+			QBF result = rewriter.apply(formula);
+			assertTrue(AIGTest.isEquivalent(formula, result), formula.toString());
+			assertTrue(rewriter.getSize() <= rewriter.getInitialSize());
+			assertTrue(rewriter.getHeight() <= rewriter.getInitialHeight());
+
+			int arity = 2 + rnd.nextInt(3);
+			result = new Rewriter(arity).apply(formula);
+			assertTrue(AIGTest.isEquivalent(formula, result), formula.toString());
+			assertTrue(result.stream(QBF.Traverse.PreOrder)
+				.filter(f -> f.isAnd() || f.isOr())
+				.allMatch(f -> ((MultiaryOperator) f).subformulas.size() <= arity));
+		}
+
+		// truth of quantified formulas is preserved
+		for (int i = 0; i < 300; i++) {
+			QBF formula = AIGTest.random(rnd);
+			for (String v : formula.getFreeVariables())
+				if (rnd.nextBoolean())
+					formula = rnd.nextBoolean()
+						? new ForAll(formula, v)
+						: new Exists(formula, v);
+
+			assertEquals(
+				new RAReQS().solve(formula),
+				new RAReQS().solve(new Rewriter(2).apply(formula)),
+				formula.toString());
+		}
+	}
+}
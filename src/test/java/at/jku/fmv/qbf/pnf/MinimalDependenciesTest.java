@@ -0,0 +1,158 @@
+package at.jku.fmv.qbf.pnf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
+import at.jku.fmv.qbf.solver.RAReQS;
+
+@DisplayName("MinimalDependencies")
+public class MinimalDependenciesTest {
+
+	static final PrenexingStrategy strategy = new MinimalDependencies();
+
+	static final List<PrenexingStrategy> strategies = Arrays.asList(
+		new ExistsDownForAllUp(),
+		new ExistsUpForAllDown(),
+		new ForAllDownExistsDown(),
+		new ForAllDownExistsUp(),
+		new ForAllUpExistsDown(),
+		new ForAllUpExistsUp());
+
+	// lncs example with bound variables occurring in the matrix
+	static final QBF lncs =
+		new Exists(
+			new And(
+				new ForAll(
+					new Exists(
+						new ForAll(
+							new Exists(
+								new Or(
+									new Variable("p"),
+									new Variable("q"),
+									new Variable("r"),
+									new Variable("s"),
+									new Variable("t")),
+								"t"),
+							"s"),
+						"r"),
+					"q"),
+				new ForAll(
+					new Exists(
+						new Or(new Variable("q'"), new Variable("r'")),
+						"r'"),
+					"q'"),
+				new Not(
+					new ForAll(
+						new Exists(
+							new And(new Variable("q''"), new Variable("r''")),
+							"r''"),
+						"q''"))),
+			"p").toNNF();
+
+	@Test
+	@DisplayName("apply")
+	void test_apply() {
+		// propositional formula
+		QBF nop = new And(new Variable("x1"), new Variable("x2"));
+		assertEquals(nop, nop.toPNF(strategy));
+
+		// no bound variable occurs in the matrix
+		assertEquals(
+			"∃p,q'',r,r',t: ∀q,q',r'',s: (ϕ0 ∧ ϕ1 ∧ -ϕ2)",
+			QBFTest.lncs.toPNF(strategy).toString());
+
+		assertEquals(
+			"∃p,q'': ∀q: ∃r: ∀s: ∃t: ∀q': ∃r': ∀r'': "
+				+ "((p ∨ q ∨ r ∨ s ∨ t) ∧ (q' ∨ r') ∧ (-q'' ∨ -r''))",
+			strategy.apply(lncs).toString());
+
+		// variables bound multiple times
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> strategy.apply(
+				new And(
+					new ForAll(new Variable("x"), "x"),
+					new Exists(new Variable("x"), "x"))));
+	}
+
+	@Test
+	@DisplayName("countSpuriousDependencies")
+	void test_countSpuriousDependencies() {
+		assertEquals(
+			0,
+			MinimalDependencies.countSpuriousDependencies(
+				QBFTest.lncsNNF,
+				QBFTest.lncs.toPNF(strategy)));
+		assertEquals(
+			8,
+			MinimalDependencies.countSpuriousDependencies(
+				QBFTest.lncsNNF,
+				QBFTest.lncs.toPNF(new ExistsUpForAllDown())));
+
+		assertEquals(
+			2,
+			MinimalDependencies.countSpuriousDependencies(
+				lncs,
+				strategy.apply(lncs)));
+		assertEquals(
+			4,
+			MinimalDependencies.countSpuriousDependencies(
+				lncs,
+				new ExistsUpForAllDown().apply(lncs)));
+
+		// dependencies of formulas in PNF are given by variable occurrence
+		QBF pnf = new ForAll(
+			new Exists(
+				new ForAll(
+					new Exists(
+						new And(
+							new Variable("y"),
+							new Or(new Variable("z"), new Variable("w"))),
+						"w"),
+					"z"),
+				"y"),
+			"x");
+		assertEquals(2, MinimalDependencies.countSpuriousDependencies(pnf, pnf));
+		pnf = strategy.apply(pnf);
+		assertEquals("∃y: ∀z: ∃w: ∀x: (y ∧ (z ∨ w))", pnf.toString());
+		assertEquals(0, MinimalDependencies.countSpuriousDependencies(pnf, pnf));
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 300; i++) {
+			QBF formula = QBFTest.randomQBF(rnd).cleanse().toNNF();
+			QBF pnf = strategy.apply(formula);
+			long spurious =
+				MinimalDependencies.countSpuriousDependencies(formula, pnf);
+
+			assertEquals(
+				formula.getBoundVariables(),
+				pnf.getBoundVariables(),
+				formula.toString());
+			assertEquals(
+				new RAReQS().solve(formula.toPNF(new ForAllUpExistsUp())),
+				new RAReQS().solve(pnf),
+				formula.toString());
+
+			for (PrenexingStrategy other : strategies)
+				assertTrue(
+					spurious <= MinimalDependencies.countSpuriousDependencies(
+						formula,
+						other.apply(formula)),
+					formula.toString());
+		}
+	}
+}
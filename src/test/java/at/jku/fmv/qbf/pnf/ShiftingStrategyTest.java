@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 
 import at.jku.fmv.qbf.QBF;
 import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
 
 @DisplayName("ShiftingStrategy")
 public class ShiftingStrategyTest {
@@ -127,4 +128,21 @@ public class ShiftingStrategyTest {
 			UnsupportedOperationException.class,
 			() -> twoCriticalPaths.toPNF(dummy));
 	}
+
+	@Test
+	@DisplayName("apply (q-paths and skeleton)")
+	void test_apply_qpaths() {
+		ShiftingStrategy strategy = new ForAllUpExistsUp();
+
+		for (QBF formula : new QBF[] { QBFTest.lncsNNF, QBFTest.g14 })
+			assertEquals(
+				strategy.apply(formula),
+				strategy.apply(formula.getQPaths(), formula.getSkeleton()));
+
+		// propositional formula
+		QBF skeleton = new And(new Variable("x1"), new Variable("x2"));
+		assertEquals(
+			skeleton,
+			strategy.apply(skeleton.getQPaths(), skeleton));
+	}
 }
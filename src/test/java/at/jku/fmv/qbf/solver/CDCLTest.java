@@ -0,0 +1,257 @@
+package at.jku.fmv.qbf.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
+
+@DisplayName("CDCL")
+class CDCLTest {
+
+	static final Variable x = new Variable("x");
+	static final Variable y = new Variable("y");
+	static final Variable z = new Variable("z");
+
+	static CDCL create(int numVariables) {
+		CDCL solver = new CDCL();
+		for (int i = 0; i < numVariables; i++)
+			solver.newVariable();
+		return solver;
+	}
+
+	static boolean satisfies(CDCL solver, List<int[]> clauses) {
+		return clauses.stream().allMatch(clause ->
+			Arrays.stream(clause).anyMatch(lit ->
+				solver.getValue(Math.abs(lit)) == lit > 0));
+	}
+
+	// brute force satisfiability
+	static boolean isSatisfiable(int n, List<int[]> clauses, int... assumptions) {
+		for (long a = 0; a < 1L << n; a++) {
+			long assignment = a;
+			if (Arrays.stream(assumptions).allMatch(lit -> isTrue(assignment, lit))
+				&& clauses.stream().allMatch(clause ->
+					Arrays.stream(clause).anyMatch(lit -> isTrue(assignment, lit))))
+				return true;
+		}
+		return false;
+	}
+
+	static boolean isTrue(long assignment, int literal) {
+		return (assignment >>> (Math.abs(literal) - 1) & 1) == (literal > 0 ? 1 : 0);
+	}
+
+	static List<int[]> random(Random rnd, int n, int m, int k) {
+		List<int[]> clauses = new ArrayList<>();
+		for (int i = 0; i < m; i++) {
+			int[] clause = new int[1 + rnd.nextInt(k)];
+			for (int j = 0; j < clause.length; j++)
+				clause[j] = (1 + rnd.nextInt(n)) * (rnd.nextBoolean() ? 1 : -1);
+			clauses.add(clause);
+		}
+		return clauses;
+	}
+
+	// n + 1 pigeons in n holes
+	static List<int[]> pigeonhole(int n) {
+		List<int[]> clauses = new ArrayList<>();
+		for (int p = 0; p <= n; p++) {
+			int[] clause = new int[n];
+			for (int h = 0; h < n; h++)
+				clause[h] = p * n + h + 1;
+			clauses.add(clause);
+		}
+		for (int h = 0; h < n; h++)
+			for (int p = 0; p <= n; p++)
+				for (int q = p + 1; q <= n; q++)
+					clauses.add(new int[] {-(p * n + h + 1), -(q * n + h + 1)});
+		return clauses;
+	}
+
+	@Test
+	@DisplayName("clauses")
+	void test_clauses() {
+		CDCL solver = create(3);
+		assertTrue(solver.solve());
+
+		assertTrue(solver.addClause(1, 2));
+		assertTrue(solver.addClause(-1, 2));
+		assertTrue(solver.solve());
+		assertTrue(solver.getValue(2));
+
+		// tautologies and duplicates
+		assertTrue(solver.addClause(3, -3));
+		assertTrue(solver.addClause(-2, 3, -2));
+		assertTrue(solver.solve());
+		assertTrue(solver.getValue(3));
+
+		assertFalse(solver.addClause(-3));
+		assertFalse(solver.solve());
+		assertFalse(solver.addClause(1));
+
+		assertFalse(create(0).addClause());
+
+		assertThrows(IllegalArgumentException.class, () -> create(1).addClause(2));
+		assertThrows(IllegalArgumentException.class, () -> create(1).addClause(0));
+	}
+
+	@Test
+	@DisplayName("assumptions")
+	void test_assumptions() {
+		// (1 ∨ 2) ∧ (-1 ∨ 3) ∧ (-2 ∨ 3)
+		CDCL solver = create(4);
+		solver.addClause(1, 2);
+		solver.addClause(-1, 3);
+		solver.addClause(-2, 3);
+
+		assertTrue(solver.solve(1));
+		assertTrue(solver.getValue(1));
+		assertTrue(solver.getValue(3));
+
+		assertFalse(solver.solve(4, -3));
+		assertArrayEquals(new int[] {-3}, solver.getFailedAssumptions());
+
+		assertFalse(solver.solve(-1, 4, -2));
+		int[] failed = solver.getFailedAssumptions();
+		Arrays.sort(failed);
+		assertArrayEquals(new int[] {-2, -1}, failed);
+
+		// assumptions are temporary
+		assertTrue(solver.solve());
+		assertTrue(solver.solve(-1));
+		assertTrue(solver.getValue(2));
+
+		solver.addClause(-3);
+		assertFalse(solver.solve(4));
+		assertEquals(0, solver.getFailedAssumptions().length);
+	}
+
+	@Test
+	@DisplayName("formulas")
+	void test_formulas() {
+		CDCL solver = new CDCL();
+		assertTrue(solver.solve(new Or(x, y)));
+		assertTrue(solver.getValue("x") || solver.getValue("y"));
+
+		// (x ∨ y) ∧ -(x ∧ y) ∧ (x ↔ z)
+		assertTrue(solver.add(new Not(new And(x, y))));
+		assertTrue(solver.add(new And(new Or(new Not(x), z), new Or(x, new Not(z)))));
+		assertTrue(solver.solve());
+		assertNotEquals(solver.getValue("x"), solver.getValue("y"));
+		assertEquals(solver.getValue("x"), solver.getValue("z"));
+
+		// auxiliary variables of subsequent encodings are distinct
+		int numVariables = solver.getNumVariables();
+		assertTrue(solver.add(new Or(new And(x, z), new And(y, new Not(z)))));
+		assertTrue(solver.getNumVariables() > numVariables);
+		assertTrue(solver.solve(solver.getVariable("y")));
+		assertFalse(solver.solve(new And(new Not(y), new Not(z))));
+
+		assertTrue(new CDCL().solve(QBF.True));
+		assertFalse(new CDCL().solve(QBF.False));
+		assertFalse(new CDCL().solve(new And(x, new Not(x))));
+		assertTrue(new CDCL().solve(new Exists(new Or(x, QBF.False), "x")));
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> new CDCL().solve(QBFTest.g14));
+
+		// CNF containing double negated literals
+		solver = new CDCL();
+		assertTrue(solver.add(new And(
+			new Not(new Not(x)),
+			new Or(new Not(new Not(new Not(y))), z))));
+		assertTrue(solver.solve(solver.getVariable("y")));
+		assertTrue(solver.getValue("x"));
+		assertTrue(solver.getValue("z"));
+		assertFalse(solver.solve(-solver.getVariable("x")));
+	}
+
+	@Test
+	@DisplayName("skeleton equivalence")
+	void test_equivalence() {
+		// skeleton ⊕ NNF is unsatisfiable
+		for (QBF formula : new QBF[] {QBFTest.lncs, QBFTest.g14}) {
+			QBF skeleton = formula.getSkeleton();
+			QBF nnf = skeleton.toNNF();
+			QBF xor = new Or(
+				new And(skeleton, new Not(nnf)),
+				new And(new Not(skeleton), nnf));
+			assertFalse(new CDCL().solve(xor), formula.toString());
+			assertTrue(new CDCL().solve(skeleton), formula.toString());
+		}
+	}
+
+	@Test
+	@DisplayName("pigeonhole")
+	void test_pigeonhole() {
+		List<int[]> clauses = pigeonhole(7);
+		CDCL solver = create(56);
+		clauses.forEach(solver::addClause);
+		assertFalse(solver.solve());
+		assertTrue(solver.getConflicts() > 0);
+		assertTrue(solver.getReductions() > 0);
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 1000; i++) {
+			int n = 3 + rnd.nextInt(10);
+			List<int[]> clauses = random(rnd, n, 1 + rnd.nextInt(5 * n), 4);
+			int[] assumptions = random(rnd, n, 1, 3).get(0);
+
+			CDCL solver = create(n);
+			clauses.forEach(solver::addClause);
+
+			boolean expected = isSatisfiable(n, clauses);
+			assertEquals(expected, solver.solve());
+			if (expected)
+				assertTrue(satisfies(solver, clauses));
+
+			expected = isSatisfiable(n, clauses, assumptions);
+			assertEquals(expected, solver.solve(assumptions));
+			if (expected) {
+				assertTrue(satisfies(solver, clauses));
+				for (int lit : assumptions)
+					assertEquals(lit > 0, solver.getValue(Math.abs(lit)));
+			} else {
+				assertFalse(
+					isSatisfiable(n, clauses, solver.getFailedAssumptions()));
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("incremental")
+	void test_incremental() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 100; i++) {
+			int n = 8 + rnd.nextInt(8);
+			CDCL solver = create(n);
+			List<int[]> clauses = new ArrayList<>();
+
+			for (int[] clause : random(rnd, n, 6 * n, 3)) {
+				clauses.add(clause);
+				solver.addClause(clause);
+				boolean expected = isSatisfiable(n, clauses);
+				assertEquals(expected, solver.solve());
+				if (!expected)
+					break;
+				assertTrue(satisfies(solver, clauses));
+			}
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package at.jku.fmv.qbf.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
+import at.jku.fmv.qbf.eval.Evaluator;
+import at.jku.fmv.qbf.pcnf.PG86;
+import at.jku.fmv.qbf.pcnf.Preprocessor;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+
+@DisplayName("QCDCL")
+class QCDCLTest {
+
+	static final Variable x = new Variable("x");
+	static final Variable y = new Variable("y");
+	static final Variable u = new Variable("u");
+	static final Variable v = new Variable("v");
+
+	static boolean solve(QBF pcnf) {
+		return new QCDCL().solve(pcnf);
+	}
+
+	// brute force evaluation - free variables are outermost existentials
+	static boolean isTrue(QBF pcnf) {
+		List<String> variables = new ArrayList<>();
+		List<Boolean> universal = new ArrayList<>();
+
+		for (String var : pcnf.getFreeVariables()) {
+			variables.add(var);
+			universal.add(false);
+		}
+
+		QBF matrix = pcnf;
+		for (; matrix.isQuantifier(); matrix = ((Quantifier) matrix).subformula)
+			for (String var : ((Quantifier) matrix).variables) {
+				variables.add(var);
+				universal.add(matrix.isForAll());
+			}
+
+		return isTrue(
+			new Evaluator(matrix),
+			variables,
+			universal,
+			new HashMap<>());
+	}
+
+	static boolean isTrue(
+		Evaluator matrix,
+		List<String> variables,
+		List<Boolean> universal,
+		Map<String, Boolean> assignment
+	) {
+		int i = assignment.size();
+		if (i == variables.size())
+			return matrix.evaluate(assignment);
+
+		boolean result = universal.get(i);
+		for (boolean value : new boolean[] {false, true}) {
+			assignment.put(variables.get(i), value);
+			boolean r = isTrue(matrix, variables, universal, assignment);
+			assignment.remove(variables.get(i));
+			if (r != result)
+				return r;
+		}
+		return result;
+	}
+
+	static QBF random(Random rnd) {
+		int n = 3 + rnd.nextInt(10);
+		List<QBF> variables = new ArrayList<>();
+		for (int i = 1; i <= n; i++)
+			variables.add(new Variable(Integer.toString(i)));
+
+		List<QBF> clauses = new ArrayList<>();
+		for (int i = 1 + rnd.nextInt(4 * n); i > 0; i--) {
+			QBF[] lits = new QBF[1 + rnd.nextInt(4)];
+			for (int j = 0; j < lits.length; j++) {
+				QBF var = variables.get(rnd.nextInt(n));
+				lits[j] = rnd.nextBoolean() ? var : new Not(var);
+			}
+			clauses.add(lits.length == 1 ? lits[0] : new Or(lits));
+		}
+
+		QBF formula = clauses.size() == 1 ? clauses.get(0) : new And(clauses);
+
+		// random blocks over a prefix of the variables - the rest is free
+		boolean forall = rnd.nextBoolean();
+		for (int i = n - rnd.nextInt(3); i > 0; ) {
+			Set<String> block = new HashSet<>();
+			for (int j = 1 + rnd.nextInt(3); j > 0 && i > 0; j--)
+				block.add(Integer.toString(i--));
+			formula = forall
+				? new ForAll(formula, block)
+				: new Exists(formula, block);
+			forall = !forall;
+		}
+
+		return formula;
+	}
+
+	@Test
+	@DisplayName("constants")
+	void test_constants() {
+		assertTrue(solve(QBF.True));
+		assertFalse(solve(QBF.False));
+		assertTrue(solve(new Exists(QBF.True, "x")));
+		assertFalse(solve(new ForAll(QBF.False, "u")));
+	}
+
+	@Test
+	@DisplayName("quantifier order")
+	void test_order() {
+		// ∀u: ∃x: (u ∨ -x) ∧ (-u ∨ x)
+		QBF matrix = new And(new Or(u, new Not(x)), new Or(new Not(u), x));
+
+		assertTrue(solve(new ForAll(new Exists(matrix, "x"), "u")));
+		assertFalse(solve(new Exists(new ForAll(matrix, "u"), "x")));
+
+		// free x is outermost
+		assertFalse(solve(new ForAll(matrix, "u")));
+
+		// ∃x: ∀u: (x ∨ u) ∧ (-x ∨ u) - universal reduction
+		assertFalse(solve(new Exists(
+			new ForAll(new And(new Or(x, u), new Or(new Not(x), u)), "u"),
+			"x")));
+
+		// ∀u: ∃x: (x ∨ u) ∧ (-x ∨ u) - free y
+		assertFalse(solve(new ForAll(
+			new Exists(new And(new Or(x, u), new Or(new Not(x), u)), "x"),
+			"u")));
+		assertTrue(solve(new And(new Or(x, y), new Or(new Not(x), y))));
+	}
+
+	@Test
+	@DisplayName("clause and cube learning")
+	void test_learning() {
+		// ∀u,v: ∃x,y: (u ∨ v ∨ x) ∧ (-x ∨ y) ∧ (-y ∨ -u) ∧ (-y ∨ -v)
+		QBF pcnf = new ForAll(
+			new Exists(
+				new And(
+					new Or(u, v, x),
+					new Or(new Not(x), y),
+					new Or(new Not(y), new Not(u)),
+					new Or(new Not(y), new Not(v))),
+				"x", "y"),
+			"u", "v");
+
+		QCDCL solver = new QCDCL();
+		assertTrue(solver.solve(pcnf));
+		assertTrue(solver.getSolutions() > 0);
+
+		// ∃x,y: ∀u: (x ∨ y ∨ u) ∧ (x ∨ -y) ∧ (-x ∨ y ∨ u) ∧ (-x ∨ -y)
+		pcnf = new Exists(
+			new ForAll(
+				new And(
+					new Or(x, y, u),
+					new Or(x, new Not(y)),
+					new Or(new Not(x), y, u),
+					new Or(new Not(x), new Not(y))),
+				"u"),
+			"x", "y");
+
+		solver = new QCDCL();
+		assertFalse(solver.solve(pcnf));
+		assertTrue(solver.getConflicts() > 0);
+	}
+
+	@Test
+	@DisplayName("test formulas")
+	void test_formulas() {
+		for (QBF formula : new QBF[] {QBFTest.lncs, QBFTest.g14}) {
+			QBF pcnf = formula.toPCNF(new ForAllUpExistsUp(), new PG86());
+			assertEquals(isTrue(pcnf), solve(pcnf), formula.toString());
+		}
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> solve(QBFTest.g14));
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 2000; i++) {
+			QBF pcnf = random(rnd);
+			boolean expected = isTrue(pcnf);
+
+			assertEquals(expected, solve(pcnf), pcnf.toString());
+			assertEquals(
+				expected,
+				solve(new Preprocessor().apply(pcnf)),
+				"preprocessed: " + pcnf);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package at.jku.fmv.qbf.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
+import at.jku.fmv.qbf.pcnf.PG86;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+
+@DisplayName("RAReQS")
+class RAReQSTest {
+
+	static final Variable x = new Variable("x");
+	static final Variable y = new Variable("y");
+	static final Variable u = new Variable("u");
+
+	static boolean solve(QBF pnf) {
+		return new RAReQS().solve(pnf);
+	}
+
+	// random circuit over variables 1 .. n, prefixed by random blocks
+	static QBF random(Random rnd) {
+		int n = 3 + rnd.nextInt(8);
+		List<QBF> nodes = new ArrayList<>();
+		for (int i = 1; i <= n; i++)
+			nodes.add(new Variable(Integer.toString(i)));
+
+		for (int i = 2 * n + rnd.nextInt(2 * n); i > 0; i--) {
+			QBF[] inputs = new QBF[2 + rnd.nextInt(2)];
+			for (int j = 0; j < inputs.length; j++) {
+				QBF input = nodes.get(rnd.nextInt(nodes.size()));
+				inputs[j] = rnd.nextInt(3) == 0 ? new Not(input) : input;
+			}
+			nodes.add(rnd.nextBoolean() ? new And(inputs) : new Or(inputs));
+		}
+
+		QBF formula = nodes.get(nodes.size() - 1);
+
+		// random blocks over a prefix of the variables - the rest is free
+		boolean forall = rnd.nextBoolean();
+		for (int i = n - rnd.nextInt(3); i > 0; ) {
+			Set<String> block = new HashSet<>();
+			for (int j = 1 + rnd.nextInt(3); j > 0 && i > 0; j--)
+				block.add(Integer.toString(i--));
+			formula = forall
+				? new ForAll(formula, block)
+				: new Exists(formula, block);
+			forall = !forall;
+		}
+
+		return formula;
+	}
+
+	@Test
+	@DisplayName("constants")
+	void test_constants() {
+		assertTrue(solve(QBF.True));
+		assertFalse(solve(QBF.False));
+		assertTrue(solve(new Exists(QBF.True, "x")));
+		assertFalse(solve(new ForAll(QBF.False, "u")));
+	}
+
+	@Test
+	@DisplayName("quantifier order")
+	void test_order() {
+		// x ↔ u
+		QBF matrix = new Or(new And(x, u), new And(new Not(x), new Not(u)));
+
+		assertTrue(solve(new ForAll(new Exists(matrix, "x"), "u")));
+		assertFalse(solve(new Exists(new ForAll(matrix, "u"), "x")));
+
+		// free x is outermost
+		assertFalse(solve(new ForAll(matrix, "u")));
+		assertTrue(solve(matrix));
+
+		// ∃x: ∀u: ∃y: (x ∨ u) ∧ (y ↔ u) - three blocks
+		QBF equivalence = new Or(new And(y, u), new And(new Not(y), new Not(u)));
+		assertTrue(solve(new Exists(
+			new ForAll(new Exists(new And(new Or(x, u), equivalence), "y"), "u"),
+			"x")));
+		assertFalse(solve(new Exists(
+			new ForAll(
+				new Exists(new And(new Or(x, u), new Not(x), equivalence), "y"),
+				"u"),
+			"x")));
+	}
+
+	@Test
+	@DisplayName("test formulas")
+	void test_formulas() {
+		for (QBF formula : new QBF[] {QBFTest.lncs, QBFTest.g14}) {
+			QBF pnf = formula.toPNF(new ForAllUpExistsUp());
+			QBF pcnf = formula.toPCNF(new ForAllUpExistsUp(), new PG86());
+			assertEquals(new QCDCL().solve(pcnf), solve(pnf), formula.toString());
+		}
+
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> solve(QBFTest.g14));
+	}
+
+	@Test
+	@DisplayName("random formulas")
+	void test_random() {
+		Random rnd = new Random(0);
+
+		for (int i = 0; i < 1000; i++) {
+			QBF pnf = random(rnd);
+			assertEquals(QCDCLTest.isTrue(pnf), solve(pnf), pnf.toString());
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package at.jku.fmv.qbf.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBFTest;
+import at.jku.fmv.qbf.io.QCIR;
+import at.jku.fmv.qbf.pcnf.PG86;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+
+@DisplayName("FormulaEvent")
+class FormulaEventTest {
+
+	static List<RecordedEvent> record(Runnable task) throws IOException {
+		Path dump = Files.createTempFile("qbf4j", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(FormulaEvent.Parse.class);
+			recording.enable(FormulaEvent.NNF.class);
+			recording.enable(FormulaEvent.Prenex.class);
+			recording.enable(FormulaEvent.CNF.class);
+			recording.enable(FormulaEvent.Cleanse.class);
+			recording.enable(FormulaEvent.Write.class);
+			recording.start();
+			task.run();
+			recording.stop();
+			recording.dump(dump);
+			return RecordingFile.readAllEvents(dump).stream()
+				.filter(e -> e.getEventType().getName()
+					.startsWith("at.jku.fmv.qbf."))
+				.collect(Collectors.toList());
+		} finally {
+			Files.delete(dump);
+		}
+	}
+
+	static String name(RecordedEvent event) {
+		return event.getEventType().getName().substring(15);
+	}
+
+	@Test
+	@DisplayName("pipeline")
+	void test_pipeline() throws IOException {
+		Path file = Files.createTempFile("qbf4j", ".qcir");
+		QCIR.write(QBFTest.g14, file, false);
+
+		try {
+			List<RecordedEvent> events = record(() -> {
+				try {
+					QBF formula = QCIR.read(file);
+					formula.toPCNF(new ForAllUpExistsUp(), new PG86())
+						.cleanse();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+
+			assertEquals(
+				"[Parse, NNF, Prenex, CNF, Cleanse]",
+				events.stream()
+					.map(FormulaEventTest::name)
+					.collect(Collectors.toList())
+					.toString());
+
+			RecordedEvent parse = events.get(0);
+			assertEquals(file.toString(), parse.getString("source"));
+			assertEquals(Files.size(file), parse.getLong("bytes"));
+			assertEquals(-1, parse.getLong("inputNodes"));
+			// parser shares variable z
+			assertEquals(7, parse.getLong("outputNodes"));
+			assertEquals(3, parse.getLong("variables"));
+			assertEquals(2, parse.getInt("alternationDepth"));
+
+			RecordedEvent nnf = events.get(1);
+			assertEquals(7, nnf.getLong("inputNodes"));
+
+			RecordedEvent prenex = events.get(2);
+			assertEquals(
+				ForAllUpExistsUp.class.getName(),
+				prenex.getClass("strategy").getName());
+			assertEquals(nnf.getLong("outputNodes"), prenex.getLong("inputNodes"));
+
+			RecordedEvent cnf = events.get(3);
+			assertEquals(
+				PG86.class.getName(),
+				cnf.getClass("encoder").getName());
+			assertEquals(prenex.getLong("outputNodes"), cnf.getLong("inputNodes"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	@DisplayName("disabled")
+	void test_disabled() throws IOException {
+		Path dump = Files.createTempFile("qbf4j", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.disable(FormulaEvent.NNF.class);
+			recording.start();
+			QBFTest.g14.toNNF();
+			recording.stop();
+			recording.dump(dump);
+			assertTrue(RecordingFile.readAllEvents(dump).stream()
+				.noneMatch(e -> e.getEventType().getName()
+					.startsWith("at.jku.fmv.qbf.")));
+		} finally {
+			Files.delete(dump);
+		}
+	}
+}
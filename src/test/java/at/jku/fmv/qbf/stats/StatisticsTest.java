@@ -0,0 +1,126 @@
+package at.jku.fmv.qbf.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.QBF;
+import at.jku.fmv.qbf.QBF.*;
+import at.jku.fmv.qbf.QBFTest;
+import at.jku.fmv.qbf.pnf.ForAllUpExistsUp;
+import at.jku.fmv.qbf.stats.Statistics.Metrics;
+import at.jku.fmv.qbf.stats.Statistics.Stage;
+
+@DisplayName("Statistics")
+class StatisticsTest {
+
+	@Test
+	@DisplayName("metrics")
+	void test_metrics() {
+		Metrics lncs = Metrics.of(QBFTest.lncs);
+		assertEquals(14, lncs.nodes);
+		assertEquals(12, lncs.variables);
+		assertEquals(5, lncs.alternationDepth);
+
+		// variable z isn't shared
+		Metrics g14 = Metrics.of(QBFTest.g14);
+		assertEquals(8, g14.nodes);
+		assertEquals(3, g14.variables);
+		assertEquals(2, g14.alternationDepth);
+
+		// shared subformulas
+		Variable x = new Variable("x");
+		Metrics shared = Metrics.of(new And(x, new Not(x), x));
+		assertEquals(3, shared.nodes);
+		assertEquals(1, shared.variables);
+		assertEquals(0, shared.alternationDepth);
+
+		// negated quantifiers
+		assertEquals(
+			2,
+			Metrics.of(new ForAll(new Not(new ForAll(x, "y")), "z"))
+				.alternationDepth);
+		assertEquals(
+			1,
+			Metrics.of(new ForAll(new Not(new Exists(x, "y")), "z"))
+				.alternationDepth);
+
+		// combined
+		Metrics combined = Metrics.of(Arrays.asList(QBFTest.g14, x));
+		assertEquals(9, combined.nodes);
+		assertEquals(2, combined.alternationDepth);
+	}
+
+	@Test
+	@DisplayName("measure")
+	void test_measure() {
+		Statistics stats = new Statistics();
+
+		QBF nnf = stats.measure("nnf", QBFTest.lncs, QBFTest.lncs::toNNF);
+		QBF pnf = stats.measure(
+			"pnf",
+			nnf,
+			() -> nnf.toPNF(new ForAllUpExistsUp()));
+		List<QBF> qpaths = stats.measure("qpaths", nnf, nnf::getQPaths);
+		Object nothing = stats.measure("nothing", pnf, () -> null);
+
+		assertEquals(QBFTest.lncsNNF, nnf);
+		assertEquals(3, qpaths.size());
+		assertNull(nothing);
+
+		List<Stage> stages = stats.getStages();
+		assertEquals(4, stages.size());
+
+		Stage first = stages.get(0);
+		assertEquals("nnf", first.name);
+		assertTrue(first.wallTime >= 0);
+		assertEquals(14, first.input.nodes);
+		assertEquals(5, first.output.alternationDepth);
+
+		assertEquals(5, stages.get(1).output.alternationDepth);
+		assertNotNull(stages.get(2).output);
+		assertNull(stages.get(3).output);
+
+		assertThrows(
+			UnsupportedOperationException.class,
+			() -> stages.clear());
+	}
+
+	@Test
+	@DisplayName("exceptions")
+	void test_exceptions() {
+		Statistics stats = new Statistics();
+
+		assertThrows(
+			IOException.class,
+			() -> stats.measure("fail", null, () -> {
+				throw new IOException();
+			}));
+
+		assertTrue(stats.getStages().isEmpty());
+	}
+
+	@Test
+	@DisplayName("toJSON")
+	void test_toJSON() {
+		Statistics stats = new Statistics();
+
+		assertEquals("{\"stages\": []}", stats.toJSON());
+
+		stats.measure("nnf", QBFTest.g14, QBFTest.g14::toNNF);
+
+		assertTrue(stats.toJSON().matches(
+			"\\{\"stages\": \\[\\{\"name\": \"nnf\", "
+			+ "\"wallTime\": \\d+, \"cpuTime\": -?\\d+, "
+			+ "\"allocatedBytes\": -?\\d+, "
+			+ "\"input\": \\{\"nodes\": 8, \"variables\": 3, "
+			+ "\"alternationDepth\": 2\\}, "
+			+ "\"output\": \\{\"nodes\": 8, \"variables\": 3, "
+			+ "\"alternationDepth\": 2\\}\\}\\]\\}"));
+	}
+}
@@ -0,0 +1,219 @@
+package main;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import at.jku.fmv.qbf.io.QCIRTest;
+import at.jku.fmv.qbf.io.QDIMACSTest;
+
+@DisplayName("Server")
+class ServerTest {
+
+	static Server server;
+	static Path inputG14;
+
+	static class Client implements AutoCloseable {
+
+		final Socket socket;
+		final BufferedReader in;
+		final BufferedWriter out;
+
+		Client() throws IOException { this(server); }
+
+		Client(Server server) throws IOException {
+			socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+			in = new BufferedReader(new InputStreamReader(
+				socket.getInputStream(),
+				StandardCharsets.UTF_8));
+			out = new BufferedWriter(new OutputStreamWriter(
+				socket.getOutputStream(),
+				StandardCharsets.UTF_8));
+		}
+
+		List<String> request(String request, List<String> inline)
+			throws IOException {
+
+			out.write(request + "\n");
+			if (inline != null) {
+				for (String line : inline)
+					out.write(line + "\n");
+				out.write(Server.END + "\n");
+			}
+			out.flush();
+
+			List<String> response = new ArrayList<>();
+			String status = in.readLine();
+
+			if (!status.equals("ok")) {
+				response.add(status);
+				return response;
+			}
+
+			String line;
+			while (!(line = in.readLine()).equals(Server.END))
+				response.add(line);
+
+			return response;
+		}
+
+		List<String> request(String request) throws IOException {
+			return request(request, null);
+		}
+
+		@Override
+		public void close() throws IOException { socket.close(); }
+	}
+
+	@BeforeAll
+	static void setup() throws IOException {
+		server = new Server(0, 2, 2);
+
+		inputG14 = Files.createTempFile("g14", ".qcir");
+		inputG14.toFile().deleteOnExit();
+
+		Files.write(
+			inputG14,
+			QCIRTest.g14.stream()
+				.collect(Collectors.joining("\n"))
+				.getBytes());
+	}
+
+	@AfterAll
+	static void cleanup() {
+		server.close();
+	}
+
+	@Test
+	@DisplayName("file")
+	void test_file() throws IOException {
+		try (Client client = new Client()) {
+			assertEquals(
+				qcir2pnfTest.g14PNF,
+				client.request(inputG14.toString()));
+
+			assertEquals(
+				qcir2pnfTest.g14PCNFCleansed,
+				client.request("-c --cleanse " + inputG14));
+
+			assertEquals(
+				QDIMACSTest.g14QDIMACS,
+				client.request("--qdimacs " + inputG14));
+		}
+	}
+
+	@Test
+	@DisplayName("inline")
+	void test_inline() throws IOException {
+		try (Client client = new Client()) {
+			assertEquals(
+				qcir2pnfTest.lncsADED,
+				client.request(
+					"--strategy=at.jku.fmv.qbf.pnf.ForAllDownExistsDown -",
+					QCIRTest.lncs));
+
+			assertEquals(
+				qcir2pnfTest.g14PCNF,
+				client.request("-c -", QCIRTest.g14));
+		}
+	}
+
+	@Test
+	@DisplayName("errors")
+	void test_errors() throws IOException {
+		try (Client client = new Client()) {
+			assertEquals(
+				"error: nonexisting.qcir file not found",
+				client.request("nonexisting.qcir").get(0));
+
+			// other I/O errors are not reported as missing files
+			String directory =
+				client.request(inputG14.getParent().toString()).get(0);
+			assertTrue(directory.startsWith("error: "));
+			assertFalse(directory.endsWith("file not found"));
+
+			assertEquals(
+				"error: non.existing.Strategy class not found",
+				client.request("-s non.existing.Strategy -", QCIRTest.g14)
+					.get(0));
+
+			assertEquals(
+				"error: unknown argument --illegal",
+				client.request("--illegal " + inputG14).get(0));
+
+			assertEquals(
+				"error: batch mode not supported",
+				client.request("-b " + inputG14).get(0));
+
+			assertTrue(
+				client.request("-", QCIRTest.g14.subList(0, 2))
+					.get(0)
+					.startsWith("error: "));
+
+			// connection still usable
+			assertEquals(
+				qcir2pnfTest.g14PNF,
+				client.request(inputG14.toString()));
+		}
+	}
+
+	@Test
+	@DisplayName("idle clients")
+	void test_timeout() throws IOException {
+		assertThrows(IllegalArgumentException.class, () -> new Server(0, 1, 1, 0));
+
+		try (
+			Server single = new Server(0, 1, 1, 100);
+			Client idle = new Client(single);
+			Client client = new Client(single)
+		) {
+			// served once the idle connection timed out
+			assertEquals(
+				qcir2pnfTest.g14PNF,
+				client.request(inputG14.toString()));
+			assertNull(idle.in.readLine());
+		}
+	}
+
+	@Test
+	@DisplayName("concurrent clients")
+	void test_concurrent() throws Exception {
+		List<Thread> clients = new ArrayList<>();
+		List<Throwable> errors = new ArrayList<>();
+
+		for (int i = 0; i < 8; i++)
+			clients.add(new Thread(() -> {
+				try (Client client = new Client()) {
+					for (int j = 0; j < 10; j++)
+						assertEquals(
+							qcir2pnfTest.g14PNF,
+							client.request("-", QCIRTest.g14));
+				} catch (Throwable e) {
+					synchronized (errors) { errors.add(e); }
+				}
+			}));
+
+		clients.forEach(Thread::start);
+		for (Thread t : clients)
+			t.join();
+
+		assertEquals(new ArrayList<>(), errors);
+	}
+}
@@ -8,9 +8,12 @@ import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.lang.reflect.Modifier;
 import java.security.Permission;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -22,6 +25,8 @@ import org.junit.jupiter.api.Test;
 
 import at.jku.fmv.qbf.io.QCIRTest;
 import at.jku.fmv.qbf.io.QDIMACSTest;
+import at.jku.fmv.qbf.pcnf.CNFEncoder;
+import at.jku.fmv.qbf.pnf.PrenexingStrategy;
 import main.qcir2pnf;
 
 @DisplayName("qcir2pnf")
@@ -97,7 +102,50 @@ class qcir2pnfTest {
 		, "4 = or(1, 5)"
 	});
 
-	// ∀z: ∃x1,x2:
+	// ∀z: (z ∧ ∃x1, x2: ((x1 ∧ x2 ∧ z) ∨ (x1 ∧ x2 ∧ -z)))
+	public static List<String> redundant = Arrays.asList(new String[] {
+		"#QCIR-G14"
+		, "forall(z)"
+		, "output(4)"
+		, "5 = and(x1, x2, z)"
+		, "6 = and(x1, x2, -z)"
+		, "7 = or(5, 6)"
+		, "8 = exists(x1, x2; 7)"
+		, "4 = and(z, 8)"
+	});
+
+	// ∀z: ∃x1, x2: (z ∧ x1 ∧ x2)
+	public static List<String> redundantSwept = Arrays.asList(new String[] {
+		"#QCIR-G14"
+		, "forall(z)"
+		, "exists(x1, x2)"
+		, "output(4)"
+		, "4 = and(z, x1, x2)"
+	});
+
+	// ∀z: (z ∧ ∃x1, x2: ((x1 ∧ x2 ∧ z) ∨ (x2 ∧ -z ∧ x1) ∨ -x1) ∧ -(z ∧ x1))
+	public static List<String> rewritable = Arrays.asList(new String[] {
+		"#QCIR-G14"
+		, "forall(z)"
+		, "output(4)"
+		, "5 = and(x1, x2, z)"
+		, "6 = and(x2, -z, x1)"
+		, "7 = or(5, 6, -x1)"
+		, "8 = exists(x1, x2; 7)"
+		, "9 = and(z, x1)"
+		, "4 = and(z, 8, -9)"
+	});
+
+	// ∀z: ∃x1, x2: (z ∧ -x1)
+	public static List<String> rewritten = Arrays.asList(new String[] {
+		"#QCIR-G14"
+		, "forall(z)"
+		, "exists(x1, x2)"
+		, "output(4)"
+		, "4 = and(z, -x1)"
+	});
+
+	// ∀z: ∃_pg0,_pg1,x1,x2:
 	//   (pg0
 	//   ∧ (-_pg0 ∨ z ∨ _pg1)
 	//   ∧ (-_pg1 ∨ x1)
@@ -106,7 +154,7 @@ class qcir2pnfTest {
 	public static List<String> g14PCNF = Arrays.asList(new String[] {
 		"#QCIR-G14"
 		, "forall(z)"
-		, "exists(x1, x2)"
+		, "exists(_pg0, _pg1, x1, x2)"
 		, "output(6)"
 		, "7 = or(-_pg0, z, _pg1)"
 		, "8 = or(-_pg1, x1)"
@@ -115,7 +163,7 @@ class qcir2pnfTest {
 		, "6 = and(_pg0, 7, 8, 9, 10)"
 	});
 
-	// ∀2: ∃3,4:
+	// ∀2: ∃1,3,4,5:
 	//   (1
 	//   ∧ (-1 ∨ 2 ∨ 3)
 	//   ∧ (-3 ∨ 4)
@@ -124,7 +172,7 @@ class qcir2pnfTest {
 	public static List<String> g14PCNFCleansed = Arrays.asList(new String[] {
 		"#QCIR-G14 10"
 		, "forall(2)"
-		, "exists(4, 5)"
+		, "exists(1, 3, 4, 5)"
 		, "output(6)"
 		, "7 = or(-1, 2, 3)"
 		, "8 = or(-3, 4)"
@@ -243,6 +291,69 @@ class qcir2pnfTest {
 		assertEquals(g14PNF, Files.readAllLines(output));
 	}
 
+	@Test
+	@DisplayName("services")
+	void test_services() throws Exception {
+		Path bin = Paths.get(
+			qcir2pnf.class.getProtectionDomain()
+				.getCodeSource()
+				.getLocation()
+				.toURI());
+
+		// every concrete implementation must be registered
+		BiFunction<String, Class<?>, List<String>> implementations =
+			(pkg, type) -> {
+				try {
+					return Files.list(bin.resolve(pkg.replace('.', '/')))
+						.map(file -> file.getFileName().toString())
+						.filter(name -> name.matches("[^$]*\\.class"))
+						.map(name -> pkg + "." + name.replace(".class", ""))
+						.filter(name -> {
+							try {
+								Class<?> clazz = Class.forName(name);
+								return type.isAssignableFrom(clazz)
+									&& !clazz.isInterface()
+									&& !Modifier.isAbstract(
+										clazz.getModifiers());
+							} catch (ClassNotFoundException e) {
+								throw new RuntimeException(e);
+							}
+						})
+						.sorted()
+						.collect(Collectors.toList());
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			};
+
+		Function<List<? extends Class<?>>, List<String>> names = classes ->
+			classes.stream()
+				.map(Class::getName)
+				.collect(Collectors.toList());
+
+		assertEquals(
+			implementations.apply(
+				"at.jku.fmv.qbf.pnf",
+				PrenexingStrategy.class),
+			names.apply(qcir2pnf.getStrategies()));
+
+		assertEquals(
+			implementations.apply(
+				"at.jku.fmv.qbf.pcnf",
+				CNFEncoder.class),
+			names.apply(qcir2pnf.getEncodings()));
+
+		// simple names
+		qcir2pnf.main(new String[] {
+			"-s",
+			"ForAllDownExistsDown",
+			"--cnf=PG86",
+			inputLNCS.toString(),
+			output.toString()
+		});
+		assertEquals(lncsADED, Files.readAllLines(output));
+	}
+
 	@Test
 	@DisplayName("cleanse")
 	void test_cleanse() throws IOException {
@@ -261,6 +372,103 @@ class qcir2pnfTest {
 		assertEquals(g14PNFCleansed, Files.readAllLines(output));
 	}
 
+	@Test
+	@DisplayName("cone")
+	void test_cone() throws IOException {
+		qcir2pnf.main(new String[] {
+			"--cone",
+			inputLNCS.toString(),
+			output.toString()
+		});
+		assertEquals(lncsAUEU, Files.readAllLines(output));
+
+		qcir2pnf.main(new String[] {
+			"--cone",
+			inputG14.toString(),
+			output.toString()
+		});
+		assertEquals(g14PNF, Files.readAllLines(output));
+	}
+
+	@Test
+	@DisplayName("miniscope")
+	void test_miniscope() throws IOException {
+		for (String opt : new String[] { "-m", "--miniscope" }) {
+			qcir2pnf.main(new String[] {
+				opt,
+				inputG14.toString(),
+				output.toString()
+			});
+			assertEquals(
+				Arrays.asList(new String[] {
+					"#QCIR-G14"
+					, "forall(z)"
+					, "output(4)"
+					, "5 = exists(x1; x1)"
+					, "6 = exists(x2; x2)"
+					, "7 = and(5, 6, z)"
+					, "4 = or(z, 7)"
+				}),
+				Files.readAllLines(output));
+		}
+
+		for (String opt : new String[] { "-c", "-p", "--sweep", "--qdimacs" }) {
+			assertThrows(
+				SecurityException.class,
+				() -> qcir2pnf.main(new String[] {
+					"-m",
+					opt,
+					inputG14.toString(),
+					output.toString()
+				}));
+			assertEquals(1, exitCode);
+		}
+	}
+
+	@Test
+	@DisplayName("rewrite")
+	void test_rewrite() throws IOException {
+		Path input = Paths.get(output.getParent().toString(), "rewritable.qcir");
+		input.toFile().deleteOnExit();
+		Files.write(input, rewritable);
+
+		for (String[] opts : new String[][] {
+				{ "-r" },
+				{ "-r", "2" },
+				{ "--rewrite" },
+				{ "--rewrite=3" }}) {
+			List<String> args = new ArrayList<>(Arrays.asList(opts));
+			args.add(input.toString());
+			args.add(output.toString());
+			qcir2pnf.main(args.toArray(new String[0]));
+			assertEquals(rewritten, Files.readAllLines(output));
+		}
+
+		assertThrows(
+			SecurityException.class,
+			() -> qcir2pnf.main(new String[] {
+				"--rewrite=1",
+				input.toString(),
+				output.toString()
+			}));
+		assertEquals(1, exitCode);
+	}
+
+	@Test
+	@DisplayName("sweep")
+	void test_sweep() throws IOException {
+		Path input = Paths.get(output.getParent().toString(), "redundant.qcir");
+		input.toFile().deleteOnExit();
+		Files.write(input, redundant);
+
+		qcir2pnf.main(new String[] {
+			"--sweep",
+			input.toString(),
+			output.toString()
+		});
+		assertEquals(redundantSwept, Files.readAllLines(output));
+	}
+
 	@Test
 	@DisplayName("cnf")
 	void test_cnf() throws IOException {
@@ -341,6 +549,35 @@ class qcir2pnfTest {
 		assertEquals(QDIMACSTest.g14QDIMACS, Files.readAllLines(output));
 	}
 
+	@Test
+	@DisplayName("stats")
+	void test_stats() throws IOException {
+		qcir2pnf.main(new String[] {
+			"--stats",
+			"-c",
+			inputG14.toString(),
+			output.toString()
+		});
+		assertEquals(g14PCNF, Files.readAllLines(output));
+
+		qcir2pnf.main(new String[] {
+			"--stats=json",
+			"--qdimacs",
+			inputG14.toString(),
+			output.toString()
+		});
+		assertEquals(QDIMACSTest.g14QDIMACS, Files.readAllLines(output));
+
+		assertThrows(
+			SecurityException.class,
+			() -> qcir2pnf.main(new String[] {
+				"--stats=xml",
+				inputG14.toString(),
+				output.toString()
+			}));
+		assertEquals(1, exitCode);
+	}
+
 	@Test
 	@DisplayName("combinations")
 	void test_combinations() throws IOException {
@@ -388,6 +625,79 @@ class qcir2pnfTest {
 		}
 	}
 
+	@Test
+	@DisplayName("batch")
+	void test_batch() throws IOException {
+		Path inDir = Files.createTempDirectory("qcir2pnf");
+		inDir.toFile().deleteOnExit();
+
+		Path outDir = Files.createTempDirectory("qcir2pnf");
+		outDir.toFile().deleteOnExit();
+
+		for (Path input : Arrays.asList(inputLNCS, inputG14)) {
+			Path copy = inDir.resolve(input.getFileName());
+			copy.toFile().deleteOnExit();
+			Files.copy(input, copy);
+		}
+
+		// directory
+		qcir2pnf.main(new String[] {
+			"--batch",
+			inDir.toString(),
+			outDir.toString()
+		});
+		assertEquals(
+			lncsAUEU,
+			Files.readAllLines(outDir.resolve(inputLNCS.getFileName())));
+		assertEquals(
+			g14PNF,
+			Files.readAllLines(outDir.resolve(inputG14.getFileName())));
+
+		// file list
+		Path list = Files.createTempFile("qcir2pnf", ".txt");
+		list.toFile().deleteOnExit();
+		Files.write(list, Arrays.asList(inputG14.toString(), ""));
+
+		qcir2pnf.main(new String[] {
+			"-b",
+			"2",
+			"--qdimacs",
+			list.toString(),
+			outDir.toString()
+		});
+		assertEquals(
+			QDIMACSTest.g14QDIMACS,
+			Files.readAllLines(outDir.resolve("g14.qdimacs")));
+
+		// failing file
+		Files.write(list, Arrays.asList(
+			inputG14.toString(),
+			"nonexisting.qcir"));
+
+		assertThrows(
+			SecurityException.class,
+			() -> qcir2pnf.main(new String[] {
+				"--batch=1",
+				"--cleanse",
+				list.toString(),
+				outDir.toString()
+			}));
+		assertEquals(1, exitCode);
+		assertEquals(
+			g14PNFCleansed,
+			Files.readAllLines(outDir.resolve(inputG14.getFileName())));
+
+		// illegal number of threads
+		assertThrows(
+			SecurityException.class,
+			() -> qcir2pnf.main(new String[] {
+				"--batch=0",
+				list.toString(),
+				outDir.toString()
+			}));
+		assertEquals(1, exitCode);
+	}
+
 	@Test
 	@DisplayName("illegal arguments")
 	void test_illegalArguments() throws IOException {